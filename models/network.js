@@ -349,6 +349,15 @@ const NetworkEquipmentSchema = new mongoose.Schema({
   // Additional configuration/notes (stores JSON for complex equipment like backhaul)
   notes: String,  // JSON string for complex configurations (backhaul licensing, fiber details, etc.)
   
+  // Heading/pitch/GPS trace recorded by the mobile app while aiming, for auditing installs
+  aimingSession: {
+    format: String,     // e.g. 'aim1+deflate'
+    data: String,       // Base64 of the encoded session
+    samples: Number,
+    startedAt: Date,
+    endedAt: Date
+  },
+  
   // Metadata
   createdBy: String,
   createdById: String,
@@ -789,12 +789,13 @@ router.delete('/cpe/:id', async (req, res) => {
 
 router.get('/equipment', async (req, res) => {
   try {
-    const { locationType, status, type } = req.query;
+    const { locationType, status, type, siteId } = req.query;
     const query = applyPlanVisibilityFilter({ tenantId: req.tenantId }, req);
     
     if (locationType) query.locationType = locationType;
     if (status) query.status = status;
     if (type) query.type = type;
+    if (siteId) query.siteId = siteId;
     
     // Populate siteId if it exists and is a valid ObjectId, otherwise handle gracefully
     let equipment;
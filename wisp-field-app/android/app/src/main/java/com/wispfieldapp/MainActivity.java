@@ -26,27 +26,41 @@ import androidx.core.content.ContextCompat;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.wispfieldapp.api.ApiClient;
 import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.geofence.GeofenceMonitor;
+import com.wispfieldapp.models.MobileTask;
 import com.wispfieldapp.models.TenantResponse;
+import com.wispfieldapp.permissions.CompiledPermissions;
+import com.wispfieldapp.permissions.PermissionRepository;
+import com.wispfieldapp.permissions.PermissionSnapshot;
+import com.wispfieldapp.permissions.Permissions;
+import com.wispfieldapp.permissions.TaskType;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.topology.TopologyStore;
+import com.wispfieldapp.trace.Span;
+import com.wispfieldapp.trace.StartupTrace;
 import com.wispfieldapp.activities.InventoryCheckinActivity;
 import com.wispfieldapp.activities.InventoryCheckoutActivity;
 import com.wispfieldapp.activities.InstallationActivity;
 import com.wispfieldapp.activities.AimingActivity;
 import com.wispfieldapp.activities.TroubleTicketsActivity;
 import com.wispfieldapp.activities.FieldReportingActivity;
+import com.wispfieldapp.activities.NetworkMetricsActivity;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -54,19 +68,27 @@ public class MainActivity extends AppCompatActivity {
     private static final String PREFS_NAME = "WISPPrefs";
     private static final String KEY_TENANT_ID = "tenant_id";
     private static final String KEY_ROLE = "role";
-    private static final String BASE_URL = "https://hss.wisptools.io/";
+    private static final String KEY_TENANTS = "tenants";
 
     private FirebaseAuth mAuth;
-    private FirebaseFirestore db;
     private WispApi api;
+    private PermissionRepository permissions;
+    private LinearLayout dashboardTasks;
+    private LinearLayout taskContent;
+    private final Map<String, CardView> taskCards = new HashMap<>();
+    private final Map<String, MobileTask> shownTasks = new HashMap<>();
+    // Set while the dashboard is showing; sites are watched only while it is also started
+    private String dashboardTenantId;
+    private LinearLayout arrivalLayout;
+    private boolean started;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         Log.d(TAG, "onCreate: Initializing App");
+        Span onCreateSpan = StartupTrace.child("mainActivity.onCreate");
 
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
 
         // Initialize Firebase
         if (mAuth.getApp() != null) {
@@ -74,24 +96,6 @@ public class MainActivity extends AppCompatActivity {
         } else {
             Log.e(TAG, "Firebase NOT initialized!");
         }
-        
-        // Initialize API
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> {
-            Log.d(TAG, "HTTP: " + message);
-        });
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        
-        OkHttpClient client = new OkHttpClient.Builder()
-            .addInterceptor(logging)
-            .build();
-        
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(BASE_URL)
-            .client(client)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build();
-        
-        api = retrofit.create(WispApi.class);
 
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         String savedTenantId = prefs.getString(KEY_TENANT_ID, null);
@@ -100,14 +104,49 @@ public class MainActivity extends AppCompatActivity {
         if (currentUser != null && savedTenantId != null) {
             Log.d(TAG, "User already logged in, showing dashboard");
             String role = prefs.getString(KEY_ROLE, "viewer");
-            showDashboard(currentUser.getEmail(), savedTenantId, role);
+            showDashboard(currentUser.getEmail(), savedTenantId, role, null);
         } else {
             Log.d(TAG, "No user logged in, showing login screen");
             showLoginScreen();
+            markInteractiveAfterDraw("login");
+        }
+        StartupTrace.markFirstFrame(getWindow().getDecorView());
+        onCreateSpan.end();
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        started = true;
+        if (dashboardTenantId != null) watchSites();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        started = false;
+        stopWatchingSites();
+    }
+
+    /**
+     * The API client is built on a background thread at startup; only touch it once a call is made
+     */
+    private WispApi api() {
+        if (api == null) {
+            api = ApiClient.api(this);
         }
+        return api;
+    }
+
+    private void markInteractiveAfterDraw(String source) {
+        getWindow().getDecorView().post(() -> StartupTrace.markInteractive(this, source));
     }
 
     private void showLoginScreen() {
+        dashboardTenantId = null;
+        arrivalLayout = null;
+        stopWatchingSites();
+
         FrameLayout container = new FrameLayout(this);
         container.setLayoutParams(new FrameLayout.LayoutParams(
             FrameLayout.LayoutParams.MATCH_PARENT,
@@ -268,11 +307,11 @@ public class MainActivity extends AppCompatActivity {
     private void fetchUserTenants(String userId, String authHeader) {
         Log.d(TAG, "=== fetchUserTenants ===");
         Log.d(TAG, "User ID: " + userId);
-        Log.d(TAG, "Base URL: " + BASE_URL);
-        Log.d(TAG, "Full URL will be: " + BASE_URL + "api/user-tenants/" + userId);
+        Log.d(TAG, "Base URL: " + ApiClient.BASE_URL);
+        Log.d(TAG, "Full URL will be: " + ApiClient.BASE_URL + "api/user-tenants/" + userId);
         Log.d(TAG, "Auth Header: " + (authHeader != null ? authHeader.substring(0, Math.min(20, authHeader.length())) + "..." : "NULL"));
         
-        api.getUserTenants(authHeader, userId).enqueue(new Callback<List<TenantResponse>>() {
+        api().getUserTenants(authHeader, userId).enqueue(new Callback<List<TenantResponse>>() {
             @Override
             public void onResponse(Call<List<TenantResponse>> call, Response<List<TenantResponse>> response) {
                 Log.d(TAG, "User tenants endpoint response code: " + response.code());
@@ -283,22 +322,20 @@ public class MainActivity extends AppCompatActivity {
                     Log.d(TAG, "Found " + tenants.size() + " tenant(s)");
                     
                     if (tenants.size() > 0) {
-                        TenantResponse tenant = tenants.get(0);
-                        String tenantId = tenant.tenantId != null ? tenant.tenantId : tenant.id;
-                        String role = tenant.userRole != null ? tenant.userRole : "viewer";
-                        String tenantName = tenant.displayName != null ? tenant.displayName : (tenant.name != null ? tenant.name : "Organization");
+                        saveTenants(tenants);
+                        String lastTenantId = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_TENANT_ID, null);
+                        TenantResponse tenant = pickTenant(tenants, lastTenantId);
+                        String tenantId = tenantIdOf(tenant);
+                        String role = roleOf(tenant);
+                        String tenantName = tenantNameOf(tenant);
                         
                         Log.d(TAG, "Using tenant: " + tenantId + " (" + tenantName + "), Role: " + role);
                         
-                        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-                        prefs.edit()
-                            .putString(KEY_TENANT_ID, tenantId)
-                            .putString(KEY_ROLE, role)
-                            .apply();
+                        saveTenant(tenantId, role);
                         
                         FirebaseUser user = mAuth.getCurrentUser();
                         if (user != null) {
-                            showDashboard(user.getEmail(), tenantId, role);
+                            showDashboard(user.getEmail(), tenantId, role, authHeader);
                         } else {
                             Log.e(TAG, "Firebase user is null after successful tenant fetch");
                             Toast.makeText(MainActivity.this, "Session error", Toast.LENGTH_SHORT).show();
@@ -367,7 +404,88 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private void showDashboard(String email, String tenantId, String role) {
+    private static String tenantIdOf(TenantResponse tenant) {
+        return tenant.tenantId != null ? tenant.tenantId : tenant.id;
+    }
+
+    private static String roleOf(TenantResponse tenant) {
+        return tenant.userRole != null ? tenant.userRole : "viewer";
+    }
+
+    private void saveTenant(String tenantId, String role) {
+        getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+            .putString(KEY_TENANT_ID, tenantId)
+            .putString(KEY_ROLE, role)
+            .apply();
+    }
+
+    private void saveTenants(List<TenantResponse> tenants) {
+        getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+            .putString(KEY_TENANTS, new Gson().toJson(tenants))
+            .apply();
+    }
+
+    private List<TenantResponse> savedTenants() {
+        String json = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_TENANTS, null);
+        if (json == null) return new ArrayList<>();
+        try {
+            List<TenantResponse> tenants = new Gson().fromJson(json, new TypeToken<List<TenantResponse>>() {}.getType());
+            return tenants != null ? tenants : new ArrayList<>();
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Discarding unreadable tenant list", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @return The tenant with the given id if the user still belongs to it, otherwise the first one
+     */
+    private static TenantResponse pickTenant(List<TenantResponse> tenants, @Nullable String tenantId) {
+        for (TenantResponse tenant : tenants) {
+            if (tenantIdOf(tenant).equals(tenantId)) return tenant;
+        }
+        return tenants.get(0);
+    }
+
+    private static String tenantNameOf(TenantResponse tenant) {
+        return tenant.displayName != null ? tenant.displayName : (tenant.name != null ? tenant.name : "Organization");
+    }
+
+    /**
+     * Switching only swaps the active cache partition; the dashboard renders from it
+     * straight away and revalidates in the background
+     */
+    private void showTenantSwitcher(String email, String tenantId) {
+        List<TenantResponse> tenants = savedTenants();
+        String[] names = new String[tenants.size()];
+        int checked = -1;
+        for (int i = 0; i < tenants.size(); i++) {
+            names[i] = tenantNameOf(tenants.get(i));
+            if (tenantIdOf(tenants.get(i)).equals(tenantId)) checked = i;
+        }
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+            .setTitle("Switch Organization")
+            .setSingleChoiceItems(names, checked, (dialog, which) -> {
+                dialog.dismiss();
+                TenantResponse tenant = tenants.get(which);
+                String newTenantId = tenantIdOf(tenant);
+                if (newTenantId.equals(tenantId)) return;
+                Log.d(TAG, "Switching to tenant " + newTenantId);
+                String role = roleOf(tenant);
+                saveTenant(newTenantId, role);
+                showDashboard(email, newTenantId, role, null);
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    /**
+     * @param authHeader Token from a login that just happened, or null on a warm start
+     *                   (the dashboard then renders from cache and refreshes in the background)
+     */
+    private void showDashboard(String email, String tenantId, String role, String authHeader) {
+        TenantCache.get(this).switchTo(tenantId);
+
         FrameLayout container = new FrameLayout(this);
         container.setLayoutParams(new FrameLayout.LayoutParams(
             FrameLayout.LayoutParams.MATCH_PARENT,
@@ -410,6 +528,22 @@ public class MainActivity extends AppCompatActivity {
 
         header.addView(titleLayout);
 
+        if (savedTenants().size() > 1) {
+            Button switchBtn = new Button(this);
+            switchBtn.setText("Switch");
+            switchBtn.setBackgroundColor(Color.TRANSPARENT);
+            switchBtn.setTextColor(Color.WHITE);
+            switchBtn.setOnClickListener(v -> showTenantSwitcher(email, tenantId));
+            LinearLayout.LayoutParams switchParams = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.WRAP_CONTENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT
+            );
+            switchParams.gravity = Gravity.END | Gravity.CENTER_VERTICAL;
+            switchParams.weight = 1;
+            switchBtn.setLayoutParams(switchParams);
+            header.addView(switchBtn);
+        }
+
         Button logoutBtn = new Button(this);
         logoutBtn.setText("Logout");
         logoutBtn.setBackgroundColor(Color.TRANSPARENT);
@@ -417,6 +551,10 @@ public class MainActivity extends AppCompatActivity {
         logoutBtn.setOnClickListener(v -> {
             mAuth.signOut();
             getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+            permissions().clear();
+            TenantCache.get(this).clearAll();
+            TopologyStore.get(this).clear();
+            GeofenceMonitor.get(this).stop();
             showLoginScreen();
         });
         LinearLayout.LayoutParams logoutParams = new LinearLayout.LayoutParams(
@@ -430,130 +568,261 @@ public class MainActivity extends AppCompatActivity {
 
         layout.addView(header);
 
-        // Fetch and display available tasks
-        fetchAndDisplayTasks(layout, tenantId, email);
+        if (BuildConfig.DEBUG) {
+            Button metricsBtn = new Button(this);
+            metricsBtn.setText("Network Metrics");
+            metricsBtn.setTextColor(Color.GRAY);
+            metricsBtn.setBackgroundColor(Color.TRANSPARENT);
+            metricsBtn.setOnClickListener(v -> startActivity(new Intent(this, NetworkMetricsActivity.class)));
+            layout.addView(metricsBtn);
+        }
+
+        // Filled in while the tech is at one of the tenant's sites
+        LinearLayout arrivalLayout = new LinearLayout(this);
+        arrivalLayout.setOrientation(LinearLayout.VERTICAL);
+        layout.addView(arrivalLayout);
+        this.arrivalLayout = arrivalLayout;
+        dashboardTenantId = tenantId;
+        if (started) watchSites();
+
+        // The stored snapshot renders immediately; revalidation only patches the cards if access changed
+        LinearLayout tasksLayout = new LinearLayout(this);
+        tasksLayout.setOrientation(LinearLayout.VERTICAL);
+        layout.addView(tasksLayout, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+        dashboardTasks = tasksLayout;
+        taskContent = null;
+        taskCards.clear();
+        shownTasks.clear();
+        FirebaseUser user = mAuth.getCurrentUser();
+        PermissionSnapshot snapshot = user != null ? permissions().cached(user.getUid(), tenantId) : null;
+        if (snapshot != null) {
+            renderTasks(tasksLayout, snapshot, tenantId);
+            markInteractiveAfterDraw("cachedTasks");
+        }
 
         container.addView(layout);
         setContentView(container);
+
+        if (authHeader != null) {
+            revalidatePermissions(tasksLayout, tenantId, role, authHeader);
+        } else {
+            refreshDashboard(tasksLayout, tenantId, role);
+        }
     }
 
-    private void fetchAndDisplayTasks(LinearLayout parent, String tenantId, String email) {
+    /**
+     * Warm start: one token fetch, then the tenant check and the permission revalidation in parallel
+     */
+    private void refreshDashboard(LinearLayout tasksLayout, String tenantId, String role) {
         FirebaseUser user = mAuth.getCurrentUser();
         if (user == null) return;
-        
-        user.getIdToken(true).addOnCompleteListener(task -> {
+
+        Span tokenSpan = StartupTrace.child("auth.getIdToken");
+        // The cached token is fine here; Firebase refreshes it itself when it is close to expiry
+        user.getIdToken(false).addOnCompleteListener(task -> {
+            tokenSpan.end();
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
-                
-                api.getMobileTasks(authHeader, tenantId).enqueue(new Callback<Map<String, Object>>() {
-                    @Override
-                    public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            Map<String, Object> data = response.body();
-                            Object tasksObj = data.get("tasks");
-                            if (tasksObj instanceof List) {
-                                @SuppressWarnings("unchecked")
-                                List<Map<String, Object>> tasks = (List<Map<String, Object>>) tasksObj;
-                                displayTasks(parent, tasks, tenantId, email);
-                            } else {
-                                displayDefaultTasks(parent, tenantId, email);
-                            }
-                        } else {
-                            displayDefaultTasks(parent, tenantId, email);
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<Map<String, Object>> call, Throwable t) {
-                        Log.e(TAG, "Failed to fetch mobile tasks", t);
-                        displayDefaultTasks(parent, tenantId, email);
-                    }
-                });
+                revalidatePermissions(tasksLayout, tenantId, role, authHeader);
+                verifyTenant(user, tenantId, role, authHeader);
             } else {
-                displayDefaultTasks(parent, tenantId, email);
+                Log.e(TAG, "Failed to get ID Token", task.getException());
+                showTasksUnavailable(tasksLayout, tenantId, role, "Authentication failed");
             }
         });
     }
 
-    private void displayTasks(LinearLayout parent, List<Map<String, Object>> tasks, String tenantId, String email) {
-        ScrollView scrollView = new ScrollView(this);
-        LinearLayout content = new LinearLayout(this);
-        content.setOrientation(LinearLayout.VERTICAL);
-
-        TextView sectionTitle = new TextView(this);
-        sectionTitle.setText("Available Tasks");
-        sectionTitle.setTextColor(Color.WHITE);
-        sectionTitle.setTextSize(18);
-        sectionTitle.setTypeface(null, Typeface.BOLD);
-        sectionTitle.setPadding(0, 0, 0, 20);
-        content.addView(sectionTitle);
-
-        for (Map<String, Object> taskData : tasks) {
-            String taskId = (String) taskData.get("id");
-            String name = (String) taskData.get("name");
-            String description = (String) taskData.get("description");
-            String icon = (String) taskData.get("icon");
-            
-            if (name == null) continue;
-            
-            CardView card = createTaskCard(name, description, icon, v -> {
-                switch (taskId) {
-                    case "inventory-checkin":
-                        openInventoryCheckin(tenantId);
-                        break;
-                    case "inventory-checkout":
-                        openInventoryCheckout(tenantId);
-                        break;
-                    case "receive-trouble-tickets":
-                    case "resolve-trouble-tickets":
-                    case "log-trouble-tickets":
-                        openTroubleTickets(tenantId);
-                        break;
-                    case "deploy-network":
-                    case "deploy-tower":
-                        openInstallation(tenantId);
-                        break;
-                    case "aiming-cpe":
-                        openAiming(tenantId);
-                        break;
-                    default:
-                        Toast.makeText(MainActivity.this, "Feature: " + name, Toast.LENGTH_SHORT).show();
+    /**
+     * Re-checks the cached tenant; switches the dashboard if the user lost access to it
+     */
+    private void verifyTenant(FirebaseUser user, String tenantId, String role, String authHeader) {
+        Span span = StartupTrace.child("verifyTenant");
+        span.enqueue(api().getUserTenants(authHeader, user.getUid()), new Callback<List<TenantResponse>>() {
+            @Override
+            public void onResponse(Call<List<TenantResponse>> call, Response<List<TenantResponse>> response) {
+                span.arg("code", response.code()).end();
+                if (!response.isSuccessful() || response.body() == null) {
+                    Log.w(TAG, "Tenant check failed (" + response.code() + "), keeping cached tenant");
+                    return;
                 }
-            });
-            content.addView(card);
-        }
+                List<TenantResponse> tenants = response.body();
+                if (tenants.isEmpty()) {
+                    Log.e(TAG, "No tenants found for user");
+                    Toast.makeText(MainActivity.this, "No organization found. Please contact your administrator to be added to a tenant.", Toast.LENGTH_LONG).show();
+                    mAuth.signOut();
+                    getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit().clear().apply();
+                    permissions().clear();
+                    TenantCache.get(MainActivity.this).clearAll();
+                    TopologyStore.get(MainActivity.this).clear();
+                    GeofenceMonitor.get(MainActivity.this).stop();
+                    showLoginScreen();
+                    return;
+                }
+                saveTenants(tenants);
+                // Stay on the tenant the user picked as long as they still belong to it
+                TenantResponse current = pickTenant(tenants, tenantId);
+                String currentTenantId = tenantIdOf(current);
+                String currentRole = roleOf(current);
+                if (!currentTenantId.equals(tenantId) || !currentRole.equals(role)) {
+                    Log.d(TAG, "Tenant changed to " + currentTenantId + ", role " + currentRole);
+                    saveTenant(currentTenantId, currentRole);
+                    if (!currentTenantId.equals(tenantId)) {
+                        showDashboard(user.getEmail(), currentTenantId, currentRole, authHeader);
+                    }
+                }
+            }
 
-        CardView fieldReportCard = createTaskCard("Field Reporting", "Create field reports with photos", null, v -> {
-            openFieldReporting(tenantId);
+            @Override
+            public void onFailure(Call<List<TenantResponse>> call, Throwable t) {
+                span.fail(t).end();
+                Log.w(TAG, "Tenant check failed, keeping cached tenant", t);
+            }
         });
-        content.addView(fieldReportCard);
+    }
 
-        scrollView.addView(content);
-        parent.addView(scrollView);
+    private PermissionRepository permissions() {
+        if (permissions == null) {
+            permissions = new PermissionRepository(this, api());
+        }
+        return permissions;
     }
 
-    private void displayDefaultTasks(LinearLayout parent, String tenantId, String email) {
-        ScrollView scrollView = new ScrollView(this);
-        LinearLayout content = new LinearLayout(this);
-        content.setOrientation(LinearLayout.VERTICAL);
+    private void revalidatePermissions(LinearLayout tasksLayout, String tenantId, String role, String authHeader) {
+        FirebaseUser user = mAuth.getCurrentUser();
+        if (user == null) return;
 
-        TextView sectionTitle = new TextView(this);
-        sectionTitle.setText("Field Operations");
-        sectionTitle.setTextColor(Color.WHITE);
-        sectionTitle.setTextSize(18);
-        sectionTitle.setTypeface(null, Typeface.BOLD);
-        sectionTitle.setPadding(0, 0, 0, 20);
-        content.addView(sectionTitle);
+        permissions().revalidate(StartupTrace.child("revalidatePermissions"), authHeader, user.getUid(), tenantId, new PermissionRepository.Listener() {
+            @Override
+            public void onSnapshot(PermissionSnapshot snapshot, boolean changed) {
+                if (tasksLayout != dashboardTasks) return;
+                if (changed || taskContent == null) {
+                    Log.d(TAG, "Task permissions " + (taskContent == null ? "loaded" : "changed") + ", " + snapshot.tasks.size() + " task(s)");
+                    renderTasks(tasksLayout, snapshot, tenantId);
+                }
+                markInteractiveAfterDraw("networkTasks");
+            }
 
-        content.addView(createTaskCard("Inventory Checkin", "Check in equipment from field", null, v -> openInventoryCheckin(tenantId)));
-        content.addView(createTaskCard("Inventory Checkout", "Check out equipment to vehicle", null, v -> openInventoryCheckout(tenantId)));
-        content.addView(createTaskCard("Installation", "Deploy network equipment", null, v -> openInstallation(tenantId)));
-        content.addView(createTaskCard("Aiming", "Aim and configure CPE devices", null, v -> openAiming(tenantId)));
-        content.addView(createTaskCard("Trouble Tickets", "View and manage work orders", null, v -> openTroubleTickets(tenantId)));
-        content.addView(createTaskCard("Field Reporting", "Create field reports with photos", null, v -> openFieldReporting(tenantId)));
+            @Override
+            public void onError(String message) {
+                showTasksUnavailable(tasksLayout, tenantId, role, message);
+            }
+        });
+    }
+
+    /**
+     * Builds the task list on the first call; later calls only add, remove or
+     * replace the cards whose task changed, so the rest of the list does not flicker
+     */
+    private void renderTasks(LinearLayout tasksLayout, PermissionSnapshot snapshot, String tenantId) {
+        CompiledPermissions compiled = Permissions.publish(snapshot);
+        List<MobileTask> tasks = new ArrayList<>();
+        for (MobileTask task : snapshot.tasks) {
+            if (task.id != null && task.name != null && compiled.allows(task)) tasks.add(task);
+        }
+
+        if (taskContent == null) {
+            tasksLayout.removeAllViews();
+            ScrollView scrollView = new ScrollView(this);
+            taskContent = new LinearLayout(this);
+            taskContent.setOrientation(LinearLayout.VERTICAL);
+
+            TextView sectionTitle = new TextView(this);
+            sectionTitle.setText("Available Tasks");
+            sectionTitle.setTextColor(Color.WHITE);
+            sectionTitle.setTextSize(18);
+            sectionTitle.setTypeface(null, Typeface.BOLD);
+            sectionTitle.setPadding(0, 0, 0, 20);
+            taskContent.addView(sectionTitle);
+
+            CardView fieldReportCard = createTaskCard("Field Reporting", "Create field reports with photos", null, v -> {
+                openFieldReporting(tenantId);
+            });
+            taskContent.addView(fieldReportCard);
 
-        scrollView.addView(content);
-        parent.addView(scrollView);
+            scrollView.addView(taskContent);
+            tasksLayout.addView(scrollView);
+        }
+
+        Set<String> ids = new HashSet<>();
+        for (MobileTask task : tasks) {
+            ids.add(task.id);
+        }
+        Iterator<Map.Entry<String, CardView>> it = taskCards.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, CardView> entry = it.next();
+            if (!ids.contains(entry.getKey())) {
+                taskContent.removeView(entry.getValue());
+                shownTasks.remove(entry.getKey());
+                it.remove();
+            }
+        }
+
+        // Child 0 is the section title; Field Reporting stays last
+        int index = 1;
+        for (MobileTask task : tasks) {
+            CardView card = taskCards.get(task.id);
+            if (card == null || !task.equals(shownTasks.get(task.id))) {
+                if (card != null) taskContent.removeView(card);
+                card = createTaskCard(task.name, task.description, task.icon, v -> openTask(task, tenantId));
+                taskCards.put(task.id, card);
+                shownTasks.put(task.id, task);
+                taskContent.addView(card, index);
+            } else if (taskContent.indexOfChild(card) != index) {
+                taskContent.removeView(card);
+                taskContent.addView(card, index);
+            }
+            index++;
+        }
+    }
+
+    /**
+     * No stored snapshot and no answer from the backend: offer a retry instead of
+     * listing tasks the user may not be allowed to use
+     */
+    private void showTasksUnavailable(LinearLayout tasksLayout, String tenantId, String role, String message) {
+        if (tasksLayout != dashboardTasks || taskContent != null) return;
+        tasksLayout.removeAllViews();
+
+        TextView error = new TextView(this);
+        error.setText("Couldn't load your tasks. " + message);
+        error.setTextColor(Color.GRAY);
+        error.setPadding(0, 0, 0, 20);
+        tasksLayout.addView(error);
+
+        tasksLayout.addView(createTaskCard("Retry", "Load your tasks again", null, v -> {
+            tasksLayout.removeAllViews();
+            refreshDashboard(tasksLayout, tenantId, role);
+        }));
+        tasksLayout.addView(createTaskCard("Field Reporting", "Create field reports with photos", null, v -> openFieldReporting(tenantId)));
+        markInteractiveAfterDraw("tasksUnavailable");
+    }
+
+    private void openTask(MobileTask task, String tenantId) {
+        TaskType type = TaskType.fromId(task.id);
+        if (type == null) {
+            Toast.makeText(MainActivity.this, "Feature: " + task.name, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        switch (type) {
+            case INVENTORY_CHECKIN:
+                openInventoryCheckin(tenantId);
+                break;
+            case INVENTORY_CHECKOUT:
+                openInventoryCheckout(tenantId);
+                break;
+            case RECEIVE_TROUBLE_TICKETS:
+            case RESOLVE_TROUBLE_TICKETS:
+            case LOG_TROUBLE_TICKETS:
+                openTroubleTickets(tenantId);
+                break;
+            case DEPLOY_NETWORK:
+            case DEPLOY_TOWER:
+                openInstallation(tenantId);
+                break;
+            case AIMING_CPE:
+                openAiming(tenantId);
+                break;
+        }
     }
 
     private CardView createTaskCard(String title, String desc, String icon, View.OnClickListener listener) {
@@ -644,6 +913,46 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * GPS runs for the geofence only while the dashboard is on screen
+     */
+    private void watchSites() {
+        LinearLayout layout = arrivalLayout;
+        String tenantId = dashboardTenantId;
+        GeofenceMonitor geofence = GeofenceMonitor.get(this);
+        geofence.setListener(arrival -> showArrival(layout, arrival, tenantId));
+        geofence.start(tenantId);
+    }
+
+    private void stopWatchingSites() {
+        GeofenceMonitor geofence = GeofenceMonitor.get(this);
+        geofence.setListener(null);
+        geofence.pause();
+    }
+
+    private void showArrival(LinearLayout arrivalLayout, GeofenceMonitor.Arrival arrival, String tenantId) {
+        arrivalLayout.removeAllViews();
+        if (arrival == null) return;
+        int open = arrival.openTickets.size();
+        String name = arrival.siteName != null ? arrival.siteName : "site";
+        arrivalLayout.addView(createTaskCard("📍 At " + name,
+            open == 0 ? "No open tickets here" : open + (open == 1 ? " open ticket" : " open tickets") + " at this site",
+            null, v -> openSiteTickets(tenantId, arrival)));
+    }
+
+    private void openSiteTickets(String tenantId, GeofenceMonitor.Arrival arrival) {
+        try {
+            Intent intent = new Intent(this, TroubleTicketsActivity.class);
+            intent.putExtra("tenantId", tenantId);
+            intent.putExtra("siteId", arrival.siteId);
+            intent.putExtra("siteName", arrival.siteName);
+            startActivity(intent);
+        } catch (Exception e) {
+            Log.e(TAG, "Error opening TroubleTicketsActivity", e);
+            Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
     private void openTroubleTickets(String tenantId) {
         try {
             Intent intent = new Intent(this, TroubleTicketsActivity.class);
@@ -2,12 +2,18 @@ package com.wispfieldapp;
 
 import android.app.Application;
 import com.google.firebase.FirebaseApp;
+import com.wispfieldapp.api.ApiClient;
+import com.wispfieldapp.trace.StartupTrace;
 
 public class MainApplication extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
+        StartupTrace.begin();
         // Initialize Firebase
         FirebaseApp.initializeApp(this);
+        // Build the shared HTTP client off the main thread; the first ApiClient.get()
+        // waits on the same lock if it gets there before this finishes
+        new Thread(() -> ApiClient.init(this), "ApiClient-init").start();
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Color;
+import android.hardware.GeomagneticField;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
@@ -11,9 +12,13 @@ import android.hardware.SensorManager;
 import android.location.Location;
 import android.location.LocationListener;
 import android.location.LocationManager;
+import android.os.Build;
 import android.os.Bundle;
+import android.text.InputType;
+import android.util.Base64;
 import android.util.Log;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -30,32 +35,65 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.gson.reflect.TypeToken;
 import com.wispfieldapp.R;
+import com.wispfieldapp.aiming.AimingRecorder;
+import com.wispfieldapp.aiming.AimingSessionCodec;
+import com.wispfieldapp.aiming.GeomagneticGrid;
+import com.wispfieldapp.aiming.MagnetometerCalibration;
+import com.wispfieldapp.api.ApiClient;
 import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.link.AltitudeFilter;
+import com.wispfieldapp.link.ElevationAngle;
+import com.wispfieldapp.link.LinkBudget;
+import com.wispfieldapp.link.LinkBudgetCache;
+import com.wispfieldapp.link.PathLossModel;
+import com.wispfieldapp.link.SectorRadio;
+import com.wispfieldapp.search.SearchIndex;
+import com.wispfieldapp.search.SearchIndexes;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.tenant.TenantPartition;
+import com.wispfieldapp.terrain.LineOfSight;
+import com.wispfieldapp.terrain.TerrainStore;
+import com.wispfieldapp.topology.TopologyStore;
+import com.wispfieldapp.trace.Span;
+import com.wispfieldapp.trace.Tracer;
 import com.wispfieldapp.utils.LocationUtils;
 import com.wispfieldapp.views.CompassView;
+import com.wispfieldapp.views.SearchablePickerView;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class AimingActivity extends AppCompatActivity implements SensorEventListener, LocationListener {
     private static final String TAG = "Aiming";
-    private static final String BASE_URL = "https://hss.wisptools.io/";
     private static final int REQUEST_LOCATION_PERMISSION = 200;
+    private static final int LINK_BUDGET_CACHE_SIZE = 256;
+    // One-sigma error of DEM ground plus nominal mount height as a CPE altitude
+    private static final double DEM_ALTITUDE_SIGMA_M = 8;
+    // Ellipsoid-to-sea-level offset when the fix has no MSL altitude (pre-Android 14)
+    private static final double GEOID_SIGMA_M = 30;
+    private static final double TILT_TOLERANCE_DEG = 1;
+    private static final float TILT_SMOOTHING = 0.15f;
+    private static final String EQUIPMENT_HINT = "Enter equipment ID if needed";
+    private static final GeomagneticGrid GEOMAGNETIC = new GeomagneticGrid((latitude, longitude, timeMillis) -> {
+        GeomagneticField field = new GeomagneticField((float) latitude, (float) longitude, 0f, timeMillis);
+        return new GeomagneticGrid.Cell(field.getDeclination(), field.getFieldStrength() / 1000.0); // nT to µT
+    });
     private WispApi api;
-    private Spinner towerSpinner;
+    private SearchablePickerView<Map<String, Object>> towerPicker;
     private Spinner sectorSpinner;
     private EditText equipmentIdField;
     private EditText azimuthField;
     private EditText elevationField;
+    private TextView tiltField;
     private TextView gpsLocationField;
+    private TextView pathField;
+    private TextView signalField;
     private CompassView compassView;
     private ProgressBar progressBar;
     private String tenantId;
@@ -69,9 +107,41 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
     private float[] orientationAngles = new float[3];
             private java.util.List<Map<String, Object>> towers = new java.util.ArrayList<>();
             private java.util.List<Map<String, Object>> sectors = new java.util.ArrayList<>();
+    private final SearchIndex<Map<String, Object>> towerIndex = new SearchIndex<>();
             private double currentLat = 0;
             private double currentLon = 0;
     private float currentHeading = 0;
+    private double towerLat = Double.NaN;
+    private double towerLon = Double.NaN;
+    private Map<String, Object> selectedSector;
+    private SectorRadio sectorRadio;
+    private LineOfSight.Result pathResult;
+    private PathLossModel pathLossModel = PathLossModel.TERRAIN;
+    private final LinkBudgetCache linkBudgets = new LinkBudgetCache(LINK_BUDGET_CACHE_SIZE);
+    // Budget for the current cell, sector and model; the cache is only asked when one changes
+    private LinkBudget budget;
+    private SectorRadio budgetSector;
+    private PathLossModel budgetModel;
+    private LineOfSight.Result budgetTerrain;
+    private double budgetTowerLat = Double.NaN;
+    private double budgetTowerLon = Double.NaN;
+    private long budgetCellLat;
+    private long budgetCellLon;
+    private LinkBudget shownBudget;
+    private long shownRssi;
+    private boolean signalPlaceholderShown;
+    private final AltitudeFilter altitudeFilter = new AltitudeFilter();
+    private double cpeGround = Double.NaN;
+    private double towerGround = Double.NaN;
+    private double targetUptilt = Double.NaN;
+    private String tiltDetail = "";
+    private double deviceUptilt = Double.NaN;
+    private long shownTilt = Long.MIN_VALUE;
+    private final AimingRecorder recorder = new AimingRecorder();
+    private final MagnetometerCalibration calibration = new MagnetometerCalibration();
+    private MagnetometerCalibration.Status shownCalibration;
+    private TextView compassStatusField;
+    private float declination;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -90,15 +160,7 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         Log.d(TAG, "onCreate: tenantId=" + tenantId);
 
         // Setup API
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> Log.d(TAG, "HTTP: " + message));
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(logging).build();
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(BASE_URL)
-            .client(client)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build();
-        api = retrofit.create(WispApi.class);
+        api = ApiClient.api(this);
 
         locationManager = (LocationManager) getSystemService(LOCATION_SERVICE);
         sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
@@ -132,6 +194,7 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
     @Override
     protected void onResume() {
         super.onResume();
+        TerrainStore.get(this).rescan();
         if (accelerometer != null && magnetometer != null) {
             sensorManager.registerListener(this, accelerometer, SensorManager.SENSOR_DELAY_UI);
             sensorManager.registerListener(this, magnetometer, SensorManager.SENSOR_DELAY_UI);
@@ -204,7 +267,8 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
             System.arraycopy(event.values, 0, accelerometerReading, 0, accelerometerReading.length);
         } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
-            System.arraycopy(event.values, 0, magnetometerReading, 0, magnetometerReading.length);
+            calibration.update(event.values, magnetometerReading);
+            showCalibration();
         }
 
         SensorManager.getRotationMatrix(rotationMatrix, null, accelerometerReading, magnetometerReading);
@@ -214,17 +278,23 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         float azimuth = (float) Math.toDegrees(orientationAngles[0]);
         if (azimuth < 0) azimuth += 360;
         
-        currentHeading = azimuth;
+        // Bearings to towers are from true north, the magnetometer's from magnetic north
+        currentHeading = GeomagneticGrid.toTrueNorth(azimuth, declination);
         
         if (compassView != null) {
             compassView.setCurrentHeading(currentHeading);
         }
+        updateSignal();
+
+        double uptilt = ElevationAngle.deviceUptiltDeg(accelerometerReading[0], accelerometerReading[1], accelerometerReading[2]);
+        deviceUptilt = Double.isNaN(deviceUptilt) ? uptilt : deviceUptilt + TILT_SMOOTHING * (uptilt - deviceUptilt);
+        showTilt();
+        recorder.record(System.currentTimeMillis(), currentHeading, (float) uptilt);
     }
     
     private void openFullScreenCompass() {
         // Check if tower is selected
-        int towerPosition = towerSpinner.getSelectedItemPosition();
-        if (towerPosition <= 0 || towerPosition > towers.size()) {
+        if (towerPicker.getSelected() == null) {
             Toast.makeText(this, "Please select a tower first", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -239,6 +309,8 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
             float targetAz = Float.parseFloat(azimuthField.getText().toString());
             Intent intent = new Intent(this, CompassFullScreenActivity.class);
             intent.putExtra("targetAzimuth", targetAz);
+            intent.putExtra("expectedField", (float) calibration.getExpectedField());
+            intent.putExtra("declination", declination);
             startActivity(intent);
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Invalid azimuth value", Toast.LENGTH_SHORT).show();
@@ -247,7 +319,32 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
 
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
-        // Not used
+        if (sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
+            calibration.setAccuracy(accuracy);
+            showCalibration();
+        }
+    }
+
+    /**
+     * Warns (or, for interference, stops the compass from reporting a lock) while
+     * headings are unreliable; only touches the views when the status changes
+     */
+    private void showCalibration() {
+        MagnetometerCalibration.Status status = calibration.getStatus();
+        if (status == shownCalibration) return;
+        shownCalibration = status;
+        if (status != MagnetometerCalibration.Status.OK) {
+            Log.w(TAG, "Compass " + status + ": field " + calibration.getFieldMicroTesla()
+                + " µT, expected " + calibration.getExpectedField() + " µT");
+        }
+        if (compassView != null) {
+            compassView.setCompassStatus(status);
+        }
+        if (compassStatusField != null) {
+            compassStatusField.setVisibility(status == MagnetometerCalibration.Status.OK ? View.GONE : View.VISIBLE);
+            compassStatusField.setText(status.label);
+            compassStatusField.setTextColor(status.blocking ? Color.RED : Color.YELLOW);
+        }
     }
 
     @Override
@@ -259,19 +356,23 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         
         currentLat = location.getLatitude();
         currentLon = location.getLongitude();
+        recorder.setFix(currentLat, currentLon, location.hasAccuracy() ? location.getAccuracy() : -1);
+        GeomagneticGrid.Cell geomagnetic = GEOMAGNETIC.lookup(currentLat, currentLon, location.getTime());
+        declination = (float) geomagnetic.declinationDeg;
+        calibration.setExpectedField(geomagnetic.fieldMicroTesla);
+        if (location.hasAltitude()) {
+            updateAltitude(location);
+        }
         
         if (gpsLocationField != null) {
-            gpsLocationField.setText(String.format("Lat: %.6f, Lon: %.6f", currentLat, currentLon));
+            gpsLocationField.setText(String.format(Locale.US, "Lat: %.6f, Lon: %.6f\nDeclination: %+.1f° (compass corrected to true north)",
+                currentLat, currentLon, declination));
             gpsLocationField.setTextColor(Color.WHITE);
         }
         
         // If tower is selected, recalculate azimuth
-        if (towerSpinner != null && towers != null && !towers.isEmpty()) {
-            int towerPosition = towerSpinner.getSelectedItemPosition();
-            if (towerPosition > 0 && towerPosition <= towers.size()) {
-                Map<String, Object> selectedTower = towers.get(towerPosition - 1);
-                calculateAzimuthToTower(selectedTower);
-            }
+        if (towerPicker != null && towerPicker.getSelected() != null) {
+            calculateAzimuthToTower(towerPicker.getSelected());
         }
     }
 
@@ -288,6 +389,13 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) return;
 
+        // Towers come from the mapped topology snapshot straight away, even with no signal
+        TopologyStore topology = TopologyStore.get(this);
+        topology.load(tenantId, snapshot -> {
+            if (towers.isEmpty()) showTowerList(snapshot.towers());
+        });
+        TenantPartition partition = TenantCache.get(this).partition(tenantId);
+
         user.getIdToken(true).addOnCompleteListener(task -> {
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
@@ -297,88 +405,9 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
                     public void onResponse(retrofit2.Call<List<Map<String, Object>>> call, retrofit2.Response<List<Map<String, Object>>> response) {
                         if (response.isSuccessful() && response.body() != null) {
                             List<Map<String, Object>> allSites = response.body();
-                            
-                            // Filter for towers only
-                            towers.clear();
-                            for (Map<String, Object> site : allSites) {
-                                Object type = site.get("type");
-                                if (type != null) {
-                                    String typeStr = type.toString().toLowerCase();
-                                    if (typeStr.contains("tower") || typeStr.equals("tower")) {
-                                        towers.add(site);
-                                    }
-                                }
-                            }
-                            
-                            java.util.List<String> towerNames = new java.util.ArrayList<>();
-                            towerNames.add("Select a tower...");
-                            
-                            for (Map<String, Object> tower : towers) {
-                                Object name = tower.get("name");
-                                if (name != null) {
-                                    towerNames.add(name.toString());
-                                }
-                            }
-                            
-                            ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                                AimingActivity.this,
-                                android.R.layout.simple_spinner_item,
-                                towerNames
-                            );
-                            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                            towerSpinner.setAdapter(adapter);
-                            
-                            // Set listener AFTER adapter to ensure it works
-                            towerSpinner.setOnItemSelectedListener(new android.widget.AdapterView.OnItemSelectedListener() {
-                                        @Override
-                                        public void onItemSelected(android.widget.AdapterView<?> parent, android.view.View view, int position, long id) {
-                                            Log.d(TAG, "Tower spinner item selected: position=" + position + ", towers.size()=" + towers.size());
-                                            
-                                            if (position > 0 && position <= towers.size()) {
-                                                Map<String, Object> selectedTower = towers.get(position - 1);
-                                                Object towerId = selectedTower.get("_id");
-                                                Object towerName = selectedTower.get("name");
-                                                
-                                                Log.d(TAG, "✅ Tower selected: name=" + towerName + ", towerId=" + towerId);
-                                                Toast.makeText(AimingActivity.this, "✅ Tower selected: " + (towerName != null ? towerName.toString() : "Unknown"), Toast.LENGTH_LONG).show();
-                                                
-                                                // Always load sectors for the selected tower
-                                                loadSectorsForTower(towerId != null ? towerId.toString() : null);
-                                                
-                                                // Calculate azimuth if GPS is available, otherwise prompt user
-                                                if (currentLat != 0 && currentLon != 0) {
-                                                    calculateAzimuthToTower(selectedTower);
-                                                } else {
-                                                    Toast.makeText(AimingActivity.this, "Tower selected. Get GPS location to calculate azimuth.", Toast.LENGTH_SHORT).show();
-                                                }
-                                            } else if (position == 0) {
-                                                Log.d(TAG, "Placeholder 'Select a tower...' selected");
-                                                // Clear sectors when placeholder is selected
-                                                sectors.clear();
-                                                ArrayAdapter<String> sectorAdapter = new ArrayAdapter<>(
-                                                    AimingActivity.this,
-                                                    android.R.layout.simple_spinner_item,
-                                                    new java.util.ArrayList<>(java.util.Arrays.asList("Select a sector..."))
-                                                );
-                                                sectorAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                                                sectorSpinner.setAdapter(sectorAdapter);
-                                                azimuthField.setText("");
-                                                if (compassView != null) {
-                                                    compassView.clearTarget();
-                                                }
-                                            } else {
-                                                Log.e(TAG, "Invalid tower selection: position=" + position + ", towers.size()=" + towers.size());
-                                            }
-                                        }
-
-                                @Override
-                                public void onNothingSelected(android.widget.AdapterView<?> parent) {
-                                    Log.d(TAG, "Tower spinner: nothing selected");
-                                }
-                            });
-                            
-                            // Set adapter AFTER listener
-                            towerSpinner.setAdapter(adapter);
+                            partition.put(TenantPartition.SITES, allSites);
+                            topology.refresh(api, authHeader, tenantId, allSites, null);
+                            showTowers(allSites);
                         }
                     }
 
@@ -391,12 +420,114 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         });
     }
 
+    private void showTowers(List<Map<String, Object>> allSites) {
+        // Filter for towers only
+        List<Map<String, Object>> towerSites = new java.util.ArrayList<>();
+        for (Map<String, Object> site : allSites) {
+            Object type = site.get("type");
+            if (type != null) {
+                String typeStr = type.toString().toLowerCase();
+                if (typeStr.contains("tower") || typeStr.equals("tower")) {
+                    towerSites.add(site);
+                }
+            }
+        }
+        showTowerList(towerSites);
+    }
+
+    private void showTowerList(List<Map<String, Object>> towerSites) {
+        towers.clear();
+        towers.addAll(towerSites);
+        SearchIndexes.indexSitesAsync(towerIndex, towers, () -> towerPicker.refresh());
+    }
+
+    private void onTowerSelected(Map<String, Object> selectedTower) {
+        Object towerId = selectedTower.get("_id");
+        Object towerName = selectedTower.get("name");
+
+        Log.d(TAG, "✅ Tower selected: name=" + towerName + ", towerId=" + towerId);
+        Toast.makeText(this, "✅ Tower selected: " + (towerName != null ? towerName.toString() : "Unknown"), Toast.LENGTH_LONG).show();
+
+        // Always load sectors for the selected tower
+        recorder.clear();
+        cpeGround = Double.NaN;
+        towerGround = Double.NaN;
+        loadSectorsForTower(towerId != null ? towerId.toString() : null);
+        showCachedEquipment(towerId != null ? towerId.toString() : null);
+
+        // Calculate azimuth if GPS is available, otherwise prompt user
+        if (currentLat != 0 && currentLon != 0) {
+            calculateAzimuthToTower(selectedTower);
+        } else {
+            Toast.makeText(this, "Tower selected. Get GPS location to calculate azimuth.", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    /**
+     * Suggests the site's equipment when it was preloaded, e.g. on arrival at the site
+     */
+    private void showCachedEquipment(String siteId) {
+        equipmentIdField.setHint(EQUIPMENT_HINT);
+        if (siteId == null) return;
+        TenantCache.get(this).partition(tenantId).<List<Map<String, Object>>>get(TenantPartition.siteEquipment(siteId),
+            new TypeToken<List<Map<String, Object>>>() {}.getType(), equipment -> {
+                Map<String, Object> selected = towerPicker.getSelected();
+                if (selected == null || !siteId.equals(String.valueOf(selected.get("_id"))) || equipment.isEmpty()) return;
+                java.util.List<String> ids = new java.util.ArrayList<>();
+                for (Map<String, Object> item : equipment) {
+                    Object id = item.get("_id");
+                    if (id != null) ids.add(SearchIndexes.asString(id));
+                    if (ids.size() == 3) break;
+                }
+                if (ids.isEmpty()) return;
+                equipmentIdField.setHint("At this site: " + String.join(", ", ids) + (equipment.size() > ids.size() ? ", ..." : ""));
+            });
+    }
+
+    private void onTowerCleared() {
+        Log.d(TAG, "Tower selection cleared");
+        equipmentIdField.setHint(EQUIPMENT_HINT);
+        sectors = new java.util.ArrayList<>();
+        ArrayAdapter<String> sectorAdapter = new ArrayAdapter<>(
+            this,
+            android.R.layout.simple_spinner_item,
+            new java.util.ArrayList<>(java.util.Arrays.asList("Select a sector..."))
+        );
+        sectorAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        sectorSpinner.setAdapter(sectorAdapter);
+        azimuthField.setText("");
+        towerLat = Double.NaN;
+        towerLon = Double.NaN;
+        pathResult = null;
+        cpeGround = Double.NaN;
+        towerGround = Double.NaN;
+        selectSector(null);
+        pathField.setText("Select a tower and get GPS location");
+        pathField.setTextColor(Color.GRAY);
+        if (compassView != null) {
+            compassView.clearTarget();
+        }
+    }
+
     private void loadSectorsForTower(String towerId) {
         if (towerId == null) return;
 
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) return;
 
+        sectors = new java.util.ArrayList<>();
+        selectSector(null);
+        TopologyStore topology = TopologyStore.get(this);
+        topology.load(tenantId, snapshot -> {
+            // Ignore the snapshot if the tower changed or the network already answered
+            Map<String, Object> selected = towerPicker.getSelected();
+            if (selected == null || !towerId.equals(String.valueOf(selected.get("_id"))) || !sectors.isEmpty()) return;
+            int site = snapshot.indexOf(towerId);
+            if (site < 0 || snapshot.endSector(site) == snapshot.firstSector(site)) return;
+            sectors = snapshot.sectorMaps(site);
+            showSectors();
+        });
+
         user.getIdToken(true).addOnCompleteListener(task -> {
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
@@ -406,45 +537,8 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
                     public void onResponse(retrofit2.Call<List<Map<String, Object>>> call, retrofit2.Response<List<Map<String, Object>>> response) {
                         if (response.isSuccessful() && response.body() != null) {
                             sectors = response.body();
-                            
-                            java.util.List<String> sectorNames = new java.util.ArrayList<>();
-                            sectorNames.add("Select a sector...");
-                            
-                            for (Map<String, Object> sector : sectors) {
-                                Object name = sector.get("name");
-                                if (name != null) {
-                                    sectorNames.add(name.toString());
-                                }
-                            }
-                            
-                            ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                                AimingActivity.this,
-                                android.R.layout.simple_spinner_item,
-                                sectorNames
-                            );
-                            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                            sectorSpinner.setAdapter(adapter);
-                            
-                            // Auto-select sector based on azimuth if calculated
-                            if (!azimuthField.getText().toString().trim().isEmpty()) {
-                                try {
-                                    double targetAzimuth = Double.parseDouble(azimuthField.getText().toString());
-                                    Map<String, Object> bestSector = LocationUtils.findBestMatchingSector(sectors, targetAzimuth);
-                                    if (bestSector != null) {
-                                        Object sectorName = bestSector.get("name");
-                                        if (sectorName != null) {
-                                            for (int i = 0; i < sectorNames.size(); i++) {
-                                                if (sectorNames.get(i).equals(sectorName.toString())) {
-                                                    sectorSpinner.setSelection(i);
-                                                    break;
-                                                }
-                                            }
-                                        }
-                                    }
-                                } catch (NumberFormatException e) {
-                                    Log.w(TAG, "Invalid azimuth format", e);
-                                }
-                            }
+                            topology.updateSectors(tenantId, towerId, sectors);
+                            showSectors();
                         }
                     }
 
@@ -457,6 +551,48 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         });
     }
 
+    private void showSectors() {
+
+        java.util.List<String> sectorNames = new java.util.ArrayList<>();
+        sectorNames.add("Select a sector...");
+
+        for (Map<String, Object> sector : sectors) {
+            Object name = sector.get("name");
+            if (name != null) {
+                sectorNames.add(name.toString());
+            }
+        }
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+            AimingActivity.this,
+            android.R.layout.simple_spinner_item,
+            sectorNames
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        sectorSpinner.setAdapter(adapter);
+
+        // Auto-select sector based on azimuth if calculated
+        if (!azimuthField.getText().toString().trim().isEmpty()) {
+            try {
+                double targetAzimuth = Double.parseDouble(azimuthField.getText().toString());
+                Map<String, Object> bestSector = LocationUtils.findBestMatchingSector(sectors, targetAzimuth);
+                if (bestSector != null) {
+                    Object sectorName = bestSector.get("name");
+                    if (sectorName != null) {
+                        for (int i = 0; i < sectorNames.size(); i++) {
+                            if (sectorNames.get(i).equals(sectorName.toString())) {
+                                sectorSpinner.setSelection(i);
+                                break;
+                            }
+                        }
+                    }
+                }
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Invalid azimuth format", e);
+            }
+        }
+    }
+
     private void calculateAzimuthToTower(Map<String, Object> tower) {
         Object locationObj = tower.get("location");
         if (locationObj == null || !(locationObj instanceof Map)) {
@@ -511,6 +647,8 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
             return;
         }
         
+        this.towerLat = towerLat;
+        this.towerLon = towerLon;
         double azimuth = LocationUtils.calculateAzimuth(currentLat, currentLon, towerLat, towerLon);
         azimuthField.setText(String.format("%.1f", azimuth));
         
@@ -533,6 +671,172 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
                 }
             }
         }
+
+        checkPath(tower, towerLat, towerLon, bestSector);
+        updateSignal();
+        updateTilt();
+    }
+
+    /**
+     * Terrain clearance from here to the tower, at the sector's frequency and mount height
+     */
+    private void checkPath(Map<String, Object> tower, double towerLat, double towerLon, Map<String, Object> sector) {
+        SectorRadio radio = SectorRadio.from(sector, tower);
+        pathResult = null;
+        TerrainStore terrain = TerrainStore.get(this);
+        terrain.checkPath(currentLat, currentLon, LinkBudget.DEFAULT_CPE_HEIGHT_M, towerLat, towerLon, radio.heightM,
+                radio.frequencyMHz, result -> {
+            pathResult = result;
+            if (!Double.isNaN(result.startGround)) cpeGround = result.startGround;
+            if (!Double.isNaN(result.endGround)) towerGround = result.endGround;
+            updateSignal();
+            updateTilt();
+            switch (result.verdict) {
+                case CLEAR:
+                    pathField.setTextColor(Color.GREEN);
+                    break;
+                case PARTIAL:
+                    pathField.setTextColor(Color.YELLOW);
+                    break;
+                case BLOCKED:
+                    pathField.setTextColor(Color.RED);
+                    break;
+                default:
+                    pathField.setTextColor(Color.GRAY);
+            }
+            pathField.setText(result.verdict == LineOfSight.Verdict.NO_DATA
+                ? "No elevation data for this path. Copy SRTM .hgt tiles to " + terrain.getDemDir()
+                : result.summary());
+        });
+    }
+
+    private void updateAltitude(Location location) {
+        double altitude = location.getAltitude();
+        double accuracy = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && location.hasVerticalAccuracy()
+            ? location.getVerticalAccuracyMeters() : Double.NaN;
+        double bias = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE && location.hasMslAltitude()) {
+            altitude = location.getMslAltitudeMeters();
+            if (location.hasMslAltitudeAccuracy()) accuracy = location.getMslAltitudeAccuracyMeters();
+        } else {
+            // Height above the ellipsoid, off from sea level (and the DEM) by the same amount on every fix
+            bias = GEOID_SIGMA_M;
+        }
+        altitudeFilter.update(altitude, accuracy, bias, location.getTime());
+    }
+
+    /**
+     * Target uptilt for the CPE from the filtered GPS altitude (fused with DEM ground
+     * plus mount height), the tower's DEM ground plus sector height, and the distance
+     */
+    private void updateTilt() {
+        if (tiltField == null) return;
+        shownTilt = Long.MIN_VALUE;
+        Map<String, Object> tower = towerPicker.getSelected();
+        if (tower == null || Double.isNaN(towerLat) || (currentLat == 0 && currentLon == 0)) {
+            targetUptilt = Double.NaN;
+            tiltDetail = "";
+            showTilt();
+            return;
+        }
+        SectorRadio radio = sectorRadio != null ? sectorRadio : SectorRadio.from(selectedSector, tower);
+        double cpeAmsl = altitudeFilter.fuse(cpeGround + LinkBudget.DEFAULT_CPE_HEIGHT_M, DEM_ALTITUDE_SIGMA_M);
+        double sectorAmsl = towerGround + radio.heightM;
+        if (Double.isNaN(cpeAmsl) || Double.isNaN(sectorAmsl)) {
+            targetUptilt = Double.NaN;
+            tiltDetail = Double.isNaN(sectorAmsl) ? "No elevation data at the tower" : "Waiting for GPS altitude";
+            showTilt();
+            return;
+        }
+
+        double distance = LocationUtils.calculateDistance(currentLat, currentLon, towerLat, towerLon);
+        targetUptilt = ElevationAngle.cpeUptiltDeg(distance, cpeAmsl, sectorAmsl);
+        tiltDetail = String.format(Locale.US, "Sector downtilt %.1f°, CPE %.0f m, sector %.0f m above sea level",
+            ElevationAngle.sectorDowntiltDeg(distance, cpeAmsl, sectorAmsl), cpeAmsl, sectorAmsl);
+        if (!elevationField.hasFocus()) {
+            elevationField.setText(String.format(Locale.US, "%.1f", targetUptilt));
+        }
+        showTilt();
+    }
+
+    /**
+     * Live phone tilt next to the target, for holding the phone against the CPE
+     */
+    private void showTilt() {
+        if (tiltField == null) return;
+        long tenths = Double.isNaN(deviceUptilt) ? Long.MAX_VALUE : Math.round(deviceUptilt * 10);
+        if (tenths == shownTilt) return;
+        shownTilt = tenths;
+
+        String now = Double.isNaN(deviceUptilt) ? "--" : String.format(Locale.US, "%+.1f°", deviceUptilt);
+        if (Double.isNaN(targetUptilt)) {
+            tiltField.setText("Phone tilt " + now + (tiltDetail.isEmpty() ? "" : "\n" + tiltDetail));
+            tiltField.setTextColor(Color.GRAY);
+            return;
+        }
+        double error = targetUptilt - deviceUptilt;
+        String hint = Double.isNaN(error) ? ""
+            : Math.abs(error) <= TILT_TOLERANCE_DEG ? " (on target)"
+            : String.format(Locale.US, error > 0 ? " (raise %.1f°)" : " (lower %.1f°)", Math.abs(error));
+        tiltField.setText(String.format(Locale.US, "Phone tilt %s, target %+.1f°%s\n%s", now, targetUptilt, hint, tiltDetail));
+        tiltField.setTextColor(!Double.isNaN(error) && Math.abs(error) <= TILT_TOLERANCE_DEG ? Color.GREEN : Color.WHITE);
+    }
+
+    private void selectSector(Map<String, Object> sector) {
+        selectedSector = sector;
+        sectorRadio = null;
+        updateTilt();
+        // Frequency and mount height come from the sector
+        Map<String, Object> tower = towerPicker.getSelected();
+        if (sector != null && tower != null && !Double.isNaN(towerLat)) {
+            checkPath(tower, towerLat, towerLon, sector);
+        }
+        updateSignal();
+    }
+
+    /**
+     * Expected signal for the current position and heading. Budgets are cached per
+     * position cell; while the cell, sector and model stay the same a compass update
+     * only re-applies the CPE's pointing loss to the budget already in hand.
+     */
+    private void updateSignal() {
+        if (signalField == null) return;
+        Map<String, Object> tower = towerPicker.getSelected();
+        if (tower == null || Double.isNaN(towerLat) || (currentLat == 0 && currentLon == 0)) {
+            if (!signalPlaceholderShown) {
+                signalPlaceholderShown = true;
+                shownBudget = null;
+                signalField.setText("Select a tower and get GPS location");
+                signalField.setTextColor(Color.GRAY);
+            }
+            return;
+        }
+        if (sectorRadio == null) sectorRadio = SectorRadio.from(selectedSector, tower);
+        long cellLat = LinkBudgetCache.cell(currentLat);
+        long cellLon = LinkBudgetCache.cell(currentLon);
+        if (budget == null || cellLat != budgetCellLat || cellLon != budgetCellLon || sectorRadio != budgetSector
+                || pathLossModel != budgetModel || pathResult != budgetTerrain
+                || towerLat != budgetTowerLat || towerLon != budgetTowerLon) {
+            budget = linkBudgets.get(sectorRadio, towerLat, towerLon, currentLat, currentLon, pathLossModel, pathResult);
+            budgetCellLat = cellLat;
+            budgetCellLon = cellLon;
+            budgetSector = sectorRadio;
+            budgetModel = pathLossModel;
+            budgetTerrain = pathResult;
+            budgetTowerLat = towerLat;
+            budgetTowerLon = towerLon;
+        }
+        long rssi = Math.round(budget.rssiDbm(currentHeading));
+        if (budget == shownBudget && rssi == shownRssi) return;
+        shownBudget = budget;
+        shownRssi = rssi;
+        signalPlaceholderShown = false;
+
+        signalField.setText(String.format(Locale.US,
+            "RSSI %d dBm (aimed %d dBm), SINR %.0f dB\n%s: %.0f dB loss over %.2f km%s",
+            rssi, Math.round(budget.aimedRssiDbm), budget.sinrDb(currentHeading), pathLossModel.label, budget.pathLossDb,
+            budget.distanceM / 1000, selectedSector == null ? ", default sector values" : ""));
+        signalField.setTextColor(rssi >= -65 ? Color.GREEN : rssi >= -75 ? Color.YELLOW : Color.RED);
     }
 
     private void setupUI() {
@@ -562,10 +866,15 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         labelTower.setPadding(0, 0, 0, 10);
         cardLayout.addView(labelTower);
 
-        towerSpinner = new Spinner(this);
-        towerSpinner.setBackgroundResource(R.drawable.input_background);
-        towerSpinner.setPadding(20, 20, 20, 20);
-        cardLayout.addView(towerSpinner);
+        towerPicker = new SearchablePickerView<>(this, towerIndex, tower -> {
+            Object name = tower.get("name");
+            return name != null ? name.toString() : "Unnamed tower";
+        });
+        towerPicker.setHint("Search towers by name or ID...");
+        towerPicker.setDetailLabeler(tower -> SearchIndexes.asString(tower.get("_id")));
+        towerPicker.setOnPickListener(this::onTowerSelected);
+        towerPicker.setOnClearListener(this::onTowerCleared);
+        cardLayout.addView(towerPicker);
 
         TextView labelSector = new TextView(this);
         labelSector.setText("Sector");
@@ -576,6 +885,25 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         sectorSpinner = new Spinner(this);
         sectorSpinner.setBackgroundResource(R.drawable.input_background);
         sectorSpinner.setPadding(20, 20, 20, 20);
+        sectorSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                Object name = position > 0 ? parent.getItemAtPosition(position) : null;
+                Map<String, Object> sector = null;
+                for (Map<String, Object> candidate : sectors) {
+                    if (name != null && name.toString().equals(String.valueOf(candidate.get("name")))) {
+                        sector = candidate;
+                        break;
+                    }
+                }
+                if (sector != selectedSector) selectSector(sector);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+                selectSector(null);
+            }
+        });
         cardLayout.addView(sectorSpinner);
 
         TextView label1 = new TextView(this);
@@ -585,7 +913,7 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         cardLayout.addView(label1);
 
         equipmentIdField = new EditText(this);
-        equipmentIdField.setHint("Enter equipment ID if needed");
+        equipmentIdField.setHint(EQUIPMENT_HINT);
         equipmentIdField.setHintTextColor(Color.GRAY);
         equipmentIdField.setTextColor(Color.WHITE);
         equipmentIdField.setBackgroundResource(R.drawable.input_background);
@@ -636,6 +964,12 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
                 });
                 cardLayout.addView(compassView);
 
+        compassStatusField = new TextView(this);
+        compassStatusField.setTextColor(Color.YELLOW);
+        compassStatusField.setPadding(0, 0, 0, 10);
+        compassStatusField.setVisibility(View.GONE);
+        cardLayout.addView(compassStatusField);
+
         TextView label3 = new TextView(this);
         label3.setText("Azimuth (degrees, 0-360)");
         label3.setTextColor(Color.WHITE);
@@ -651,21 +985,76 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         azimuthField.setPadding(20, 20, 20, 20);
         cardLayout.addView(azimuthField);
 
+        TextView labelPath = new TextView(this);
+        labelPath.setText("Path to Tower (terrain)");
+        labelPath.setTextColor(Color.WHITE);
+        labelPath.setPadding(0, 20, 0, 10);
+        cardLayout.addView(labelPath);
+
+        pathField = new TextView(this);
+        pathField.setText("Select a tower and get GPS location");
+        pathField.setTextColor(Color.GRAY);
+        pathField.setPadding(20, 20, 20, 20);
+        pathField.setBackgroundResource(R.drawable.input_background);
+        cardLayout.addView(pathField);
+
+        TextView labelSignal = new TextView(this);
+        labelSignal.setText("Expected Signal");
+        labelSignal.setTextColor(Color.WHITE);
+        labelSignal.setPadding(0, 20, 0, 10);
+        cardLayout.addView(labelSignal);
+
+        List<String> modelLabels = new java.util.ArrayList<>();
+        for (PathLossModel model : PathLossModel.values()) {
+            modelLabels.add(model.label);
+        }
+        ArrayAdapter<String> modelAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, modelLabels);
+        modelAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        Spinner pathLossSpinner = new Spinner(this);
+        pathLossSpinner.setBackgroundResource(R.drawable.input_background);
+        pathLossSpinner.setPadding(20, 20, 20, 20);
+        pathLossSpinner.setAdapter(modelAdapter);
+        pathLossSpinner.setSelection(pathLossModel.ordinal());
+        pathLossSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                pathLossModel = PathLossModel.values()[position];
+                updateSignal();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+        cardLayout.addView(pathLossSpinner);
+
+        signalField = new TextView(this);
+        signalField.setText("Select a tower and get GPS location");
+        signalField.setTextColor(Color.GRAY);
+        signalField.setPadding(20, 20, 20, 20);
+        signalField.setBackgroundResource(R.drawable.input_background);
+        cardLayout.addView(signalField);
+
         TextView label4 = new TextView(this);
-        label4.setText("Elevation / Downtilt (degrees)");
+        label4.setText("CPE Elevation / Uptilt (degrees, auto-filled)");
         label4.setTextColor(Color.WHITE);
         label4.setPadding(0, 20, 0, 10);
         cardLayout.addView(label4);
 
         elevationField = new EditText(this);
         elevationField.setHint("0");
-        elevationField.setInputType(2); // number
+        elevationField.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED | InputType.TYPE_NUMBER_FLAG_DECIMAL);
         elevationField.setHintTextColor(Color.GRAY);
         elevationField.setTextColor(Color.WHITE);
         elevationField.setBackgroundResource(R.drawable.input_background);
         elevationField.setPadding(20, 20, 20, 20);
         cardLayout.addView(elevationField);
 
+        tiltField = new TextView(this);
+        tiltField.setTextColor(Color.GRAY);
+        tiltField.setPadding(20, 10, 20, 10);
+        cardLayout.addView(tiltField);
+
         Button photoBtn = new Button(this);
         photoBtn.setText("📷 Take Alignment Photos");
         photoBtn.setBackgroundResource(R.drawable.button_background);
@@ -687,6 +1076,17 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         saveBtn.setOnClickListener(v -> saveAimingData());
         cardLayout.addView(saveBtn);
 
+        Button surveyBtn = new Button(this);
+        surveyBtn.setText("📋 Site Survey");
+        surveyBtn.setBackgroundResource(R.drawable.button_background);
+        surveyBtn.setTextColor(Color.BLACK);
+        surveyBtn.setOnClickListener(v -> {
+            Intent intent = new Intent(this, SiteSurveyActivity.class);
+            intent.putExtra("tenantId", tenantId);
+            startActivity(intent);
+        });
+        cardLayout.addView(surveyBtn);
+
         card.addView(cardLayout);
         layout.addView(card);
         scrollView.addView(layout);
@@ -760,10 +1160,27 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
         }
     }
 
+    /**
+     * The recorded heading/pitch/GPS trace, sent with the equipment update so bad
+     * installs can be audited; null if nothing was recorded since the tower was picked
+     */
+    private Map<String, Object> aimingSession() {
+        int samples = recorder.size();
+        if (samples == 0) return null;
+        byte[] blob = AimingSessionCodec.encode(recorder);
+        Map<String, Object> session = new HashMap<>();
+        session.put("format", AimingSessionCodec.FORMAT);
+        session.put("startedAt", recorder.time(0));
+        session.put("endedAt", recorder.time(samples - 1));
+        session.put("samples", samples);
+        session.put("data", Base64.encodeToString(blob, Base64.NO_WRAP));
+        Log.d(TAG, "Aiming session: " + samples + " samples in " + blob.length + " bytes");
+        return session;
+    }
+
     private void saveAimingData() {
         // Check if tower is selected first
-        int towerPosition = towerSpinner.getSelectedItemPosition();
-        if (towerPosition <= 0 || towerPosition > towers.size()) {
+        if (towerPicker.getSelected() == null) {
             Toast.makeText(this, "Please select a tower first", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -797,7 +1214,10 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
 
         progressBar.setVisibility(View.VISIBLE);
         final String equipmentIdForApi = finalEquipmentId; // Make final for lambda
+        Span interaction = Tracer.get().startInteraction("saveAiming");
+        Span tokenSpan = interaction.child("auth.getIdToken");
         user.getIdToken(true).addOnCompleteListener(task -> {
+            tokenSpan.end();
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
                 
@@ -810,19 +1230,35 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
                         // Note: elevation may need to be added to network equipment model
                         equipment.put("elevation", Double.parseDouble(elevationField.getText().toString()));
                     }
+                    Map<String, Object> session = aimingSession();
+                    if (session != null) {
+                        equipment.put("aimingSession", session);
+                    }
                 } catch (NumberFormatException e) {
                     Log.w(TAG, "Invalid number format", e);
                     Toast.makeText(AimingActivity.this, "Invalid number format", Toast.LENGTH_SHORT).show();
                     progressBar.setVisibility(View.GONE);
+                    interaction.fail(e).end();
                     return;
                 }
 
-                api.updateNetworkEquipment(authHeader, tenantId, equipmentIdForApi, equipment).enqueue(new Callback<Map<String, Object>>() {
+                interaction.enqueue(api.updateNetworkEquipment(authHeader, tenantId, equipmentIdForApi, equipment), new Callback<Map<String, Object>>() {
                     @Override
                     public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+                        Span uiSpan = interaction.child("ui.update");
                         progressBar.setVisibility(View.GONE);
                         if (response.isSuccessful()) {
-                            Toast.makeText(AimingActivity.this, "Aiming data saved successfully!", Toast.LENGTH_LONG).show();
+                            Map<String, Object> saved = response.body();
+                            if (!equipment.containsKey("aimingSession")
+                                    || (saved != null && saved.get("aimingSession") != null)) {
+                                recorder.clear();
+                                Toast.makeText(AimingActivity.this, "Aiming data saved successfully!", Toast.LENGTH_LONG).show();
+                            } else {
+                                // Keep the trace so the next save sends it again
+                                Log.w(TAG, "Server did not store the aiming session");
+                                Toast.makeText(AimingActivity.this, "Aiming data saved, but the aiming trace was not stored",
+                                    Toast.LENGTH_LONG).show();
+                            }
                         } else {
                             String errorMsg = "Failed to save aiming data";
                             if (response.errorBody() != null) {
@@ -834,16 +1270,20 @@ public class AimingActivity extends AppCompatActivity implements SensorEventList
                             }
                             Toast.makeText(AimingActivity.this, errorMsg, Toast.LENGTH_LONG).show();
                         }
+                        uiSpan.end();
+                        interaction.arg("code", response.code()).end();
                     }
 
                     @Override
                     public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+                        interaction.fail(t).end();
                         progressBar.setVisibility(View.GONE);
                         Log.e(TAG, "Aiming save failed", t);
                         Toast.makeText(AimingActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_LONG).show();
                     }
                 });
             } else {
+                interaction.fail("Authentication failed").end();
                 progressBar.setVisibility(View.GONE);
                 Toast.makeText(AimingActivity.this, "Authentication failed", Toast.LENGTH_SHORT).show();
             }
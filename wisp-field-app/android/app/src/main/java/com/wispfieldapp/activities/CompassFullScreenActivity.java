@@ -16,6 +16,8 @@ import android.widget.Button;
 import android.widget.LinearLayout;
 import androidx.appcompat.app.AppCompatActivity;
 import com.wispfieldapp.R;
+import com.wispfieldapp.aiming.GeomagneticGrid;
+import com.wispfieldapp.aiming.MagnetometerCalibration;
 import com.wispfieldapp.views.CompassView;
 
 public class CompassFullScreenActivity extends AppCompatActivity implements SensorEventListener {
@@ -34,12 +36,17 @@ public class CompassFullScreenActivity extends AppCompatActivity implements Sens
     private float targetAzimuth = 0;
     private float currentHeading = 0;
     private boolean isPlaying = false;
+    private float declination = 0;
+    private final MagnetometerCalibration calibration = new MagnetometerCalibration();
+    private MagnetometerCalibration.Status shownCalibration;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         
         targetAzimuth = getIntent().getFloatExtra("targetAzimuth", 0);
+        calibration.setExpectedField(getIntent().getFloatExtra("expectedField", Float.NaN));
+        declination = getIntent().getFloatExtra("declination", 0);
         
         // Setup full screen
         getWindow().getDecorView().setSystemUiVisibility(
@@ -125,7 +132,8 @@ public class CompassFullScreenActivity extends AppCompatActivity implements Sens
         if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
             System.arraycopy(event.values, 0, accelerometerReading, 0, accelerometerReading.length);
         } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
-            System.arraycopy(event.values, 0, magnetometerReading, 0, magnetometerReading.length);
+            calibration.update(event.values, magnetometerReading);
+            showCalibration();
         }
 
         SensorManager.getRotationMatrix(rotationMatrix, null, accelerometerReading, magnetometerReading);
@@ -135,7 +143,8 @@ public class CompassFullScreenActivity extends AppCompatActivity implements Sens
         float azimuth = (float) Math.toDegrees(orientationAngles[0]);
         if (azimuth < 0) azimuth += 360;
         
-        currentHeading = azimuth;
+        // The target is a true-north bearing
+        currentHeading = GeomagneticGrid.toTrueNorth(azimuth, declination);
         
         if (compassView != null) {
             compassView.setCurrentHeading(currentHeading);
@@ -144,7 +153,19 @@ public class CompassFullScreenActivity extends AppCompatActivity implements Sens
 
     @Override
     public void onAccuracyChanged(Sensor sensor, int accuracy) {
-        // Not used
+        if (sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
+            calibration.setAccuracy(accuracy);
+            showCalibration();
+        }
+    }
+
+    private void showCalibration() {
+        MagnetometerCalibration.Status status = calibration.getStatus();
+        if (status == shownCalibration) return;
+        shownCalibration = status;
+        if (compassView != null) {
+            compassView.setCompassStatus(status);
+        }
     }
     
     private void startSoundFeedback() {
@@ -153,16 +174,21 @@ public class CompassFullScreenActivity extends AppCompatActivity implements Sens
         soundRunnable = new Runnable() {
             @Override
             public void run() {
-                if (targetAzimuth > 0) {
-                    float diff = Math.abs(currentHeading - targetAzimuth);
-                    if (diff > 180) diff = 360 - diff;
+                if (calibration.getStatus().blocking) {
+                    // Headings can't be trusted - a slow warning tone instead of guidance
+                    toneGenerator.startTone(ToneGenerator.TONE_PROP_NACK, 150);
+                    soundHandler.postDelayed(this, 1500);
+                } else if (targetAzimuth > 0) {
+                    // Smoothed offset, so the cadence doesn't jump with compass jitter
+                    double diff = Math.abs(compassView.getAimOffset());
+                    if (Double.isNaN(diff)) diff = 180;
                     
                     // Calculate delay: faster beeps when closer (min 50ms, max 2000ms)
                     long delay;
                     int toneDuration;
                     
-                    if (diff <= 2) {
-                        // Perfect alignment - very fast beeps (50ms)
+                    if (compassView.isAimedProperly()) {
+                        // Held steady on target - very fast beeps (50ms)
                         delay = 50;
                         toneDuration = 30;
                         toneGenerator.startTone(ToneGenerator.TONE_PROP_BEEP, toneDuration);
@@ -1,18 +1,25 @@
 package com.wispfieldapp.activities;
 
 import android.Manifest;
+import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Color;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.location.Location;
+import android.location.LocationManager;
 import android.os.Bundle;
+import android.text.InputType;
 import android.util.Log;
 import android.view.View;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.ScrollView;
-import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
@@ -22,27 +29,41 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.gson.reflect.TypeToken;
 import com.wispfieldapp.R;
+import com.wispfieldapp.api.ApiClient;
 import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.link.ElevationAngle;
+import com.wispfieldapp.photos.PhotoProcessor;
+import com.wispfieldapp.photos.PhotoStore;
+import com.wispfieldapp.search.SearchIndex;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.tenant.TenantPartition;
+import com.wispfieldapp.upload.ResumableUploader;
+import com.wispfieldapp.search.SearchIndexes;
+import com.wispfieldapp.trace.Span;
+import com.wispfieldapp.trace.Tracer;
 import com.wispfieldapp.utils.CameraUtils;
+import com.wispfieldapp.views.SearchablePickerView;
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class InstallationActivity extends AppCompatActivity {
     private static final String TAG = "Installation";
-    private static final String BASE_URL = "https://hss.wisptools.io/";
     private static final int REQUEST_CAMERA_PERMISSION = 100;
     private static final int REQUEST_LOCATION_PERMISSION = 101;
+    private static final String STATE_PENDING_PHOTO = "pendingPhotoPath";
+    private static final String STATE_DOC_ID = "installationDocId";
+    private static final String STATE_PHOTO_HASHES = "photoHashes";
+    private static final int TILT_SAMPLES = 25;
     private WispApi api;
-    private Spinner siteSpinner;
+    private SearchablePickerView<Map<String, Object>> sitePicker;
     private EditText siteIdField;
     private EditText siteNameField;
     private EditText azimuthField;
@@ -51,6 +72,19 @@ public class InstallationActivity extends AppCompatActivity {
     private ProgressBar progressBar;
     private String tenantId;
     private java.util.List<Map<String, Object>> sites;
+    private final SearchIndex<Map<String, Object>> siteIndex = new SearchIndex<>();
+    private PhotoProcessor photoProcessor;
+    private ResumableUploader uploader;
+    private File pendingPhotoFile;
+    private final java.util.List<PhotoProcessor.ProcessedPhoto> photos = new java.util.ArrayList<>();
+    // The document created by the first submit; a retry uploads the remaining photos to it
+    private String docId;
+    // Hashes of photos handed to the uploader and not yet reported back
+    private final java.util.Set<String> uploading = new java.util.HashSet<>();
+    private final Map<String, Long> sentBytes = new HashMap<>();
+    private final ResumableUploader.Listener uploadListener = new UploadListener();
+    private TextView photoStatusText;
+    private SensorEventListener tiltListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -64,25 +98,72 @@ public class InstallationActivity extends AppCompatActivity {
         }
 
         // Setup API
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> Log.d(TAG, "HTTP: " + message));
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(logging).build();
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(BASE_URL)
-            .client(client)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build();
-        api = retrofit.create(WispApi.class);
+        api = ApiClient.api(this);
+
+        photoProcessor = new PhotoProcessor(new PhotoStore(this));
+        uploader = ResumableUploader.get(this, tenantId);
+        if (savedInstanceState != null) {
+            String pendingPath = savedInstanceState.getString(STATE_PENDING_PHOTO);
+            if (pendingPath != null) {
+                pendingPhotoFile = new File(pendingPath);
+            }
+            docId = savedInstanceState.getString(STATE_DOC_ID);
+            java.util.ArrayList<String> hashes = savedInstanceState.getStringArrayList(STATE_PHOTO_HASHES);
+            if (hashes != null) {
+                for (String hash : hashes) {
+                    PhotoProcessor.ProcessedPhoto photo = photoProcessor.restore(hash);
+                    if (photo != null) {
+                        photos.add(photo);
+                    }
+                }
+            }
+        }
 
         sites = new java.util.ArrayList<>();
         setupUI();
         loadSites();
+        if (docId != null) {
+            resumeUploads();
+        }
+    }
+
+    /**
+     * Reattaches to the uploads a previous instance of this screen started; they kept
+     * running in the process-wide uploader while it was being recreated
+     */
+    private void resumeUploads() {
+        // Replays the photos that finished in the meantime
+        uploader.setListener(docId, uploadListener);
+        for (PhotoProcessor.ProcessedPhoto photo : photos) {
+            if (uploader.isQueued(docId, photo.hash)) {
+                uploading.add(photo.hash);
+            }
+        }
+        if (!uploading.isEmpty()) {
+            progressBar.setVisibility(View.VISIBLE);
+            photoStatusText.setVisibility(View.VISIBLE);
+            photoStatusText.setText("Uploading photos...");
+        } else if (photos.isEmpty()) {
+            Toast.makeText(this, "Installation documentation and photos uploaded!", Toast.LENGTH_LONG).show();
+            finish();
+        } else {
+            updatePhotoStatus(null);
+        }
     }
 
     private void loadSites() {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) return;
 
+        // Show the tenant's cached sites while the network copy loads
+        TenantPartition partition = TenantCache.get(this).partition(tenantId);
+        partition.<List<Map<String, Object>>>get(TenantPartition.SITES, new TypeToken<List<Map<String, Object>>>() {}.getType(), cached -> {
+            if (sites.isEmpty()) {
+                sites = cached;
+                SearchIndexes.indexSitesAsync(siteIndex, sites, () -> sitePicker.refresh());
+            }
+        });
+
         user.getIdToken(true).addOnCompleteListener(task -> {
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
@@ -92,46 +173,8 @@ public class InstallationActivity extends AppCompatActivity {
                     public void onResponse(retrofit2.Call<List<Map<String, Object>>> call, retrofit2.Response<List<Map<String, Object>>> response) {
                         if (response.isSuccessful() && response.body() != null) {
                             sites = response.body();
-                            
-                            java.util.List<String> siteNames = new java.util.ArrayList<>();
-                            siteNames.add("Select a site...");
-                            
-                            for (Map<String, Object> site : sites) {
-                                Object name = site.get("name");
-                                if (name != null) {
-                                    siteNames.add(name.toString());
-                                }
-                            }
-                            
-                            ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                                InstallationActivity.this,
-                                android.R.layout.simple_spinner_item,
-                                siteNames
-                            );
-                            adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                            siteSpinner.setAdapter(adapter);
-                            
-                            siteSpinner.setOnItemSelectedListener(new android.widget.AdapterView.OnItemSelectedListener() {
-                                @Override
-                                public void onItemSelected(android.widget.AdapterView<?> parent, android.view.View view, int position, long id) {
-                                    if (position > 0 && position <= sites.size()) {
-                                        Map<String, Object> selectedSite = sites.get(position - 1);
-                                        Object siteId = selectedSite.get("_id");
-                                        Object name = selectedSite.get("name");
-                                        
-                                        if (siteId != null) {
-                                            siteIdField.setText(siteId.toString());
-                                        }
-                                        if (name != null) {
-                                            siteNameField.setText(name.toString());
-                                        }
-                                    }
-                                }
-
-                                @Override
-                                public void onNothingSelected(android.widget.AdapterView<?> parent) {
-                                }
-                            });
+                            partition.put(TenantPartition.SITES, sites);
+                            SearchIndexes.indexSitesAsync(siteIndex, sites, () -> sitePicker.refresh());
                         }
                     }
 
@@ -171,10 +214,24 @@ public class InstallationActivity extends AppCompatActivity {
         labelSite.setPadding(0, 0, 0, 10);
         cardLayout.addView(labelSite);
 
-        siteSpinner = new Spinner(this);
-        siteSpinner.setBackgroundResource(R.drawable.input_background);
-        siteSpinner.setPadding(20, 20, 20, 20);
-        cardLayout.addView(siteSpinner);
+        sitePicker = new SearchablePickerView<>(this, siteIndex, site -> {
+            Object name = site.get("name");
+            return name != null ? name.toString() : "Unnamed site";
+        });
+        sitePicker.setHint("Search sites by name or ID...");
+        sitePicker.setDetailLabeler(site -> SearchIndexes.asString(site.get("_id")));
+        sitePicker.setOnPickListener(selectedSite -> {
+            Object siteId = selectedSite.get("_id");
+            Object name = selectedSite.get("name");
+
+            if (siteId != null) {
+                siteIdField.setText(siteId.toString());
+            }
+            if (name != null) {
+                siteNameField.setText(name.toString());
+            }
+        });
+        cardLayout.addView(sitePicker);
 
         siteIdField = new EditText(this);
         siteIdField.setHint("Site ID (auto-filled)");
@@ -183,7 +240,7 @@ public class InstallationActivity extends AppCompatActivity {
         siteIdField.setEnabled(false);
         siteIdField.setBackgroundResource(R.drawable.input_background);
         siteIdField.setPadding(20, 20, 20, 20);
-        siteIdField.setVisibility(View.GONE); // Hide, auto-filled from spinner
+        siteIdField.setVisibility(View.GONE); // Hide, auto-filled from picker
         cardLayout.addView(siteIdField);
 
         siteNameField = new EditText(this);
@@ -193,7 +250,7 @@ public class InstallationActivity extends AppCompatActivity {
         siteNameField.setEnabled(false);
         siteNameField.setBackgroundResource(R.drawable.input_background);
         siteNameField.setPadding(20, 20, 20, 20);
-        siteNameField.setVisibility(View.GONE); // Hide, auto-filled from spinner
+        siteNameField.setVisibility(View.GONE); // Hide, auto-filled from picker
         cardLayout.addView(siteNameField);
 
         TextView label3 = new TextView(this);
@@ -219,13 +276,20 @@ public class InstallationActivity extends AppCompatActivity {
 
         elevationField = new EditText(this);
         elevationField.setHint("0");
-        elevationField.setInputType(2); // number
+        elevationField.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED | InputType.TYPE_NUMBER_FLAG_DECIMAL);
         elevationField.setHintTextColor(Color.GRAY);
         elevationField.setTextColor(Color.WHITE);
         elevationField.setBackgroundResource(R.drawable.input_background);
         elevationField.setPadding(20, 20, 20, 20);
         cardLayout.addView(elevationField);
 
+        Button tiltBtn = new Button(this);
+        tiltBtn.setText("📐 Use Phone Tilt (hold against antenna)");
+        tiltBtn.setBackgroundResource(R.drawable.button_background);
+        tiltBtn.setTextColor(Color.BLACK);
+        tiltBtn.setOnClickListener(v -> measureTilt());
+        cardLayout.addView(tiltBtn);
+
         TextView label5 = new TextView(this);
         label5.setText("Installation Notes");
         label5.setTextColor(Color.WHITE);
@@ -248,6 +312,26 @@ public class InstallationActivity extends AppCompatActivity {
                 photoBtn.setOnClickListener(v -> requestPermissionsAndTakePhoto());
                 cardLayout.addView(photoBtn);
 
+        CheckBox wifiOnlyBox = new CheckBox(this);
+        wifiOnlyBox.setText("Upload photos on Wi-Fi only");
+        wifiOnlyBox.setTextColor(Color.WHITE);
+        wifiOnlyBox.setChecked(ApiClient.get(this).isLargeTransfersOnWifiOnly());
+        wifiOnlyBox.setOnCheckedChangeListener((button, checked) -> ApiClient.get(this).setLargeTransfersOnWifiOnly(checked));
+        cardLayout.addView(wifiOnlyBox);
+
+        Button galleryBtn = new Button(this);
+        galleryBtn.setText("🖼 View Site Photos");
+        galleryBtn.setBackgroundResource(R.drawable.button_background);
+        galleryBtn.setTextColor(Color.BLACK);
+        galleryBtn.setOnClickListener(v -> openSiteGallery());
+        cardLayout.addView(galleryBtn);
+
+        photoStatusText = new TextView(this);
+        photoStatusText.setTextColor(Color.GRAY);
+        photoStatusText.setPadding(0, 10, 0, 10);
+        photoStatusText.setVisibility(View.GONE);
+        cardLayout.addView(photoStatusText);
+
         progressBar = new ProgressBar(this);
         progressBar.setVisibility(View.GONE);
         cardLayout.addView(progressBar);
@@ -266,13 +350,12 @@ public class InstallationActivity extends AppCompatActivity {
     }
 
     private void submitInstallation() {
-        int selectedPosition = siteSpinner.getSelectedItemPosition();
-        if (selectedPosition <= 0 || selectedPosition > sites.size()) {
+        Map<String, Object> selectedSite = sitePicker.getSelected();
+        if (selectedSite == null) {
             Toast.makeText(this, "Please select a site", Toast.LENGTH_SHORT).show();
             return;
         }
         
-        Map<String, Object> selectedSite = sites.get(selectedPosition - 1);
         Object siteIdObj = selectedSite.get("_id");
         Object siteNameObj = selectedSite.get("name");
         
@@ -292,7 +375,22 @@ public class InstallationActivity extends AppCompatActivity {
         }
 
         progressBar.setVisibility(View.VISIBLE);
+        if (docId != null) {
+            // Already created; only the photos that did not make it are left
+            user.getIdToken(true).addOnCompleteListener(task -> {
+                if (!task.isSuccessful()) {
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(InstallationActivity.this, "Authentication failed", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                uploadPhotos("Bearer " + task.getResult().getToken());
+            });
+            return;
+        }
+        Span interaction = Tracer.get().startInteraction("submitInstallation");
+        Span tokenSpan = interaction.child("auth.getIdToken");
         user.getIdToken(true).addOnCompleteListener(task -> {
+            tokenSpan.end();
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
                 
@@ -320,15 +418,25 @@ public class InstallationActivity extends AppCompatActivity {
                 doc.put("requiredPhotos", Map.of("minCount", 3));
                 doc.put("documentation", Map.of("notes", notesField.getText().toString().trim()));
 
-                api.createInstallationDoc(authHeader, tenantId, doc).enqueue(new Callback<com.wispfieldapp.models.InstallationDocumentation>() {
+                interaction.enqueue(api.createInstallationDoc(authHeader, tenantId, doc), new Callback<com.wispfieldapp.models.InstallationDocumentation>() {
                     @Override
                     public void onResponse(Call<com.wispfieldapp.models.InstallationDocumentation> call, Response<com.wispfieldapp.models.InstallationDocumentation> response) {
-                        progressBar.setVisibility(View.GONE);
+                        Span uiSpan = interaction.child("ui.update");
                         if (response.isSuccessful()) {
+                            com.wispfieldapp.models.InstallationDocumentation created = response.body();
+                            if (!photos.isEmpty() && created != null && created.id != null) {
+                                docId = created.id;
+                                uploadPhotos(authHeader);
+                                // Uploads run in the background; the interaction ends at the hand-off
+                                uiSpan.end();
+                                interaction.arg("code", response.code()).arg("photos", photos.size()).end();
+                                return;
+                            }
+                            progressBar.setVisibility(View.GONE);
                             Toast.makeText(InstallationActivity.this, "Installation documentation created! Add photos next.", Toast.LENGTH_LONG).show();
-                            // TODO: Navigate to photo upload screen
                             finish();
                         } else {
+                            progressBar.setVisibility(View.GONE);
                             String errorMsg = "Failed to create installation documentation";
                             if (response.errorBody() != null) {
                                 try {
@@ -339,16 +447,20 @@ public class InstallationActivity extends AppCompatActivity {
                             }
                             Toast.makeText(InstallationActivity.this, errorMsg, Toast.LENGTH_LONG).show();
                         }
+                        uiSpan.end();
+                        interaction.arg("code", response.code()).end();
                     }
 
                     @Override
                     public void onFailure(Call<com.wispfieldapp.models.InstallationDocumentation> call, Throwable t) {
+                        interaction.fail(t).end();
                         progressBar.setVisibility(View.GONE);
                         Log.e(TAG, "Installation failed", t);
                         Toast.makeText(InstallationActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_LONG).show();
                     }
                 });
             } else {
+                interaction.fail("Authentication failed").end();
                 progressBar.setVisibility(View.GONE);
                 Toast.makeText(InstallationActivity.this, "Authentication failed", Toast.LENGTH_SHORT).show();
             }
@@ -385,14 +497,281 @@ public class InstallationActivity extends AppCompatActivity {
         }
         
         try {
-            Toast.makeText(this, "Photo capture feature - will be fully implemented", Toast.LENGTH_SHORT).show();
-            // TODO: Implement actual photo capture with CameraUtils
+            pendingPhotoFile = CameraUtils.createImageFile(this);
+            CameraUtils.dispatchTakePictureIntent(this, pendingPhotoFile);
         } catch (Exception e) {
             Log.e(TAG, "Error taking photo", e);
             Toast.makeText(this, "Error taking photo: " + e.getMessage(), Toast.LENGTH_SHORT).show();
         }
     }
 
+    private void uploadPhotos(String authHeader) {
+        uploader.setListener(docId, uploadListener);
+        String notes = notesField.getText().toString().trim();
+        photoStatusText.setVisibility(View.VISIBLE);
+        for (PhotoProcessor.ProcessedPhoto photo : photos) {
+            if (uploading.add(photo.hash)) {
+                uploader.enqueue(authHeader, new ResumableUploader.Job(docId, photo.file, photo.hash, "after", notes));
+            }
+        }
+    }
+
+    private class UploadListener implements ResumableUploader.Listener {
+        @Override
+        public void onProgress(ResumableUploader.Job job, long bytesSent, long jobBytes) {
+            sentBytes.put(job.sha256, bytesSent);
+            long done = 0;
+            long total = 0;
+            for (PhotoProcessor.ProcessedPhoto photo : photos) {
+                Long sent = sentBytes.get(photo.hash);
+                done += sent != null ? sent : 0;
+                total += photo.bytes;
+            }
+            String status = "Uploading photos: " + (done / 1024) + " / " + (total / 1024) + " KB";
+            if (ApiClient.get(InstallationActivity.this).getScheduler().isWaitingForUnmetered()) {
+                status += " (waiting for Wi-Fi)";
+            }
+            photoStatusText.setText(status);
+        }
+
+        @Override
+        public void onComplete(ResumableUploader.Job job, Map<String, Object> photo) {
+            photos.removeIf(p -> p.hash.equals(job.sha256));
+            onPhotoUploadFinished(job);
+        }
+
+        @Override
+        public void onFailed(ResumableUploader.Job job, Exception e) {
+            onPhotoUploadFinished(job);
+        }
+
+        private void onPhotoUploadFinished(ResumableUploader.Job job) {
+            sentBytes.remove(job.sha256);
+            // Outcomes replayed from before this screen was recreated only update the photo list
+            if (!uploading.remove(job.sha256) || !uploading.isEmpty()) return;
+            progressBar.setVisibility(View.GONE);
+            if (photos.isEmpty()) {
+                Toast.makeText(InstallationActivity.this, "Installation documentation and photos uploaded!", Toast.LENGTH_LONG).show();
+                finish();
+            } else {
+                // Sessions are kept, so a retry continues where these stopped
+                updatePhotoStatus(null);
+                Toast.makeText(InstallationActivity.this, photos.size() + " photo(s) failed to upload. Check your connection and try again.", Toast.LENGTH_LONG).show();
+            }
+        }
+    }
+
+    /**
+     * Fills in the elevation from the phone's tilt, averaged over a short burst of
+     * accelerometer readings so a shaky hand does not matter
+     */
+    private void measureTilt() {
+        SensorManager sensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
+        Sensor accelerometer = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+        if (accelerometer == null) {
+            Toast.makeText(this, "No accelerometer on this device", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (tiltListener != null) return;
+
+        float[] sum = new float[3];
+        int[] count = {0};
+        tiltListener = new SensorEventListener() {
+            @Override
+            public void onSensorChanged(SensorEvent event) {
+                for (int i = 0; i < 3; i++) sum[i] += event.values[i];
+                if (++count[0] < TILT_SAMPLES) return;
+                sensorManager.unregisterListener(this);
+                tiltListener = null;
+                double uptilt = ElevationAngle.deviceUptiltDeg(sum[0], sum[1], sum[2]);
+                elevationField.setText(String.format(Locale.US, "%.1f", uptilt));
+                Log.d(TAG, "Measured tilt " + uptilt + " from " + count[0] + " samples");
+            }
+
+            @Override
+            public void onAccuracyChanged(Sensor sensor, int accuracy) {
+            }
+        };
+        sensorManager.registerListener(tiltListener, accelerometer, SensorManager.SENSOR_DELAY_GAME);
+        Toast.makeText(this, "Hold still...", Toast.LENGTH_SHORT).show();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (tiltListener != null) {
+            ((SensorManager) getSystemService(SENSOR_SERVICE)).unregisterListener(tiltListener);
+        }
+        // Uploads carry on in the process-wide uploader; a recreated screen picks them up again
+        if (docId != null) {
+            uploader.setListener(docId, null);
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (pendingPhotoFile != null) {
+            outState.putString(STATE_PENDING_PHOTO, pendingPhotoFile.getAbsolutePath());
+        }
+        outState.putString(STATE_DOC_ID, docId);
+        java.util.ArrayList<String> hashes = new java.util.ArrayList<>();
+        for (PhotoProcessor.ProcessedPhoto photo : photos) {
+            hashes.add(photo.hash);
+        }
+        outState.putStringArrayList(STATE_PHOTO_HASHES, hashes);
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode != CameraUtils.REQUEST_IMAGE_CAPTURE || pendingPhotoFile == null) return;
+
+        File capture = pendingPhotoFile;
+        pendingPhotoFile = null;
+        if (resultCode != RESULT_OK || capture.length() == 0) {
+            capture.delete();
+            return;
+        }
+        processPhoto(capture);
+    }
+
+    private void processPhoto(File capture) {
+        PhotoProcessor.Tags tags = new PhotoProcessor.Tags();
+        tags.location = getLastKnownLocation();
+        tags.timestamp = capture.lastModified();
+        // The antenna azimuth entered on this screen is the direction the photo documents
+        String azimuth = azimuthField.getText().toString().trim();
+        if (!azimuth.isEmpty()) {
+            try {
+                tags.heading = Float.parseFloat(azimuth);
+                tags.headingIsTrue = true;
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Invalid azimuth for photo heading: " + azimuth);
+            }
+        } else if (tags.location != null && tags.location.hasBearing()) {
+            tags.heading = tags.location.getBearing();
+            tags.headingIsTrue = true;
+        }
+
+        photoStatusText.setVisibility(View.VISIBLE);
+        photoStatusText.setText("Processing photo...");
+        photoProcessor.processAsync(capture, tags, new PhotoProcessor.Callback() {
+            @Override
+            public void onProcessed(PhotoProcessor.ProcessedPhoto photo) {
+                capture.delete();
+                photos.add(photo);
+                updatePhotoStatus(photo);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                capture.delete();
+                updatePhotoStatus(null);
+                Toast.makeText(InstallationActivity.this, "Error processing photo: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void updatePhotoStatus(PhotoProcessor.ProcessedPhoto latest) {
+        if (photos.isEmpty()) {
+            photoStatusText.setVisibility(View.GONE);
+            return;
+        }
+        long totalBytes = 0;
+        for (PhotoProcessor.ProcessedPhoto photo : photos) {
+            totalBytes += photo.bytes;
+        }
+        String status = photos.size() + " photo(s), " + (totalBytes / 1024) + " KB to upload";
+        if (latest != null) {
+            status += "\nLast: " + latest.summary();
+        }
+        photoStatusText.setVisibility(View.VISIBLE);
+        photoStatusText.setText(status);
+    }
+
+    private void openSiteGallery() {
+        Map<String, Object> selectedSite = sitePicker.getSelected();
+        Object siteId = selectedSite != null ? selectedSite.get("_id") : null;
+        if (siteId == null) {
+            Toast.makeText(this, "Please select a site", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
+
+        user.getIdToken(true).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                Toast.makeText(this, "Authentication failed", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            String authHeader = "Bearer " + task.getResult().getToken();
+            api.getInstallationDocumentation(authHeader, tenantId, null, siteId.toString()).enqueue(new Callback<List<com.wispfieldapp.models.InstallationDocumentation>>() {
+                @Override
+                public void onResponse(Call<List<com.wispfieldapp.models.InstallationDocumentation>> call, Response<List<com.wispfieldapp.models.InstallationDocumentation>> response) {
+                    if (!response.isSuccessful() || response.body() == null) {
+                        Toast.makeText(InstallationActivity.this, "Failed to load installations", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    List<com.wispfieldapp.models.InstallationDocumentation> docs = response.body();
+                    if (docs.isEmpty()) {
+                        Toast.makeText(InstallationActivity.this, "No installations documented for this site yet", Toast.LENGTH_SHORT).show();
+                    } else if (docs.size() == 1) {
+                        openGallery(docs.get(0));
+                    } else {
+                        String[] labels = new String[docs.size()];
+                        for (int i = 0; i < docs.size(); i++) {
+                            com.wispfieldapp.models.InstallationDocumentation doc = docs.get(i);
+                            String date = doc.installationDate != null ? doc.installationDate : doc.createdAt;
+                            labels[i] = (doc.installationType != null ? doc.installationType : "installation")
+                                + (date != null ? " - " + date.substring(0, Math.min(10, date.length())) : "")
+                                + " (" + (doc.photos != null ? doc.photos.size() : 0) + " photos)";
+                        }
+                        new androidx.appcompat.app.AlertDialog.Builder(InstallationActivity.this)
+                            .setTitle("Select installation")
+                            .setItems(labels, (dialog, which) -> openGallery(docs.get(which)))
+                            .show();
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<List<com.wispfieldapp.models.InstallationDocumentation>> call, Throwable t) {
+                    Log.e(TAG, "Failed to load installations", t);
+                    Toast.makeText(InstallationActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            });
+        });
+    }
+
+    private void openGallery(com.wispfieldapp.models.InstallationDocumentation doc) {
+        Intent intent = new Intent(this, InstallationGalleryActivity.class);
+        intent.putExtra("tenantId", tenantId);
+        intent.putExtra("docId", doc.id);
+        intent.putExtra("title", doc.siteName != null ? doc.siteName + " Photos" : "Installation Photos");
+        startActivity(intent);
+    }
+
+    private Location getLastKnownLocation() {
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return null;
+        }
+        LocationManager locationManager = (LocationManager) getSystemService(LOCATION_SERVICE);
+        if (locationManager == null) return null;
+        Location best = null;
+        for (String provider : new String[]{LocationManager.GPS_PROVIDER, LocationManager.NETWORK_PROVIDER}) {
+            try {
+                Location location = locationManager.getLastKnownLocation(provider);
+                if (location != null && (best == null || location.getTime() > best.getTime())) {
+                    best = location;
+                }
+            } catch (IllegalArgumentException | SecurityException e) {
+                Log.w(TAG, "Location provider unavailable: " + provider, e);
+            }
+        }
+        return best;
+    }
+
     @Override
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
@@ -0,0 +1,257 @@
+package com.wispfieldapp.activities;
+
+import android.content.Intent;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.wispfieldapp.R;
+import com.wispfieldapp.api.ApiClient;
+import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.gallery.ThumbnailLoader;
+import com.wispfieldapp.gallery.ThumbnailPreloader;
+import com.wispfieldapp.gallery.ThumbnailStats;
+import com.wispfieldapp.models.InstallationDocumentation;
+import java.util.ArrayList;
+import java.util.List;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Grid of the photos attached to one installation documentation record.
+ * Thumbnails come from the Glide memory/disk caches; the full image is only
+ * fetched when a photo is tapped.
+ */
+public class InstallationGalleryActivity extends AppCompatActivity {
+    private static final String TAG = "InstallationGallery";
+    private static final int COLUMNS = 3;
+    private static final long STATS_INTERVAL_MS = 1000;
+
+    private WispApi api;
+    private String tenantId;
+    private String docId;
+    private RequestManager glide;
+    private ProgressBar progressBar;
+    private TextView emptyText;
+    private TextView statsText;
+    private final List<InstallationDocumentation.Photo> photos = new ArrayList<>();
+    private PhotoAdapter adapter;
+    private ThumbnailPreloader preloader;
+    private int thumbnailSize;
+    private final Handler statsHandler = new Handler(Looper.getMainLooper());
+    private final Runnable statsUpdater = new Runnable() {
+        @Override
+        public void run() {
+            statsText.setText(ThumbnailStats.get().summary());
+            statsHandler.postDelayed(this, STATS_INTERVAL_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        tenantId = getIntent().getStringExtra("tenantId");
+        docId = getIntent().getStringExtra("docId");
+        if (tenantId == null || docId == null) {
+            Toast.makeText(this, "Missing installation record", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        api = ApiClient.api(this);
+        glide = Glide.with(this);
+        thumbnailSize = getResources().getDisplayMetrics().widthPixels / COLUMNS;
+
+        setupUI(getIntent().getStringExtra("title"));
+        loadPhotos();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        statsHandler.post(statsUpdater);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        statsHandler.removeCallbacks(statsUpdater);
+        Log.i(TAG, ThumbnailStats.get().summary());
+    }
+
+    private void setupUI(String title) {
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setPadding(20, 20, 20, 20);
+        layout.setBackgroundColor(Color.BLACK);
+
+        TextView titleView = new TextView(this);
+        titleView.setText(title != null ? title : "Installation Photos");
+        titleView.setTextColor(Color.WHITE);
+        titleView.setTextSize(24);
+        titleView.setPadding(0, 0, 0, 10);
+        layout.addView(titleView);
+
+        statsText = new TextView(this);
+        statsText.setTextColor(Color.GRAY);
+        statsText.setTextSize(11);
+        statsText.setPadding(0, 0, 0, 20);
+        layout.addView(statsText);
+
+        progressBar = new ProgressBar(this);
+        layout.addView(progressBar);
+
+        emptyText = new TextView(this);
+        emptyText.setText("No photos for this installation");
+        emptyText.setTextColor(Color.GRAY);
+        emptyText.setGravity(android.view.Gravity.CENTER);
+        emptyText.setPadding(0, 40, 0, 0);
+        emptyText.setVisibility(View.GONE);
+        layout.addView(emptyText);
+
+        GridLayoutManager layoutManager = new GridLayoutManager(this, COLUMNS);
+        adapter = new PhotoAdapter();
+        RecyclerView grid = new RecyclerView(this);
+        grid.setLayoutManager(layoutManager);
+        grid.setHasFixedSize(true);
+        grid.setAdapter(adapter);
+        preloader = new ThumbnailPreloader(glide, layoutManager, new ThumbnailPreloader.UrlProvider() {
+            @Override
+            public String urlAt(int position) {
+                return position < photos.size() ? thumbnailUrl(photos.get(position)) : null;
+            }
+
+            @Override
+            public int getCount() {
+                return photos.size();
+            }
+        }, thumbnailSize, COLUMNS * 4);
+        grid.addOnScrollListener(preloader);
+        layout.addView(grid, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+
+        setContentView(layout);
+    }
+
+    private void loadPhotos() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Toast.makeText(this, "Not authenticated", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        user.getIdToken(true).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                String authHeader = "Bearer " + task.getResult().getToken();
+
+                api.getInstallationDoc(authHeader, tenantId, docId).enqueue(new Callback<InstallationDocumentation>() {
+                    @Override
+                    public void onResponse(Call<InstallationDocumentation> call, Response<InstallationDocumentation> response) {
+                        progressBar.setVisibility(View.GONE);
+                        if (response.isSuccessful() && response.body() != null) {
+                            photos.clear();
+                            if (response.body().photos != null) {
+                                photos.addAll(response.body().photos);
+                            }
+                            preloader.reset();
+                            adapter.notifyDataSetChanged();
+                            emptyText.setVisibility(photos.isEmpty() ? View.VISIBLE : View.GONE);
+                        } else {
+                            Toast.makeText(InstallationGalleryActivity.this, "Failed to load photos", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<InstallationDocumentation> call, Throwable t) {
+                        progressBar.setVisibility(View.GONE);
+                        Log.e(TAG, "Failed to load installation photos", t);
+                        Toast.makeText(InstallationGalleryActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_LONG).show();
+                    }
+                });
+            } else {
+                progressBar.setVisibility(View.GONE);
+                Toast.makeText(InstallationGalleryActivity.this, "Authentication failed", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private static String thumbnailUrl(InstallationDocumentation.Photo photo) {
+        return photo.thumbnailUrl != null && !photo.thumbnailUrl.isEmpty() ? photo.thumbnailUrl : photo.url;
+    }
+
+    private void openPhoto(InstallationDocumentation.Photo photo) {
+        if (photo.url == null) return;
+        Intent intent = new Intent(this, PhotoViewerActivity.class);
+        intent.putExtra("url", photo.url);
+        intent.putExtra("description", photo.description);
+        startActivity(intent);
+    }
+
+    private class PhotoAdapter extends RecyclerView.Adapter<PhotoHolder> {
+        @NonNull
+        @Override
+        public PhotoHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            ImageView image = new ImageView(parent.getContext());
+            image.setScaleType(ImageView.ScaleType.CENTER_CROP);
+            image.setBackgroundColor(getResources().getColor(R.color.bg_card));
+            image.setPadding(2, 2, 2, 2);
+            image.setLayoutParams(new RecyclerView.LayoutParams(thumbnailSize, thumbnailSize));
+            PhotoHolder holder = new PhotoHolder(image);
+            image.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && position < photos.size()) {
+                    openPhoto(photos.get(position));
+                }
+            });
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull PhotoHolder holder, int position) {
+            String url = thumbnailUrl(photos.get(position));
+            if (url != null) {
+                ThumbnailLoader.load(glide, holder.image, url, thumbnailSize);
+            } else {
+                glide.clear(holder.image);
+            }
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull PhotoHolder holder) {
+            // Return the bitmap to the pool as soon as the cell leaves the screen
+            glide.clear(holder.image);
+        }
+
+        @Override
+        public int getItemCount() {
+            return photos.size();
+        }
+    }
+
+    private static class PhotoHolder extends RecyclerView.ViewHolder {
+        final ImageView image;
+
+        PhotoHolder(ImageView image) {
+            super(image);
+            this.image = image;
+        }
+    }
+}
@@ -20,28 +20,34 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.gson.reflect.TypeToken;
 import com.wispfieldapp.R;
+import com.wispfieldapp.api.ApiClient;
 import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.search.SearchIndex;
+import com.wispfieldapp.search.SearchIndexes;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.tenant.TenantPartition;
+import com.wispfieldapp.trace.Span;
+import com.wispfieldapp.trace.Tracer;
 import com.wispfieldapp.utils.CameraUtils;
+import com.wispfieldapp.views.SearchablePickerView;
 import android.content.Intent;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class InventoryCheckinActivity extends AppCompatActivity {
     private static final String TAG = "InventoryCheckin";
-    private static final String BASE_URL = "https://hss.wisptools.io/";
     private WispApi api;
     private EditText identifierField;
     private EditText notesField;
     private Spinner locationSpinner;
+    private SearchablePickerView<Map<String, Object>> itemPicker;
+    private final SearchIndex<Map<String, Object>> itemIndex = new SearchIndex<>();
     private ProgressBar progressBar;
     private String tenantId;
     private java.util.List<String> locations;
@@ -58,15 +64,7 @@ public class InventoryCheckinActivity extends AppCompatActivity {
         }
 
         // Setup API
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> Log.d(TAG, "HTTP: " + message));
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(logging).build();
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(BASE_URL)
-            .client(client)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build();
-        api = retrofit.create(WispApi.class);
+        api = ApiClient.api(this);
 
         locations = new java.util.ArrayList<>();
         setupUI();
@@ -77,6 +75,11 @@ public class InventoryCheckinActivity extends AppCompatActivity {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) return;
 
+        TenantPartition partition = TenantCache.get(this).partition(tenantId);
+        partition.<List<Map<String, Object>>>get(TenantPartition.INVENTORY, new TypeToken<List<Map<String, Object>>>() {}.getType(), cached -> {
+            if (locations.isEmpty()) applyInventory(cached);
+        });
+
         user.getIdToken(true).addOnCompleteListener(task -> {
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
@@ -90,40 +93,8 @@ public class InventoryCheckinActivity extends AppCompatActivity {
                             if (itemsObj instanceof List) {
                                 @SuppressWarnings("unchecked")
                                 List<Map<String, Object>> items = (List<Map<String, Object>>) itemsObj;
-                                
-                                java.util.Set<String> uniqueLocations = new java.util.HashSet<>();
-                                uniqueLocations.add("Warehouse"); // Default option
-                                
-                                for (Map<String, Object> item : items) {
-                                    Object locationObj = item.get("currentLocation");
-                                    if (locationObj instanceof Map) {
-                                        @SuppressWarnings("unchecked")
-                                        Map<String, Object> location = (Map<String, Object>) locationObj;
-                                        Object siteName = location.get("siteName");
-                                        Object address = location.get("address");
-                                        Object type = location.get("type");
-                                        
-                                        if (siteName != null && !siteName.toString().isEmpty()) {
-                                            uniqueLocations.add(siteName.toString());
-                                        } else if (address != null && !address.toString().isEmpty()) {
-                                            uniqueLocations.add(address.toString());
-                                        } else if (type != null) {
-                                            uniqueLocations.add(type.toString());
-                                        }
-                                    }
-                                }
-                                
-                                locations.clear();
-                                locations.addAll(uniqueLocations);
-                                java.util.Collections.sort(locations);
-                                
-                                ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                                    InventoryCheckinActivity.this,
-                                    android.R.layout.simple_spinner_item,
-                                    locations
-                                );
-                                adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                                locationSpinner.setAdapter(adapter);
+                                partition.put(TenantPartition.INVENTORY, items);
+                                applyInventory(items);
                             }
                         }
                     }
@@ -131,6 +102,7 @@ public class InventoryCheckinActivity extends AppCompatActivity {
                     @Override
                     public void onFailure(retrofit2.Call<Map<String, Object>> call, Throwable t) {
                         Log.e(TAG, "Failed to load locations", t);
+                        if (!locations.isEmpty()) return; // keep cached locations
                         // Set default location
                         locations.clear();
                         locations.add("Warehouse");
@@ -147,6 +119,44 @@ public class InventoryCheckinActivity extends AppCompatActivity {
         });
     }
 
+    private void applyInventory(List<Map<String, Object>> items) {
+        SearchIndexes.indexInventoryAsync(itemIndex, items, () -> itemPicker.refresh());
+
+        java.util.Set<String> uniqueLocations = new java.util.HashSet<>();
+        uniqueLocations.add("Warehouse"); // Default option
+
+        for (Map<String, Object> item : items) {
+            Object locationObj = item.get("currentLocation");
+            if (locationObj instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> location = (Map<String, Object>) locationObj;
+                Object siteName = location.get("siteName");
+                Object address = location.get("address");
+                Object type = location.get("type");
+
+                if (siteName != null && !siteName.toString().isEmpty()) {
+                    uniqueLocations.add(siteName.toString());
+                } else if (address != null && !address.toString().isEmpty()) {
+                    uniqueLocations.add(address.toString());
+                } else if (type != null) {
+                    uniqueLocations.add(type.toString());
+                }
+            }
+        }
+
+        locations.clear();
+        locations.addAll(uniqueLocations);
+        java.util.Collections.sort(locations);
+
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(
+            InventoryCheckinActivity.this,
+            android.R.layout.simple_spinner_item,
+            locations
+        );
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        locationSpinner.setAdapter(adapter);
+    }
+
     private void setupUI() {
         ScrollView scrollView = new ScrollView(this);
         LinearLayout layout = new LinearLayout(this);
@@ -195,6 +205,33 @@ public class InventoryCheckinActivity extends AppCompatActivity {
         });
         cardLayout.addView(scanBtn);
 
+        TextView labelFind = new TextView(this);
+        labelFind.setText("Or find item");
+        labelFind.setTextColor(Color.WHITE);
+        labelFind.setPadding(0, 20, 0, 10);
+        cardLayout.addView(labelFind);
+
+        itemPicker = new SearchablePickerView<>(this, itemIndex, item -> {
+            Object assetTag = item.get("assetTag");
+            Object model = item.get("model");
+            String label = assetTag != null ? assetTag.toString() : "No asset tag";
+            return model != null ? label + " - " + model : label;
+        });
+        itemPicker.setHint("Search by asset tag or serial...");
+        itemPicker.setDetailLabeler(item -> {
+            Object serial = item.get("serialNumber");
+            return serial != null ? "S/N " + serial : null;
+        });
+        itemPicker.setOnPickListener(item -> {
+            Object assetTag = item.get("assetTag");
+            Object serial = item.get("serialNumber");
+            Object identifier = assetTag != null ? assetTag : serial;
+            if (identifier != null) {
+                identifierField.setText(identifier.toString());
+            }
+        });
+        cardLayout.addView(itemPicker);
+
         TextView labelLocation = new TextView(this);
         labelLocation.setText("Location");
         labelLocation.setTextColor(Color.WHITE);
@@ -253,7 +290,10 @@ public class InventoryCheckinActivity extends AppCompatActivity {
         }
 
         progressBar.setVisibility(View.VISIBLE);
+        Span interaction = Tracer.get().startInteraction("checkIn");
+        Span tokenSpan = interaction.child("auth.getIdToken");
         user.getIdToken(true).addOnCompleteListener(task -> {
+            tokenSpan.end();
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
                 
@@ -271,14 +311,16 @@ public class InventoryCheckinActivity extends AppCompatActivity {
                     body.put("location", location);
                 }
 
-                api.checkInItem(authHeader, tenantId, body).enqueue(new Callback<Map<String, Object>>() {
+                interaction.enqueue(api.checkInItem(authHeader, tenantId, body), new Callback<Map<String, Object>>() {
                     @Override
                     public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+                        Span uiSpan = interaction.child("ui.update");
                         progressBar.setVisibility(View.GONE);
                         if (response.isSuccessful()) {
                             Toast.makeText(InventoryCheckinActivity.this, "Item checked in successfully!", Toast.LENGTH_LONG).show();
                             identifierField.setText("");
                             notesField.setText("");
+                            itemPicker.clearSelection();
                         } else {
                             String errorMsg = "Check-in failed";
                             if (response.errorBody() != null) {
@@ -295,16 +337,20 @@ public class InventoryCheckinActivity extends AppCompatActivity {
                             }
                             Toast.makeText(InventoryCheckinActivity.this, errorMsg, Toast.LENGTH_LONG).show();
                         }
+                        uiSpan.end();
+                        interaction.arg("code", response.code()).end();
                     }
 
                     @Override
                     public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+                        interaction.fail(t).end();
                         progressBar.setVisibility(View.GONE);
                         Log.e(TAG, "Check-in failed", t);
                         Toast.makeText(InventoryCheckinActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_LONG).show();
                     }
                 });
             } else {
+                interaction.fail("Authentication failed").end();
                 progressBar.setVisibility(View.GONE);
                 Toast.makeText(InventoryCheckinActivity.this, "Authentication failed", Toast.LENGTH_SHORT).show();
             }
@@ -18,22 +18,18 @@ import androidx.cardview.widget.CardView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.wispfieldapp.R;
+import com.wispfieldapp.api.ApiClient;
 import com.wispfieldapp.api.WispApi;
 import com.wispfieldapp.utils.CameraUtils;
 import android.content.Intent;
 import java.util.HashMap;
 import java.util.Map;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class InventoryCheckoutActivity extends AppCompatActivity {
     private static final String TAG = "InventoryCheckout";
-    private static final String BASE_URL = "https://hss.wisptools.io/";
     private WispApi api;
     private EditText identifierField;
     private EditText locationField;
@@ -53,15 +49,7 @@ public class InventoryCheckoutActivity extends AppCompatActivity {
         }
 
         // Setup API
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> Log.d(TAG, "HTTP: " + message));
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(logging).build();
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(BASE_URL)
-            .client(client)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build();
-        api = retrofit.create(WispApi.class);
+        api = ApiClient.api(this);
 
         setupUI();
     }
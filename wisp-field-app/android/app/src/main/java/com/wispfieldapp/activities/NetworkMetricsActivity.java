@@ -0,0 +1,217 @@
+package com.wispfieldapp.activities;
+
+import android.content.Intent;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.FileProvider;
+import com.wispfieldapp.R;
+import com.wispfieldapp.api.ApiClient;
+import com.wispfieldapp.metrics.EndpointMetrics;
+import com.wispfieldapp.metrics.NetworkMetrics;
+import com.wispfieldapp.trace.ChromeTraceExporter;
+import com.wispfieldapp.trace.Span;
+import com.wispfieldapp.trace.Tracer;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Debug screen listing per-endpoint latency percentiles, traffic and error counts,
+ * with JSON export of the metrics and of recent interaction traces
+ */
+public class NetworkMetricsActivity extends AppCompatActivity {
+    private static final String TAG = "NetworkMetrics";
+
+    private NetworkMetrics metrics;
+    private LinearLayout listLayout;
+    private TextView sinceText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        metrics = ApiClient.get(this).getMetrics();
+        setupUI();
+        refresh();
+    }
+
+    private void setupUI() {
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setPadding(20, 20, 20, 20);
+        layout.setBackgroundColor(Color.BLACK);
+
+        TextView title = new TextView(this);
+        title.setText("Network Metrics");
+        title.setTextColor(Color.WHITE);
+        title.setTextSize(24);
+        title.setPadding(0, 0, 0, 10);
+        layout.addView(title);
+
+        sinceText = new TextView(this);
+        sinceText.setTextColor(Color.GRAY);
+        sinceText.setTextSize(12);
+        sinceText.setPadding(0, 0, 0, 20);
+        layout.addView(sinceText);
+
+        LinearLayout buttons = new LinearLayout(this);
+        buttons.setOrientation(LinearLayout.HORIZONTAL);
+        buttons.addView(button("Refresh", this::refresh), weighted());
+        buttons.addView(button("Reset", () -> {
+            metrics.reset();
+            refresh();
+        }), weighted());
+        buttons.addView(button("Export JSON", this::exportJson), weighted());
+        layout.addView(buttons);
+
+        Button traceButton = button("Export Interaction Trace", this::exportTrace);
+        LinearLayout.LayoutParams traceParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+        traceParams.setMargins(5, 10, 5, 0);
+        layout.addView(traceButton, traceParams);
+
+        ScrollView scrollView = new ScrollView(this);
+        listLayout = new LinearLayout(this);
+        listLayout.setOrientation(LinearLayout.VERTICAL);
+        listLayout.setPadding(0, 20, 0, 0);
+        scrollView.addView(listLayout);
+        layout.addView(scrollView, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+
+        setContentView(layout);
+    }
+
+    private Button button(String text, Runnable action) {
+        Button button = new Button(this);
+        button.setText(text);
+        button.setBackgroundResource(R.drawable.button_background);
+        button.setTextColor(Color.WHITE);
+        button.setOnClickListener(v -> action.run());
+        return button;
+    }
+
+    private static LinearLayout.LayoutParams weighted() {
+        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f);
+        params.setMargins(5, 0, 5, 0);
+        return params;
+    }
+
+    private void refresh() {
+        sinceText.setText("Since " + new SimpleDateFormat("HH:mm:ss", Locale.US).format(new Date(metrics.getSinceMillis()))
+            + "   circuit " + metrics.getCircuitState() + " (opened " + metrics.getCircuitOpens() + "x)");
+        listLayout.removeAllViews();
+
+        List<EndpointMetrics.Snapshot> snapshots = metrics.snapshot();
+        if (snapshots.isEmpty()) {
+            TextView empty = new TextView(this);
+            empty.setText("No requests recorded");
+            empty.setTextColor(Color.GRAY);
+            listLayout.addView(empty);
+            return;
+        }
+        for (EndpointMetrics.Snapshot snapshot : snapshots) {
+            listLayout.addView(endpointCard(snapshot));
+        }
+    }
+
+    private CardView endpointCard(EndpointMetrics.Snapshot s) {
+        CardView card = new CardView(this);
+        card.setCardBackgroundColor(getResources().getColor(R.color.bg_card));
+        card.setRadius(8);
+        LinearLayout.LayoutParams cardParams = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+        cardParams.setMargins(0, 0, 0, 15);
+        card.setLayoutParams(cardParams);
+
+        LinearLayout content = new LinearLayout(this);
+        content.setOrientation(LinearLayout.VERTICAL);
+        content.setPadding(20, 15, 20, 15);
+
+        TextView endpoint = new TextView(this);
+        endpoint.setText(s.endpoint);
+        endpoint.setTextColor(Color.WHITE);
+        endpoint.setTypeface(null, Typeface.BOLD);
+        content.addView(endpoint);
+
+        TextView details = new TextView(this);
+        details.setTextColor(Color.GRAY);
+        details.setTextSize(12);
+        details.setText(String.format(Locale.US,
+            "%d requests   p50 %.0f ms   p95 %.0f ms   p99 %.0f ms\n" +
+            "out %s   in %s\n" +
+            "HTTP errors %d   failures %d   timeouts %d\n" +
+            "cache hits %d   revalidated %d   coalesced %d\n" +
+            "retries %d   short-circuited %d",
+            s.requests, s.p50Ms, s.p95Ms, s.p99Ms,
+            formatBytes(s.bytesOut), formatBytes(s.bytesIn),
+            s.httpErrors, s.failures, s.timeouts,
+            s.cacheHits, s.conditionalHits, s.coalesced,
+            s.retries, s.shortCircuited));
+        content.addView(details);
+
+        card.addView(content);
+        return card;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.US, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private void exportJson() {
+        File file = new File(getExternalFilesDir(null), "network-metrics-" + timestamp() + ".json");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(metrics.toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to export metrics", e);
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        share(file, "Export network metrics");
+    }
+
+    /**
+     * Chrome trace-event JSON; open in chrome://tracing or ui.perfetto.dev
+     */
+    private void exportTrace() {
+        List<Span> spans = Tracer.get().snapshot();
+        if (spans.isEmpty()) {
+            Toast.makeText(this, "No interactions traced yet", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        File file = new File(getExternalFilesDir(null), "trace-" + timestamp() + ".json");
+        try {
+            ChromeTraceExporter.write(spans, file);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to export trace", e);
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        share(file, "Export interaction trace");
+    }
+
+    private static String timestamp() {
+        return new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+    }
+
+    private void share(File file, String title) {
+        Uri uri = FileProvider.getUriForFile(this, "com.wispfieldapp.fileprovider", file);
+        Intent share = new Intent(Intent.ACTION_SEND);
+        share.setType("application/json");
+        share.putExtra(Intent.EXTRA_STREAM, uri);
+        share.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(share, title));
+    }
+}
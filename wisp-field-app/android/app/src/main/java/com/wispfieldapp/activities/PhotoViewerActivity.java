@@ -0,0 +1,78 @@
+package com.wispfieldapp.activities;
+
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+/**
+ * Full-size view of a single installation photo. Tap anywhere to close.
+ */
+public class PhotoViewerActivity extends AppCompatActivity {
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        String url = getIntent().getStringExtra("url");
+        if (url == null) {
+            finish();
+            return;
+        }
+
+        FrameLayout layout = new FrameLayout(this);
+        layout.setBackgroundColor(Color.BLACK);
+        layout.setOnClickListener(v -> finish());
+
+        ImageView image = new ImageView(this);
+        image.setScaleType(ImageView.ScaleType.FIT_CENTER);
+        layout.addView(image, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+
+        ProgressBar progressBar = new ProgressBar(this);
+        layout.addView(progressBar, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER));
+
+        String description = getIntent().getStringExtra("description");
+        if (description != null && !description.isEmpty()) {
+            TextView caption = new TextView(this);
+            caption.setText(description);
+            caption.setTextColor(Color.WHITE);
+            caption.setBackgroundColor(Color.parseColor("#99000000"));
+            caption.setPadding(20, 20, 20, 20);
+            layout.addView(caption, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM));
+        }
+
+        setContentView(layout);
+
+        // Glide sizes the decode to the view, so even the full image is never decoded above screen resolution
+        Glide.with(this)
+            .load(url)
+            .listener(new RequestListener<Drawable>() {
+                @Override
+                public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+                    progressBar.setVisibility(View.GONE);
+                    Toast.makeText(PhotoViewerActivity.this, "Failed to load photo", Toast.LENGTH_SHORT).show();
+                    return false;
+                }
+
+                @Override
+                public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+                    progressBar.setVisibility(View.GONE);
+                    return false;
+                }
+            })
+            .into(image);
+    }
+}
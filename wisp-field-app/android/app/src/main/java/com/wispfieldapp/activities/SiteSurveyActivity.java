@@ -0,0 +1,263 @@
+package com.wispfieldapp.activities;
+
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.graphics.Color;
+import android.location.Location;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.InputType;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.ScrollView;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import com.wispfieldapp.R;
+import com.wispfieldapp.survey.SiteSurvey;
+import com.wispfieldapp.survey.SurveyPoint;
+import com.wispfieldapp.survey.SurveyTower;
+import com.wispfieldapp.terrain.LineOfSight;
+import com.wispfieldapp.terrain.TerrainStore;
+import com.wispfieldapp.topology.TopologyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Ranks a batch of candidate customer locations against every tower in range, from
+ * the cached topology and DEM tiles, so it works offline
+ */
+public class SiteSurveyActivity extends AppCompatActivity {
+    private static final String TAG = "SiteSurvey";
+
+    private EditText pointsField;
+    private ProgressBar progressBar;
+    private Button runBtn;
+    private TextView statusField;
+    private LinearLayout resultsLayout;
+    private String tenantId;
+    private List<SurveyTower> towers;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        tenantId = getIntent().getStringExtra("tenantId");
+        setupUI();
+        loadTowers();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        worker.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    private void loadTowers() {
+        TopologyStore.get(this).load(tenantId, snapshot -> worker.execute(() -> {
+            List<SurveyTower> loaded = SurveyTower.from(snapshot);
+            mainHandler.post(() -> {
+                towers = loaded;
+                statusField.setText(String.format(Locale.US, "%d towers loaded", loaded.size()));
+            });
+        }));
+    }
+
+    private void addMyLocation() {
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            Toast.makeText(this, "Location permission is needed to add your position", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        LocationManager locationManager = (LocationManager) getSystemService(LOCATION_SERVICE);
+        Location location = null;
+        try {
+            if (locationManager != null) {
+                location = locationManager.getLastKnownLocation(LocationManager.GPS_PROVIDER);
+            }
+        } catch (SecurityException e) {
+            Log.e(TAG, "Error reading last known location", e);
+        }
+        if (location == null) {
+            Toast.makeText(this, "No GPS fix yet", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String line = String.format(Locale.US, "%.6f, %.6f, My location", location.getLatitude(), location.getLongitude());
+        String text = pointsField.getText().toString();
+        pointsField.setText(text.isEmpty() || text.endsWith("\n") ? text + line : text + "\n" + line);
+    }
+
+    private void runSurvey() {
+        if (towers == null) {
+            Toast.makeText(this, "No towers cached - open Aiming while online first", Toast.LENGTH_LONG).show();
+            return;
+        }
+        List<Integer> rejected = new ArrayList<>();
+        List<SurveyPoint> points = SurveyPoint.parse(pointsField.getText().toString(), rejected);
+        if (!rejected.isEmpty()) {
+            Toast.makeText(this, "Skipped unreadable lines: " + rejected, Toast.LENGTH_LONG).show();
+        }
+        if (points.isEmpty()) {
+            Toast.makeText(this, "Enter one \"latitude, longitude, label\" per line", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        List<SurveyTower> surveyed = towers;
+        progressBar.setVisibility(View.VISIBLE);
+        runBtn.setEnabled(false);
+        statusField.setText(String.format(Locale.US, "Surveying %d points against %d towers...", points.size(), surveyed.size()));
+        worker.execute(() -> {
+            long start = System.nanoTime();
+            List<SiteSurvey.PointResult> results;
+            try {
+                results = SiteSurvey.run(points, surveyed, TerrainStore.get(this).getTiles(),
+                    SiteSurvey.DEFAULT_MAX_RANGE_M, pool);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Survey failed", e);
+                mainHandler.post(() -> {
+                    progressBar.setVisibility(View.GONE);
+                    runBtn.setEnabled(true);
+                    Toast.makeText(this, "Survey failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+                return;
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1000000;
+            Log.d(TAG, points.size() + " points x " + surveyed.size() + " towers in " + elapsedMs + " ms");
+            mainHandler.post(() -> {
+                progressBar.setVisibility(View.GONE);
+                runBtn.setEnabled(true);
+                statusField.setText(String.format(Locale.US, "%d points against %d towers in %d ms",
+                    points.size(), surveyed.size(), elapsedMs));
+                showResults(results);
+            });
+        });
+    }
+
+    private void showResults(List<SiteSurvey.PointResult> results) {
+        resultsLayout.removeAllViews();
+        for (int i = 0; i < results.size(); i++) {
+            SiteSurvey.PointResult result = results.get(i);
+            SiteSurvey.Candidate best = result.best();
+            TextView row = new TextView(this);
+            row.setPadding(0, 10, 0, 10);
+            if (best == null) {
+                row.setText(String.format(Locale.US, "#%d %s\nNo tower within %.0f km", i + 1, result.point.label,
+                    SiteSurvey.DEFAULT_MAX_RANGE_M / 1000));
+                row.setTextColor(Color.GRAY);
+            } else {
+                StringBuilder text = new StringBuilder(String.format(Locale.US,
+                    "#%d %s\n%s · %s, %.1f km, aim %.0f°\n%.0f dBm, %s",
+                    i + 1, result.point.label, best.tower.name, best.sectorName, best.distanceM / 1000,
+                    best.bearingDeg, best.rssiDbm, describe(best.verdict())));
+                text.append(best.coveringSectors.isEmpty()
+                    ? ", outside every sector"
+                    : ", covered by " + String.join(", ", best.coveringSectors));
+                if (result.candidates.size() > 1) {
+                    text.append(String.format(Locale.US, " (%d towers in range)", result.candidates.size()));
+                }
+                row.setText(text);
+                row.setTextColor(best.rssiDbm >= -65 ? Color.GREEN : best.rssiDbm >= -75 ? Color.YELLOW : Color.RED);
+            }
+            resultsLayout.addView(row);
+        }
+    }
+
+    private static String describe(LineOfSight.Verdict verdict) {
+        switch (verdict) {
+            case CLEAR:
+                return "clear LOS";
+            case PARTIAL:
+                return "partial Fresnel";
+            case BLOCKED:
+                return "blocked";
+            default:
+                return "no terrain data";
+        }
+    }
+
+    private void setupUI() {
+        ScrollView scrollView = new ScrollView(this);
+        LinearLayout layout = new LinearLayout(this);
+        layout.setOrientation(LinearLayout.VERTICAL);
+        layout.setPadding(20, 20, 20, 20);
+        layout.setBackgroundColor(Color.BLACK);
+
+        TextView title = new TextView(this);
+        title.setText("Site Survey");
+        title.setTextColor(Color.WHITE);
+        title.setTextSize(24);
+        title.setPadding(0, 0, 0, 30);
+        layout.addView(title);
+
+        CardView card = new CardView(this);
+        card.setCardBackgroundColor(getResources().getColor(R.color.bg_card));
+        card.setRadius(24);
+        LinearLayout cardLayout = new LinearLayout(this);
+        cardLayout.setOrientation(LinearLayout.VERTICAL);
+        cardLayout.setPadding(30, 30, 30, 30);
+
+        TextView labelPoints = new TextView(this);
+        labelPoints.setText("Points (latitude, longitude, label per line)");
+        labelPoints.setTextColor(Color.WHITE);
+        labelPoints.setPadding(0, 0, 0, 10);
+        cardLayout.addView(labelPoints);
+
+        pointsField = new EditText(this);
+        pointsField.setHint("40.4912, -104.5120, Smith farm");
+        pointsField.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        pointsField.setMinLines(5);
+        pointsField.setGravity(Gravity.TOP | Gravity.START);
+        pointsField.setBackgroundResource(R.drawable.input_background);
+        pointsField.setPadding(20, 20, 20, 20);
+        cardLayout.addView(pointsField);
+
+        Button locationBtn = new Button(this);
+        locationBtn.setText("📍 Add My Location");
+        locationBtn.setBackgroundResource(R.drawable.button_background);
+        locationBtn.setTextColor(Color.BLACK);
+        locationBtn.setOnClickListener(v -> addMyLocation());
+        cardLayout.addView(locationBtn);
+
+        progressBar = new ProgressBar(this);
+        progressBar.setVisibility(View.GONE);
+        cardLayout.addView(progressBar);
+
+        runBtn = new Button(this);
+        runBtn.setText("Run Survey");
+        runBtn.setBackgroundResource(R.drawable.button_background);
+        runBtn.setTextColor(Color.BLACK);
+        runBtn.setOnClickListener(v -> runSurvey());
+        cardLayout.addView(runBtn);
+
+        statusField = new TextView(this);
+        statusField.setText("Loading towers...");
+        statusField.setTextColor(Color.GRAY);
+        statusField.setPadding(0, 10, 0, 10);
+        cardLayout.addView(statusField);
+
+        resultsLayout = new LinearLayout(this);
+        resultsLayout.setOrientation(LinearLayout.VERTICAL);
+        cardLayout.addView(resultsLayout);
+
+        card.addView(cardLayout);
+        layout.addView(card);
+        scrollView.addView(layout);
+        setContentView(scrollView);
+    }
+}
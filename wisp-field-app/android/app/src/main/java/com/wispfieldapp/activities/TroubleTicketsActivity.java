@@ -15,30 +15,43 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.gson.reflect.TypeToken;
 import com.wispfieldapp.R;
+import com.wispfieldapp.api.ApiClient;
 import com.wispfieldapp.api.WispApi;
 import com.wispfieldapp.models.WorkOrder;
+import com.wispfieldapp.models.WorkOrderPriority;
+import com.wispfieldapp.models.WorkOrderStatus;
+import com.wispfieldapp.permissions.CompiledPermissions;
+import com.wispfieldapp.permissions.FcapsCategory;
+import com.wispfieldapp.permissions.FcapsOperation;
+import com.wispfieldapp.permissions.Module;
+import com.wispfieldapp.permissions.Permissions;
+import com.wispfieldapp.permissions.WorkOrderAction;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.tenant.TenantPartition;
+import com.wispfieldapp.trace.Span;
+import com.wispfieldapp.trace.Tracer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
 
 public class TroubleTicketsActivity extends AppCompatActivity {
     private static final String TAG = "TroubleTickets";
-    private static final String BASE_URL = "https://hss.wisptools.io/";
     private WispApi api;
     private ProgressBar progressBar;
     private LinearLayout ticketsLayout;
     private String tenantId;
     private String userId;
+    // Set when opened for the site the tech has arrived at
+    private String siteId;
+    private String siteName;
     private List<WorkOrder> workOrders;
+    private CompiledPermissions permissions;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,17 +71,12 @@ public class TroubleTicketsActivity extends AppCompatActivity {
             return;
         }
         userId = user.getUid();
+        siteId = getIntent().getStringExtra("siteId");
+        siteName = getIntent().getStringExtra("siteName");
 
         // Setup API
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor(message -> Log.d(TAG, "HTTP: " + message));
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(logging).build();
-        Retrofit retrofit = new Retrofit.Builder()
-            .baseUrl(BASE_URL)
-            .client(client)
-            .addConverterFactory(GsonConverterFactory.create())
-            .build();
-        api = retrofit.create(WispApi.class);
+        api = ApiClient.api(this);
+        permissions = Permissions.current(this, tenantId);
 
         workOrders = new ArrayList<>();
         setupUI();
@@ -121,7 +129,7 @@ public class TroubleTicketsActivity extends AppCompatActivity {
         header.setGravity(android.view.Gravity.CENTER_VERTICAL);
 
         TextView title = new TextView(this);
-        title.setText("Trouble Tickets");
+        title.setText(siteId != null ? "Tickets at " + (siteName != null ? siteName : "site") : "Trouble Tickets");
         title.setTextColor(Color.WHITE);
         title.setTextSize(24);
         title.setPadding(0, 0, 20, 0);
@@ -139,7 +147,9 @@ public class TroubleTicketsActivity extends AppCompatActivity {
         createBtn.setBackgroundColor(Color.TRANSPARENT);
         createBtn.setTextColor(Color.WHITE);
         createBtn.setOnClickListener(v -> showCreateTicketDialog());
-        header.addView(createBtn);
+        if (permissions.can(WorkOrderAction.CREATE)) {
+            header.addView(createBtn);
+        }
 
         layout.addView(header);
 
@@ -162,29 +172,51 @@ public class TroubleTicketsActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
         ticketsLayout.removeAllViews();
 
+        TenantPartition partition = TenantCache.get(this).partition(tenantId);
+        String key = siteId != null ? TenantPartition.siteWorkOrders(siteId) : TenantPartition.WORK_ORDERS;
+        partition.<List<WorkOrder>>get(key, new TypeToken<List<WorkOrder>>() {}.getType(), cached -> {
+            if (workOrders.isEmpty()) {
+                workOrders = cached;
+                displayTickets();
+            }
+        });
+
+        Span interaction = Tracer.get().startInteraction("loadTickets");
+        Span tokenSpan = interaction.child("auth.getIdToken");
         user.getIdToken(true).addOnCompleteListener(task -> {
+            tokenSpan.end();
             if (task.isSuccessful()) {
                 String authHeader = "Bearer " + task.getResult().getToken();
                 
-                api.getMyWorkOrders(authHeader, tenantId, userId).enqueue(new Callback<List<WorkOrder>>() {
+                Call<List<WorkOrder>> ticketsCall = siteId != null
+                    ? api.getSiteWorkOrders(authHeader, tenantId, siteId)
+                    : api.getMyWorkOrders(authHeader, tenantId, userId);
+                interaction.enqueue(ticketsCall, new Callback<List<WorkOrder>>() {
                     @Override
                     public void onResponse(Call<List<WorkOrder>> call, Response<List<WorkOrder>> response) {
+                        Span uiSpan = interaction.child("ui.update");
                         progressBar.setVisibility(View.GONE);
                         if (response.isSuccessful() && response.body() != null) {
                             workOrders = response.body();
+                            partition.put(key, workOrders);
                             displayTickets();
                         } else {
                             Toast.makeText(TroubleTicketsActivity.this, "Failed to load tickets", Toast.LENGTH_SHORT).show();
                         }
+                        uiSpan.end();
+                        interaction.arg("code", response.code()).end();
                     }
 
                     @Override
                     public void onFailure(Call<List<WorkOrder>> call, Throwable t) {
+                        interaction.fail(t).end();
                         progressBar.setVisibility(View.GONE);
                         Log.e(TAG, "Failed to load tickets", t);
                         Toast.makeText(TroubleTicketsActivity.this, "Network error: " + t.getMessage(), Toast.LENGTH_LONG).show();
                     }
                 });
+            } else {
+                interaction.fail("Authentication failed").end();
             }
         });
     }
@@ -192,9 +224,18 @@ public class TroubleTicketsActivity extends AppCompatActivity {
     private void displayTickets() {
         ticketsLayout.removeAllViews();
 
-        if (workOrders.isEmpty()) {
+        // A site's list includes its closed tickets; only the open ones matter on arrival
+        List<WorkOrder> shown = workOrders;
+        if (siteId != null) {
+            shown = new ArrayList<>();
+            for (WorkOrder order : workOrders) {
+                if (order.statusCode().isOpen()) shown.add(order);
+            }
+        }
+
+        if (shown.isEmpty()) {
             TextView empty = new TextView(this);
-            empty.setText("No tickets assigned to you");
+            empty.setText(siteId != null ? "No open tickets at this site" : "No tickets assigned to you");
             empty.setTextColor(Color.GRAY);
             empty.setPadding(0, 40, 0, 0);
             empty.setGravity(android.view.Gravity.CENTER);
@@ -202,7 +243,7 @@ public class TroubleTicketsActivity extends AppCompatActivity {
             return;
         }
 
-        for (WorkOrder order : workOrders) {
+        for (WorkOrder order : shown) {
             CardView card = createTicketCard(order);
             ticketsLayout.addView(card);
         }
@@ -229,16 +270,17 @@ public class TroubleTicketsActivity extends AppCompatActivity {
         ticketNum.setTextSize(12);
         cardLayout.addView(ticketNum);
 
+        WorkOrderStatus statusCode = order.statusCode();
         TextView status = new TextView(this);
         status.setText("Status: " + (order.status != null ? order.status : "unknown"));
-        status.setTextColor(getStatusColor(order.status));
+        status.setTextColor(order.status != null ? getStatusColor(statusCode) : Color.GRAY);
         status.setTextSize(12);
         status.setPadding(0, 5, 0, 0);
         cardLayout.addView(status);
 
         TextView priority = new TextView(this);
         priority.setText("Priority: " + (order.priority != null ? order.priority : "medium"));
-        priority.setTextColor(getPriorityColor(order.priority));
+        priority.setTextColor(order.priority != null ? getPriorityColor(order.priorityCode()) : Color.GRAY);
         priority.setTextSize(12);
         cardLayout.addView(priority);
 
@@ -262,7 +304,8 @@ public class TroubleTicketsActivity extends AppCompatActivity {
         viewBtn.setOnClickListener(v -> viewTicket(order));
         buttonLayout.addView(viewBtn);
 
-        if ("open".equals(order.status) || "assigned".equals(order.status)) {
+        if ((statusCode == WorkOrderStatus.OPEN || statusCode == WorkOrderStatus.ASSIGNED)
+                && permissions.can(Module.WORK_ORDERS, FcapsCategory.FAULT, FcapsOperation.WRITE)) {
             Button acceptBtn = new Button(this);
             acceptBtn.setText("Accept");
             acceptBtn.setBackgroundColor(Color.TRANSPARENT);
@@ -284,24 +327,22 @@ public class TroubleTicketsActivity extends AppCompatActivity {
         return card;
     }
 
-    private int getStatusColor(String status) {
-        if (status == null) return Color.GRAY;
-        switch (status.toLowerCase()) {
-            case "open": return Color.YELLOW;
-            case "in-progress": return Color.BLUE;
-            case "resolved": return Color.GREEN;
-            case "closed": return Color.GRAY;
+    private int getStatusColor(WorkOrderStatus status) {
+        switch (status) {
+            case OPEN: return Color.YELLOW;
+            case IN_PROGRESS: return Color.BLUE;
+            case RESOLVED: return Color.GREEN;
+            case CLOSED: return Color.GRAY;
             default: return Color.WHITE;
         }
     }
 
-    private int getPriorityColor(String priority) {
-        if (priority == null) return Color.GRAY;
-        switch (priority.toLowerCase()) {
-            case "critical": return Color.RED;
-            case "high": return Color.MAGENTA;
-            case "medium": return Color.YELLOW;
-            case "low": return Color.GREEN;
+    private int getPriorityColor(WorkOrderPriority priority) {
+        switch (priority) {
+            case CRITICAL: return Color.RED;
+            case HIGH: return Color.MAGENTA;
+            case MEDIUM: return Color.YELLOW;
+            case LOW: return Color.GREEN;
             default: return Color.WHITE;
         }
     }
@@ -0,0 +1,132 @@
+package com.wispfieldapp.api;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.wispfieldapp.BuildConfig;
+import com.wispfieldapp.metrics.MetricsInterceptor;
+import com.wispfieldapp.metrics.NetworkMetrics;
+import com.wispfieldapp.trace.Tracer;
+import com.wispfieldapp.trace.TracingConverterFactory;
+import com.wispfieldapp.trace.TracingEventListener;
+import java.io.File;
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Process-wide OkHttp client and WispApi instance.
+ * Sharing one client means one connection pool and one dispatcher; every
+ * WispApi call is admitted by the {@link TransferScheduler} before it reaches them.
+ */
+public class ApiClient {
+    public static final String BASE_URL = "https://hss.wisptools.io/";
+    private static final String PREFS_NAME = "WISPPrefs";
+    private static final String KEY_LARGE_ON_WIFI_ONLY = "largeTransfersOnWifiOnly";
+    private static final long HTTP_CACHE_BYTES = 10L * 1024 * 1024;
+    private static final long DEBUG_LOG_BODY_BYTES = 4 * 1024;
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_OPEN_MS = 30_000;
+
+    private static ApiClient instance;
+
+    private final Context appContext;
+    private final TransferScheduler scheduler;
+    private final NetworkMetrics metrics = new NetworkMetrics();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_MS);
+    private final OkHttpClient httpClient;
+    private final WispApi api;
+
+    private ApiClient(Context context) {
+        appContext = context.getApplicationContext();
+
+        scheduler = new TransferScheduler();
+        scheduler.setDeferLargeOnMetered(prefs().getBoolean(KEY_LARGE_ON_WIFI_ONLY, false));
+        scheduler.registerNetworkCallback(appContext);
+
+        Dispatcher dispatcher = new Dispatcher(TracingEventListener.dispatcherExecutor(Tracer.get()));
+        // Calls queue in the scheduler before reaching the dispatcher; leave room for every class at once
+        dispatcher.setMaxRequestsPerHost(TransferScheduler.totalDefaultLimit() + 2);
+
+        circuitBreaker.setListener(state -> metrics.recordCircuitState(state.name()));
+
+        // Metrics sit after the resilience layer so every attempt is counted; time spent
+        // waiting for a scheduler slot is over before the call reaches the client
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .cache(new Cache(new File(appContext.getCacheDir(), "http"), HTTP_CACHE_BYTES))
+            .eventListenerFactory(TracingEventListener.factory(Tracer.get()))
+            .addInterceptor(new ResilienceInterceptor(circuitBreaker, metrics))
+            .addInterceptor(new MetricsInterceptor(metrics));
+        if (BuildConfig.DEBUG) {
+            builder.addInterceptor(new DebugLoggingInterceptor(DEBUG_LOG_BODY_BYTES));
+        }
+        httpClient = builder.build();
+
+        Retrofit retrofit = new Retrofit.Builder()
+            .baseUrl(BASE_URL)
+            .callFactory(scheduler.callFactory(httpClient))
+            .addCallAdapterFactory(new CoalescingCallAdapterFactory(metrics))
+            .addConverterFactory(new TracingConverterFactory(Tracer.get(), GsonConverterFactory.create()))
+            .build();
+        api = retrofit.create(WispApi.class);
+    }
+
+    /**
+     * Called once from MainApplication
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new ApiClient(context);
+        }
+    }
+
+    public static synchronized ApiClient get(Context context) {
+        init(context);
+        return instance;
+    }
+
+    /**
+     * Shorthand for {@code ApiClient.get(context).getApi()}
+     */
+    public static WispApi api(Context context) {
+        return get(context).getApi();
+    }
+
+    public WispApi getApi() {
+        return api;
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public TransferScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public boolean isLargeTransfersOnWifiOnly() {
+        return scheduler.isDeferLargeOnMetered();
+    }
+
+    /**
+     * Persisted user preference: hold photo uploads until on Wi-Fi (or another unmetered network)
+     */
+    public void setLargeTransfersOnWifiOnly(boolean wifiOnly) {
+        prefs().edit().putBoolean(KEY_LARGE_ON_WIFI_ONLY, wifiOnly).apply();
+        scheduler.setDeferLargeOnMetered(wifiOnly);
+    }
+
+    private SharedPreferences prefs() {
+        return appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
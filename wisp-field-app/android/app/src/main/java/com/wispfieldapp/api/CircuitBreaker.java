@@ -0,0 +1,100 @@
+package com.wispfieldapp.api;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backend health as seen by {@link ResilienceInterceptor}. After
+ * {@link #failureThreshold} consecutive failures the circuit opens and calls fail
+ * (or fall back to the HTTP cache) without touching the network. Once
+ * {@link #openMillis} have passed a single probe call is let through; its outcome
+ * closes the circuit or opens it again.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public interface Listener {
+        void onStateChanged(State state);
+    }
+
+    /**
+     * Thrown instead of making a call while the circuit is open
+     */
+    public static class OpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public OpenException(long retryInMillis) {
+            super("Server unavailable, retrying in " + Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryInMillis + 999)) + " s");
+        }
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+    private Listener listener;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return True if a call may go to the network now. In the half-open state only
+     *         one probe is allowed at a time; the caller must report its outcome.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (millisUntilProbe() > 0) return false;
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) return false;
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) transition(State.CLOSED);
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAtNanos = System.nanoTime();
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * The call ended without telling us anything about the backend (canceled)
+     */
+    public synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    public synchronized long millisUntilProbe() {
+        if (state != State.OPEN) return 0;
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedAtNanos);
+        return Math.max(0, openMillis - elapsed);
+    }
+
+    private void transition(State next) {
+        state = next;
+        if (listener != null) listener.onStateChanged(next);
+    }
+}
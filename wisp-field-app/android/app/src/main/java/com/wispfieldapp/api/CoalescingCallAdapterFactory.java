@@ -0,0 +1,255 @@
+package com.wispfieldapp.api;
+
+import android.util.Base64;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.wispfieldapp.metrics.NetworkMetrics;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * Single-flight for idempotent GETs: while a call is in flight, an identical call
+ * (same URL, tenant and signed-in user) enqueued from another callback or screen
+ * joins it instead of going to the network, and every caller gets the same decoded
+ * body. Callers must treat shared bodies as read-only.
+ *
+ * Only {@code enqueue} coalesces; {@code execute} always runs its own request.
+ * Joined calls are counted per endpoint in {@link NetworkMetrics}.
+ */
+public class CoalescingCallAdapterFactory extends CallAdapter.Factory {
+    private static final String HEADER_TENANT = "x-tenant-id";
+
+    private final NetworkMetrics metrics;
+    private final Map<String, Flight<?>> inFlight = new HashMap<>();
+
+    public CoalescingCallAdapterFactory(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !(returnType instanceof ParameterizedType)) return null;
+        boolean isGet = false;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                isGet = true;
+                break;
+            }
+        }
+        if (!isGet) return null;
+
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Call<Object>> delegate =
+            (CallAdapter<Object, Call<Object>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Call<Object>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Call<Object> adapt(Call<Object> call) {
+                return new CoalescingCall<>(delegate.adapt(call));
+            }
+        };
+    }
+
+    /**
+     * Tokens are refreshed per call, so the key uses the user id inside the token rather than the token itself
+     */
+    static String keyOf(Request request) {
+        return request.method() + " " + request.url()
+            + " tenant=" + request.header(HEADER_TENANT)
+            + " user=" + principalOf(request.header("Authorization"));
+    }
+
+    private static String principalOf(String authHeader) {
+        if (authHeader == null) return null;
+        String[] parts = authHeader.replaceFirst("^Bearer ", "").split("\\.");
+        if (parts.length == 3) {
+            try {
+                byte[] payload = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+                JsonObject claims = JsonParser.parseString(new String(payload, StandardCharsets.UTF_8)).getAsJsonObject();
+                JsonElement userId = claims.has("user_id") ? claims.get("user_id") : claims.get("sub");
+                if (userId != null) return userId.getAsString();
+            } catch (RuntimeException ignored) {
+                // Not a JWT we can read; fall back to the whole header
+            }
+        }
+        return authHeader;
+    }
+
+    /**
+     * One network call and the callers waiting on it. Guarded by the factory's inFlight map.
+     */
+    private static class Flight<T> {
+        final String key;
+        final Call<T> call;
+        final List<CoalescingCall<T>> waiters = new ArrayList<>();
+
+        Flight(String key, Call<T> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        boolean abandoned() {
+            for (CoalescingCall<T> waiter : waiters) {
+                if (!waiter.canceled) return false;
+            }
+            return true;
+        }
+    }
+
+    private class CoalescingCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private Callback<T> callback;
+        private Flight<T> flight;
+        private boolean executed;
+        private volatile boolean canceled;
+
+        CoalescingCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+                this.callback = callback;
+            }
+            Request request = delegate.request();
+            String key = keyOf(request);
+            boolean leader;
+            synchronized (inFlight) {
+                @SuppressWarnings("unchecked")
+                Flight<T> existing = (Flight<T>) inFlight.get(key);
+                leader = existing == null;
+                flight = leader ? new Flight<>(key, delegate) : existing;
+                if (leader) inFlight.put(key, flight);
+                flight.waiters.add(this);
+            }
+            if (!leader) {
+                metrics.recordCoalesced(request);
+                return;
+            }
+
+            // The delegate delivers on the main thread; fan out from there
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    List<CoalescingCall<T>> waiters = finish();
+                    byte[] errorBytes = null;
+                    MediaType errorType = null;
+                    if (!response.isSuccessful() && response.errorBody() != null && waiters.size() > 1) {
+                        // An error body can only be read once; give each caller its own copy
+                        errorType = response.errorBody().contentType();
+                        try {
+                            errorBytes = response.errorBody().bytes();
+                        } catch (IOException e) {
+                            errorBytes = new byte[0];
+                        }
+                    }
+                    for (CoalescingCall<T> waiter : waiters) {
+                        Response<T> copy = errorBytes == null
+                            ? response
+                            : Response.error(ResponseBody.create(errorBytes, errorType), response.raw());
+                        waiter.callback.onResponse(waiter, copy);
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    for (CoalescingCall<T> waiter : finish()) {
+                        waiter.callback.onFailure(waiter, t);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Closes the flight so later calls go to the network again
+         */
+        private List<CoalescingCall<T>> finish() {
+            List<CoalescingCall<T>> waiters = new ArrayList<>();
+            synchronized (inFlight) {
+                inFlight.remove(flight.key, flight);
+                for (CoalescingCall<T> waiter : flight.waiters) {
+                    if (!waiter.canceled) waiters.add(waiter);
+                }
+            }
+            return waiters;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+            return delegate.execute();
+        }
+
+        @Override
+        public synchronized boolean isExecuted() {
+            return executed;
+        }
+
+        /**
+         * A canceled caller is dropped from its flight; the network call is only
+         * canceled once nobody is waiting on it
+         */
+        @Override
+        public void cancel() {
+            canceled = true;
+            Flight<T> current;
+            synchronized (inFlight) {
+                current = flight;
+                if (current != null) {
+                    if (!current.abandoned()) return;
+                    // Later callers must not join a call that is about to fail
+                    inFlight.remove(current.key, current);
+                }
+            }
+            (current != null ? current.call : delegate).cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CoalescingCall<>(delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
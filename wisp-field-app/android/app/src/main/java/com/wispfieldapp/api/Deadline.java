@@ -0,0 +1,19 @@
+package com.wispfieldapp.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Total time budget of a {@link WispApi} call across all of its attempts, read by
+ * {@link ResilienceInterceptor}. Calls without it get a default for their
+ * {@link Transfer} priority.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Deadline {
+    long seconds();
+}
@@ -0,0 +1,69 @@
+package com.wispfieldapp.api;
+
+import android.util.Log;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * Logs one line per call plus the first few KB of text bodies. Only installed in
+ * debug builds; unlike HttpLoggingInterceptor at BODY level it never buffers a
+ * whole response, only {@link #maxBodyBytes} of it.
+ */
+public class DebugLoggingInterceptor implements Interceptor {
+    private static final String TAG = "HTTP";
+
+    private final long maxBodyBytes;
+
+    public DebugLoggingInterceptor(long maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Log.d(TAG, "--> " + request.method() + " " + request.url() + requestBodyPreview(request.body()));
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            Log.d(TAG, "<-- FAILED " + request.method() + " " + request.url() + ": " + e);
+            throw e;
+        }
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+
+        String preview = "";
+        ResponseBody body = response.body();
+        if (body != null && isText(body.contentType())) {
+            preview = "\n" + response.peekBody(maxBodyBytes).string();
+            if (body.contentLength() > maxBodyBytes || body.contentLength() == -1) {
+                preview += " [truncated at " + maxBodyBytes + " bytes]";
+            }
+        }
+        Log.d(TAG, "<-- " + response.code() + " " + request.method() + " " + request.url() + " (" + tookMs + " ms)" + preview);
+        return response;
+    }
+
+    private String requestBodyPreview(RequestBody body) throws IOException {
+        if (body == null || !isText(body.contentType()) || body.isOneShot()) return "";
+        long length = body.contentLength();
+        if (length < 0 || length > maxBodyBytes) return " (" + length + "-byte body)";
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return "\n" + buffer.readString(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isText(MediaType type) {
+        if (type == null) return false;
+        String subtype = type.subtype();
+        return "text".equals(type.type()) || subtype.contains("json") || subtype.contains("xml");
+    }
+}
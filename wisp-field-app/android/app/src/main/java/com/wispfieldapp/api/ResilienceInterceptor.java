@@ -0,0 +1,188 @@
+package com.wispfieldapp.api;
+
+import android.util.Log;
+import com.wispfieldapp.metrics.NetworkMetrics;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Invocation;
+
+/**
+ * Deadlines, retries and the circuit breaker for the shared client.
+ *
+ * Every call gets a total time budget ({@link Deadline}, or a default for its
+ * {@link Transfer} priority) and each attempt's timeouts are capped by what is left
+ * of it. GETs are retried on connection failures and on 502/503/504 with full-jitter
+ * exponential backoff, as long as the wait fits in the budget. While the
+ * {@link CircuitBreaker} is open, GETs are answered from the HTTP cache if it has
+ * the response and everything else fails at once with
+ * {@link CircuitBreaker.OpenException}.
+ *
+ * Only sees calls the {@link TransferScheduler} has admitted, so time spent waiting
+ * for a slot (or for Wi-Fi) does not count against the deadline.
+ */
+public class ResilienceInterceptor implements Interceptor {
+    private static final String TAG = "Resilience";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_CAP_MS = 4000;
+    private static final long SLEEP_POLL_MS = 100;
+
+    private final CircuitBreaker breaker;
+    private final NetworkMetrics metrics;
+    private final Random random = new Random();
+    private long retryBaseMillis = 300;
+
+    public ResilienceInterceptor(CircuitBreaker breaker, NetworkMetrics metrics) {
+        this.breaker = breaker;
+        this.metrics = metrics;
+    }
+
+    void setRetryBaseMillis(long retryBaseMillis) {
+        this.retryBaseMillis = retryBaseMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillisOf(request));
+        boolean idempotent = "GET".equals(request.method()) || "HEAD".equals(request.method());
+
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                return shortCircuit(chain, request);
+            }
+            long remainingMs = remainingMillis(deadlineNanos);
+            if (remainingMs <= 0) {
+                breaker.onAbandoned();
+                throw new InterruptedIOException("timeout");
+            }
+
+            Response response;
+            try {
+                response = proceed(chain, request, remainingMs);
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    breaker.onAbandoned();
+                    throw e;
+                }
+                breaker.onFailure();
+                if (!idempotent || attempt >= MAX_ATTEMPTS || !backOff(chain, request, attempt, -1, deadlineNanos, e.toString())) {
+                    throw e;
+                }
+                continue;
+            }
+
+            int code = response.code();
+            if (code != 502 && code != 503 && code != 504) {
+                breaker.onSuccess();
+                return response;
+            }
+            breaker.onFailure();
+            if (!idempotent || attempt >= MAX_ATTEMPTS) {
+                return response;
+            }
+            long retryAfterMs = retryAfterMillis(response);
+            long delayMs = delayMillis(attempt, retryAfterMs);
+            if (delayMs >= remainingMillis(deadlineNanos)) {
+                return response;
+            }
+            response.close();
+            if (!backOff(chain, request, attempt, delayMs, deadlineNanos, "HTTP " + code)) {
+                throw new InterruptedIOException("timeout");
+            }
+        }
+    }
+
+    private static Response proceed(Chain chain, Request request, long remainingMs) throws IOException {
+        int budget = (int) Math.min(remainingMs, Integer.MAX_VALUE);
+        return chain
+            .withConnectTimeout(Math.min(budget, chain.connectTimeoutMillis()), TimeUnit.MILLISECONDS)
+            .withReadTimeout(Math.min(budget, chain.readTimeoutMillis()), TimeUnit.MILLISECONDS)
+            .withWriteTimeout(Math.min(budget, chain.writeTimeoutMillis()), TimeUnit.MILLISECONDS)
+            .proceed(request);
+    }
+
+    /**
+     * Waits before the next attempt.
+     *
+     * @param delayMs Precomputed delay, or -1 to pick one
+     * @return False if the wait would run past the deadline (nothing was waited)
+     */
+    private boolean backOff(Chain chain, Request request, int attempt, long delayMs, long deadlineNanos, String reason)
+            throws IOException {
+        long delay = delayMs >= 0 ? delayMs : delayMillis(attempt, -1);
+        if (delay >= remainingMillis(deadlineNanos)) return false;
+
+        metrics.recordRetry(request);
+        Log.d(TAG, "Retrying " + request.method() + " " + request.url().encodedPath() + " in " + delay + " ms after " + reason);
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        try {
+            long left;
+            while ((left = TimeUnit.NANOSECONDS.toMillis(until - System.nanoTime())) > 0) {
+                if (chain.call().isCanceled()) throw new IOException("Canceled");
+                Thread.sleep(Math.min(left, SLEEP_POLL_MS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to retry");
+        }
+        return true;
+    }
+
+    /**
+     * Full jitter: uniform between 0 and the exponential step, but never sooner than Retry-After
+     */
+    private long delayMillis(int attempt, long retryAfterMs) {
+        long step = Math.min(RETRY_CAP_MS, retryBaseMillis << (attempt - 1));
+        long jittered = (long) (random.nextDouble() * step);
+        return Math.max(jittered, retryAfterMs);
+    }
+
+    private static long retryAfterMillis(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) return -1;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            // HTTP-date form; not worth parsing for a retry inside one call
+            return -1;
+        }
+    }
+
+    private Response shortCircuit(Chain chain, Request request) throws IOException {
+        metrics.recordShortCircuit(request);
+        if ("GET".equals(request.method())) {
+            Response cached = chain.proceed(request.newBuilder().cacheControl(CacheControl.FORCE_CACHE).build());
+            // FORCE_CACHE answers 504 Unsatisfiable Request when nothing is stored
+            if (cached.cacheResponse() != null) return cached;
+            cached.close();
+        }
+        throw new CircuitBreaker.OpenException(breaker.millisUntilProbe());
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    static long deadlineMillisOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        Deadline deadline = invocation != null ? invocation.method().getAnnotation(Deadline.class) : null;
+        if (deadline != null) return TimeUnit.SECONDS.toMillis(deadline.seconds());
+
+        Transfer transfer = TransferScheduler.transferOf(request);
+        if (transfer == null) return TimeUnit.SECONDS.toMillis(20);
+        switch (transfer.value()) {
+            case INTERACTIVE:
+                return TimeUnit.SECONDS.toMillis(10);
+            case BACKGROUND:
+                return TimeUnit.SECONDS.toMillis(transfer.large() ? 180 : 60);
+            default:
+                return TimeUnit.SECONDS.toMillis(20);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.wispfieldapp.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Scheduling class of a {@link WispApi} call, read by {@link TransferScheduler}.
+ * Calls without it are {@link TransferScheduler.Priority#USER_INITIATED}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Transfer {
+    TransferScheduler.Priority value();
+
+    /**
+     * Bulk payload that may wait for an unmetered network
+     */
+    boolean large() default false;
+}
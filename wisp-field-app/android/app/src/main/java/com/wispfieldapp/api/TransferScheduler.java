@@ -0,0 +1,385 @@
+package com.wispfieldapp.api;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.util.Log;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+import retrofit2.Invocation;
+
+/**
+ * Admission control in front of the shared OkHttp client.
+ *
+ * Every call belongs to a priority class (from its {@link Transfer} annotation)
+ * and waits here until its class has a free slot. Background calls additionally
+ * wait while any interactive call is in flight (plus a short grace period, so a
+ * lookup followed by a check-in is not interleaved with upload chunks), and large
+ * background transfers can be held until the device is on an unmetered network.
+ *
+ * Admission happens before a call reaches OkHttp, through {@link #callFactory}:
+ * synchronous calls (the photo uploader) block their own worker, asynchronous
+ * ones wait in a queue owned by the scheduler and are only handed to the
+ * dispatcher once admitted. Held calls therefore never occupy a dispatcher slot,
+ * and an interactive call cannot get stuck behind them in the dispatcher's queue.
+ */
+public class TransferScheduler {
+    private static final String TAG = "TransferScheduler";
+    private static final long INTERACTIVE_GRACE_MS = 300;
+    private static final long CANCEL_POLL_MS = 500;
+    private static final long SLOW_ADMISSION_MS = 100;
+    // admissionDelay() result for "until the scheduler's state changes"
+    private static final long UNTIL_CHANGED = Long.MAX_VALUE;
+
+    public enum Priority {
+        /** The user is waiting on this call to continue (scan lookup, check-in) */
+        INTERACTIVE(8),
+        /** Screen loads and submits the user asked for */
+        USER_INITIATED(4),
+        /** Bulk work: photo uploads, inventory sync */
+        BACKGROUND(2);
+
+        final int defaultLimit;
+
+        Priority(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+    }
+
+    private final int[] limits = new int[Priority.values().length];
+    private final int[] running = new int[Priority.values().length];
+    private long lastInteractiveEndMs = 0;
+    private boolean backgroundPaused = false;
+    private boolean deferLargeOnMetered = false;
+    private boolean networkAvailable = true;
+    private boolean networkUnmetered = true;
+    private final List<ArrayDeque<ScheduledCall>> pending = new ArrayList<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TransferScheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> wakeup;
+    private long wakeupAtMs;
+
+    public TransferScheduler() {
+        for (Priority priority : Priority.values()) {
+            limits[priority.ordinal()] = priority.defaultLimit;
+            pending.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Wraps the client so every call it creates is admitted here first; pass the
+     * result to {@code Retrofit.Builder.callFactory}
+     */
+    public Call.Factory callFactory(Call.Factory client) {
+        return request -> new ScheduledCall(client.newCall(request));
+    }
+
+    /**
+     * Track the default network so large transfers can wait for an unmetered one
+     */
+    public void registerNetworkCallback(Context context) {
+        ConnectivityManager connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null) return;
+        connectivity.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                setNetworkState(true, capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED));
+            }
+
+            @Override
+            public void onLost(Network network) {
+                setNetworkState(false, false);
+            }
+        });
+    }
+
+    /**
+     * Maximum concurrent calls of a class; the sum should stay below the dispatcher's per-host limit
+     */
+    public synchronized void setLimit(Priority priority, int limit) {
+        limits[priority.ordinal()] = Math.max(1, limit);
+        notifyAll();
+        dispatchLater();
+    }
+
+    public static int totalDefaultLimit() {
+        int total = 0;
+        for (Priority priority : Priority.values()) {
+            total += priority.defaultLimit;
+        }
+        return total;
+    }
+
+    /**
+     * Hold background calls regardless of interactive traffic (e.g. while a screen needs the link)
+     */
+    public synchronized void setBackgroundPaused(boolean paused) {
+        backgroundPaused = paused;
+        notifyAll();
+        dispatchLater();
+    }
+
+    /**
+     * Hold {@link Transfer#large()} background calls until the network is unmetered
+     */
+    public synchronized void setDeferLargeOnMetered(boolean defer) {
+        deferLargeOnMetered = defer;
+        notifyAll();
+        dispatchLater();
+    }
+
+    public synchronized boolean isDeferLargeOnMetered() {
+        return deferLargeOnMetered;
+    }
+
+    /**
+     * @return True if large transfers are currently held for lack of an unmetered network
+     */
+    public synchronized boolean isWaitingForUnmetered() {
+        return deferLargeOnMetered && !networkUnmetered;
+    }
+
+    private synchronized void setNetworkState(boolean available, boolean unmetered) {
+        if (available != networkAvailable || unmetered != networkUnmetered) {
+            Log.d(TAG, "Network " + (available ? (unmetered ? "unmetered" : "metered") : "lost"));
+        }
+        networkAvailable = available;
+        networkUnmetered = unmetered;
+        notifyAll();
+        dispatchLater();
+    }
+
+    private synchronized long acquire(ScheduledCall call) throws IOException {
+        long start = System.currentTimeMillis();
+        while (true) {
+            if (call.isCanceled()) {
+                throw new IOException("Canceled");
+            }
+            long waitMs = admissionDelay(call.priority, call.large, System.currentTimeMillis());
+            if (waitMs == 0) break;
+            try {
+                wait(Math.min(waitMs, CANCEL_POLL_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for a " + call.priority + " slot", e);
+            }
+        }
+        running[call.priority.ordinal()]++;
+        return System.currentTimeMillis() - start;
+    }
+
+    private synchronized void enqueue(ScheduledCall call) {
+        pending.get(call.priority.ordinal()).add(call);
+        dispatchLater();
+    }
+
+    private void dispatchLater() {
+        timer.execute(this::dispatch);
+    }
+
+    /**
+     * Hands every admissible queued call to OkHttp, highest priority first, and
+     * fails the ones canceled while they waited
+     */
+    private void dispatch() {
+        List<ScheduledCall> admitted = new ArrayList<>();
+        List<ScheduledCall> canceled = new ArrayList<>();
+        synchronized (this) {
+            long nowMs = System.currentTimeMillis();
+            long nextCheckMs = UNTIL_CHANGED;
+            for (Priority priority : Priority.values()) {
+                Iterator<ScheduledCall> queued = pending.get(priority.ordinal()).iterator();
+                while (queued.hasNext()) {
+                    ScheduledCall call = queued.next();
+                    if (call.isCanceled()) {
+                        queued.remove();
+                        canceled.add(call);
+                        continue;
+                    }
+                    long waitMs = admissionDelay(priority, call.large, nowMs);
+                    if (waitMs > 0) {
+                        nextCheckMs = Math.min(nextCheckMs, waitMs);
+                        continue;
+                    }
+                    queued.remove();
+                    running[priority.ordinal()]++;
+                    admitted.add(call);
+                }
+            }
+            scheduleWakeup(nextCheckMs, nowMs);
+        }
+        for (ScheduledCall call : canceled) {
+            call.callback.onFailure(call, new IOException("Canceled"));
+        }
+        for (ScheduledCall call : admitted) {
+            call.start();
+        }
+    }
+
+    private void scheduleWakeup(long delayMs, long nowMs) {
+        if (delayMs == UNTIL_CHANGED) return;
+        long atMs = nowMs + delayMs;
+        if (wakeup != null && !wakeup.isDone() && wakeupAtMs <= atMs) return;
+        if (wakeup != null) wakeup.cancel(false);
+        wakeupAtMs = atMs;
+        wakeup = timer.schedule(this::dispatch, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 0 if the call may start now, {@link #UNTIL_CHANGED} if it waits for a
+     * slot or a setting, otherwise how long until it may start
+     */
+    private long admissionDelay(Priority priority, boolean large, long nowMs) {
+        if (running[priority.ordinal()] >= limits[priority.ordinal()]) {
+            return UNTIL_CHANGED;
+        }
+        if (priority != Priority.BACKGROUND) {
+            return 0;
+        }
+        if (backgroundPaused || running[Priority.INTERACTIVE.ordinal()] > 0) {
+            return UNTIL_CHANGED;
+        }
+        long graceLeft = lastInteractiveEndMs + INTERACTIVE_GRACE_MS - nowMs;
+        if (graceLeft > 0) {
+            return graceLeft;
+        }
+        if (large && deferLargeOnMetered && !networkUnmetered) {
+            return UNTIL_CHANGED;
+        }
+        return 0;
+    }
+
+    private synchronized void release(Priority priority) {
+        running[priority.ordinal()]--;
+        if (priority == Priority.INTERACTIVE) {
+            lastInteractiveEndMs = System.currentTimeMillis();
+        }
+        notifyAll();
+        dispatchLater();
+    }
+
+    private static void logIfSlow(ScheduledCall call, long waitedMs) {
+        if (waitedMs >= SLOW_ADMISSION_MS) {
+            Request request = call.request();
+            Log.d(TAG, call.priority + " " + request.method() + " " + request.url().encodedPath() + " waited " + waitedMs + " ms");
+        }
+    }
+
+    static Transfer transferOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) return null;
+        Method method = invocation.method();
+        return method.getAnnotation(Transfer.class);
+    }
+
+    /**
+     * An OkHttp call that does not reach the client until the scheduler admits it
+     */
+    private class ScheduledCall implements Call {
+        final Call delegate;
+        final Priority priority;
+        final boolean large;
+        private final AtomicBoolean executed = new AtomicBoolean();
+        private long queuedAtMs;
+        Callback callback;
+
+        ScheduledCall(Call delegate) {
+            this.delegate = delegate;
+            Transfer transfer = transferOf(delegate.request());
+            this.priority = transfer != null ? transfer.value() : Priority.USER_INITIATED;
+            this.large = transfer != null && transfer.large();
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            markExecuted();
+            logIfSlow(this, acquire(this));
+            try {
+                return delegate.execute();
+            } finally {
+                release(priority);
+            }
+        }
+
+        @Override
+        public void enqueue(Callback responseCallback) {
+            markExecuted();
+            callback = responseCallback;
+            queuedAtMs = System.currentTimeMillis();
+            TransferScheduler.this.enqueue(this);
+        }
+
+        void start() {
+            logIfSlow(this, System.currentTimeMillis() - queuedAtMs);
+            delegate.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    release(priority);
+                    callback.onFailure(ScheduledCall.this, e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    release(priority);
+                    callback.onResponse(ScheduledCall.this, response);
+                }
+            });
+        }
+
+        private void markExecuted() {
+            if (!executed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Already Executed");
+            }
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+            // A call still queued here is failed by the next dispatch
+            dispatchLater();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed.get();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+
+        @Override
+        public Call clone() {
+            return new ScheduledCall(delegate.clone());
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.wispfieldapp.models.TenantResponse;
 import com.wispfieldapp.models.WorkOrder;
 import com.wispfieldapp.models.InventoryItem;
 import com.wispfieldapp.models.InstallationDocumentation;
+import com.wispfieldapp.models.MobileTasksResponse;
+import com.wispfieldapp.models.UploadSession;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
@@ -24,6 +26,7 @@ import java.util.Map;
 
 public interface WispApi {
     // Authentication
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/auth/login")
     Call<AuthResponse> login(@Body Map<String, String> body);
 
@@ -38,7 +41,7 @@ public interface WispApi {
 
     // Mobile Tasks (permissions)
     @GET("api/mobile/tasks")
-    Call<Map<String, Object>> getMobileTasks(
+    Call<MobileTasksResponse> getMobileTasks(
         @Header("Authorization") String authHeader,
         @Header("x-tenant-id") String tenantId
     );
@@ -54,6 +57,13 @@ public interface WispApi {
         @Query("type") String type
     );
 
+    @GET("api/work-orders")
+    Call<List<WorkOrder>> getSiteWorkOrders(
+        @Header("Authorization") String authHeader,
+        @Header("x-tenant-id") String tenantId,
+        @Query("siteId") String siteId
+    );
+
     @GET("api/work-orders/{id}")
     Call<WorkOrder> getWorkOrder(
         @Header("Authorization") String authHeader,
@@ -84,6 +94,7 @@ public interface WispApi {
         @Body Map<String, String> body
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/work-orders/{id}/start")
     Call<WorkOrder> startWorkOrder(
         @Header("Authorization") String authHeader,
@@ -92,6 +103,7 @@ public interface WispApi {
         @Body Map<String, String> body
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/work-orders/{id}/log")
     Call<WorkOrder> addWorkLog(
         @Header("Authorization") String authHeader,
@@ -100,6 +112,7 @@ public interface WispApi {
         @Body Map<String, Object> logEntry
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/work-orders/{id}/complete")
     Call<WorkOrder> completeWorkOrder(
         @Header("Authorization") String authHeader,
@@ -108,6 +121,7 @@ public interface WispApi {
         @Body Map<String, String> body
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/work-orders/{id}/close")
     Call<WorkOrder> closeWorkOrder(
         @Header("Authorization") String authHeader,
@@ -129,6 +143,8 @@ public interface WispApi {
         @Header("x-tenant-id") String tenantId
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
+    @Deadline(seconds = 5)
     @POST("api/inventory/scan/lookup")
     Call<Map<String, Object>> lookupItem(
         @Header("Authorization") String authHeader,
@@ -136,6 +152,7 @@ public interface WispApi {
         @Body Map<String, String> body
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/inventory/scan/check-in")
     Call<Map<String, Object>> checkInItem(
         @Header("Authorization") String authHeader,
@@ -143,6 +160,7 @@ public interface WispApi {
         @Body Map<String, Object> body
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @POST("api/inventory/scan/check-out")
     Call<Map<String, Object>> checkOutItem(
         @Header("Authorization") String authHeader,
@@ -173,6 +191,8 @@ public interface WispApi {
         @Body Map<String, Object> doc
     );
 
+    @Transfer(value = TransferScheduler.Priority.BACKGROUND, large = true)
+    @Deadline(seconds = 300)
     @Multipart
     @POST("api/installation-documentation/{id}/photos")
     Call<Map<String, Object>> uploadInstallationPhotos(
@@ -184,6 +204,37 @@ public interface WispApi {
         @Part("category") RequestBody category
     );
 
+    // Resumable photo uploads: start (or resume) a session, then PUT chunks at the acknowledged offset
+    @Transfer(TransferScheduler.Priority.BACKGROUND)
+    @POST("api/installation-documentation/{id}/uploads")
+    Call<UploadSession> startPhotoUpload(
+        @Header("Authorization") String authHeader,
+        @Header("x-tenant-id") String tenantId,
+        @Path("id") String id,
+        @Body Map<String, Object> metadata
+    );
+
+    @Transfer(TransferScheduler.Priority.BACKGROUND)
+    @GET("api/installation-documentation/{id}/uploads/{uploadId}")
+    Call<UploadSession> getPhotoUpload(
+        @Header("Authorization") String authHeader,
+        @Header("x-tenant-id") String tenantId,
+        @Path("id") String id,
+        @Path("uploadId") String uploadId
+    );
+
+    @Transfer(value = TransferScheduler.Priority.BACKGROUND, large = true)
+    @PUT("api/installation-documentation/{id}/uploads/{uploadId}")
+    Call<UploadSession> uploadPhotoChunk(
+        @Header("Authorization") String authHeader,
+        @Header("x-tenant-id") String tenantId,
+        @Path("id") String id,
+        @Path("uploadId") String uploadId,
+        @Header("Content-Range") String contentRange,
+        @Header("X-Chunk-SHA256") String chunkSha256,
+        @Body RequestBody chunk
+    );
+
     @PUT("api/installation-documentation/{id}")
     Call<InstallationDocumentation> updateInstallationDoc(
         @Header("Authorization") String authHeader,
@@ -192,7 +243,8 @@ public interface WispApi {
         @Body Map<String, Object> doc
     );
 
-    // Network Equipment (for aiming)
+    // Network Equipment (preloaded on arrival at a site)
+    @Transfer(TransferScheduler.Priority.BACKGROUND)
     @GET("api/network/equipment")
     Call<List<Map<String, Object>>> getNetworkEquipment(
         @Header("Authorization") String authHeader,
@@ -200,6 +252,7 @@ public interface WispApi {
         @Query("siteId") String siteId
     );
 
+    @Transfer(TransferScheduler.Priority.INTERACTIVE)
     @PUT("api/network/equipment/{id}")
     Call<Map<String, Object>> updateNetworkEquipment(
         @Header("Authorization") String authHeader,
@@ -224,6 +277,7 @@ public interface WispApi {
     );
 
     // Inventory locations (for checkin)
+    @Transfer(TransferScheduler.Priority.BACKGROUND)
     @GET("api/inventory")
     Call<Map<String, Object>> getInventory(
         @Header("Authorization") String authHeader,
@@ -232,6 +286,7 @@ public interface WispApi {
     );
 
     // Notifications
+    @Transfer(TransferScheduler.Priority.BACKGROUND)
     @GET("api/notifications")
     Call<List<Map<String, Object>>> getNotifications(
         @Header("Authorization") String authHeader,
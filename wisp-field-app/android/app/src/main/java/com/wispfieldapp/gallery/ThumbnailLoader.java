@@ -0,0 +1,63 @@
+package com.wispfieldapp.gallery;
+
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+/**
+ * Thumbnail requests for installation photos.
+ *
+ * A thumbnail is the photo decoded (on Glide's worker threads, into pooled
+ * bitmaps) straight to the requested square size, and only that small result
+ * is written to the disk cache. Glide keys both cache tiers by URL plus size and
+ * transformation, so the same photo at another size is a separate entry.
+ */
+public class ThumbnailLoader {
+    /**
+     * Show a thumbnail, recording where it came from and how long it took
+     */
+    public static void load(RequestManager glide, ImageView view, String url, int sizePx) {
+        long start = System.nanoTime();
+        request(glide, url, sizePx)
+            .listener(new RequestListener<Bitmap>() {
+                @Override
+                public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Bitmap> target, boolean isFirstResource) {
+                    ThumbnailStats.get().recordFailure();
+                    return false;
+                }
+
+                @Override
+                public boolean onResourceReady(@NonNull Bitmap resource, @NonNull Object model, Target<Bitmap> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+                    ThumbnailStats.get().record(dataSource, System.nanoTime() - start);
+                    return false;
+                }
+            })
+            .into(view);
+    }
+
+    /**
+     * Warm both cache tiers for a thumbnail that is about to scroll into view
+     */
+    public static void preload(RequestManager glide, String url, int sizePx) {
+        request(glide, url, sizePx).preload(sizePx, sizePx);
+    }
+
+    private static RequestBuilder<Bitmap> request(RequestManager glide, String url, int sizePx) {
+        return glide.asBitmap()
+            .load(url)
+            .override(sizePx, sizePx)
+            .centerCrop()
+            // Half the memory of ARGB_8888; thumbnails don't need alpha
+            .format(DecodeFormat.PREFER_RGB_565)
+            .diskCacheStrategy(DiskCacheStrategy.RESOURCE);
+    }
+}
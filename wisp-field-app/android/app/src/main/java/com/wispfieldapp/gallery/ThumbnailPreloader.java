@@ -0,0 +1,84 @@
+package com.wispfieldapp.gallery;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.RequestManager;
+
+/**
+ * Preloads the next page of thumbnails in the direction the user is scrolling,
+ * so they are already in the memory cache when their rows are bound.
+ */
+public class ThumbnailPreloader extends RecyclerView.OnScrollListener {
+    public interface UrlProvider {
+        /**
+         * @return Thumbnail URL for an adapter position, or null if there is none
+         */
+        String urlAt(int position);
+
+        int getCount();
+    }
+
+    private final RequestManager glide;
+    private final LinearLayoutManager layoutManager;
+    private final UrlProvider urls;
+    private final int sizePx;
+    private final int pageSize;
+    // Positions already requested, so each thumbnail is preloaded once per pass
+    private int preloadedFrom = -1;
+    private int preloadedTo = -1;
+    private boolean scrollingDown = true;
+
+    /**
+     * @param pageSize Number of items to load ahead of the visible range
+     */
+    public ThumbnailPreloader(RequestManager glide, LinearLayoutManager layoutManager, UrlProvider urls, int sizePx, int pageSize) {
+        this.glide = glide;
+        this.layoutManager = layoutManager;
+        this.urls = urls;
+        this.sizePx = sizePx;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return;
+
+        boolean down = dy >= 0;
+        if (down != scrollingDown) {
+            // Direction changed: the other side has not been preloaded yet
+            scrollingDown = down;
+            reset();
+        }
+        if (down) {
+            int from = Math.max(last + 1, preloadedTo + 1);
+            int to = Math.min(last + pageSize, urls.getCount() - 1);
+            preloadRange(from, to);
+            preloadedTo = Math.max(preloadedTo, to);
+        } else {
+            int to = preloadedFrom >= 0 ? Math.min(first - 1, preloadedFrom - 1) : first - 1;
+            int from = Math.max(first - pageSize, 0);
+            preloadRange(from, to);
+            if (to >= from) preloadedFrom = from;
+        }
+    }
+
+    /**
+     * Reset after the adapter's data changes
+     */
+    public void reset() {
+        preloadedFrom = -1;
+        preloadedTo = -1;
+    }
+
+    private void preloadRange(int from, int to) {
+        for (int position = from; position <= to; position++) {
+            String url = urls.urlAt(position);
+            if (url != null) {
+                ThumbnailLoader.preload(glide, url, sizePx);
+            }
+        }
+    }
+}
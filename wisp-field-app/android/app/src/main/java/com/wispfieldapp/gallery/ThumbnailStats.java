@@ -0,0 +1,73 @@
+package com.wispfieldapp.gallery;
+
+import com.bumptech.glide.load.DataSource;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for thumbnail loads: where each one was served from and how long
+ * it took from request to bitmap. Shared by every gallery in the process.
+ */
+public class ThumbnailStats {
+    private static final ThumbnailStats instance = new ThumbnailStats();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong networkLoads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    // Loads that had to decode (disk or network), and their total time
+    private final AtomicLong decodes = new AtomicLong();
+    private final AtomicLong decodeNanos = new AtomicLong();
+
+    public static ThumbnailStats get() {
+        return instance;
+    }
+
+    void record(DataSource source, long elapsedNanos) {
+        switch (source) {
+            case MEMORY_CACHE:
+                memoryHits.incrementAndGet();
+                return;
+            case RESOURCE_DISK_CACHE:
+            case DATA_DISK_CACHE:
+            case LOCAL:
+                diskHits.incrementAndGet();
+                break;
+            default:
+                networkLoads.incrementAndGet();
+                break;
+        }
+        decodes.incrementAndGet();
+        decodeNanos.addAndGet(elapsedNanos);
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public long getRequests() {
+        return memoryHits.get() + diskHits.get() + networkLoads.get();
+    }
+
+    /**
+     * @return Fraction of loads served from memory or disk, 0-1
+     */
+    public double getHitRate() {
+        long requests = getRequests();
+        return requests == 0 ? 0 : (memoryHits.get() + diskHits.get()) / (double) requests;
+    }
+
+    /**
+     * @return Mean request-to-bitmap time of loads that were not memory hits
+     */
+    public double getAverageDecodeMillis() {
+        long count = decodes.get();
+        return count == 0 ? 0 : decodeNanos.get() / (count * 1_000_000.0);
+    }
+
+    public String summary() {
+        return String.format(Locale.US, "Thumbnails: %d loads, %.0f%% cached (mem %d, disk %d, net %d), avg decode %.1f ms, %d failed",
+            getRequests(), getHitRate() * 100, memoryHits.get(), diskHits.get(), networkLoads.get(),
+            getAverageDecodeMillis(), failures.get());
+    }
+}
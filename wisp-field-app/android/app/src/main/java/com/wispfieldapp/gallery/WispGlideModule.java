@@ -0,0 +1,39 @@
+package com.wispfieldapp.gallery;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * Glide configuration for the app: a memory LRU and bitmap pool sized from the
+ * device's memory class, and a dedicated on-disk LRU for transformed thumbnails.
+ */
+@GlideModule
+public class WispGlideModule extends AppGlideModule {
+    private static final String DISK_CACHE_NAME = "thumbnails";
+    private static final long DISK_CACHE_BYTES = 100L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+            .setMemoryCacheScreens(3)
+            .setBitmapPoolScreens(3)
+            .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_BYTES));
+        builder.setLogLevel(Log.WARN);
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
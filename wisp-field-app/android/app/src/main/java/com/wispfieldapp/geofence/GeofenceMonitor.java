@@ -0,0 +1,294 @@
+package com.wispfieldapp.geofence;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.Bundle;
+import android.os.Looper;
+import android.util.Log;
+import androidx.core.content.ContextCompat;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.gson.reflect.TypeToken;
+import com.wispfieldapp.api.ApiClient;
+import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.models.WorkOrder;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.tenant.TenantPartition;
+import com.wispfieldapp.topology.TopologySnapshot;
+import com.wispfieldapp.topology.TopologyStore;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Watches the tech's position against the active tenant's sites and, on arrival,
+ * preloads the site's sectors, equipment and open tickets into the tenant cache so
+ * those screens open from cache.
+ *
+ * To save power, GPS updates are requested only as often as the distance to the
+ * nearest fence requires; fixes other apps request arrive for free through the
+ * passive provider.
+ */
+public class GeofenceMonitor implements LocationListener, GeofenceEngine.Listener {
+    private static final String TAG = "Geofence";
+
+    private enum Cadence {
+        NEAR(5000, 10),
+        MID(20000, 50),
+        FAR(60000, 250);
+
+        final long minTimeMs;
+        final float minDistanceM;
+
+        Cadence(long minTimeMs, float minDistanceM) {
+            this.minTimeMs = minTimeMs;
+            this.minDistanceM = minDistanceM;
+        }
+
+        static Cadence forEdge(double edgeM, boolean inside) {
+            if (edgeM < 250) return NEAR;
+            // minDistance stays well short of the edge, so a fence is never skipped
+            return inside || edgeM < 1000 ? MID : FAR;
+        }
+    }
+
+    public static final class Arrival {
+        public final String siteId;
+        public final String siteName;
+        public final double latitude;
+        public final double longitude;
+        /** From cache first, replaced once the network answers */
+        public List<WorkOrder> openTickets = Collections.emptyList();
+
+        Arrival(String siteId, String siteName, double latitude, double longitude) {
+            this.siteId = siteId;
+            this.siteName = siteName;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    private static GeofenceMonitor instance;
+
+    private final Context context;
+    private final LocationManager locationManager;
+    private String tenantId;
+    private TopologySnapshot snapshot;
+    private GeofenceEngine engine;
+    private Cadence cadence;
+    private int arrivalSite = -1;
+    private Arrival arrival;
+    private Consumer<Arrival> listener;
+    private boolean watching;
+
+    private GeofenceMonitor(Context context) {
+        this.context = context;
+        locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+    }
+
+    public static synchronized GeofenceMonitor get(Context context) {
+        if (instance == null) {
+            instance = new GeofenceMonitor(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts watching the tenant's sites (on the main thread). Does nothing without
+     * location permission or before the tenant's topology has been cached.
+     */
+    public void start(String tenantId) {
+        if (locationManager == null
+                || ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        if (!tenantId.equals(this.tenantId)) {
+            stop();
+            this.tenantId = tenantId;
+        }
+        watching = true;
+        TopologyStore.get(context).load(tenantId, loaded -> {
+            // Paused or switched tenant before the snapshot was opened
+            if (!watching || !tenantId.equals(this.tenantId)) return;
+            if (loaded != snapshot) {
+                long start = System.nanoTime();
+                snapshot = loaded;
+                engine = GeofenceEngine.from(loaded, GeofenceEngine.DEFAULT_RADIUS_M);
+                Log.d(TAG, "Fenced " + engine.size() + " sites in " + (System.nanoTime() - start) / 1000 + " us");
+            }
+            if (cadence != null) return;
+            request(Cadence.MID);
+            try {
+                locationManager.requestLocationUpdates(LocationManager.PASSIVE_PROVIDER, 0, 0, this, Looper.getMainLooper());
+            } catch (SecurityException | IllegalArgumentException e) {
+                Log.w(TAG, "Passive location unavailable", e);
+            }
+        });
+    }
+
+    /**
+     * Stops location updates but keeps the tenant's fences and the current arrival,
+     * so {@link #start} picks up where it left off (when the dashboard leaves the screen)
+     */
+    public void pause() {
+        watching = false;
+        if (locationManager != null) locationManager.removeUpdates(this);
+        cadence = null;
+    }
+
+    /**
+     * Stops location updates and forgets the tenant (on logout or a tenant switch)
+     */
+    public void stop() {
+        pause();
+        tenantId = null;
+        snapshot = null;
+        engine = null;
+        setArrival(-1, null);
+    }
+
+    /**
+     * @param listener Run on the main thread with the site the tech is at, or null on
+     *                 leaving it; called straight away with the current one
+     */
+    public void setListener(Consumer<Arrival> listener) {
+        this.listener = listener;
+        if (listener != null) listener.accept(arrival);
+    }
+
+    @Override
+    public void onLocationChanged(Location location) {
+        if (engine == null) return;
+        if (!engine.update(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : 0, this)) {
+            return;
+        }
+        request(Cadence.forEdge(engine.nearestEdgeM(), arrivalSite >= 0));
+    }
+
+    @Override
+    public void onEnter(int site, double distanceM) {
+        // A rebuilt engine (the snapshot was rewritten) re-enters the site the tech is already at
+        if (arrival != null && arrival.siteId.equals(snapshot.siteId(site))) {
+            arrivalSite = site;
+            return;
+        }
+        Log.d(TAG, "Arrived at " + snapshot.siteName(site) + " (" + Math.round(distanceM) + " m)");
+        Arrival entered = new Arrival(snapshot.siteId(site), snapshot.siteName(site),
+            snapshot.latitude(site), snapshot.longitude(site));
+        setArrival(site, entered);
+        preload(site, entered);
+    }
+
+    @Override
+    public void onExit(int site) {
+        if (site == arrivalSite) setArrival(-1, null);
+    }
+
+    @Override
+    public void onStatusChanged(String provider, int status, Bundle extras) {}
+
+    @Override
+    public void onProviderEnabled(String provider) {}
+
+    @Override
+    public void onProviderDisabled(String provider) {}
+
+    private void request(Cadence next) {
+        if (next == cadence) return;
+        try {
+            // Registrations are per provider, so this replaces the GPS request and leaves the passive one
+            locationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER, next.minTimeMs, next.minDistanceM,
+                this, Looper.getMainLooper());
+            cadence = next;
+        } catch (SecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "GPS updates unavailable", e);
+        }
+    }
+
+    private void setArrival(int site, Arrival next) {
+        arrivalSite = site;
+        arrival = next;
+        if (listener != null) listener.accept(next);
+    }
+
+    private void preload(int site, Arrival entered) {
+        String siteId = entered.siteId;
+        String tenant = tenantId;
+        TenantPartition partition = TenantCache.get(context).partition(tenant);
+
+        // Cached tickets first: the site's own list if it was loaded before, else the tech's assignments
+        partition.<List<WorkOrder>>get(TenantPartition.WORK_ORDERS, new TypeToken<List<WorkOrder>>() {}.getType(), cached -> {
+            if (entered.openTickets.isEmpty()) showTickets(entered, cached);
+        });
+        partition.<List<WorkOrder>>get(TenantPartition.siteWorkOrders(siteId), new TypeToken<List<WorkOrder>>() {}.getType(),
+            cached -> showTickets(entered, cached));
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
+        boolean needsSectors = snapshot.endSector(site) == snapshot.firstSector(site);
+        user.getIdToken(true).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) return;
+            String authHeader = "Bearer " + task.getResult().getToken();
+            WispApi api = ApiClient.api(context);
+
+            api.getSiteWorkOrders(authHeader, tenant, siteId).enqueue(new Callback<List<WorkOrder>>() {
+                @Override
+                public void onResponse(Call<List<WorkOrder>> call, Response<List<WorkOrder>> response) {
+                    if (!response.isSuccessful() || response.body() == null) return;
+                    partition.put(TenantPartition.siteWorkOrders(siteId), response.body());
+                    showTickets(entered, response.body());
+                }
+
+                @Override
+                public void onFailure(Call<List<WorkOrder>> call, Throwable t) {
+                    Log.w(TAG, "Failed to preload tickets for " + siteId, t);
+                }
+            });
+
+            api.getNetworkEquipment(authHeader, tenant, siteId).enqueue(new Callback<List<Map<String, Object>>>() {
+                @Override
+                public void onResponse(Call<List<Map<String, Object>>> call, Response<List<Map<String, Object>>> response) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        partition.put(TenantPartition.siteEquipment(siteId), SiteEquipment.at(response.body(), siteId));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<List<Map<String, Object>>> call, Throwable t) {
+                    Log.w(TAG, "Failed to preload equipment for " + siteId, t);
+                }
+            });
+
+            // The snapshot already holds sectors for towers refreshed since they were added
+            if (!needsSectors) return;
+            api.getSectors(authHeader, tenant, siteId).enqueue(new Callback<List<Map<String, Object>>>() {
+                @Override
+                public void onResponse(Call<List<Map<String, Object>>> call, Response<List<Map<String, Object>>> response) {
+                    if (response.isSuccessful() && response.body() != null && !response.body().isEmpty()) {
+                        TopologyStore.get(context).updateSectors(tenant, siteId, response.body());
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<List<Map<String, Object>>> call, Throwable t) {
+                    Log.w(TAG, "Failed to preload sectors for " + siteId, t);
+                }
+            });
+        });
+    }
+
+    private void showTickets(Arrival entered, List<WorkOrder> orders) {
+        entered.openTickets = SiteTickets.openAt(orders, entered.siteId, entered.latitude, entered.longitude,
+            GeofenceEngine.DEFAULT_RADIUS_M);
+        if (entered == arrival && listener != null) listener.accept(entered);
+    }
+}
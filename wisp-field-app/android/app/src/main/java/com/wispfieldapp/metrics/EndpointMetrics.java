@@ -0,0 +1,85 @@
+package com.wispfieldapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for one API endpoint template. All updates are lock-free.
+ */
+public class EndpointMetrics {
+    final String endpoint;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong bytesOut = new AtomicLong();
+    final AtomicLong bytesIn = new AtomicLong();
+    final AtomicLong httpErrors = new AtomicLong();
+    final AtomicLong failures = new AtomicLong();
+    final AtomicLong timeouts = new AtomicLong();
+    final AtomicLong cacheHits = new AtomicLong();
+    final AtomicLong conditionalHits = new AtomicLong();
+    final AtomicLong coalesced = new AtomicLong();
+    final AtomicLong retries = new AtomicLong();
+    final AtomicLong shortCircuited = new AtomicLong();
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    void reset() {
+        latency.reset();
+        requests.set(0);
+        bytesOut.set(0);
+        bytesIn.set(0);
+        httpErrors.set(0);
+        failures.set(0);
+        timeouts.set(0);
+        cacheHits.set(0);
+        conditionalHits.set(0);
+        coalesced.set(0);
+        retries.set(0);
+        shortCircuited.set(0);
+    }
+
+    /**
+     * Point-in-time copy, safe to serialize with Gson
+     */
+    public static class Snapshot {
+        public String endpoint;
+        public long requests;
+        public double p50Ms;
+        public double p95Ms;
+        public double p99Ms;
+        public long bytesOut;
+        public long bytesIn;
+        public long httpErrors;
+        public long failures;
+        public long timeouts;
+        public long cacheHits;
+        public long conditionalHits;
+        /** Calls answered by an identical call already in flight, never sent */
+        public long coalesced;
+        /** Extra attempts after a failed one */
+        public long retries;
+        /** Calls answered from cache or failed fast while the circuit was open */
+        public long shortCircuited;
+    }
+
+    Snapshot snapshot() {
+        Snapshot s = new Snapshot();
+        s.endpoint = endpoint;
+        s.requests = requests.get();
+        s.p50Ms = latency.percentileMillis(0.50);
+        s.p95Ms = latency.percentileMillis(0.95);
+        s.p99Ms = latency.percentileMillis(0.99);
+        s.bytesOut = bytesOut.get();
+        s.bytesIn = bytesIn.get();
+        s.httpErrors = httpErrors.get();
+        s.failures = failures.get();
+        s.timeouts = timeouts.get();
+        s.cacheHits = cacheHits.get();
+        s.conditionalHits = conditionalHits.get();
+        s.coalesced = coalesced.get();
+        s.retries = retries.get();
+        s.shortCircuited = shortCircuited.get();
+        return s;
+    }
+}
@@ -0,0 +1,76 @@
+package com.wispfieldapp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free latency histogram.
+ * Bucket bounds grow by 25% from 1 ms to about 2 minutes, so any percentile is
+ * reported with at most 25% error regardless of how many samples were recorded.
+ */
+public class LatencyHistogram {
+    private static final long[] UPPER_BOUNDS_MICROS = buildBounds();
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_MICROS.length + 1);
+
+    private static long[] buildBounds() {
+        long[] bounds = new long[54];
+        double bound = 1000;
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = Math.round(bound);
+            bound *= 1.25;
+        }
+        return bounds;
+    }
+
+    public void record(long micros) {
+        counts.incrementAndGet(bucketFor(micros));
+    }
+
+    /**
+     * @param quantile 0-1, e.g. 0.95
+     * @return Upper bound of the bucket holding that quantile in milliseconds, or 0 with no samples
+     */
+    public double percentileMillis(double quantile) {
+        long total = getCount();
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                long bound = i < UPPER_BOUNDS_MICROS.length ? UPPER_BOUNDS_MICROS[i] : UPPER_BOUNDS_MICROS[UPPER_BOUNDS_MICROS.length - 1];
+                return bound / 1000.0;
+            }
+        }
+        return UPPER_BOUNDS_MICROS[UPPER_BOUNDS_MICROS.length - 1] / 1000.0;
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    private static int bucketFor(long micros) {
+        int low = 0;
+        int high = UPPER_BOUNDS_MICROS.length;
+        // First bound >= micros; index == length means overflow bucket
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (UPPER_BOUNDS_MICROS[mid] < micros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
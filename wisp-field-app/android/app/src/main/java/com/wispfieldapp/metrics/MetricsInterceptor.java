@@ -0,0 +1,159 @@
+package com.wispfieldapp.metrics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Invocation;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HEAD;
+import retrofit2.http.PATCH;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Records latency, bytes, errors, timeouts and cache hits per WispApi endpoint
+ * template (e.g. "GET api/work-orders/{id}"), so requests for different ids
+ * aggregate together. Install as an application interceptor: latency is measured
+ * to response headers, and bytes in are counted as the body is read (after
+ * gzip decoding).
+ */
+public class MetricsInterceptor implements Interceptor {
+    private static final ConcurrentHashMap<Method, String> templates = new ConcurrentHashMap<>();
+
+    private final NetworkMetrics metrics;
+
+    public MetricsInterceptor(NetworkMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        EndpointMetrics endpoint = metrics.forEndpoint(endpointOf(request));
+        endpoint.requests.incrementAndGet();
+        if (request.body() != null) {
+            long length = request.body().contentLength();
+            if (length > 0) endpoint.bytesOut.addAndGet(length);
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (isTimeout(e)) {
+                endpoint.timeouts.incrementAndGet();
+            } else {
+                endpoint.failures.incrementAndGet();
+            }
+            throw e;
+        }
+        endpoint.latency.record((System.nanoTime() - start) / 1000);
+
+        if (response.cacheResponse() != null) {
+            if (response.networkResponse() == null) {
+                endpoint.cacheHits.incrementAndGet();
+            } else {
+                // Revalidated with the server (304), body served from cache
+                endpoint.conditionalHits.incrementAndGet();
+            }
+        }
+        if (!response.isSuccessful()) {
+            endpoint.httpErrors.incrementAndGet();
+        }
+
+        ResponseBody body = response.body();
+        if (body == null) return response;
+        return response.newBuilder().body(new CountingResponseBody(body, endpoint.bytesIn)).build();
+    }
+
+    private static boolean isTimeout(IOException e) {
+        // OkHttp reports call timeouts as InterruptedIOException("timeout")
+        return e instanceof SocketTimeoutException
+            || (e instanceof InterruptedIOException && "timeout".equals(e.getMessage()));
+    }
+
+    /**
+     * @return Endpoint template for a Retrofit request, e.g. "GET api/work-orders/{id}"
+     */
+    public static String endpointOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            Method method = invocation.method();
+            String template = templates.get(method);
+            if (template == null) {
+                template = templateOf(method, request.method());
+                templates.put(method, template);
+            }
+            return template;
+        }
+        return request.method() + " " + request.url().encodedPath();
+    }
+
+    private static String templateOf(Method method, String httpMethod) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation instanceof GET) return "GET " + ((GET) annotation).value();
+            if (annotation instanceof POST) return "POST " + ((POST) annotation).value();
+            if (annotation instanceof PUT) return "PUT " + ((PUT) annotation).value();
+            if (annotation instanceof DELETE) return "DELETE " + ((DELETE) annotation).value();
+            if (annotation instanceof PATCH) return "PATCH " + ((PATCH) annotation).value();
+            if (annotation instanceof HEAD) return "HEAD " + ((HEAD) annotation).value();
+        }
+        return httpMethod + " " + method.getName();
+    }
+
+    private static class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final AtomicLong counter;
+        private BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, AtomicLong counter) {
+            this.delegate = delegate;
+            this.counter = counter;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read > 0) counter.addAndGet(read);
+                        return read;
+                    }
+                });
+            }
+            return source;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
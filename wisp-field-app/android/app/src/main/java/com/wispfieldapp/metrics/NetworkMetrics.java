@@ -0,0 +1,99 @@
+package com.wispfieldapp.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Request;
+
+/**
+ * Per-endpoint request metrics for the shared API client, fed by {@link MetricsInterceptor}
+ */
+public class NetworkMetrics {
+    private final ConcurrentHashMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private volatile long sinceMillis = System.currentTimeMillis();
+    private volatile String circuitState = "CLOSED";
+    private final AtomicLong circuitOpens = new AtomicLong();
+
+    EndpointMetrics forEndpoint(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics != null) return metrics;
+        return endpoints.computeIfAbsent(endpoint, EndpointMetrics::new);
+    }
+
+    /**
+     * Counts a call that shared the response of an identical in-flight call
+     */
+    public void recordCoalesced(Request request) {
+        forEndpoint(MetricsInterceptor.endpointOf(request)).coalesced.incrementAndGet();
+    }
+
+    public void recordRetry(Request request) {
+        forEndpoint(MetricsInterceptor.endpointOf(request)).retries.incrementAndGet();
+    }
+
+    public void recordShortCircuit(Request request) {
+        forEndpoint(MetricsInterceptor.endpointOf(request)).shortCircuited.incrementAndGet();
+    }
+
+    public void recordCircuitState(String state) {
+        if ("OPEN".equals(state)) circuitOpens.incrementAndGet();
+        circuitState = state;
+    }
+
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public long getCircuitOpens() {
+        return circuitOpens.get();
+    }
+
+    /**
+     * @return One snapshot per endpoint, busiest first
+     */
+    public List<EndpointMetrics.Snapshot> snapshot() {
+        List<EndpointMetrics.Snapshot> snapshots = new ArrayList<>();
+        for (EndpointMetrics metrics : endpoints.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        snapshots.sort((a, b) -> Long.compare(b.requests, a.requests));
+        return snapshots;
+    }
+
+    public long getSinceMillis() {
+        return sinceMillis;
+    }
+
+    public void reset() {
+        for (EndpointMetrics metrics : endpoints.values()) {
+            metrics.reset();
+        }
+        circuitOpens.set(0);
+        sinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @return Snapshot of all endpoints as pretty-printed JSON, for export
+     */
+    public String toJson() {
+        Export export = new Export();
+        export.since = sinceMillis;
+        export.capturedAt = System.currentTimeMillis();
+        export.circuitState = circuitState;
+        export.circuitOpens = circuitOpens.get();
+        export.endpoints = snapshot();
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        return gson.toJson(export);
+    }
+
+    private static class Export {
+        long since;
+        long capturedAt;
+        String circuitState;
+        long circuitOpens;
+        List<EndpointMetrics.Snapshot> endpoints;
+    }
+}
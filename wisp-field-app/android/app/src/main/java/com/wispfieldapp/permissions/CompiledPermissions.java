@@ -0,0 +1,102 @@
+package com.wispfieldapp.permissions;
+
+import com.wispfieldapp.models.MobileTask;
+import java.util.Map;
+
+/**
+ * A {@link PermissionSnapshot} compiled into bitsets so permission checks in UI
+ * code are a shift and a mask instead of string-keyed map lookups.
+ *
+ * FCAPS grants come from the tasks the backend allowed (each task names a module,
+ * category and operation). moduleAccess and workOrderPermissions are overrides on
+ * top of the role defaults, which the client does not know, so only an explicit
+ * false denies; absent keys are left to the backend, which enforces every call anyway.
+ */
+public final class CompiledPermissions {
+    private static final int CATEGORIES = FcapsCategory.values().length;
+    private static final int OPERATIONS = FcapsOperation.values().length;
+    private static final int GRANT_BITS = Module.values().length * CATEGORIES * OPERATIONS;
+
+    /** Before any snapshot exists: nothing is hidden, the backend decides */
+    public static final CompiledPermissions UNKNOWN = new CompiledPermissions(true);
+
+    private final boolean unknown;
+    private final long[] grants = new long[(GRANT_BITS + 63) / 64];
+    private long tasks;
+    private long deniedModules;
+    private long deniedWorkOrderActions;
+
+    private CompiledPermissions(boolean unknown) {
+        this.unknown = unknown;
+    }
+
+    public static CompiledPermissions compile(PermissionSnapshot snapshot) {
+        if (snapshot == null) return UNKNOWN;
+        CompiledPermissions compiled = new CompiledPermissions(false);
+
+        if (snapshot.tasks != null) {
+            for (MobileTask task : snapshot.tasks) {
+                TaskType type = TaskType.fromId(task.id);
+                if (type != null) compiled.tasks |= 1L << type.ordinal();
+                Module module = Module.fromTaskModule(task.module);
+                FcapsCategory category = FcapsCategory.fromKey(task.fcapsCategory);
+                FcapsOperation operation = FcapsOperation.fromKey(task.operation);
+                if (module != null && category != null && operation != null) {
+                    int bit = grantBit(module, category, operation);
+                    compiled.grants[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        if (snapshot.moduleAccess != null) {
+            for (Map.Entry<String, Boolean> entry : snapshot.moduleAccess.entrySet()) {
+                Module module = Module.fromAccessKey(entry.getKey());
+                if (module != null && Boolean.FALSE.equals(entry.getValue())) {
+                    compiled.deniedModules |= 1L << module.ordinal();
+                }
+            }
+        }
+        if (snapshot.workOrderPermissions != null) {
+            for (Map.Entry<String, Boolean> entry : snapshot.workOrderPermissions.entrySet()) {
+                WorkOrderAction action = WorkOrderAction.fromKey(entry.getKey());
+                if (action != null && Boolean.FALSE.equals(entry.getValue())) {
+                    compiled.deniedWorkOrderActions |= 1L << action.ordinal();
+                }
+            }
+        }
+        return compiled;
+    }
+
+    private static int grantBit(Module module, FcapsCategory category, FcapsOperation operation) {
+        return (module.ordinal() * CATEGORIES + category.ordinal()) * OPERATIONS + operation.ordinal();
+    }
+
+    /**
+     * @return True unless the tenant explicitly turned the module off for this user
+     */
+    public boolean hasModule(Module module) {
+        return (deniedModules & (1L << module.ordinal())) == 0;
+    }
+
+    public boolean can(Module module, FcapsCategory category, FcapsOperation operation) {
+        if (unknown) return true;
+        int bit = grantBit(module, category, operation);
+        return hasModule(module) && (grants[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public boolean can(WorkOrderAction action) {
+        return (deniedWorkOrderActions & (1L << action.ordinal())) == 0;
+    }
+
+    public boolean hasTask(TaskType type) {
+        return unknown || (tasks & (1L << type.ordinal())) != 0;
+    }
+
+    /**
+     * @return True if the task's module is not switched off; tasks this build does not
+     *         recognise are allowed so the backend's list is shown as sent
+     */
+    public boolean allows(MobileTask task) {
+        Module module = Module.fromTaskModule(task.module);
+        return module == null || hasModule(module);
+    }
+}
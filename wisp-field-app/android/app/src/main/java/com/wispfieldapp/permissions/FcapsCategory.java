@@ -0,0 +1,25 @@
+package com.wispfieldapp.permissions;
+
+/**
+ * FCAPS permission categories, as used by the backend permission service
+ */
+public enum FcapsCategory {
+    FAULT("fault"),
+    CONFIGURATION("configuration"),
+    ACCOUNTING("accounting"),
+    PERFORMANCE("performance"),
+    SECURITY("security");
+
+    public final String key;
+
+    FcapsCategory(String key) {
+        this.key = key;
+    }
+
+    public static FcapsCategory fromKey(String key) {
+        for (FcapsCategory category : values()) {
+            if (category.key.equals(key)) return category;
+        }
+        return null;
+    }
+}
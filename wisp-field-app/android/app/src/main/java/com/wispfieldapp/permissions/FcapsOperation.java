@@ -0,0 +1,20 @@
+package com.wispfieldapp.permissions;
+
+public enum FcapsOperation {
+    READ("read"),
+    WRITE("write"),
+    DELETE("delete");
+
+    public final String key;
+
+    FcapsOperation(String key) {
+        this.key = key;
+    }
+
+    public static FcapsOperation fromKey(String key) {
+        for (FcapsOperation operation : values()) {
+            if (operation.key.equals(key)) return operation;
+        }
+        return null;
+    }
+}
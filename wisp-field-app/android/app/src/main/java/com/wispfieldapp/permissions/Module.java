@@ -0,0 +1,47 @@
+package com.wispfieldapp.permissions;
+
+/**
+ * Platform modules. {@link #taskModule} is the id used by mobile tasks and FCAPS
+ * checks ("work-orders"), {@link #accessKey} the key in the tenant's moduleAccess
+ * map ("workOrders"); either may be null where the backend has no such key.
+ */
+public enum Module {
+    INVENTORY("inventory", "inventory"),
+    NETWORK("network", null),
+    WORK_ORDERS("work-orders", "workOrders"),
+    HELP_DESK(null, "helpDesk"),
+    COVERAGE_MAP(null, "coverageMap"),
+    MONITORING(null, "monitoring"),
+    PCI_RESOLUTION(null, "pciResolution"),
+    CBRS_MANAGEMENT(null, "cbrsManagement"),
+    ACS_MANAGEMENT(null, "acsManagement"),
+    HSS_MANAGEMENT(null, "hssManagement"),
+    DISTRIBUTED_EPC(null, "distributedEpc"),
+    USER_MANAGEMENT(null, "userManagement"),
+    TENANT_SETTINGS(null, "tenantSettings"),
+    BACKEND_MANAGEMENT(null, "backendManagement"),
+    BILLING(null, "billing"),
+    TENANT_MANAGEMENT(null, "tenantManagement");
+
+    public final String taskModule;
+    public final String accessKey;
+
+    Module(String taskModule, String accessKey) {
+        this.taskModule = taskModule;
+        this.accessKey = accessKey;
+    }
+
+    public static Module fromTaskModule(String id) {
+        for (Module module : values()) {
+            if (module.taskModule != null && module.taskModule.equals(id)) return module;
+        }
+        return null;
+    }
+
+    public static Module fromAccessKey(String key) {
+        for (Module module : values()) {
+            if (module.accessKey != null && module.accessKey.equals(key)) return module;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,148 @@
+package com.wispfieldapp.permissions;
+
+import android.content.Context;
+import android.util.Log;
+import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.models.AuthResponse;
+import com.wispfieldapp.models.MobileTasksResponse;
+import com.wispfieldapp.trace.Span;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Per-tenant, per-user permission snapshots: served from disk immediately and
+ * revalidated against the backend in the background.
+ */
+public class PermissionRepository {
+    private static final String TAG = "PermissionRepository";
+
+    public interface Listener {
+        /**
+         * @param changed False if the backend confirmed the cached snapshot
+         */
+        void onSnapshot(PermissionSnapshot snapshot, boolean changed);
+
+        void onError(String message);
+    }
+
+    private final PermissionStore store;
+    private final WispApi api;
+
+    public PermissionRepository(Context context, WispApi api) {
+        this.store = new PermissionStore(context);
+        this.api = api;
+    }
+
+    /**
+     * @return The last snapshot stored for this user and tenant, or null
+     */
+    public PermissionSnapshot cached(String userId, String tenantId) {
+        return store.load(userId, tenantId);
+    }
+
+    /**
+     * Drops every stored snapshot and the compiled permissions (on logout)
+     */
+    public void clear() {
+        store.clear();
+        Permissions.clear();
+    }
+
+    /**
+     * Fetches tasks and tenant permissions in parallel and stores the result. The
+     * task list is required; if only the permission maps fail to load, the cached
+     * maps are kept. Callbacks arrive on the main thread.
+     */
+    public void revalidate(Span span, String authHeader, String userId, String tenantId, Listener listener) {
+        PermissionSnapshot previous = cached(userId, tenantId);
+        Revalidation revalidation = new Revalidation(span, userId, tenantId, previous, listener);
+
+        span.enqueue(api.getMobileTasks(authHeader, tenantId), new Callback<MobileTasksResponse>() {
+            @Override
+            public void onResponse(Call<MobileTasksResponse> call, Response<MobileTasksResponse> response) {
+                if (response.isSuccessful() && response.body() != null && response.body().tasks != null) {
+                    revalidation.tasks = response.body();
+                } else {
+                    revalidation.error = "Could not load tasks (" + response.code() + ")";
+                }
+                revalidation.arrived();
+            }
+
+            @Override
+            public void onFailure(Call<MobileTasksResponse> call, Throwable t) {
+                Log.e(TAG, "Failed to fetch mobile tasks", t);
+                revalidation.error = "Network error: " + t.getMessage();
+                revalidation.arrived();
+            }
+        });
+
+        span.enqueue(api.getMe(authHeader, tenantId), new Callback<AuthResponse>() {
+            @Override
+            public void onResponse(Call<AuthResponse> call, Response<AuthResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    revalidation.me = response.body();
+                } else {
+                    Log.w(TAG, "Tenant permissions unavailable (" + response.code() + ")");
+                }
+                revalidation.arrived();
+            }
+
+            @Override
+            public void onFailure(Call<AuthResponse> call, Throwable t) {
+                Log.w(TAG, "Failed to fetch tenant permissions", t);
+                revalidation.arrived();
+            }
+        });
+    }
+
+    /**
+     * Joins the two responses; Retrofit delivers both callbacks on the main thread
+     */
+    private class Revalidation {
+        final Span span;
+        final String userId;
+        final String tenantId;
+        final PermissionSnapshot previous;
+        final Listener listener;
+        int pending = 2;
+        MobileTasksResponse tasks;
+        AuthResponse me;
+        String error;
+
+        Revalidation(Span span, String userId, String tenantId, PermissionSnapshot previous, Listener listener) {
+            this.span = span;
+            this.userId = userId;
+            this.tenantId = tenantId;
+            this.previous = previous;
+            this.listener = listener;
+        }
+
+        void arrived() {
+            if (--pending > 0) return;
+            if (tasks == null) {
+                span.fail(error).end();
+                listener.onError(error);
+                return;
+            }
+
+            PermissionSnapshot snapshot = new PermissionSnapshot();
+            snapshot.tenantId = tenantId;
+            snapshot.userId = userId;
+            snapshot.role = tasks.role;
+            snapshot.tasks = tasks.tasks;
+            if (me != null && me.tenant != null) {
+                snapshot.moduleAccess = me.tenant.moduleAccess;
+                snapshot.workOrderPermissions = me.tenant.workOrderPermissions;
+            } else if (previous != null) {
+                snapshot.moduleAccess = previous.moduleAccess;
+                snapshot.workOrderPermissions = previous.workOrderPermissions;
+            }
+            snapshot.fetchedAt = System.currentTimeMillis();
+            boolean changed = !snapshot.sameAccess(previous);
+            store.save(snapshot);
+            span.arg("changed", changed).end();
+            listener.onSnapshot(snapshot, changed);
+        }
+    }
+}
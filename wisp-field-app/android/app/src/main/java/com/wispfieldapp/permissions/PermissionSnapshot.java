@@ -0,0 +1,33 @@
+package com.wispfieldapp.permissions;
+
+import com.wispfieldapp.models.MobileTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * What one user may do in one tenant: the task list from /api/mobile/tasks plus the
+ * tenant's module and work-order permissions from /api/auth/me. Persisted so the
+ * dashboard can render before the network answers.
+ */
+public class PermissionSnapshot {
+    public String tenantId;
+    public String userId;
+    public String role;
+    public List<MobileTask> tasks = new ArrayList<>();
+    public Map<String, Boolean> moduleAccess;
+    public Map<String, Boolean> workOrderPermissions;
+    public long fetchedAt;
+
+    /**
+     * @return True if both snapshots grant exactly the same access (fetch time is ignored)
+     */
+    public boolean sameAccess(PermissionSnapshot other) {
+        return other != null
+            && Objects.equals(role, other.role)
+            && Objects.equals(tasks, other.tasks)
+            && Objects.equals(moduleAccess, other.moduleAccess)
+            && Objects.equals(workOrderPermissions, other.workOrderPermissions);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wispfieldapp.permissions;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Persists one {@link PermissionSnapshot} per user and tenant
+ */
+public class PermissionStore {
+    private static final String TAG = "PermissionStore";
+    private static final String PREFS_NAME = "WISPPermissions";
+
+    private final SharedPreferences prefs;
+    private final Gson gson = new Gson();
+
+    public PermissionStore(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static String key(String userId, String tenantId) {
+        return userId + ":" + tenantId;
+    }
+
+    /**
+     * @return The last snapshot stored for this user and tenant, or null
+     */
+    public PermissionSnapshot load(String userId, String tenantId) {
+        String json = prefs.getString(key(userId, tenantId), null);
+        if (json == null) return null;
+        try {
+            return gson.fromJson(json, PermissionSnapshot.class);
+        } catch (JsonParseException e) {
+            Log.w(TAG, "Discarding unreadable permission snapshot", e);
+            return null;
+        }
+    }
+
+    public void save(PermissionSnapshot snapshot) {
+        prefs.edit().putString(key(snapshot.userId, snapshot.tenantId), gson.toJson(snapshot)).apply();
+    }
+
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
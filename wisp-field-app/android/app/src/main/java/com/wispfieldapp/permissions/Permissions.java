@@ -0,0 +1,56 @@
+package com.wispfieldapp.permissions;
+
+import android.content.Context;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import java.util.Objects;
+
+/**
+ * Process-wide compiled permissions for the active user and tenant. A snapshot is
+ * only recompiled when it grants different access from the one already compiled.
+ */
+public final class Permissions {
+    private static PermissionSnapshot snapshot;
+    private static CompiledPermissions compiled = CompiledPermissions.UNKNOWN;
+
+    private Permissions() {}
+
+    /**
+     * Makes the snapshot current
+     * @return Its compiled form, reused if access has not changed
+     */
+    public static synchronized CompiledPermissions publish(PermissionSnapshot next) {
+        if (next == null) {
+            snapshot = null;
+            compiled = CompiledPermissions.UNKNOWN;
+        } else if (snapshot == null || !sameOwner(snapshot, next) || !next.sameAccess(snapshot)) {
+            compiled = CompiledPermissions.compile(next);
+            snapshot = next;
+        } else {
+            snapshot = next;
+        }
+        return compiled;
+    }
+
+    /**
+     * Permissions for a screen in the given tenant. Loads the stored snapshot if the
+     * process was restarted straight into that screen.
+     */
+    public static CompiledPermissions current(Context context, String tenantId) {
+        synchronized (Permissions.class) {
+            if (snapshot != null && Objects.equals(snapshot.tenantId, tenantId)) return compiled;
+        }
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null || tenantId == null) return CompiledPermissions.UNKNOWN;
+        return publish(new PermissionStore(context).load(user.getUid(), tenantId));
+    }
+
+    public static synchronized void clear() {
+        snapshot = null;
+        compiled = CompiledPermissions.UNKNOWN;
+    }
+
+    private static boolean sameOwner(PermissionSnapshot a, PermissionSnapshot b) {
+        return Objects.equals(a.userId, b.userId) && Objects.equals(a.tenantId, b.tenantId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.wispfieldapp.permissions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mobile task ids returned by /api/mobile/tasks
+ */
+public enum TaskType {
+    INVENTORY_CHECKIN("inventory-checkin"),
+    INVENTORY_CHECKOUT("inventory-checkout"),
+    DEPLOY_NETWORK("deploy-network"),
+    DEPLOY_TOWER("deploy-tower"),
+    RECEIVE_TROUBLE_TICKETS("receive-trouble-tickets"),
+    RESOLVE_TROUBLE_TICKETS("resolve-trouble-tickets"),
+    LOG_TROUBLE_TICKETS("log-trouble-tickets"),
+    AIMING_CPE("aiming-cpe");
+
+    private static final Map<String, TaskType> byId = new HashMap<>();
+
+    static {
+        for (TaskType type : values()) {
+            byId.put(type.id, type);
+        }
+    }
+
+    public final String id;
+
+    TaskType(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The task type, or null for ids this build does not know
+     */
+    public static TaskType fromId(String id) {
+        return id != null ? byId.get(id) : null;
+    }
+}
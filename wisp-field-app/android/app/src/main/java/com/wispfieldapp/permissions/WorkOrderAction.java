@@ -0,0 +1,28 @@
+package com.wispfieldapp.permissions;
+
+/**
+ * Keys of the tenant's workOrderPermissions map
+ */
+public enum WorkOrderAction {
+    VIEW_ALL("canViewAll"),
+    VIEW_ASSIGNED("canViewAssigned"),
+    CREATE("canCreate"),
+    ASSIGN("canAssign"),
+    REASSIGN("canReassign"),
+    CLOSE("canClose"),
+    DELETE("canDelete"),
+    ESCALATE("canEscalate");
+
+    public final String key;
+
+    WorkOrderAction(String key) {
+        this.key = key;
+    }
+
+    public static WorkOrderAction fromKey(String key) {
+        for (WorkOrderAction action : values()) {
+            if (action.key.equals(key)) return action;
+        }
+        return null;
+    }
+}
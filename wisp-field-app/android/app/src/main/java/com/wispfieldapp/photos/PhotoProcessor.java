@@ -0,0 +1,296 @@
+package com.wispfieldapp.photos;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.location.Location;
+import android.media.ExifInterface;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Turns a full-resolution camera capture into an upload-sized JPEG.
+ *
+ * The source is decoded with subsampling (never at full resolution), scaled to
+ * the configured max dimension, recompressed, tagged with GPS/heading/time EXIF
+ * and committed to the {@link PhotoStore}. Work runs on a single background thread
+ * so at most one decoded bitmap is alive at a time.
+ */
+public class PhotoProcessor {
+    private static final String TAG = "PhotoProcessor";
+    public static final int DEFAULT_MAX_DIMENSION = 1600;
+    public static final int DEFAULT_QUALITY = 80;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final PhotoStore store;
+    private final int maxDimension;
+    private final int quality;
+
+    public interface Callback {
+        void onProcessed(ProcessedPhoto photo);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Metadata captured alongside the photo; any field may be null
+     */
+    public static class Tags {
+        public Location location;
+        /** Compass heading in degrees, 0-360 */
+        public Float heading;
+        /** True if heading is referenced to true north rather than magnetic north */
+        public boolean headingIsTrue;
+        /** Capture time in epoch millis; defaults to processing time */
+        public Long timestamp;
+    }
+
+    public static class ProcessedPhoto {
+        public final String hash;
+        public final File file;
+        public final long sourceBytes;
+        public final long bytes;
+        public final int width;
+        public final int height;
+        public final long processingMillis;
+
+        ProcessedPhoto(String hash, File file, long sourceBytes, long bytes, int width, int height, long processingMillis) {
+            this.hash = hash;
+            this.file = file;
+            this.sourceBytes = sourceBytes;
+            this.bytes = bytes;
+            this.width = width;
+            this.height = height;
+            this.processingMillis = processingMillis;
+        }
+
+        /**
+         * @return Human readable size/time report, e.g. "3.9 MB -> 412 KB in 380 ms"
+         */
+        public String summary() {
+            return formatBytes(sourceBytes) + " -> " + formatBytes(bytes) + " in " + processingMillis + " ms";
+        }
+    }
+
+    public PhotoProcessor(PhotoStore store) {
+        this(store, DEFAULT_MAX_DIMENSION, DEFAULT_QUALITY);
+    }
+
+    /**
+     * @param maxDimension Longest edge of the output in pixels
+     * @param quality JPEG quality, 0-100
+     */
+    public PhotoProcessor(PhotoStore store, int maxDimension, int quality) {
+        this.store = store;
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+    }
+
+    /**
+     * Process a capture on the background thread
+     * @param source Full-resolution JPEG written by the camera
+     * @param tags EXIF metadata to embed (may be null)
+     * @param callback Called on the main thread
+     */
+    public void processAsync(File source, Tags tags, Callback callback) {
+        executor.execute(() -> {
+            try {
+                ProcessedPhoto photo = process(source, tags);
+                mainHandler.post(() -> callback.onProcessed(photo));
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to process " + source, e);
+                mainHandler.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Process a capture on the calling thread (must not be the main thread)
+     */
+    public ProcessedPhoto process(File source, Tags tags) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        long sourceBytes = source.length();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(source.getAbsolutePath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, maxDimension);
+        Bitmap decoded = BitmapFactory.decodeFile(source.getAbsolutePath(), options);
+        if (decoded == null) {
+            throw new IOException("Failed to decode " + source);
+        }
+
+        Bitmap output = scaleAndRotate(decoded, readRotation(source));
+        int width = output.getWidth();
+        int height = output.getHeight();
+
+        File temp = store.createTempFile();
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+                if (!output.compress(Bitmap.CompressFormat.JPEG, quality, out)) {
+                    throw new IOException("JPEG compression failed");
+                }
+            } finally {
+                output.recycle();
+            }
+            writeExif(temp, tags);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+
+        String hash = store.commit(temp);
+        File stored = store.fileFor(hash);
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        ProcessedPhoto photo = new ProcessedPhoto(hash, stored, sourceBytes, stored.length(), width, height, elapsed);
+        Log.i(TAG, "Processed " + source.getName() + " (" + bounds.outWidth + "x" + bounds.outHeight
+            + ", sample " + options.inSampleSize + ") -> " + width + "x" + height + ": " + photo.summary());
+        return photo;
+    }
+
+    /**
+     * Look up a photo processed earlier, e.g. one still waiting to upload when the activity was recreated
+     * @return Null if the store no longer has it
+     */
+    public ProcessedPhoto restore(String hash) {
+        if (!store.contains(hash)) {
+            return null;
+        }
+        File stored = store.fileFor(hash);
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(stored.getAbsolutePath(), bounds);
+        return new ProcessedPhoto(hash, stored, stored.length(), stored.length(), bounds.outWidth, bounds.outHeight, 0);
+    }
+
+    /**
+     * Largest power-of-two subsample that still leaves the long edge at or above maxDimension
+     */
+    static int sampleSizeFor(int width, int height, int maxDimension) {
+        int longEdge = Math.max(width, height);
+        int sample = 1;
+        while (longEdge / (sample * 2) >= maxDimension) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    private Bitmap scaleAndRotate(Bitmap bitmap, int rotation) {
+        int longEdge = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        float scale = longEdge > maxDimension ? (float) maxDimension / longEdge : 1f;
+        if (scale == 1f && rotation == 0) {
+            return bitmap;
+        }
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(rotation);
+        Bitmap transformed = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (transformed != bitmap) {
+            bitmap.recycle();
+        }
+        return transformed;
+    }
+
+    /**
+     * The pixels are rotated on output, so the camera's orientation tag is not carried over
+     */
+    private static int readRotation(File source) {
+        try {
+            ExifInterface exif = new ExifInterface(source.getAbsolutePath());
+            switch (exif.getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL)) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read orientation of " + source, e);
+            return 0;
+        }
+    }
+
+    private static void writeExif(File file, Tags tags) throws IOException {
+        long timestamp = tags != null && tags.timestamp != null ? tags.timestamp : System.currentTimeMillis();
+        ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+
+        SimpleDateFormat local = new SimpleDateFormat("yyyy:MM:dd HH:mm:ss", Locale.US);
+        String dateTime = local.format(new Date(timestamp));
+        exif.setAttribute(ExifInterface.TAG_DATETIME, dateTime);
+        exif.setAttribute(ExifInterface.TAG_DATETIME_ORIGINAL, dateTime);
+        exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(ExifInterface.ORIENTATION_NORMAL));
+
+        if (tags != null && tags.location != null) {
+            Location location = tags.location;
+            exif.setAttribute(ExifInterface.TAG_GPS_LATITUDE, toDms(location.getLatitude()));
+            exif.setAttribute(ExifInterface.TAG_GPS_LATITUDE_REF, location.getLatitude() >= 0 ? "N" : "S");
+            exif.setAttribute(ExifInterface.TAG_GPS_LONGITUDE, toDms(location.getLongitude()));
+            exif.setAttribute(ExifInterface.TAG_GPS_LONGITUDE_REF, location.getLongitude() >= 0 ? "E" : "W");
+            if (location.hasAltitude()) {
+                double altitude = location.getAltitude();
+                exif.setAttribute(ExifInterface.TAG_GPS_ALTITUDE, Math.round(Math.abs(altitude) * 100) + "/100");
+                exif.setAttribute(ExifInterface.TAG_GPS_ALTITUDE_REF, altitude >= 0 ? "0" : "1");
+            }
+
+            // GPS time is always UTC, taken from the fix itself
+            SimpleDateFormat utcDate = new SimpleDateFormat("yyyy:MM:dd", Locale.US);
+            SimpleDateFormat utcTime = new SimpleDateFormat("HH:mm:ss", Locale.US);
+            utcDate.setTimeZone(TimeZone.getTimeZone("UTC"));
+            utcTime.setTimeZone(TimeZone.getTimeZone("UTC"));
+            Date fixTime = new Date(location.getTime() > 0 ? location.getTime() : timestamp);
+            exif.setAttribute(ExifInterface.TAG_GPS_DATESTAMP, utcDate.format(fixTime));
+            String[] hms = utcTime.format(fixTime).split(":");
+            exif.setAttribute(ExifInterface.TAG_GPS_TIMESTAMP, hms[0] + "/1," + hms[1] + "/1," + hms[2] + "/1");
+        }
+
+        if (tags != null && tags.heading != null) {
+            float heading = ((tags.heading % 360) + 360) % 360;
+            exif.setAttribute(ExifInterface.TAG_GPS_IMG_DIRECTION, Math.round(heading * 100) + "/100");
+            exif.setAttribute(ExifInterface.TAG_GPS_IMG_DIRECTION_REF, tags.headingIsTrue ? "T" : "M");
+        }
+
+        exif.saveAttributes();
+    }
+
+    /**
+     * @return Degrees as an EXIF rational triple, e.g. "40/1,26/1,4612/1000"
+     */
+    static String toDms(double degrees) {
+        double abs = Math.abs(degrees);
+        int d = (int) abs;
+        double minutes = (abs - d) * 60;
+        int m = (int) minutes;
+        long secondsMilli = Math.round((minutes - m) * 60 * 1000);
+        return d + "/1," + m + "/1," + secondsMilli + "/1000";
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024.0));
+        }
+        return (bytes / 1024) + " KB";
+    }
+}
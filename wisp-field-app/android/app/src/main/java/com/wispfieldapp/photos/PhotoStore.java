@@ -0,0 +1,81 @@
+package com.wispfieldapp.photos;
+
+import android.content.Context;
+import com.wispfieldapp.utils.HashUtils;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Content-addressed store for processed photos.
+ * Each photo is kept as <sha256>.jpg, so retaking or reprocessing an identical
+ * image never produces a second copy and a hash is a stable upload key.
+ */
+public class PhotoStore {
+    private static final String DIR_NAME = "photos";
+    private static final String EXTENSION = ".jpg";
+
+    private final File dir;
+
+    public PhotoStore(Context context) {
+        this.dir = new File(context.getFilesDir(), DIR_NAME);
+    }
+
+    /**
+     * @return A scratch file inside the store directory, so the final rename stays on one filesystem
+     */
+    public File createTempFile() throws IOException {
+        ensureDir();
+        return File.createTempFile("processing_", ".tmp", dir);
+    }
+
+    /**
+     * Move a finished file into the store under its content hash
+     * @param temp File produced by {@link #createTempFile()}; consumed by this call
+     * @return Hex SHA-256 of the file contents
+     */
+    public synchronized String commit(File temp) throws IOException {
+        String hash = HashUtils.sha256(temp);
+        File target = fileFor(hash);
+        if (target.exists()) {
+            // Same bytes already stored
+            temp.delete();
+        } else if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Could not move " + temp + " to " + target);
+        }
+        return hash;
+    }
+
+    public File fileFor(String hash) {
+        return new File(dir, hash + EXTENSION);
+    }
+
+    public boolean contains(String hash) {
+        return fileFor(hash).exists();
+    }
+
+    public boolean delete(String hash) {
+        return fileFor(hash).delete();
+    }
+
+    /**
+     * @return Bytes used by stored photos
+     */
+    public long totalBytes() {
+        File[] files = dir.listFiles();
+        if (files == null) return 0;
+        long total = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(EXTENSION)) {
+                total += file.length();
+            }
+        }
+        return total;
+    }
+
+    private void ensureDir() throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.wispfieldapp.search;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * Field mappings for the records we search, plus off-main-thread bulk indexing
+ */
+public class SearchIndexes {
+    private static final ExecutorService indexer = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Index a site from /api/network/sites by name, then id
+     */
+    public static void putSite(SearchIndex<Map<String, Object>> index, Map<String, Object> site) {
+        index.put(keyOf(site), site, asString(site.get("name")), asString(site.get("_id")));
+    }
+
+    /**
+     * Index an inventory item by asset tag, serial number, barcode, then model
+     */
+    public static void putInventoryItem(SearchIndex<Map<String, Object>> index, Map<String, Object> item) {
+        index.put(keyOf(item), item,
+            asString(item.get("assetTag")),
+            asString(item.get("serialNumber")),
+            asString(item.get("barcode")),
+            asString(item.get("model")));
+    }
+
+    /**
+     * Bring the index in line with a fresh site list on a background thread: changed
+     * sites are re-put and deleted ones removed, so searches never see it half empty
+     * @param onDone Run on the main thread once the index is ready (may be null)
+     */
+    public static void indexSitesAsync(SearchIndex<Map<String, Object>> index, List<Map<String, Object>> sites, Runnable onDone) {
+        indexer.execute(() -> {
+            sync(index, sites, SearchIndexes::putSite);
+            if (onDone != null) mainHandler.post(onDone);
+        });
+    }
+
+    /**
+     * Bring the index in line with a fresh inventory list on a background thread
+     * @param onDone Run on the main thread once the index is ready (may be null)
+     */
+    public static void indexInventoryAsync(SearchIndex<Map<String, Object>> index, List<Map<String, Object>> items, Runnable onDone) {
+        indexer.execute(() -> {
+            sync(index, items, SearchIndexes::putInventoryItem);
+            if (onDone != null) mainHandler.post(onDone);
+        });
+    }
+
+    private static void sync(SearchIndex<Map<String, Object>> index, List<Map<String, Object>> items,
+                             BiConsumer<SearchIndex<Map<String, Object>>, Map<String, Object>> put) {
+        Set<String> stale = index.keys();
+        for (Map<String, Object> item : items) {
+            String key = keyOf(item);
+            stale.remove(key);
+            if (!item.equals(index.get(key))) put.accept(index, item);
+        }
+        for (String key : stale) {
+            index.remove(key);
+        }
+    }
+
+    private static String keyOf(Map<String, Object> item) {
+        String id = asString(item.get("_id"));
+        return id != null ? id : String.valueOf(System.identityHashCode(item));
+    }
+
+    public static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wispfieldapp.tenant;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-tenant cache partitions under filesDir/tenants. Switching tenants only
+ * changes which partition screens read from, so a tenant used recently renders
+ * straight from memory or disk while the network revalidates.
+ *
+ * The most recently used partitions keep their decoded data in memory; on disk,
+ * idle partitions are evicted least recently used first once the total exceeds
+ * {@link #DISK_BUDGET_BYTES}. The active tenant is never evicted.
+ */
+public class TenantCache {
+    private static final String TAG = "TenantCache";
+    private static final long DISK_BUDGET_BYTES = 25L * 1024 * 1024;
+    private static final int IN_MEMORY_PARTITIONS = 3;
+
+    private static TenantCache instance;
+
+    private final File root;
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final LinkedHashMap<String, TenantPartition> partitions = new LinkedHashMap<String, TenantPartition>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TenantPartition> eldest) {
+            if (size() > IN_MEMORY_PARTITIONS) {
+                eldest.getValue().releaseMemory();
+                return true;
+            }
+            return false;
+        }
+    };
+    private String activeTenantId;
+
+    private TenantCache(Context context) {
+        root = new File(context.getApplicationContext().getFilesDir(), "tenants");
+    }
+
+    public static synchronized TenantCache get(Context context) {
+        if (instance == null) {
+            instance = new TenantCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * @return The partition for a tenant, marked as most recently used
+     */
+    public synchronized TenantPartition partition(String tenantId) {
+        TenantPartition partition = partitions.get(tenantId);
+        if (partition == null) {
+            partition = new TenantPartition(tenantId, dirFor(tenantId), io, this::evictToBudget);
+            partitions.put(tenantId, partition);
+        }
+        partition.touch();
+        return partition;
+    }
+
+    /**
+     * Makes the tenant active; its partition is protected from eviction
+     */
+    public synchronized TenantPartition switchTo(String tenantId) {
+        activeTenantId = tenantId;
+        return partition(tenantId);
+    }
+
+    private File dirFor(String tenantId) {
+        return new File(root, tenantId.replaceAll("[^A-Za-z0-9_-]", "_"));
+    }
+
+    /**
+     * Runs on the I/O thread after each write
+     */
+    private void evictToBudget() {
+        File[] dirs = root.listFiles(File::isDirectory);
+        if (dirs == null) return;
+
+        long total = 0;
+        for (File dir : dirs) {
+            total += TenantPartition.sizeBytes(dir);
+        }
+        if (total <= DISK_BUDGET_BYTES) return;
+
+        File activeDir;
+        synchronized (this) {
+            activeDir = activeTenantId != null ? dirFor(activeTenantId) : null;
+        }
+        List<File> candidates = new ArrayList<>(Arrays.asList(dirs));
+        candidates.sort((a, b) -> Long.compare(TenantPartition.lastUsed(a), TenantPartition.lastUsed(b)));
+        for (File dir : candidates) {
+            if (total <= DISK_BUDGET_BYTES) break;
+            if (dir.equals(activeDir)) continue;
+            long size = TenantPartition.sizeBytes(dir);
+            Log.d(TAG, "Evicting tenant cache " + dir.getName() + " (" + size + " bytes)");
+            synchronized (this) {
+                for (TenantPartition partition : partitions.values()) {
+                    if (dirFor(partition.getTenantId()).equals(dir)) partition.releaseMemory();
+                }
+            }
+            TenantPartition.deleteDir(dir);
+            total -= size;
+        }
+    }
+
+    /**
+     * Drops every partition (on logout)
+     */
+    public synchronized void clearAll() {
+        for (TenantPartition partition : partitions.values()) {
+            partition.releaseMemory();
+        }
+        partitions.clear();
+        activeTenantId = null;
+        io.execute(() -> {
+            File[] dirs = root.listFiles();
+            if (dirs == null) return;
+            for (File dir : dirs) {
+                TenantPartition.deleteDir(dir);
+            }
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package com.wispfieldapp.tenant;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * One tenant's cached datasets (sites, work orders, inventory), kept as JSON files
+ * in the tenant's own directory with the decoded values held in memory while the
+ * partition is in use.
+ */
+public class TenantPartition {
+    private static final String TAG = "TenantPartition";
+    private static final String USED_FILE = ".last-used";
+
+    public static final String SITES = "sites";
+    public static final String WORK_ORDERS = "work-orders";
+    public static final String INVENTORY = "inventory";
+
+    /**
+     * Network equipment at one site, preloaded on arrival
+     */
+    public static String siteEquipment(String siteId) {
+        return "site-equipment-" + siteId;
+    }
+
+    /**
+     * All work orders concerning one site, preloaded on arrival
+     */
+    public static String siteWorkOrders(String siteId) {
+        return "site-work-orders-" + siteId;
+    }
+
+    private final String tenantId;
+    private final File dir;
+    private final ExecutorService io;
+    private final Runnable onWrite;
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ConcurrentHashMap<String, Object> memory = new ConcurrentHashMap<>();
+
+    TenantPartition(String tenantId, File dir, ExecutorService io, Runnable onWrite) {
+        this.tenantId = tenantId;
+        this.dir = dir;
+        this.io = io;
+        this.onWrite = onWrite;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Delivers the cached value on the main thread: immediately if it is in memory,
+     * otherwise after it has been read from disk. Nothing is delivered if the
+     * partition has no value for the key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void get(String key, Type type, Consumer<T> onCached) {
+        Object value = memory.get(key);
+        if (value != null) {
+            onCached.accept((T) value);
+            return;
+        }
+        io.execute(() -> {
+            T loaded = read(key, type);
+            if (loaded == null) return;
+            memory.putIfAbsent(key, loaded);
+            mainHandler.post(() -> onCached.accept(loaded));
+        });
+    }
+
+    /**
+     * Replaces the cached value; the file is written in the background
+     */
+    public void put(String key, Object value) {
+        if (value == null) return;
+        memory.put(key, value);
+        String json = gson.toJson(value);
+        io.execute(() -> {
+            write(key, json);
+            onWrite.run();
+        });
+    }
+
+    /**
+     * A file for a dataset with its own format (such as the topology snapshot). It
+     * counts towards the disk budget; call {@link #fileWritten()} after replacing it.
+     */
+    public File file(String name) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create " + dir);
+        }
+        return new File(dir, name);
+    }
+
+    public void fileWritten() {
+        io.execute(onWrite);
+    }
+
+    private <T> T read(String key, Type type) {
+        File file = fileFor(key);
+        if (!file.exists()) return null;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        } catch (IOException | JsonParseException e) {
+            Log.w(TAG, "Dropping unreadable " + key + " for tenant " + tenantId, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(String key, String json) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Cannot create " + dir);
+            return;
+        }
+        File target = fileFor(key);
+        File temp = new File(dir, target.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(json);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write " + key + " for tenant " + tenantId, e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(target)) {
+            Log.e(TAG, "Failed to replace " + target);
+            temp.delete();
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(dir, key.replaceAll("[^A-Za-z0-9_-]", "_") + ".json");
+    }
+
+    /**
+     * Records use for LRU eviction (on the I/O thread)
+     */
+    void touch() {
+        io.execute(() -> {
+            if (!dir.exists() && !dir.mkdirs()) return;
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(dir, USED_FILE)), StandardCharsets.UTF_8)) {
+                writer.write(Long.toString(System.currentTimeMillis()));
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to record use of tenant " + tenantId, e);
+            }
+        });
+    }
+
+    /**
+     * Drops the in-memory copies; the files stay for the next switch back
+     */
+    void releaseMemory() {
+        memory.clear();
+    }
+
+    static long lastUsed(File dir) {
+        File used = new File(dir, USED_FILE);
+        try (Reader reader = new InputStreamReader(new FileInputStream(used), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[32];
+            int n = reader.read(buffer);
+            return n > 0 ? Long.parseLong(new String(buffer, 0, n).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            return dir.lastModified();
+        }
+    }
+
+    static long sizeBytes(File dir) {
+        long total = 0;
+        File[] files = dir.listFiles();
+        if (files == null) return 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        return total;
+    }
+
+    static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+}
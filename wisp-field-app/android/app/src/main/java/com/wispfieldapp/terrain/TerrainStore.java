@@ -0,0 +1,84 @@
+package com.wispfieldapp.terrain;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Offline terrain checks for the aiming screen, over the SRTM tiles (N40W105.hgt
+ * and so on) copied into the app's external files directory under dem/.
+ *
+ * Checks run one at a time on a worker thread; a result is delivered only if no
+ * newer check was requested in the meantime, so GPS updates never queue up.
+ */
+public class TerrainStore {
+    private static final String TAG = "TerrainStore";
+    private static final String DIR_NAME = "dem";
+    private static final int MAX_TILES = 4;
+
+    private static TerrainStore instance;
+
+    private final TileCache tiles;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private TerrainStore(Context context) {
+        File base = context.getExternalFilesDir(null);
+        tiles = new TileCache(new File(base != null ? base : context.getFilesDir(), DIR_NAME), MAX_TILES);
+    }
+
+    public static synchronized TerrainStore get(Context context) {
+        if (instance == null) {
+            instance = new TerrainStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public File getDemDir() {
+        return tiles.getDir();
+    }
+
+    /**
+     * The shared tile cache, for batch work off this store's worker (the site survey);
+     * it is safe for concurrent readers
+     */
+    public TileCache getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Checks first Fresnel zone clearance from the CPE position to a tower
+     *
+     * @param onResult Run on the main thread, unless a newer check was requested first
+     */
+    public void checkPath(double cpeLat, double cpeLon, double cpeHeight,
+                          double towerLat, double towerLon, double towerHeight,
+                          double frequencyMHz, Consumer<LineOfSight.Result> onResult) {
+        int requested = generation.incrementAndGet();
+        worker.execute(() -> {
+            if (generation.get() != requested) return;
+            long start = System.nanoTime();
+            LineOfSight.Result result = LineOfSight.check(tiles, cpeLat, cpeLon, cpeHeight,
+                towerLat, towerLon, towerHeight, frequencyMHz);
+            Log.d(TAG, result.verdict + " over " + Math.round(result.lengthMeters) + " m, " + result.samples
+                + " samples in " + (System.nanoTime() - start) / 1000 + " us (" + tiles.size() + " tiles mapped)");
+            mainHandler.post(() -> {
+                if (generation.get() == requested) onResult.accept(result);
+            });
+        });
+    }
+
+    /**
+     * Picks up tiles copied in since the last check
+     */
+    public void rescan() {
+        worker.execute(tiles::invalidate);
+    }
+}
@@ -0,0 +1,214 @@
+package com.wispfieldapp.topology;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.tenant.TenantCache;
+import com.wispfieldapp.tenant.TenantPartition;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import retrofit2.Response;
+
+/**
+ * Keeps each tenant's topology snapshot in its {@link TenantPartition} and the
+ * active tenant's snapshot mapped in memory, so aiming works with no signal.
+ *
+ * A refresh takes the site list the caller just fetched, keeps the sectors already
+ * known for each tower and fetches sectors for towers it has none for (a bounded
+ * number per refresh). Sectors loaded while aiming replace the stored ones.
+ */
+public class TopologyStore {
+    private static final String TAG = "TopologyStore";
+    private static final String FILE_NAME = "topology.bin";
+    private static final int MAX_SECTOR_FETCHES = 50;
+
+    private static TopologyStore instance;
+
+    private final TenantCache tenants;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private String loadedTenantId;
+    private TopologySnapshot loaded;
+
+    private TopologyStore(Context context) {
+        tenants = TenantCache.get(context);
+    }
+
+    public static synchronized TopologyStore get(Context context) {
+        if (instance == null) {
+            instance = new TopologyStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Delivers the tenant's snapshot on the main thread, with its tower list already
+     * built; nothing is delivered if there is none yet
+     */
+    public void load(String tenantId, Consumer<TopologySnapshot> onLoaded) {
+        TopologySnapshot snapshot = loadedFor(tenantId);
+        if (snapshot != null) {
+            onLoaded.accept(snapshot);
+            return;
+        }
+        worker.execute(() -> {
+            TopologySnapshot opened = open(tenantId);
+            if (opened == null) return;
+            opened.towers();
+            mainHandler.post(() -> onLoaded.accept(opened));
+        });
+    }
+
+    /**
+     * Rebuilds the snapshot from a freshly fetched site list in the background
+     *
+     * @param onRefreshed Run on the main thread with the new snapshot (may be null)
+     */
+    public void refresh(WispApi api, String authHeader, String tenantId, List<Map<String, Object>> sites,
+                        Consumer<TopologySnapshot> onRefreshed) {
+        worker.execute(() -> {
+            TopologySnapshot previous = open(tenantId);
+            Map<String, List<Map<String, Object>>> sectorsBySite = new HashMap<>();
+            int fetches = 0;
+            for (Map<String, Object> site : sites) {
+                Object id = site.get("_id");
+                Object type = site.get("type");
+                if (id == null || type == null || !type.toString().toLowerCase(Locale.US).contains("tower")) continue;
+                String siteId = id.toString();
+
+                int previousIndex = previous != null ? previous.indexOf(siteId) : -1;
+                if (previousIndex >= 0 && previous.endSector(previousIndex) > previous.firstSector(previousIndex)) {
+                    sectorsBySite.put(siteId, previous.sectorMaps(previousIndex));
+                } else if (fetches < MAX_SECTOR_FETCHES) {
+                    fetches++;
+                    List<Map<String, Object>> sectors = fetchSectors(api, authHeader, tenantId, siteId);
+                    if (sectors != null) sectorsBySite.put(siteId, sectors);
+                }
+            }
+            TopologySnapshot snapshot = write(tenantId, sites, sectorsBySite);
+            if (snapshot != null && onRefreshed != null) mainHandler.post(() -> onRefreshed.accept(snapshot));
+        });
+    }
+
+    /**
+     * Replaces the stored sectors of one site with the ones just loaded from the network
+     */
+    public void updateSectors(String tenantId, String siteId, List<Map<String, Object>> sectors) {
+        worker.execute(() -> {
+            TopologySnapshot previous = open(tenantId);
+            if (previous == null) return;
+            int index = previous.indexOf(siteId);
+            if (index < 0 || sameSectors(previous, index, sectors)) return;
+
+            List<Map<String, Object>> sites = new ArrayList<>(previous.siteCount());
+            Map<String, List<Map<String, Object>>> sectorsBySite = new HashMap<>();
+            for (int i = 0; i < previous.siteCount(); i++) {
+                sites.add(previous.siteMap(i));
+                if (previous.endSector(i) > previous.firstSector(i)) {
+                    sectorsBySite.put(previous.siteId(i), previous.sectorMaps(i));
+                }
+            }
+            sectorsBySite.put(siteId, sectors);
+            write(tenantId, sites, sectorsBySite);
+        });
+    }
+
+    private static boolean sameSectors(TopologySnapshot snapshot, int site, List<Map<String, Object>> sectors) {
+        int first = snapshot.firstSector(site);
+        if (snapshot.endSector(site) - first != sectors.size()) return false;
+        List<Map<String, Object>> stored = snapshot.sectorMaps(site);
+        for (int j = 0; j < sectors.size(); j++) {
+            Map<String, Object> sector = sectors.get(j);
+            Map<String, Object> known = stored.get(j);
+            if (!String.valueOf(sector.get("_id")).equals(String.valueOf(known.get("_id")))
+                    || !String.valueOf(sector.get("name")).equals(String.valueOf(known.get("name")))) {
+                return false;
+            }
+            Object azimuth = sector.get("azimuth");
+            Object knownAzimuth = known.get("azimuth");
+            if ((azimuth instanceof Number) != (knownAzimuth instanceof Number)) return false;
+            if (azimuth instanceof Number
+                    && Math.abs(((Number) azimuth).doubleValue() - (Double) knownAzimuth) >= 0.05) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forgets the mapped snapshot (on logout; the files go with the tenant cache)
+     */
+    public synchronized void clear() {
+        loadedTenantId = null;
+        loaded = null;
+    }
+
+    private static List<Map<String, Object>> fetchSectors(WispApi api, String authHeader, String tenantId, String siteId) {
+        try {
+            Response<List<Map<String, Object>>> response = api.getSectors(authHeader, tenantId, siteId).execute();
+            return response.isSuccessful() ? response.body() : null;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load sectors for " + siteId, e);
+            return null;
+        }
+    }
+
+    private synchronized TopologySnapshot loadedFor(String tenantId) {
+        return tenantId != null && tenantId.equals(loadedTenantId) ? loaded : null;
+    }
+
+    private synchronized void setLoaded(String tenantId, TopologySnapshot snapshot) {
+        loadedTenantId = tenantId;
+        loaded = snapshot;
+    }
+
+    /**
+     * On the worker thread
+     */
+    private TopologySnapshot open(String tenantId) {
+        TopologySnapshot snapshot = loadedFor(tenantId);
+        if (snapshot != null) return snapshot;
+        File file = tenants.partition(tenantId).file(FILE_NAME);
+        if (!file.exists()) return null;
+        try {
+            long start = System.nanoTime();
+            snapshot = TopologySnapshot.open(file);
+            Log.d(TAG, "Mapped " + snapshot.siteCount() + " sites, " + snapshot.sectorCount() + " sectors in "
+                + (System.nanoTime() - start) / 1000 + " us");
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable topology snapshot for tenant " + tenantId, e);
+            file.delete();
+            return null;
+        }
+        setLoaded(tenantId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * On the worker thread
+     */
+    private TopologySnapshot write(String tenantId, List<Map<String, Object>> sites, Map<String, List<Map<String, Object>>> sectorsBySite) {
+        TenantPartition partition = tenants.partition(tenantId);
+        File file = partition.file(FILE_NAME);
+        try {
+            TopologySnapshotWriter.write(file, sites, sectorsBySite);
+            TopologySnapshot snapshot = TopologySnapshot.open(file);
+            setLoaded(tenantId, snapshot);
+            partition.fileWritten();
+            return snapshot;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write topology snapshot for tenant " + tenantId, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.wispfieldapp.trace;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes spans in the Chrome trace-event format, viewable in chrome://tracing or
+ * Perfetto. Each interaction becomes one nestable async track keyed by its trace
+ * id, so spans ended on other threads still nest under the tap that caused them.
+ */
+public class ChromeTraceExporter {
+    private ChromeTraceExporter() {}
+
+    public static void write(List<Span> spans, File file) throws IOException {
+        List<Event> events = new ArrayList<>(spans.size() * 2);
+        for (Span span : spans) {
+            Map<String, Object> args;
+            long endNanos;
+            synchronized (span) {
+                args = new LinkedHashMap<>(span.args);
+                endNanos = span.endNanos;
+            }
+            args.put("thread", span.startThread);
+            events.add(new Event(span, "b", span.startNanos, args));
+            events.add(new Event(span, "e", endNanos, null));
+        }
+        // Viewers expect begin/end pairs properly nested: on equal timestamps ends
+        // come first, parents open before children and close after them
+        events.sort((a, b) -> {
+            if (a.ts != b.ts) return Long.compare(a.ts, b.ts);
+            if (a.spanId == b.spanId) return a.ph.equals("b") ? -1 : 1;
+            if (!a.ph.equals(b.ph)) return a.ph.equals("e") ? -1 : 1;
+            return a.ph.equals("b") ? Long.compare(a.spanId, b.spanId) : Long.compare(b.spanId, a.spanId);
+        });
+
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            new Gson().toJson(trace, writer);
+        }
+    }
+
+    private static class Event {
+        final String name;
+        final String cat = "interaction";
+        final String ph;
+        final String id;
+        final long ts;
+        final int pid = 1;
+        final int tid = 1;
+        final Map<String, Object> args;
+        final transient long spanId;
+
+        Event(Span span, String ph, long nanos, Map<String, Object> args) {
+            this.name = span.name;
+            this.ph = ph;
+            this.id = Long.toHexString(span.traceId);
+            this.ts = nanos / 1000;
+            this.args = args;
+            this.spanId = span.spanId;
+        }
+    }
+}
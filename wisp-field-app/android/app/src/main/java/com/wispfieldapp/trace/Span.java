@@ -0,0 +1,89 @@
+package com.wispfieldapp.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import retrofit2.Call;
+import retrofit2.Callback;
+
+/**
+ * One timed section of an interaction. Spans are started from {@link Tracer} or
+ * {@link #child(String)} and recorded into the tracer's ring buffer on {@link #end()}.
+ * A span may be ended on a different thread than the one that started it.
+ */
+public class Span {
+    final Tracer tracer;
+    final long traceId;
+    final long spanId;
+    final long parentId;
+    final String name;
+    final long startNanos;
+    final String startThread;
+    final Map<String, Object> args = new LinkedHashMap<>();
+    long endNanos;
+
+    Span(Tracer tracer, long traceId, long spanId, long parentId, String name) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.name = name;
+        this.startNanos = System.nanoTime();
+        this.startThread = Thread.currentThread().getName();
+    }
+
+    public Span child(String childName) {
+        return tracer.startChild(this, childName);
+    }
+
+    public synchronized Span arg(String key, Object value) {
+        args.put(key, value);
+        return this;
+    }
+
+    /**
+     * Marks the span failed; the error shows in the exported args
+     */
+    public Span fail(Object error) {
+        return arg("error", String.valueOf(error));
+    }
+
+    /**
+     * Ends and records the span. Later calls are ignored.
+     */
+    public void end() {
+        synchronized (this) {
+            if (endNanos != 0) return;
+            endNanos = System.nanoTime();
+        }
+        tracer.record(this);
+    }
+
+    /**
+     * Makes this the current span on the calling thread until the scope is closed,
+     * so HTTP calls created inside it are traced as children.
+     */
+    public Tracer.Scope activate() {
+        return tracer.activate(this);
+    }
+
+    /**
+     * Enqueues a Retrofit call with this span active, so its HTTP phases and JSON
+     * decode are recorded as children
+     */
+    public <T> void enqueue(Call<T> call, Callback<T> callback) {
+        Tracer.Scope scope = activate();
+        try {
+            call.enqueue(callback);
+        } finally {
+            scope.close();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized long durationMillis() {
+        return ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,78 @@
+package com.wispfieldapp.trace;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Cold-start markers. {@link #begin()} is called from Application.onCreate; the
+ * first frame and time-to-interactive (task list on screen) are logged relative
+ * to process start and recorded as a "coldStart" interaction in the {@link Tracer}.
+ * Each marker fires at most once per process, so activity recreation is ignored.
+ */
+public final class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    private static Span root;
+    private static boolean firstFrameMarked = false;
+    private static boolean interactiveMarked = false;
+
+    private StartupTrace() {}
+
+    public static synchronized void begin() {
+        if (root != null) return;
+        root = Tracer.get().startInteraction("coldStart");
+        root.arg("processStartToAppMs", sinceProcessStartMs());
+    }
+
+    /**
+     * @return Child span of the cold start, or a detached span once startup is over
+     */
+    public static synchronized Span child(String name) {
+        if (root == null || interactiveMarked) return Tracer.get().startInteraction(name);
+        return root.child(name);
+    }
+
+    /**
+     * Records the first frame drawn after this view's hierarchy is laid out
+     */
+    public static synchronized void markFirstFrame(View view) {
+        if (root == null || firstFrameMarked) return;
+        firstFrameMarked = true;
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                long ms = sinceProcessStartMs();
+                synchronized (StartupTrace.class) {
+                    if (root != null) root.arg("firstFrameMs", ms);
+                }
+                Log.i(TAG, "Time to first frame: " + ms + " ms");
+                return true;
+            }
+        });
+    }
+
+    /**
+     * The user can act on the screen: ends the cold-start trace and reports fully drawn
+     */
+    public static void markInteractive(Activity activity, String source) {
+        Span span;
+        synchronized (StartupTrace.class) {
+            if (root == null || interactiveMarked) return;
+            interactiveMarked = true;
+            span = root;
+        }
+        long ms = sinceProcessStartMs();
+        span.arg("interactiveMs", ms).arg("source", source).end();
+        Log.i(TAG, "Time to interactive: " + ms + " ms (" + source + ")");
+        activity.reportFullyDrawn();
+    }
+
+    private static long sinceProcessStartMs() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+}
@@ -0,0 +1,109 @@
+package com.wispfieldapp.trace;
+
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lightweight interaction tracing. A user action starts a root span with
+ * {@link #startInteraction(String)}; token fetches, HTTP phases, JSON decode and
+ * UI updates are recorded as children. Finished spans go into a fixed-size ring
+ * buffer, so tracing is always on and old spans are simply overwritten.
+ */
+public class Tracer {
+    private static final String TAG = "Tracer";
+    private static final int CAPACITY = 2048;
+    private static final long SLOW_INTERACTION_MS = 2000;
+    private static final Tracer instance = new Tracer(CAPACITY);
+
+    private final Span[] ring;
+    private int next = 0;
+    private int size = 0;
+    private final AtomicLong ids = new AtomicLong();
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    Tracer(int capacity) {
+        ring = new Span[capacity];
+    }
+
+    public static Tracer get() {
+        return instance;
+    }
+
+    /**
+     * Starts the root span of a user interaction (a tap, a screen load)
+     */
+    public Span startInteraction(String name) {
+        long id = ids.incrementAndGet();
+        return new Span(this, id, id, 0, name);
+    }
+
+    Span startChild(Span parent, String name) {
+        return new Span(this, parent.traceId, ids.incrementAndGet(), parent.spanId, name);
+    }
+
+    /**
+     * @return The span activated on this thread, or null
+     */
+    public Span current() {
+        return current.get();
+    }
+
+    Scope activate(Span span) {
+        Span previous = current.get();
+        current.set(span);
+        return new Scope(previous);
+    }
+
+    void setCurrent(Span span) {
+        if (span == null) {
+            current.remove();
+        } else {
+            current.set(span);
+        }
+    }
+
+    synchronized void record(Span span) {
+        ring[next] = span;
+        next = (next + 1) % ring.length;
+        if (size < ring.length) size++;
+        if (span.parentId == 0 && span.durationMillis() >= SLOW_INTERACTION_MS) {
+            Log.w(TAG, "Slow interaction " + span.name + ": " + span.durationMillis() + " ms");
+        }
+    }
+
+    /**
+     * @return Finished spans, oldest first
+     */
+    public synchronized List<Span> snapshot() {
+        List<Span> spans = new ArrayList<>(size);
+        int start = (next - size + ring.length) % ring.length;
+        for (int i = 0; i < size; i++) {
+            spans.add(ring[(start + i) % ring.length]);
+        }
+        return spans;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < ring.length; i++) ring[i] = null;
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Restores the previously active span when closed
+     */
+    public class Scope implements AutoCloseable {
+        private final Span previous;
+
+        Scope(Span previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            setCurrent(previous);
+        }
+    }
+}
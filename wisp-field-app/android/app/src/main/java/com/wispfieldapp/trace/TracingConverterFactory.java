@@ -0,0 +1,49 @@
+package com.wispfieldapp.trace;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Wraps a converter factory so response decoding shows up as a "json.decode" span
+ * when the call is part of a traced interaction
+ */
+public class TracingConverterFactory extends Converter.Factory {
+    private final Tracer tracer;
+    private final Converter.Factory delegate;
+
+    public TracingConverterFactory(Tracer tracer, Converter.Factory delegate) {
+        this.tracer = tracer;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        Converter<ResponseBody, ?> converter = delegate.responseBodyConverter(type, annotations, retrofit);
+        if (converter == null) return null;
+        String typeName = type.getTypeName();
+        return body -> {
+            Span parent = tracer.current();
+            if (parent == null) return converter.convert(body);
+            Span decode = parent.child("json.decode").arg("type", typeName);
+            try {
+                return converter.convert(body);
+            } finally {
+                decode.end();
+            }
+        };
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations, Annotation[] methodAnnotations, Retrofit retrofit) {
+        return delegate.requestBodyConverter(type, parameterAnnotations, methodAnnotations, retrofit);
+    }
+
+    @Override
+    public Converter<?, String> stringConverter(Type type, Annotation[] annotations, Retrofit retrofit) {
+        return delegate.stringConverter(type, annotations, retrofit);
+    }
+}
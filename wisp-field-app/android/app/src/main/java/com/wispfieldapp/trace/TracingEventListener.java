@@ -0,0 +1,201 @@
+package com.wispfieldapp.trace;
+
+import com.wispfieldapp.metrics.MetricsInterceptor;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Records the phases of an HTTP call (DNS, connect, TLS, request, server wait,
+ * response body) as child spans of whatever span was active when the call was
+ * enqueued. Calls made outside an active span are not traced.
+ *
+ * From the response headers until the body is done, the enqueuing span is current
+ * on the thread reading the response, so the converter's decode span joins the
+ * interaction. Run async calls on {@link #dispatcherExecutor} so a body nobody
+ * reads or closes cannot leave that span behind for the next call on the thread.
+ */
+public class TracingEventListener extends EventListener {
+    private final Tracer tracer;
+    private final Span parent;
+    private final Span call;
+    private Span dns;
+    private Span connect;
+    private Span tls;
+    private Span request;
+    private Span serverWait;
+    private Span responseBody;
+    // Current span of the response thread before this call took it over
+    private Span previous;
+    private Thread activatedOn;
+
+    private TracingEventListener(Tracer tracer, Span parent, String name) {
+        this.tracer = tracer;
+        this.parent = parent;
+        this.call = parent.child(name);
+    }
+
+    /**
+     * Executor for the OkHttp dispatcher that clears the thread's current span after
+     * every call it runs
+     */
+    public static ExecutorService dispatcherExecutor(Tracer tracer) {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                runnable -> new Thread(runnable, "OkHttp Dispatcher")) {
+            @Override
+            protected void afterExecute(Runnable runnable, Throwable error) {
+                tracer.setCurrent(null);
+            }
+        };
+    }
+
+    public static EventListener.Factory factory(Tracer tracer) {
+        return c -> {
+            Span parent = tracer.current();
+            if (parent == null) return EventListener.NONE;
+            return new TracingEventListener(tracer, parent, "http " + MetricsInterceptor.endpointOf(c.request()));
+        };
+    }
+
+    @Override
+    public void dnsStart(Call c, String domainName) {
+        dns = call.child("dns").arg("host", domainName);
+    }
+
+    @Override
+    public void dnsEnd(Call c, String domainName, List<InetAddress> addresses) {
+        end(dns);
+    }
+
+    @Override
+    public void connectStart(Call c, InetSocketAddress address, Proxy proxy) {
+        connect = call.child("connect").arg("address", address.toString());
+    }
+
+    @Override
+    public void secureConnectStart(Call c) {
+        tls = call.child("tls");
+    }
+
+    @Override
+    public void secureConnectEnd(Call c, Handshake handshake) {
+        if (tls != null && handshake != null) {
+            tls.arg("tlsVersion", handshake.tlsVersion().javaName());
+        }
+        end(tls);
+    }
+
+    @Override
+    public void connectEnd(Call c, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+        if (connect != null && protocol != null) connect.arg("protocol", protocol.toString());
+        end(connect);
+    }
+
+    @Override
+    public void connectFailed(Call c, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException e) {
+        if (connect != null) connect.fail(e);
+        end(connect);
+    }
+
+    @Override
+    public void connectionAcquired(Call c, Connection connection) {
+        call.arg("connectionReused", connect == null);
+    }
+
+    @Override
+    public void requestHeadersStart(Call c) {
+        request = call.child("request");
+    }
+
+    @Override
+    public void requestHeadersEnd(Call c, Request r) {
+        if (r.body() == null) {
+            requestSent();
+        }
+    }
+
+    @Override
+    public void requestBodyEnd(Call c, long byteCount) {
+        if (request != null) request.arg("bytes", byteCount);
+        requestSent();
+    }
+
+    @Override
+    public void requestFailed(Call c, IOException e) {
+        if (request != null) request.fail(e);
+        end(request);
+    }
+
+    private void requestSent() {
+        end(request);
+        serverWait = call.child("server");
+    }
+
+    @Override
+    public void responseHeadersEnd(Call c, Response response) {
+        end(serverWait);
+        call.arg("code", response.code());
+        // The converter decodes on this thread next; parent its span to the interaction
+        // until the body is read, then hand the thread back
+        previous = tracer.current();
+        activatedOn = Thread.currentThread();
+        tracer.setCurrent(parent);
+    }
+
+    @Override
+    public void responseBodyStart(Call c) {
+        responseBody = call.child("response.body");
+    }
+
+    @Override
+    public void responseBodyEnd(Call c, long byteCount) {
+        if (responseBody != null) responseBody.arg("bytes", byteCount);
+        end(responseBody);
+        deactivate();
+    }
+
+    @Override
+    public void responseFailed(Call c, IOException e) {
+        if (responseBody != null) responseBody.fail(e);
+        end(responseBody);
+        end(serverWait);
+        deactivate();
+    }
+
+    @Override
+    public void callEnd(Call c) {
+        call.end();
+        deactivate();
+    }
+
+    @Override
+    public void callFailed(Call c, IOException e) {
+        call.fail(e).end();
+        deactivate();
+    }
+
+    private void deactivate() {
+        // The body may be closed from another thread, whose span is not ours to touch
+        if (activatedOn != Thread.currentThread()) return;
+        activatedOn = null;
+        tracer.setCurrent(previous);
+        previous = null;
+    }
+
+    private static void end(Span span) {
+        if (span != null) span.end();
+    }
+}
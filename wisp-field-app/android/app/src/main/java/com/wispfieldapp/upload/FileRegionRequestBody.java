@@ -0,0 +1,55 @@
+package com.wispfieldapp.upload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body that streams a byte range of a file straight from disk.
+ * Nothing larger than the copy buffer is held in memory, and the body can be
+ * written again if OkHttp retries the request.
+ */
+class FileRegionRequestBody extends RequestBody {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final File file;
+    private final long offset;
+    private final long length;
+
+    FileRegionRequestBody(File file, long offset, long length) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(offset);
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IOException("File " + file + " shrank during upload");
+                }
+                sink.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+}
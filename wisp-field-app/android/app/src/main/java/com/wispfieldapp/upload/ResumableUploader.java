@@ -0,0 +1,376 @@
+package com.wispfieldapp.upload;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import com.wispfieldapp.api.ApiClient;
+import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.models.UploadSession;
+import com.wispfieldapp.utils.HashUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import retrofit2.Response;
+
+/**
+ * Uploads installation photos in chunks that the server acknowledges by byte offset.
+ *
+ * Each photo is streamed from disk one chunk at a time, every chunk carries its
+ * SHA-256, and a dropped connection only costs the chunk in flight: the uploader
+ * asks the server for its acknowledged offset and carries on from there. Upload
+ * ids are persisted so the same holds across a process kill. Photos upload with
+ * bounded parallelism; chunks of one photo are always sequential.
+ *
+ * Servers without the resumable endpoints (404 on start) get the legacy multipart
+ * upload, still streamed from disk.
+ *
+ * Use one uploader per tenant for the whole process ({@link #get}), so uploads keep
+ * going when the screen that started them is rotated or closed; a recreated screen
+ * picks them up again with {@link #setListener}.
+ */
+public class ResumableUploader {
+    private static final String TAG = "ResumableUploader";
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+    public static final int DEFAULT_PARALLELISM = 2;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final MediaType JPEG = MediaType.parse("image/jpeg");
+
+    private static final Map<String, ResumableUploader> instances = new HashMap<>();
+
+    private final WispApi api;
+    private final String tenantId;
+    private final UploadStateStore state;
+    private final ExecutorService executor;
+    private final Executor callbacks;
+    private final int chunkSize;
+    private long retryBaseMillis = 500;
+    private volatile boolean legacyOnly = false;
+    // Jobs queued or running, by docId:sha256, so resubmitting a photo doesn't upload it twice
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    // Touched on the callback thread only
+    private final Map<String, Listener> listeners = new HashMap<>();
+    private final Map<String, List<Consumer<Listener>>> undelivered = new HashMap<>();
+
+    public interface Listener {
+        void onProgress(Job job, long bytesSent, long totalBytes);
+
+        void onComplete(Job job, Map<String, Object> photo);
+
+        void onFailed(Job job, Exception e);
+    }
+
+    public static class Job {
+        public final String docId;
+        public final File file;
+        public final String sha256;
+        public final String category;
+        public final String description;
+
+        /**
+         * @param sha256 Hash of the whole file, e.g. the PhotoStore key
+         */
+        public Job(String docId, File file, String sha256, String category, String description) {
+            this.docId = docId;
+            this.file = file;
+            this.sha256 = sha256;
+            this.category = category;
+            this.description = description;
+        }
+    }
+
+    /**
+     * Failure that retrying the same chunk cannot fix
+     */
+    private static class FatalUploadException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        FatalUploadException(String message) {
+            super(message);
+        }
+    }
+
+    public ResumableUploader(Context context, WispApi api, String tenantId) {
+        this(context, api, tenantId, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * @param chunkSize Bytes per chunk unless the server asks for a different size
+     * @param parallelism Maximum number of photos uploading at once
+     */
+    public ResumableUploader(Context context, WispApi api, String tenantId, int chunkSize, int parallelism) {
+        this(api, tenantId, new UploadStateStore(context), chunkSize, parallelism,
+            new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * @param callbacks Runs listener callbacks; the main thread in the app
+     */
+    ResumableUploader(WispApi api, String tenantId, UploadStateStore state, int chunkSize, int parallelism, Executor callbacks) {
+        this.api = api;
+        this.tenantId = tenantId;
+        this.state = state;
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+        this.callbacks = callbacks;
+    }
+
+    /**
+     * @return The tenant's uploader, shared by everything in the process
+     */
+    public static synchronized ResumableUploader get(Context context, String tenantId) {
+        ResumableUploader uploader = instances.get(tenantId);
+        if (uploader == null) {
+            uploader = new ResumableUploader(context.getApplicationContext(), ApiClient.api(context), tenantId);
+            instances.put(tenantId, uploader);
+        }
+        return uploader;
+    }
+
+    /**
+     * Queue a photo, unless it is already queued. Progress and the outcome go to the
+     * listener set for the job's document.
+     */
+    public void enqueue(String authHeader, Job job) {
+        String key = key(job.docId, job.sha256);
+        if (!queued.add(key)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                Map<String, Object> photo = upload(authHeader, job);
+                queued.remove(key);
+                deliver(job.docId, listener -> listener.onComplete(job, photo));
+            } catch (Exception e) {
+                queued.remove(key);
+                Log.e(TAG, "Upload of " + job.file.getName() + " failed", e);
+                deliver(job.docId, listener -> listener.onFailed(job, e));
+            }
+        });
+    }
+
+    /**
+     * Queue a photo and direct the document's callbacks to listener
+     */
+    public void enqueue(String authHeader, Job job, Listener listener) {
+        callbacks.execute(() -> setListener(job.docId, listener));
+        enqueue(authHeader, job);
+    }
+
+    /**
+     * Direct callbacks for a document's uploads to listener (on the main thread in the
+     * app). Outcomes that arrived while no listener was set are replayed to it first;
+     * progress is not. Pass null when the listener goes away.
+     */
+    public void setListener(String docId, Listener listener) {
+        if (listener == null) {
+            listeners.remove(docId);
+            return;
+        }
+        listeners.put(docId, listener);
+        List<Consumer<Listener>> missed = undelivered.remove(docId);
+        if (missed != null) {
+            for (Consumer<Listener> callback : missed) {
+                callback.accept(listener);
+            }
+        }
+    }
+
+    /**
+     * @return True if the photo is waiting or uploading for this document
+     */
+    public boolean isQueued(String docId, String sha256) {
+        return queued.contains(key(docId, sha256));
+    }
+
+    /**
+     * Stop all uploads. Unfinished sessions stay on the server and resume on the next enqueue.
+     * Not for the shared uploaders from {@link #get}, which live as long as the process.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void setRetryBaseMillis(long retryBaseMillis) {
+        this.retryBaseMillis = retryBaseMillis;
+    }
+
+    private Map<String, Object> upload(String authHeader, Job job) throws IOException, InterruptedException {
+        long start = SystemClock.elapsedRealtime();
+        if (legacyOnly) {
+            return uploadLegacy(authHeader, job);
+        }
+
+        UploadSession session = openSession(authHeader, job);
+        if (session == null) {
+            Log.i(TAG, "Server has no resumable upload endpoint, using multipart");
+            legacyOnly = true;
+            return uploadLegacy(authHeader, job);
+        }
+
+        long size = job.file.length();
+        int chunk = session.chunkSize != null && session.chunkSize > 0 ? session.chunkSize : chunkSize;
+        long offset = session.offset;
+        long resumedAt = offset;
+        if (offset > 0) {
+            Log.i(TAG, "Resuming " + job.file.getName() + " at " + offset + "/" + size);
+        }
+        postProgress(job, offset, size);
+
+        int attempts = 0;
+        while (!session.complete) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Upload cancelled");
+            }
+            long length = Math.min(chunk, size - offset);
+            String range = "bytes " + offset + "-" + (offset + length - 1) + "/" + size;
+            try {
+                Response<UploadSession> response = api.uploadPhotoChunk(authHeader, tenantId, job.docId,
+                    session.uploadId, range, HashUtils.sha256(job.file, offset, length),
+                    new FileRegionRequestBody(job.file, offset, length)).execute();
+                if (response.isSuccessful() && response.body() != null) {
+                    UploadSession acked = response.body();
+                    if (!acked.complete && acked.offset <= offset) {
+                        throw new IOException("Server did not advance past offset " + offset);
+                    }
+                    session = acked;
+                    offset = acked.offset;
+                    attempts = 0;
+                    postProgress(job, offset, size);
+                    continue;
+                }
+                if (response.code() == 404) {
+                    // Session expired on the server; forget it so the next attempt opens a fresh one
+                    state.remove(job.docId, job.sha256);
+                    throw new FatalUploadException("Upload session " + session.uploadId + " no longer exists");
+                }
+                if (response.code() < 500 && response.code() != 409 && response.code() != 416) {
+                    throw new FatalUploadException("Chunk rejected: HTTP " + response.code());
+                }
+                Log.w(TAG, "Chunk at " + offset + " failed: HTTP " + response.code());
+            } catch (FatalUploadException e) {
+                throw e;
+            } catch (IOException e) {
+                Log.w(TAG, "Chunk at " + offset + " interrupted: " + e.getMessage());
+            }
+
+            if (++attempts >= MAX_ATTEMPTS) {
+                throw new IOException("Giving up on " + job.file.getName() + " at " + offset + "/" + size + " after " + attempts + " attempts");
+            }
+            Thread.sleep(retryBaseMillis << (attempts - 1));
+
+            // Whatever happened, the server's acknowledged offset is the truth
+            UploadSession current = fetchSession(authHeader, job, session.uploadId);
+            if (current != null) {
+                session = current;
+                offset = current.offset;
+            }
+        }
+
+        state.remove(job.docId, job.sha256);
+        Log.i(TAG, "Uploaded " + job.file.getName() + ": " + (size - resumedAt) + " of " + size + " bytes sent in "
+            + (SystemClock.elapsedRealtime() - start) + " ms");
+        return session.photo;
+    }
+
+    /**
+     * @return The server session to continue, or null if the server has no resumable endpoint
+     */
+    private UploadSession openSession(String authHeader, Job job) throws IOException {
+        String uploadId = state.getUploadId(job.docId, job.sha256);
+        if (uploadId != null) {
+            UploadSession existing = fetchSession(authHeader, job, uploadId);
+            if (existing != null) return existing;
+            state.remove(job.docId, job.sha256);
+        }
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("fileName", job.file.getName());
+        metadata.put("size", job.file.length());
+        metadata.put("sha256", job.sha256);
+        metadata.put("contentType", "image/jpeg");
+        metadata.put("category", job.category);
+        metadata.put("description", job.description);
+
+        Response<UploadSession> response = api.startPhotoUpload(authHeader, tenantId, job.docId, metadata).execute();
+        if (response.code() == 404) {
+            return null;
+        }
+        if (!response.isSuccessful() || response.body() == null || response.body().uploadId == null) {
+            throw new IOException("Could not start upload: HTTP " + response.code());
+        }
+        UploadSession session = response.body();
+        state.putUploadId(job.docId, job.sha256, session.uploadId);
+        return session;
+    }
+
+    private UploadSession fetchSession(String authHeader, Job job, String uploadId) {
+        try {
+            Response<UploadSession> response = api.getPhotoUpload(authHeader, tenantId, job.docId, uploadId).execute();
+            if (response.isSuccessful() && response.body() != null) {
+                return response.body();
+            }
+            Log.w(TAG, "Upload " + uploadId + " status: HTTP " + response.code());
+        } catch (IOException e) {
+            Log.w(TAG, "Could not query upload " + uploadId + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    private Map<String, Object> uploadLegacy(String authHeader, Job job) throws IOException {
+        List<MultipartBody.Part> parts = new ArrayList<>();
+        parts.add(MultipartBody.Part.createFormData("photos", job.file.getName(), RequestBody.create(job.file, JPEG)));
+        Response<Map<String, Object>> response = api.uploadInstallationPhotos(authHeader, tenantId, job.docId, parts,
+            RequestBody.create(job.description != null ? job.description : "", MediaType.parse("text/plain")),
+            RequestBody.create(job.category != null ? job.category : "other", MediaType.parse("text/plain"))).execute();
+        if (!response.isSuccessful()) {
+            throw new IOException("Photo upload failed: HTTP " + response.code());
+        }
+        Map<String, Object> body = response.body();
+        Object photos = body != null ? body.get("photos") : null;
+        if (photos instanceof List && !((List<?>) photos).isEmpty() && ((List<?>) photos).get(0) instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> photo = (Map<String, Object>) ((List<?>) photos).get(0);
+            return photo;
+        }
+        return Collections.emptyMap();
+    }
+
+    private void postProgress(Job job, long sent, long total) {
+        callbacks.execute(() -> {
+            Listener listener = listeners.get(job.docId);
+            if (listener != null) {
+                listener.onProgress(job, sent, total);
+            }
+        });
+    }
+
+    private void deliver(String docId, Consumer<Listener> callback) {
+        callbacks.execute(() -> {
+            Listener listener = listeners.get(docId);
+            if (listener != null) {
+                callback.accept(listener);
+            } else {
+                undelivered.computeIfAbsent(docId, id -> new ArrayList<>()).add(callback);
+            }
+        });
+    }
+
+    private static String key(String docId, String sha256) {
+        return docId + ":" + sha256;
+    }
+}
@@ -0,0 +1,39 @@
+package com.wispfieldapp.upload;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Remembers the server upload id of every unfinished upload, keyed by
+ * installation document and photo hash, so an upload interrupted by a crash or
+ * process kill resumes from the server's acknowledged offset instead of byte 0.
+ */
+class UploadStateStore {
+    private static final String PREFS_NAME = "WISPUploads";
+
+    private final SharedPreferences prefs;
+
+    UploadStateStore(Context context) {
+        this(context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+    }
+
+    UploadStateStore(SharedPreferences prefs) {
+        this.prefs = prefs;
+    }
+
+    String getUploadId(String docId, String sha256) {
+        return prefs.getString(key(docId, sha256), null);
+    }
+
+    void putUploadId(String docId, String sha256, String uploadId) {
+        prefs.edit().putString(key(docId, sha256), uploadId).apply();
+    }
+
+    void remove(String docId, String sha256) {
+        prefs.edit().remove(key(docId, sha256)).apply();
+    }
+
+    private static String key(String docId, String sha256) {
+        return docId + ":" + sha256;
+    }
+}
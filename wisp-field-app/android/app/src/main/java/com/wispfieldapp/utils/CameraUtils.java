@@ -10,6 +10,7 @@ import android.provider.MediaStore;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -66,11 +67,19 @@ public class CameraUtils {
         return requestCode == REQUEST_QR_SCAN && resultCode == Activity.RESULT_OK;
     }
     
+    /**
+     * Read a whole (small) file into memory. Full-resolution captures should go
+     * through PhotoProcessor instead of being loaded here.
+     */
     public static byte[] readImageFile(File file) throws IOException {
-        byte[] buffer = new byte[(int) file.length()];
-        FileInputStream fis = new FileInputStream(file);
-        fis.read(buffer);
-        fis.close();
+        long length = file.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("File too large: " + file);
+        }
+        byte[] buffer = new byte[(int) length];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(buffer);
+        }
         return buffer;
     }
 }
@@ -5,8 +5,11 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.View;
+import com.wispfieldapp.aiming.HeadingLock;
+import com.wispfieldapp.aiming.MagnetometerCalibration;
 
 public class CompassView extends View {
     private Paint backgroundPaint;
@@ -20,6 +23,9 @@ public class CompassView extends View {
     private boolean hasTarget = false;
     
     private static final float TOLERANCE = 5.0f; // Degrees tolerance for "aimed properly"
+    private final HeadingLock lock = new HeadingLock(TOLERANCE);
+    private MagnetometerCalibration.Status compassStatus = MagnetometerCalibration.Status.OK;
+    private Paint warningPaint;
     
     public CompassView(Context context) {
         super(context);
@@ -54,29 +60,51 @@ public class CompassView extends View {
         textPaint.setColor(Color.WHITE);
         textPaint.setTextSize(36);
         textPaint.setTextAlign(Paint.Align.CENTER);
+
+        warningPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        warningPaint.setTextSize(24);
+        warningPaint.setTextAlign(Paint.Align.CENTER);
     }
     
     public void setCurrentHeading(float heading) {
         this.currentHeading = heading;
+        lock.update(SystemClock.uptimeMillis(), heading);
         invalidate();
     }
     
     public void setTargetAzimuth(float azimuth) {
         this.targetAzimuth = azimuth;
         this.hasTarget = true;
+        lock.setTarget(azimuth);
         invalidate();
     }
     
     public void clearTarget() {
         this.hasTarget = false;
+        lock.clearTarget();
+        invalidate();
+    }
+
+    /**
+     * While the status is blocking the view never reports being aimed
+     */
+    public void setCompassStatus(MagnetometerCalibration.Status status) {
+        this.compassStatus = status;
         invalidate();
     }
     
+    /**
+     * True once the heading has held steady on the target, see {@link HeadingLock}
+     */
     public boolean isAimedProperly() {
-        if (!hasTarget) return false;
-        float diff = Math.abs(currentHeading - targetAzimuth);
-        if (diff > 180) diff = 360 - diff;
-        return diff <= TOLERANCE;
+        return hasTarget && !compassStatus.blocking && lock.isLocked();
+    }
+
+    /**
+     * Smoothed heading minus target (-180 to 180), steadier than the raw heading; NaN without a target
+     */
+    public double getAimOffset() {
+        return hasTarget ? lock.offsetDeg() : Double.NaN;
     }
     
     @Override
@@ -157,10 +185,9 @@ public class CompassView extends View {
             String targetText = String.format("Target: %.0f°", targetAzimuth);
             canvas.drawText(targetText, centerX, centerY - radius - 30, targetTextPaint);
             
-            // Draw difference
-            float diff = currentHeading - targetAzimuth;
-            if (diff > 180) diff -= 360;
-            if (diff < -180) diff += 360;
+            // Draw difference (smoothed, so the digits don't flicker)
+            double diff = lock.offsetDeg();
+            if (Double.isNaN(diff)) diff = 0;
             
             Paint diffPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
             diffPaint.setColor(isAimedProperly() ? Color.parseColor("#10b981") : Color.parseColor("#f59e0b"));
@@ -169,6 +196,12 @@ public class CompassView extends View {
             String diffText = String.format("%s%.0f°", diff >= 0 ? "+" : "", diff);
             canvas.drawText(diffText, centerX, centerY + 100, diffPaint);
         }
+
+        // Compass reliability warning
+        if (compassStatus != MagnetometerCalibration.Status.OK) {
+            warningPaint.setColor(compassStatus.blocking ? Color.parseColor("#ef4444") : Color.parseColor("#f59e0b"));
+            canvas.drawText(compassStatus.shortLabel, centerX, centerY - 40, warningPaint);
+        }
     }
     
     private void drawCompassRose(Canvas canvas, int centerX, int centerY, int radius) {
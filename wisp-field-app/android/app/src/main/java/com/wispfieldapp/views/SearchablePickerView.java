@@ -0,0 +1,235 @@
+package com.wispfieldapp.views;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Color;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.wispfieldapp.R;
+import com.wispfieldapp.search.SearchIndex;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type-to-filter replacement for a Spinner over a large list.
+ * Results come from a {@link SearchIndex} on every keystroke and are shown in a
+ * RecyclerView, so only the rows on screen are ever bound.
+ */
+public class SearchablePickerView<T> extends LinearLayout {
+    private static final String TAG = "SearchablePicker";
+    private static final int MAX_RESULTS = 200;
+    private static final int LIST_HEIGHT = 600;
+    private static final long SLOW_QUERY_NANOS = 5_000_000L;
+
+    public interface Labeler<T> {
+        String label(T item);
+    }
+
+    public interface OnPickListener<T> {
+        void onPick(T item);
+    }
+
+    private final SearchIndex<T> index;
+    private final Labeler<T> labeler;
+    private Labeler<T> detailLabeler;
+    private OnPickListener<T> pickListener;
+    private Runnable clearListener;
+    private final EditText queryField;
+    private final RecyclerView resultList;
+    private final ResultAdapter adapter = new ResultAdapter();
+    private T selected;
+    private boolean suppressQuery = false;
+
+    public SearchablePickerView(Context context, SearchIndex<T> index, Labeler<T> labeler) {
+        super(context);
+        this.index = index;
+        this.labeler = labeler;
+        setOrientation(VERTICAL);
+
+        queryField = new EditText(context);
+        queryField.setHintTextColor(Color.GRAY);
+        queryField.setTextColor(Color.WHITE);
+        queryField.setBackgroundResource(R.drawable.input_background);
+        queryField.setPadding(20, 20, 20, 20);
+        queryField.setSingleLine(true);
+        queryField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (suppressQuery) return;
+                if (selected != null) {
+                    selected = null;
+                    if (clearListener != null) clearListener.run();
+                }
+                runQuery(s.toString());
+            }
+        });
+        queryField.setOnFocusChangeListener((v, hasFocus) -> {
+            if (hasFocus && selected == null) {
+                runQuery(queryField.getText().toString());
+            }
+        });
+        addView(queryField);
+
+        resultList = new RecyclerView(context);
+        resultList.setLayoutManager(new LinearLayoutManager(context));
+        resultList.setHasFixedSize(true);
+        resultList.setAdapter(adapter);
+        resultList.setVisibility(View.GONE);
+        // Keep the enclosing ScrollView from stealing drags meant for the list
+        resultList.setOnTouchListener(new OnTouchListener() {
+            @SuppressLint("ClickableViewAccessibility")
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                v.getParent().requestDisallowInterceptTouchEvent(event.getAction() != MotionEvent.ACTION_UP);
+                return false;
+            }
+        });
+        addView(resultList, new LayoutParams(LayoutParams.MATCH_PARENT, LIST_HEIGHT));
+    }
+
+    public void setHint(String hint) {
+        queryField.setHint(hint);
+    }
+
+    public void setDetailLabeler(Labeler<T> detailLabeler) {
+        this.detailLabeler = detailLabeler;
+    }
+
+    public void setOnPickListener(OnPickListener<T> listener) {
+        this.pickListener = listener;
+    }
+
+    /**
+     * Called when the user edits the query after having picked an item
+     */
+    public void setOnClearListener(Runnable listener) {
+        this.clearListener = listener;
+    }
+
+    public T getSelected() {
+        return selected;
+    }
+
+    /**
+     * Select an item programmatically (does not fire the pick listener)
+     */
+    public void setSelected(T item) {
+        selected = item;
+        suppressQuery = true;
+        queryField.setText(item != null ? labeler.label(item) : "");
+        suppressQuery = false;
+        resultList.setVisibility(View.GONE);
+    }
+
+    public void clearSelection() {
+        setSelected(null);
+    }
+
+    /**
+     * Re-run the current query, e.g. after the index was updated
+     */
+    public void refresh() {
+        if (selected == null && resultList.getVisibility() == View.VISIBLE) {
+            runQuery(queryField.getText().toString());
+        }
+    }
+
+    private void runQuery(String query) {
+        List<T> results = index.search(query, MAX_RESULTS);
+        long nanos = index.getLastQueryNanos();
+        if (nanos > SLOW_QUERY_NANOS) {
+            Log.w(TAG, "Slow search for '" + query + "': " + (nanos / 1000) + "us over " + index.size() + " items");
+        }
+        adapter.setResults(results);
+        resultList.setVisibility(results.isEmpty() ? View.GONE : View.VISIBLE);
+    }
+
+    private void pick(T item) {
+        setSelected(item);
+        queryField.clearFocus();
+        if (pickListener != null) {
+            pickListener.onPick(item);
+        }
+    }
+
+    private class ResultAdapter extends RecyclerView.Adapter<RowHolder> {
+        private List<T> results = new ArrayList<>();
+
+        void setResults(List<T> results) {
+            this.results = results;
+            notifyDataSetChanged();
+        }
+
+        @NonNull
+        @Override
+        public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            LinearLayout row = new LinearLayout(parent.getContext());
+            row.setOrientation(VERTICAL);
+            row.setPadding(20, 18, 20, 18);
+            row.setLayoutParams(new RecyclerView.LayoutParams(
+                RecyclerView.LayoutParams.MATCH_PARENT,
+                RecyclerView.LayoutParams.WRAP_CONTENT
+            ));
+
+            TextView title = new TextView(parent.getContext());
+            title.setTextColor(Color.WHITE);
+            title.setTextSize(15);
+            row.addView(title);
+
+            TextView detail = new TextView(parent.getContext());
+            detail.setTextColor(Color.GRAY);
+            detail.setTextSize(12);
+            row.addView(detail);
+
+            RowHolder holder = new RowHolder(row, title, detail);
+            row.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && position < results.size()) {
+                    pick(results.get(position));
+                }
+            });
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+            T item = results.get(position);
+            holder.title.setText(labeler.label(item));
+            String detail = detailLabeler != null ? detailLabeler.label(item) : null;
+            holder.detail.setText(detail != null ? detail : "");
+            holder.detail.setVisibility(detail != null && !detail.isEmpty() ? View.VISIBLE : View.GONE);
+        }
+
+        @Override
+        public int getItemCount() {
+            return results.size();
+        }
+    }
+
+    private static class RowHolder extends RecyclerView.ViewHolder {
+        final TextView title;
+        final TextView detail;
+
+        RowHolder(View itemView, TextView title, TextView detail) {
+            super(itemView);
+            this.title = title;
+            this.detail = detail;
+        }
+    }
+}
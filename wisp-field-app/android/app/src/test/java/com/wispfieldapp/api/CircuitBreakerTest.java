@@ -0,0 +1,98 @@
+package com.wispfieldapp.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+    private static final long OPEN_MS = 50;
+
+    private CircuitBreaker breaker;
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        breaker = new CircuitBreaker(3, OPEN_MS);
+        breaker.setListener(transitions::add);
+    }
+
+    @Test
+    public void opensAfterThresholdConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertTrue(breaker.millisUntilProbe() > 0);
+    }
+
+    @Test
+    public void successResetsTheFailureCount() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(transitions.isEmpty());
+    }
+
+    @Test
+    public void letsOneProbeThroughOnceOpenTimeHasPassed() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse("only one probe at a time", breaker.allowRequest());
+
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertEquals(Arrays.asList(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+            transitions);
+    }
+
+    @Test
+    public void failedProbeOpensAgain() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(breaker.allowRequest());
+
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(Arrays.asList(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN),
+            transitions);
+    }
+
+    @Test
+    public void abandonedProbeFreesTheSlot() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MS + 10);
+        assertTrue(breaker.allowRequest());
+
+        breaker.onAbandoned();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,231 @@
+package com.wispfieldapp.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.wispfieldapp.metrics.EndpointMetrics;
+import com.wispfieldapp.metrics.NetworkMetrics;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+public class ResilienceInterceptorTest {
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_MS = 300;
+    private static final String OK_BODY = "{\"ok\":true}";
+
+    interface ProbeApi {
+        @GET("probe")
+        Call<Map<String, Object>> get();
+
+        @Deadline(seconds = 1)
+        @GET("probe/slow")
+        Call<Map<String, Object>> getWithShortDeadline();
+
+        @POST("probe")
+        Call<Map<String, Object>> post(@Body Map<String, Object> body);
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private CircuitBreaker breaker;
+    private NetworkMetrics metrics;
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        breaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_MS);
+        breaker.setListener(transitions::add);
+        metrics = new NetworkMetrics();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void retriesGetOnBadGateway() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(ok());
+
+        Response<Map<String, Object>> response = api(null).get().execute();
+
+        assertTrue(response.isSuccessful());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, retries());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws IOException {
+        for (int i = 0; i < 4; i++) server.enqueue(new MockResponse().setResponseCode(503));
+
+        Response<Map<String, Object>> response = api(null).get().execute();
+
+        assertEquals(503, response.code());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, retries());
+    }
+
+    @Test
+    public void neverRetriesPost() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(ok());
+
+        Response<Map<String, Object>> response = api(null).post(Collections.singletonMap("check", true)).execute();
+
+        assertEquals(502, response.code());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, retries());
+    }
+
+    @Test
+    public void hungServerCostsTheDeadlineNotTheSocketTimeout() {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+        long start = System.nanoTime();
+        try {
+            api(null).getWithShortDeadline().execute();
+            fail("expected the deadline to expire");
+        } catch (IOException e) {
+            assertTrue(e.toString(), e instanceof InterruptedIOException);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("took " + elapsedMs + " ms", elapsedMs >= 900 && elapsedMs < 2000);
+    }
+
+    @Test
+    public void circuitOpensFailsFastAndClosesAfterProbe() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        }
+        ProbeApi api = api(null);
+
+        try {
+            api.get().execute();
+            fail("expected every attempt to be dropped");
+        } catch (IOException expected) {
+            // Each of the three attempts counts as a failure
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(FAILURE_THRESHOLD, server.getRequestCount());
+
+        try {
+            api.get().execute();
+            fail("expected the open circuit to fail fast");
+        } catch (CircuitBreaker.OpenException expected) {
+            // No request reaches the server
+        }
+        assertEquals(FAILURE_THRESHOLD, server.getRequestCount());
+
+        Thread.sleep(OPEN_MS + 50);
+        server.enqueue(ok());
+        Response<Map<String, Object>> probe = api.get().execute();
+
+        assertTrue(probe.isSuccessful());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(Arrays.asList(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+            transitions);
+    }
+
+    @Test
+    public void failedProbeReopensTheCircuit() throws Exception {
+        for (int i = 0; i < FAILURE_THRESHOLD + 1; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        ProbeApi api = api(null);
+        api.get().execute();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(OPEN_MS + 50);
+        try {
+            api.get().execute();
+            fail("expected the retry after the failed probe to find the circuit open");
+        } catch (CircuitBreaker.OpenException expected) {
+            // Only the probe reached the server
+        }
+
+        assertEquals(FAILURE_THRESHOLD + 1, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(Arrays.asList(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN),
+            transitions);
+    }
+
+    @Test
+    public void answersGetFromCacheWhileOpen() throws Exception {
+        Cache cache = new Cache(folder.newFolder("http"), 1024 * 1024);
+        ProbeApi api = api(cache);
+        server.enqueue(ok().setHeader("Cache-Control", "max-age=0"));
+        assertTrue(api.get().execute().isSuccessful());
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) server.enqueue(new MockResponse().setResponseCode(502));
+        api.get().execute();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        int requests = server.getRequestCount();
+
+        Response<Map<String, Object>> fallback = api.get().execute();
+
+        assertTrue(fallback.isSuccessful());
+        assertNotNull(fallback.raw().cacheResponse());
+        assertNull(fallback.raw().networkResponse());
+        assertEquals(requests, server.getRequestCount());
+        cache.close();
+    }
+
+    private ProbeApi api(Cache cache) {
+        ResilienceInterceptor resilience = new ResilienceInterceptor(breaker, metrics);
+        resilience.setRetryBaseMillis(20);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+            .retryOnConnectionFailure(false)
+            .addInterceptor(resilience);
+        if (cache != null) builder.cache(cache);
+        return new Retrofit.Builder()
+            .baseUrl(server.url("/"))
+            .client(builder.build())
+            .addConverterFactory(GsonConverterFactory.create())
+            .build()
+            .create(ProbeApi.class);
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(OK_BODY);
+    }
+
+    private long retries() {
+        long retries = 0;
+        for (EndpointMetrics.Snapshot snapshot : metrics.snapshot()) retries += snapshot.retries;
+        return retries;
+    }
+}
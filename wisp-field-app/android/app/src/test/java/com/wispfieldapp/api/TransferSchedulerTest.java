@@ -0,0 +1,140 @@
+package com.wispfieldapp.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.GET;
+
+public class TransferSchedulerTest {
+    private static final int HELD_CALLS = 20;
+    private static final String OK_BODY = "{\"ok\":true}";
+
+    interface ProbeApi {
+        @Transfer(TransferScheduler.Priority.BACKGROUND)
+        @GET("sync")
+        Call<Map<String, Object>> sync();
+
+        @Transfer(TransferScheduler.Priority.INTERACTIVE)
+        @GET("lookup")
+        Call<Map<String, Object>> lookup();
+    }
+
+    private MockWebServer server;
+    private TransferScheduler scheduler;
+    private ProbeApi api;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        scheduler = new TransferScheduler();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(TransferScheduler.totalDefaultLimit() + 2);
+        OkHttpClient client = new OkHttpClient.Builder().dispatcher(dispatcher).build();
+        api = new Retrofit.Builder()
+            .baseUrl(server.url("/"))
+            .callFactory(scheduler.callFactory(client))
+            .addConverterFactory(GsonConverterFactory.create())
+            .build()
+            .create(ProbeApi.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void heldBackgroundCallsDoNotStarveInteractive() throws Exception {
+        for (int i = 0; i <= HELD_CALLS; i++) {
+            server.enqueue(ok());
+        }
+        scheduler.setBackgroundPaused(true);
+        CountDownLatch background = new CountDownLatch(HELD_CALLS);
+        AtomicInteger backgroundOk = new AtomicInteger();
+        for (int i = 0; i < HELD_CALLS; i++) {
+            api.sync().enqueue(counting(background, backgroundOk));
+        }
+
+        CountDownLatch interactive = new CountDownLatch(1);
+        AtomicInteger interactiveOk = new AtomicInteger();
+        api.lookup().enqueue(counting(interactive, interactiveOk));
+
+        assertTrue(interactive.await(5, TimeUnit.SECONDS));
+        assertEquals(1, interactiveOk.get());
+        assertEquals(1, server.getRequestCount());
+        assertEquals("/lookup", server.takeRequest().getPath());
+
+        scheduler.setBackgroundPaused(false);
+
+        assertTrue(background.await(10, TimeUnit.SECONDS));
+        assertEquals(HELD_CALLS, backgroundOk.get());
+        assertEquals(HELD_CALLS + 1, server.getRequestCount());
+    }
+
+    @Test
+    public void canceledHeldCallFailsWithoutReachingServer() throws Exception {
+        scheduler.setBackgroundPaused(true);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<>();
+        Call<Map<String, Object>> call = api.sync();
+        call.enqueue(new Callback<Map<String, Object>>() {
+            @Override
+            public void onResponse(Call<Map<String, Object>> c, Response<Map<String, Object>> response) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<Map<String, Object>> c, Throwable t) {
+                failures.add(t);
+                done.countDown();
+            }
+        });
+
+        call.cancel();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, failures.size());
+        assertTrue(call.isCanceled());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private static Callback<Map<String, Object>> counting(CountDownLatch latch, AtomicInteger ok) {
+        return new Callback<Map<String, Object>>() {
+            @Override
+            public void onResponse(Call<Map<String, Object>> call, Response<Map<String, Object>> response) {
+                if (response.isSuccessful()) ok.incrementAndGet();
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<Map<String, Object>> call, Throwable t) {
+                latch.countDown();
+            }
+        };
+    }
+
+    private static MockResponse ok() {
+        return new MockResponse().setBody(OK_BODY).setHeader("Content-Type", "application/json");
+    }
+}
@@ -0,0 +1,117 @@
+package com.wispfieldapp.permissions;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.wispfieldapp.models.MobileTask;
+import java.util.HashMap;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledPermissionsTest {
+    private PermissionSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+        snapshot = new PermissionSnapshot();
+        snapshot.tasks.add(task("inventory-checkout", "inventory", "configuration", "write"));
+        snapshot.tasks.add(task("deploy-tower", "network", "configuration", "write"));
+        snapshot.tasks.add(task("receive-trouble-tickets", "work-orders", "fault", "read"));
+        snapshot.moduleAccess = new HashMap<>();
+        snapshot.workOrderPermissions = new HashMap<>();
+    }
+
+    @Test
+    public void grantsOnlyTheFcapsTriplesOfAllowedTasks() {
+        CompiledPermissions permissions = CompiledPermissions.compile(snapshot);
+
+        assertTrue(permissions.can(Module.INVENTORY, FcapsCategory.CONFIGURATION, FcapsOperation.WRITE));
+        assertTrue(permissions.can(Module.WORK_ORDERS, FcapsCategory.FAULT, FcapsOperation.READ));
+        assertFalse(permissions.can(Module.WORK_ORDERS, FcapsCategory.FAULT, FcapsOperation.WRITE));
+        assertFalse(permissions.can(Module.INVENTORY, FcapsCategory.ACCOUNTING, FcapsOperation.WRITE));
+        // Every triple of the last module must fit in the bitset
+        assertFalse(permissions.can(Module.TENANT_MANAGEMENT, FcapsCategory.SECURITY, FcapsOperation.DELETE));
+    }
+
+    @Test
+    public void recordsKnownTaskTypes() {
+        snapshot.tasks.add(task("future-task", "inventory", "fault", "read"));
+
+        CompiledPermissions permissions = CompiledPermissions.compile(snapshot);
+
+        assertTrue(permissions.hasTask(TaskType.DEPLOY_TOWER));
+        assertTrue(permissions.hasTask(TaskType.RECEIVE_TROUBLE_TICKETS));
+        assertFalse(permissions.hasTask(TaskType.AIMING_CPE));
+        assertTrue(permissions.can(Module.INVENTORY, FcapsCategory.FAULT, FcapsOperation.READ));
+    }
+
+    @Test
+    public void onlyAnExplicitFalseTurnsAModuleOff() {
+        snapshot.moduleAccess.put("inventory", false);
+        snapshot.moduleAccess.put("workOrders", true);
+        snapshot.moduleAccess.put("somethingNew", false);
+
+        CompiledPermissions permissions = CompiledPermissions.compile(snapshot);
+
+        assertFalse(permissions.hasModule(Module.INVENTORY));
+        assertFalse(permissions.can(Module.INVENTORY, FcapsCategory.CONFIGURATION, FcapsOperation.WRITE));
+        assertFalse(permissions.allows(snapshot.tasks.get(0)));
+        assertTrue(permissions.hasModule(Module.WORK_ORDERS));
+        // Absent from the map: left to the backend
+        assertTrue(permissions.hasModule(Module.BILLING));
+    }
+
+    @Test
+    public void onlyAnExplicitFalseDeniesAWorkOrderAction() {
+        snapshot.workOrderPermissions.put("canDelete", false);
+        snapshot.workOrderPermissions.put("canClose", true);
+
+        CompiledPermissions permissions = CompiledPermissions.compile(snapshot);
+
+        assertFalse(permissions.can(WorkOrderAction.DELETE));
+        assertTrue(permissions.can(WorkOrderAction.CLOSE));
+        assertTrue(permissions.can(WorkOrderAction.ESCALATE));
+    }
+
+    @Test
+    public void tasksFromUnknownModulesAreAllowed() {
+        snapshot.moduleAccess.put("inventory", false);
+
+        CompiledPermissions permissions = CompiledPermissions.compile(snapshot);
+
+        assertTrue(permissions.allows(task("future-task", "drones", "fault", "read")));
+    }
+
+    @Test
+    public void missingSnapshotHidesNothing() {
+        CompiledPermissions permissions = CompiledPermissions.compile(null);
+
+        assertSame(CompiledPermissions.UNKNOWN, permissions);
+        assertTrue(permissions.can(Module.NETWORK, FcapsCategory.SECURITY, FcapsOperation.DELETE));
+        assertTrue(permissions.hasTask(TaskType.AIMING_CPE));
+        assertTrue(permissions.can(WorkOrderAction.DELETE));
+    }
+
+    @Test
+    public void toleratesMissingMaps() {
+        snapshot.tasks = null;
+        snapshot.moduleAccess = null;
+        snapshot.workOrderPermissions = null;
+
+        CompiledPermissions permissions = CompiledPermissions.compile(snapshot);
+
+        assertFalse(permissions.can(Module.INVENTORY, FcapsCategory.CONFIGURATION, FcapsOperation.WRITE));
+        assertFalse(permissions.hasTask(TaskType.DEPLOY_TOWER));
+        assertTrue(permissions.hasModule(Module.INVENTORY));
+    }
+
+    private static MobileTask task(String id, String module, String category, String operation) {
+        MobileTask task = new MobileTask();
+        task.id = id;
+        task.module = module;
+        task.fcapsCategory = category;
+        task.operation = operation;
+        return task;
+    }
+}
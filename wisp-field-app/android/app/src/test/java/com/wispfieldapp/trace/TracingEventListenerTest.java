@@ -0,0 +1,135 @@
+package com.wispfieldapp.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TracingEventListenerTest {
+    private static final Object NONE = new Object();
+
+    private MockWebServer server;
+    private Tracer tracer;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        tracer = new Tracer(64);
+        Dispatcher dispatcher = new Dispatcher(TracingEventListener.dispatcherExecutor(tracer));
+        client = new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .eventListenerFactory(TracingEventListener.factory(tracer))
+            .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.dispatcher().executorService().shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void unclosedBodyDoesNotLeakSpanIntoNextCall() throws Exception {
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+        BlockingQueue<Object> seen = new ArrayBlockingQueue<>(4);
+        Span interaction = tracer.startInteraction("load");
+
+        try (Tracer.Scope ignored = interaction.activate()) {
+            // Never reads or closes the body, so callEnd never fires
+            client.newCall(request()).enqueue(recordCurrent(seen, false));
+        }
+        Object firstThread = seen.poll(10, TimeUnit.SECONDS);
+        assertSame(interaction, seen.poll(10, TimeUnit.SECONDS));
+
+        // Let the dispatcher thread go idle, so the pool hands it the next call
+        Thread.sleep(200);
+        client.newCall(request()).enqueue(recordCurrent(seen, true));
+
+        assertSame(firstThread, seen.poll(10, TimeUnit.SECONDS));
+        assertSame(NONE, seen.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void readingTheBodyRestoresTheCallersSpan() throws Exception {
+        server.enqueue(new MockResponse().setBody("body"));
+        Span outer = tracer.startInteraction("outer");
+        Span interaction = tracer.startInteraction("load");
+
+        try (Tracer.Scope ignored = outer.activate()) {
+            Call call;
+            try (Tracer.Scope inner = interaction.activate()) {
+                call = client.newCall(request());
+            }
+            try (Response response = call.execute()) {
+                assertSame(interaction, tracer.current());
+                assertEquals("body", response.body().string());
+            }
+            assertSame(outer, tracer.current());
+        }
+        assertNull(tracer.current());
+    }
+
+    @Test
+    public void recordsCallAsChildOfInteraction() throws Exception {
+        server.enqueue(new MockResponse().setBody("body"));
+        Span interaction = tracer.startInteraction("load");
+
+        Call call;
+        try (Tracer.Scope ignored = interaction.activate()) {
+            call = client.newCall(request());
+        }
+        try (Response response = call.execute()) {
+            response.body().string();
+        }
+
+        boolean found = false;
+        for (Span span : tracer.snapshot()) {
+            if (span.getName().startsWith("http ")) {
+                assertEquals(interaction.spanId, span.parentId);
+                assertEquals(200, span.args.get("code"));
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+
+    private Request request() {
+        return new Request.Builder().url(server.url("/api/sites")).build();
+    }
+
+    private Callback recordCurrent(BlockingQueue<Object> seen, boolean close) {
+        return new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                Span current = tracer.current();
+                seen.add(Thread.currentThread());
+                seen.add(current != null ? current : NONE);
+                if (close) response.close();
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                seen.add(e);
+            }
+        };
+    }
+}
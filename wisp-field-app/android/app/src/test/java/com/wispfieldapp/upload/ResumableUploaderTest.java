@@ -0,0 +1,343 @@
+package com.wispfieldapp.upload;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.wispfieldapp.api.WispApi;
+import com.wispfieldapp.utils.HashUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+public class ResumableUploaderTest {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int FILE_SIZE = 5 * CHUNK_SIZE + 1234;
+    private static final String DOC_ID = "doc-1";
+    private static final Pattern RANGE = Pattern.compile("^bytes (\\d+)-(\\d+)/(\\d+)$");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private UploadServer dispatcher;
+    private WispApi api;
+    private UploadStateStore state;
+    private ExecutorService callbacks;
+    private ResumableUploader uploader;
+    private File photo;
+    private byte[] content;
+    private String sha256;
+
+    @Before
+    public void setUp() throws IOException {
+        content = new byte[FILE_SIZE];
+        new Random(42).nextBytes(content);
+        photo = folder.newFile("photo.jpg");
+        try (FileOutputStream out = new FileOutputStream(photo)) {
+            out.write(content);
+        }
+        sha256 = HashUtils.sha256(photo);
+
+        dispatcher = new UploadServer();
+        server = new MockWebServer();
+        server.setDispatcher(dispatcher);
+        server.start();
+        OkHttpClient client = new OkHttpClient.Builder()
+            .retryOnConnectionFailure(false)
+            .build();
+        api = new Retrofit.Builder()
+            .baseUrl(server.url("/"))
+            .client(client)
+            .addConverterFactory(GsonConverterFactory.create())
+            .build()
+            .create(WispApi.class);
+        state = new UploadStateStore(new InMemoryPreferences());
+        callbacks = Executors.newSingleThreadExecutor();
+        uploader = newUploader();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        uploader.shutdown();
+        callbacks.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void uploadsInChunksAndForgetsTheSession() throws Exception {
+        Result result = uploadAndWait(uploader);
+
+        assertNull(result.error);
+        assertEquals(sha256, result.photo.get("sha256"));
+        assertArrayEquals(content, dispatcher.received.toByteArray());
+        assertEquals(6, dispatcher.ranges.size());
+        assertEquals("bytes 0-65535/" + FILE_SIZE, dispatcher.ranges.get(0));
+        assertEquals(Long.valueOf(FILE_SIZE), result.progress.get(result.progress.size() - 1));
+        assertNull(state.getUploadId(DOC_ID, sha256));
+    }
+
+    @Test
+    public void resumesStoredSessionAtServerOffset() throws Exception {
+        // A previous process got three chunks in before it died
+        dispatcher.open("up-earlier", 3L * CHUNK_SIZE);
+        dispatcher.received.write(content, 0, 3 * CHUNK_SIZE);
+        state.putUploadId(DOC_ID, sha256, "up-earlier");
+
+        Result result = uploadAndWait(uploader);
+
+        assertNull(result.error);
+        assertEquals(0, dispatcher.sessionsStarted);
+        assertEquals("bytes " + 3 * CHUNK_SIZE + "-" + (4 * CHUNK_SIZE - 1) + "/" + FILE_SIZE, dispatcher.ranges.get(0));
+        assertEquals(3, dispatcher.ranges.size());
+        assertEquals(Long.valueOf(3L * CHUNK_SIZE), result.progress.get(0));
+        assertArrayEquals(content, dispatcher.received.toByteArray());
+    }
+
+    @Test
+    public void startsOverWhenStoredSessionIsGone() throws Exception {
+        state.putUploadId(DOC_ID, sha256, "up-expired");
+
+        Result result = uploadAndWait(uploader);
+
+        assertNull(result.error);
+        assertEquals(1, dispatcher.sessionsStarted);
+        assertEquals("bytes 0-65535/" + FILE_SIZE, dispatcher.ranges.get(0));
+        assertArrayEquals(content, dispatcher.received.toByteArray());
+    }
+
+    @Test
+    public void fallsBackToMultipartWhenServerHasNoResumableEndpoint() throws Exception {
+        dispatcher.resumable = false;
+
+        Result result = uploadAndWait(uploader);
+
+        assertNull(result.error);
+        assertEquals("/uploads/legacy.jpg", result.photo.get("url"));
+        assertEquals(1, dispatcher.multipartUploads);
+        assertTrue(dispatcher.ranges.isEmpty());
+
+        // Later photos skip the resumable attempt altogether
+        int requests = server.getRequestCount();
+        uploadAndWait(uploader);
+        assertEquals(requests + 1, server.getRequestCount());
+        assertEquals(2, dispatcher.multipartUploads);
+    }
+
+    @Test
+    public void continuesFromAcknowledgedOffsetNotFromWhatWasSent() throws Exception {
+        // The server keeps only the first half of every chunk
+        dispatcher.acceptAtMost = CHUNK_SIZE / 2;
+
+        Result result = uploadAndWait(uploader);
+
+        assertNull(result.error);
+        assertEquals("bytes " + CHUNK_SIZE / 2 + "-" + (CHUNK_SIZE / 2 + CHUNK_SIZE - 1) + "/" + FILE_SIZE,
+            dispatcher.ranges.get(1));
+        assertArrayEquals(content, dispatcher.received.toByteArray());
+    }
+
+    @Test
+    public void rereadsOffsetAfterFailedChunk() throws Exception {
+        dispatcher.failChunk = 2;
+
+        Result result = uploadAndWait(uploader);
+
+        assertNull(result.error);
+        // The failed chunk is sent again from the offset the server reports
+        assertEquals(dispatcher.ranges.get(1), dispatcher.ranges.get(2));
+        assertEquals(1, dispatcher.sessionQueries);
+        assertArrayEquals(content, dispatcher.received.toByteArray());
+    }
+
+    @Test
+    public void failsWhenServerDoesNotAdvance() throws Exception {
+        dispatcher.acceptAtMost = 0;
+
+        Result result = uploadAndWait(uploader);
+
+        assertNotNull(result.error);
+        assertNull(result.photo);
+        // The session survives, so the next attempt resumes it
+        assertNotNull(state.getUploadId(DOC_ID, sha256));
+        assertFalse(uploader.isQueued(DOC_ID, sha256));
+    }
+
+    @Test
+    public void replaysOutcomeToListenerAttachedLater() throws Exception {
+        uploader.enqueue("Bearer test", job());
+        waitUntil(() -> !uploader.isQueued(DOC_ID, sha256));
+
+        Result result = new Result();
+        callbacks.execute(() -> uploader.setListener(DOC_ID, result));
+
+        assertTrue(result.done.await(10, TimeUnit.SECONDS));
+        assertEquals(sha256, result.photo.get("sha256"));
+    }
+
+    private ResumableUploader newUploader() {
+        ResumableUploader created = new ResumableUploader(api, "tenant-1", state, CHUNK_SIZE, 1, callbacks);
+        created.setRetryBaseMillis(1);
+        return created;
+    }
+
+    private ResumableUploader.Job job() {
+        return new ResumableUploader.Job(DOC_ID, photo, sha256, "after", "test");
+    }
+
+    private Result uploadAndWait(ResumableUploader target) throws InterruptedException {
+        Result result = new Result();
+        target.enqueue("Bearer test", job(), result);
+        assertTrue("upload timed out", result.done.await(30, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue("condition not met in time", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static class Result implements ResumableUploader.Listener {
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        volatile Map<String, Object> photo;
+        volatile Exception error;
+
+        @Override
+        public void onProgress(ResumableUploader.Job job, long bytesSent, long totalBytes) {
+            progress.add(bytesSent);
+        }
+
+        @Override
+        public void onComplete(ResumableUploader.Job job, Map<String, Object> photo) {
+            this.photo = photo;
+            done.countDown();
+        }
+
+        @Override
+        public void onFailed(ResumableUploader.Job job, Exception e) {
+            error = e;
+            done.countDown();
+        }
+    }
+
+    /**
+     * The server side of the resumable upload protocol, holding one session at a time
+     */
+    private static class UploadServer extends Dispatcher {
+        private final Gson gson = new Gson();
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        final List<String> ranges = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean resumable = true;
+        volatile int acceptAtMost = Integer.MAX_VALUE;
+        // 1-based chunk PUT to answer with a 500
+        volatile int failChunk = -1;
+        volatile int sessionsStarted;
+        volatile int sessionQueries;
+        volatile int multipartUploads;
+        private String uploadId;
+        private long offset;
+        private long size;
+        private String sha256;
+
+        synchronized void open(String uploadId, long offset) {
+            this.uploadId = uploadId;
+            this.offset = offset;
+            this.size = FILE_SIZE;
+        }
+
+        @Override
+        public synchronized MockResponse dispatch(RecordedRequest request) {
+            String path = request.getPath();
+            String method = request.getMethod();
+            if ("POST".equals(method) && path.endsWith("/photos")) {
+                multipartUploads++;
+                return json(201, Collections.singletonMap("photos",
+                    Collections.singletonList(Collections.singletonMap("url", "/uploads/legacy.jpg"))));
+            }
+            if ("POST".equals(method) && path.endsWith("/uploads")) {
+                if (!resumable) return new MockResponse().setResponseCode(404);
+                Map<?, ?> metadata = gson.fromJson(request.getBody().readUtf8(), Map.class);
+                sessionsStarted++;
+                open("up-" + sessionsStarted, 0);
+                received.reset();
+                sha256 = (String) metadata.get("sha256");
+                return json(201, session());
+            }
+            if (uploadId == null || !path.endsWith("/uploads/" + uploadId)) {
+                return new MockResponse().setResponseCode(404);
+            }
+            if ("GET".equals(method)) {
+                sessionQueries++;
+                return json(200, session());
+            }
+
+            ranges.add(request.getHeader("Content-Range"));
+            byte[] chunk = request.getBody().readByteArray();
+            if (ranges.size() == failChunk) {
+                return new MockResponse().setResponseCode(500);
+            }
+            Matcher range = RANGE.matcher(request.getHeader("Content-Range"));
+            if (!range.matches() || Long.parseLong(range.group(1)) != offset
+                    || !HashUtils.toHex(HashUtils.newSha256().digest(chunk)).equals(request.getHeader("X-Chunk-SHA256"))) {
+                return json(409, session());
+            }
+            int accepted = Math.min(chunk.length, acceptAtMost);
+            received.write(chunk, 0, accepted);
+            offset += accepted;
+            return json(200, session());
+        }
+
+        private Map<String, Object> session() {
+            Map<String, Object> session = new HashMap<>();
+            session.put("uploadId", uploadId);
+            session.put("offset", offset);
+            session.put("size", size);
+            boolean complete = size > 0 && offset == size;
+            session.put("complete", complete);
+            if (complete) {
+                session.put("photo", Collections.singletonMap("sha256", sha256));
+            }
+            return session;
+        }
+
+        private MockResponse json(int code, Object body) {
+            return new MockResponse()
+                .setResponseCode(code)
+                .setHeader("Content-Type", "application/json")
+                .setBody(gson.toJson(body));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.wispfieldapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic tenant data for the benchmarks, shaped like the API
+ * responses (sites, sectors, work orders, inventory)
+ */
+public final class BenchmarkData {
+    private static final String[] SECTOR_NAMES = {"Alpha", "Beta", "Gamma", "Delta", "Epsilon", "Zeta"};
+    private static final String[] WORK_ORDER_TYPES = {"installation", "repair", "maintenance", "troubleshoot", "inspection"};
+    private static final String[] ISSUES = {"cpe-offline", "sector-down", "backhaul-failure", "slow-speeds", "power-outage"};
+    private static final String[] PRIORITIES = {"low", "medium", "high", "critical"};
+    private static final String[] WORK_ORDER_STATUSES = {"open", "assigned", "in-progress", "resolved", "closed"};
+    private static final String[] EQUIPMENT = {"radio", "antenna", "router", "switch", "cpe"};
+    private static final String[] MANUFACTURERS = {"Ubiquiti", "Cambium", "Mikrotik", "Mimosa"};
+    private static final String[] ITEM_STATUSES = {"available", "reserved", "deployed", "maintenance"};
+    private static final String[] CONDITIONS = {"new", "good", "fair"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Sites scattered over roughly 1x1 degree; every fourth is a tower
+     */
+    public static List<Map<String, Object>> sites(int count, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> sites = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> site = new HashMap<>();
+            site.put("_id", String.format(Locale.US, "site%06d", i));
+            site.put("name", (i % 4 == 0 ? "Tower " : "Customer ") + i);
+            site.put("type", i % 4 == 0 ? "tower" : "customer");
+            Map<String, Object> location = new HashMap<>();
+            location.put("latitude", 40 + random.nextDouble());
+            location.put("longitude", -105 + random.nextDouble());
+            site.put("location", location);
+            sites.add(site);
+        }
+        return sites;
+    }
+
+    /**
+     * Evenly spaced sectors starting from a random offset
+     */
+    public static List<Map<String, Object>> sectors(String siteId, int count, Random random) {
+        List<Map<String, Object>> sectors = new ArrayList<>(count);
+        double offset = random.nextDouble() * 360;
+        for (int j = 0; j < count; j++) {
+            Map<String, Object> sector = new HashMap<>();
+            sector.put("_id", siteId + "-s" + j);
+            sector.put("name", SECTOR_NAMES[j % SECTOR_NAMES.length]);
+            sector.put("azimuth", (offset + j * 360.0 / count) % 360);
+            sectors.add(sector);
+        }
+        return sectors;
+    }
+
+    public static String workOrdersJson(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"_id\":\"wo").append(i).append('"')
+                .append(",\"tenantId\":\"tenant-1\"")
+                .append(",\"ticketNumber\":\"TT-").append(100000 + i).append('"')
+                .append(",\"type\":\"").append(pick(WORK_ORDER_TYPES, random)).append('"')
+                .append(",\"ticketCategory\":\"").append(random.nextBoolean() ? "customer-facing" : "infrastructure").append('"')
+                .append(",\"issueCategory\":\"").append(pick(ISSUES, random)).append('"')
+                .append(",\"priority\":\"").append(pick(PRIORITIES, random)).append('"')
+                .append(",\"status\":\"").append(pick(WORK_ORDER_STATUSES, random)).append('"')
+                .append(",\"title\":\"Customer reports outage ").append(i).append('"')
+                .append(",\"description\":\"No connectivity since this morning, CPE lights blinking\"")
+                .append(",\"createdAt\":\"2024-05-01T12:00:00Z\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    public static String inventoryJson(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"_id\":\"inv").append(i).append('"')
+                .append(",\"tenantId\":\"tenant-1\"")
+                .append(",\"assetTag\":\"AT-").append(200000 + i).append('"')
+                .append(",\"category\":\"wireless\"")
+                .append(",\"equipmentType\":\"").append(pick(EQUIPMENT, random)).append('"')
+                .append(",\"manufacturer\":\"").append(pick(MANUFACTURERS, random)).append('"')
+                .append(",\"model\":\"Model-").append(random.nextInt(20)).append('"')
+                .append(",\"serialNumber\":\"SN").append(Long.toHexString(random.nextLong())).append('"')
+                .append(",\"status\":\"").append(pick(ITEM_STATUSES, random)).append('"')
+                .append(",\"condition\":\"").append(pick(CONDITIONS, random)).append('"')
+                .append(",\"purchasePrice\":").append(50 + random.nextInt(500)).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,72 @@
+package com.wispfieldapp.aiming;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of recording one sensor sample, and of packing a full ten-minute session
+ * when aiming data is saved
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AimingSessionBenchmark {
+    private AimingRecorder recorder;
+    private AimingRecorder session;
+    private byte[] blob;
+    private long time;
+    private float heading;
+
+    @Setup
+    public void setUp() {
+        recorder = new AimingRecorder();
+        session = session(AimingRecorder.DEFAULT_CAPACITY, 42);
+        blob = AimingSessionCodec.encode(session);
+    }
+
+    /**
+     * A slow sweep across the target with compass jitter; the fix moves a little once a second
+     */
+    static AimingRecorder session(int samples, long seed) {
+        Random random = new Random(seed);
+        AimingRecorder recorder = new AimingRecorder(samples);
+        long time = 1_700_000_000_000L;
+        for (int i = 0; i < samples; i++) {
+            if (i % 20 == 0) {
+                recorder.setFix(40.5 + random.nextGaussian() * 2e-5, -104.5 + random.nextGaussian() * 2e-5,
+                    3 + random.nextInt(50) / 10f);
+            }
+            float heading = (float) (350 + 20 * Math.sin(i / 400.0) + random.nextGaussian() * 0.8 + 360) % 360;
+            float pitch = (float) (2 + random.nextGaussian() * 0.3);
+            time += AimingRecorder.MIN_INTERVAL_MS + random.nextInt(15);
+            recorder.record(time, heading, pitch);
+        }
+        return recorder;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean record() {
+        time += AimingRecorder.MIN_INTERVAL_MS;
+        heading = (heading + 0.3f) % 360;
+        return recorder.record(time, heading, 2.5f);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return AimingSessionCodec.encode(session);
+    }
+
+    @Benchmark
+    public AimingRecorder decode() throws IOException {
+        return AimingSessionCodec.decode(blob);
+    }
+}
@@ -0,0 +1,42 @@
+package com.wispfieldapp.aiming;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-sample cost of the lock detector on a jittery heading near the target,
+ * independent of how many samples the window holds
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeadingLockBenchmark {
+    private static final int NOISE_SAMPLES = 1024;
+
+    private final double[] headings = new double[NOISE_SAMPLES];
+    private HeadingLock lock;
+    private long time;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < NOISE_SAMPLES; i++) headings[i] = (361 + random.nextGaussian() * 2) % 360;
+        lock = new HeadingLock(5);
+        lock.setTarget(1);
+    }
+
+    @Benchmark
+    public boolean update() {
+        time += 33;
+        next = (next + 1) & (NOISE_SAMPLES - 1);
+        return lock.update(time, headings[next]);
+    }
+}
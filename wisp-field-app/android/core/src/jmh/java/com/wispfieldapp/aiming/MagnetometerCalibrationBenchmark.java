@@ -0,0 +1,50 @@
+package com.wispfieldapp.aiming;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-reading cost of calibration while the phone is waved in a figure 8, so most
+ * readings join the fit and every fourth refits it. Run with -prof gc to confirm
+ * nothing is allocated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MagnetometerCalibrationBenchmark {
+    private static final int READINGS = 1024;
+
+    private final float[][] readings = new float[READINGS][3];
+    private final float[] corrected = new float[3];
+    private MagnetometerCalibration calibration;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        for (float[] reading : readings) {
+            double x = random.nextGaussian();
+            double y = random.nextGaussian();
+            double z = random.nextGaussian();
+            double norm = Math.sqrt(x * x + y * y + z * z);
+            reading[0] = (float) (50 * x / norm + 10);
+            reading[1] = (float) (50 * y / norm - 5);
+            reading[2] = (float) (50 * z / norm + 8);
+        }
+        calibration = new MagnetometerCalibration();
+        calibration.setExpectedField(50);
+    }
+
+    @Benchmark
+    public MagnetometerCalibration.Status update() {
+        next = (next + 1) & (READINGS - 1);
+        return calibration.update(readings[next], corrected);
+    }
+}
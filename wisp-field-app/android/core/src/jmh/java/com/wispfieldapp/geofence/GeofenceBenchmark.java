@@ -0,0 +1,93 @@
+package com.wispfieldapp.geofence;
+
+import com.wispfieldapp.utils.LocationUtils;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One location update while driving through a tenant's sites (scattered over 1x1
+ * degree, like BenchmarkData's), against testing every site on every fix
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeofenceBenchmark {
+    private static final int FIXES = 4096;
+
+    @Param({"1000", "100000"})
+    public int siteCount;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] trackLat;
+    private double[] trackLon;
+    private GeofenceEngine engine;
+    private int next;
+    private int events;
+
+    private final GeofenceEngine.Listener listener = new GeofenceEngine.Listener() {
+        @Override
+        public void onEnter(int site, double distanceM) {
+            events++;
+        }
+
+        @Override
+        public void onExit(int site) {
+            events--;
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(4);
+        latitudes = new double[siteCount];
+        longitudes = new double[siteCount];
+        for (int i = 0; i < siteCount; i++) {
+            latitudes[i] = 40 + random.nextDouble();
+            longitudes[i] = -105 + random.nextDouble();
+        }
+        engine = new GeofenceEngine(latitudes, longitudes, GeofenceEngine.DEFAULT_RADIUS_M);
+
+        // A fix a second at about 25 m/s, wandering across the area
+        trackLat = new double[FIXES];
+        trackLon = new double[FIXES];
+        double lat = 40.5;
+        double lon = -104.5;
+        double heading = 0;
+        for (int i = 0; i < FIXES; i++) {
+            heading += random.nextGaussian() * 0.2;
+            lat += Math.cos(heading) * 25 / 111320;
+            lon += Math.sin(heading) * 25 / (111320 * Math.cos(Math.toRadians(lat)));
+            trackLat[i] = lat;
+            trackLon[i] = lon;
+        }
+    }
+
+    @Benchmark
+    public double update() {
+        int i = next++ & (FIXES - 1);
+        engine.update(trackLat[i], trackLon[i], 8, listener);
+        return engine.nearestEdgeM();
+    }
+
+    @Benchmark
+    public int scanAll() {
+        int i = next++ & (FIXES - 1);
+        int inside = 0;
+        for (int site = 0; site < siteCount; site++) {
+            if (LocationUtils.calculateDistance(trackLat[i], trackLon[i], latitudes[site], longitudes[site])
+                    <= GeofenceEngine.DEFAULT_RADIUS_M) {
+                inside++;
+            }
+        }
+        return inside + events;
+    }
+}
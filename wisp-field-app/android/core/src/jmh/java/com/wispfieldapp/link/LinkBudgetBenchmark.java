@@ -0,0 +1,72 @@
+package com.wispfieldapp.link;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * What one compass update costs on the aiming screen: the pointing loss on the
+ * budget already in hand (the cell has not changed), a cache lookup, and
+ * estimating the budget from scratch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LinkBudgetBenchmark {
+    private static final double TOWER_LAT = 40.5;
+    private static final double TOWER_LON = -104.5;
+    private static final double CPE_LAT = 40.52;
+    private static final double CPE_LON = -104.45;
+
+    private SectorRadio sector;
+    private LinkBudgetCache cache;
+    private double heading;
+    private LinkBudget budget;
+    private long budgetCellLat;
+    private long budgetCellLon;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> record = new HashMap<>();
+        record.put("_id", "sector-1");
+        record.put("azimuth", 60.0);
+        record.put("frequency", 5800);
+        sector = SectorRadio.from(record, null);
+        cache = new LinkBudgetCache(256);
+    }
+
+    @Benchmark
+    public double sameCellUpdate() {
+        heading = (heading + 1.7) % 360;
+        long cellLat = LinkBudgetCache.cell(CPE_LAT);
+        long cellLon = LinkBudgetCache.cell(CPE_LON);
+        if (budget == null || cellLat != budgetCellLat || cellLon != budgetCellLon) {
+            budget = cache.get(sector, TOWER_LAT, TOWER_LON, CPE_LAT, CPE_LON, PathLossModel.COST231_HATA, null);
+            budgetCellLat = cellLat;
+            budgetCellLon = cellLon;
+        }
+        return budget.rssiDbm(heading);
+    }
+
+    @Benchmark
+    public double cachedUpdate() {
+        heading = (heading + 1.7) % 360;
+        return cache.get(sector, TOWER_LAT, TOWER_LON, CPE_LAT, CPE_LON, PathLossModel.COST231_HATA, null)
+            .rssiDbm(heading);
+    }
+
+    @Benchmark
+    public double uncachedUpdate() {
+        heading = (heading + 1.7) % 360;
+        return LinkBudget.estimate(sector, TOWER_LAT, TOWER_LON, CPE_LAT, CPE_LON,
+            LinkBudget.DEFAULT_CPE_GAIN_DBI, LinkBudget.DEFAULT_CPE_BEAMWIDTH_DEG, LinkBudget.DEFAULT_CPE_HEIGHT_M,
+            PathLossModel.COST231_HATA, null).rssiDbm(heading);
+    }
+}
@@ -0,0 +1,102 @@
+package com.wispfieldapp.models;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.wispfieldapp.BenchmarkData;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Heap retained by a decoded work order list with and without
+ * {@link CanonicalStringAdapter} on the code fields. Compare the retainedBytes
+ * counters; the time score includes the forced GCs around each decode and means
+ * nothing. -prof gc gives the allocation side, which the adapter doesn't change much.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class InternFootprintBenchmark {
+    private static final Type PLAIN = new TypeToken<List<PlainCodes>>() {}.getType();
+    private static final Type INTERNED = new TypeToken<List<InternedCodes>>() {}.getType();
+
+    /** {@link WorkOrder}'s code fields as they were before the adapter */
+    static class PlainCodes {
+        @SerializedName("_id") String id;
+        @SerializedName("type") String type;
+        @SerializedName("ticketCategory") String ticketCategory;
+        @SerializedName("issueCategory") String issueCategory;
+        @SerializedName("priority") String priority;
+        @SerializedName("status") String status;
+    }
+
+    static class InternedCodes {
+        @SerializedName("_id") String id;
+        @SerializedName("type") @JsonAdapter(CanonicalStringAdapter.class) String type;
+        @SerializedName("ticketCategory") @JsonAdapter(CanonicalStringAdapter.class) String ticketCategory;
+        @SerializedName("issueCategory") @JsonAdapter(CanonicalStringAdapter.class) String issueCategory;
+        @SerializedName("priority") @JsonAdapter(CanonicalStringAdapter.class) String priority;
+        @SerializedName("status") @JsonAdapter(CanonicalStringAdapter.class) String status;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+        /** Heap held by the decoded list after a full GC */
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+    }
+
+    @Param({"50000"})
+    public int records;
+
+    private final Gson gson = new Gson();
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = BenchmarkData.workOrdersJson(records, 4);
+    }
+
+    @Benchmark
+    public List<PlainCodes> plain(Footprint footprint) {
+        long base = usedHeap();
+        List<PlainCodes> decoded = gson.fromJson(json, PLAIN);
+        footprint.retainedBytes += usedHeap() - base;
+        return decoded;
+    }
+
+    @Benchmark
+    public List<InternedCodes> interned(Footprint footprint) {
+        long base = usedHeap();
+        List<InternedCodes> decoded = gson.fromJson(json, INTERNED);
+        footprint.retainedBytes += usedHeap() - base;
+        return decoded;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,56 @@
+package com.wispfieldapp.models;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.wispfieldapp.BenchmarkData;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Gson decoding of list responses, including the canonical-string adapters on the
+ * code fields. Run with -prof gc to see allocation per list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelDecodingBenchmark {
+    private static final Type WORK_ORDERS = new TypeToken<List<WorkOrder>>() {}.getType();
+    private static final Type INVENTORY = new TypeToken<List<InventoryItem>>() {}.getType();
+
+    @Param({"100", "5000"})
+    public int records;
+
+    private final Gson gson = new Gson();
+    private String workOrdersJson;
+    private String inventoryJson;
+
+    @Setup
+    public void setUp() {
+        workOrdersJson = BenchmarkData.workOrdersJson(records, 2);
+        inventoryJson = BenchmarkData.inventoryJson(records, 3);
+    }
+
+    @Benchmark
+    public List<WorkOrder> decodeWorkOrders() {
+        return gson.fromJson(workOrdersJson, WORK_ORDERS);
+    }
+
+    @Benchmark
+    public List<InventoryItem> decodeInventory() {
+        return gson.fromJson(inventoryJson, INVENTORY);
+    }
+
+    @Benchmark
+    public String encodeWorkOrders() {
+        return gson.toJson(gson.fromJson(workOrdersJson, WORK_ORDERS), WORK_ORDERS);
+    }
+}
@@ -0,0 +1,54 @@
+package com.wispfieldapp.search;
+
+import com.wispfieldapp.BenchmarkData;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Typeahead over the site list: keystroke queries and single-item updates
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+    private static final String[] QUERIES = {"t", "tow", "tower 12", "cust", "ower", "site0001"};
+
+    @Param({"1000", "10000"})
+    public int siteCount;
+
+    private List<Map<String, Object>> sites;
+    private SearchIndex<Map<String, Object>> index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        sites = BenchmarkData.sites(siteCount, 6);
+        index = new SearchIndex<>();
+        for (Map<String, Object> site : sites) put(site);
+    }
+
+    private void put(Map<String, Object> site) {
+        String id = (String) site.get("_id");
+        index.put(id, site, (String) site.get("name"), id);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> search() {
+        return index.search(QUERIES[next++ % QUERIES.length], 50);
+    }
+
+    @Benchmark
+    public int replaceOne() {
+        put(sites.get(next++ % siteCount));
+        return index.size();
+    }
+}
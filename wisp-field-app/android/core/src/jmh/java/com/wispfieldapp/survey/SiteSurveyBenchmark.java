@@ -0,0 +1,97 @@
+package com.wispfieldapp.survey;
+
+import com.wispfieldapp.link.SectorRadio;
+import com.wispfieldapp.terrain.HgtTile;
+import com.wispfieldapp.terrain.TileCache;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The survey's target load: 500 points against 50 three-sector towers, all within
+ * range of each other over one synthetic 1 arc-second tile, on one thread and split
+ * across the machine's cores
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SiteSurveyBenchmark {
+    private static final int SIZE = 3601;
+    private static final int POINTS = 500;
+    private static final int TOWERS = 50;
+
+    private File dir;
+    private TileCache terrain;
+    private List<SurveyPoint> points;
+    private List<SurveyTower> towers;
+    private ExecutorService pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("dem").toFile();
+        File tile = new File(dir, HgtTile.nameFor(40, -105));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tile)))) {
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    out.writeShort((int) (1600 + 150 * Math.sin(row / 300.0) + 120 * Math.cos(col / 170.0)));
+                }
+            }
+        }
+        terrain = new TileCache(dir, 4);
+
+        // Everything inside about 9 x 7 km, so every tower is in range of every point
+        Random random = new Random(5);
+        points = new ArrayList<>(POINTS);
+        for (int i = 0; i < POINTS; i++) {
+            points.add(new SurveyPoint("Point " + i, 40.47 + random.nextDouble() * 0.06, -104.54 + random.nextDouble() * 0.08));
+        }
+        towers = new ArrayList<>(TOWERS);
+        for (int i = 0; i < TOWERS; i++) {
+            List<SectorRadio> sectors = new ArrayList<>();
+            for (int azimuth = 0; azimuth < 360; azimuth += 120) {
+                sectors.add(new SectorRadio("t" + i + "s" + azimuth, azimuth, 25, 16, 120, 5800, 20, 30));
+            }
+            towers.add(new SurveyTower("t" + i, "Tower " + i, 40.47 + random.nextDouble() * 0.06,
+                -104.54 + random.nextDouble() * 0.08, sectors, Arrays.asList("Alpha", "Beta", "Gamma")));
+        }
+        pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public List<SiteSurvey.PointResult> sequential() throws InterruptedException {
+        return SiteSurvey.run(points, towers, terrain, SiteSurvey.DEFAULT_MAX_RANGE_M, null);
+    }
+
+    @Benchmark
+    public List<SiteSurvey.PointResult> parallel() throws InterruptedException {
+        return SiteSurvey.run(points, towers, terrain, SiteSurvey.DEFAULT_MAX_RANGE_M, pool);
+    }
+}
@@ -0,0 +1,66 @@
+package com.wispfieldapp.terrain;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A 15 km path check over a synthetic 1 arc-second tile (the aiming screen's budget
+ * is 50 ms), with the tile already mapped and from a cold cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LineOfSightBenchmark {
+    private static final int SIZE = 3601;
+
+    private File dir;
+    private TileCache warm;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("dem").toFile();
+        File tile = new File(dir, HgtTile.nameFor(40, -105));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tile)))) {
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) {
+                    // Rolling hills, a few hundred metres of relief
+                    out.writeShort((int) (1600 + 150 * Math.sin(row / 300.0) + 120 * Math.cos(col / 170.0)));
+                }
+            }
+        }
+        warm = new TileCache(dir, 4);
+        warm.tileFor(40.5, -104.5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public LineOfSight.Result check15km() {
+        return LineOfSight.check(warm, 40.40, -104.60, 6, 40.50, -104.48, 30, 5800);
+    }
+
+    @Benchmark
+    public LineOfSight.Result check15kmColdCache() {
+        return LineOfSight.check(new TileCache(dir, 4), 40.40, -104.60, 6, 40.50, -104.48, 30, 5800);
+    }
+}
@@ -0,0 +1,80 @@
+package com.wispfieldapp.topology;
+
+import com.wispfieldapp.BenchmarkData;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The offline topology cache: rebuilding the snapshot file, mapping it, and the
+ * lookups the aiming screen makes against it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TopologySnapshotBenchmark {
+    @Param({"1000", "10000"})
+    public int siteCount;
+
+    private List<Map<String, Object>> sites;
+    private Map<String, List<Map<String, Object>>> sectorsBySite;
+    private File file;
+    private File scratch;
+    private TopologySnapshot snapshot;
+    private String[] siteIds;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        sites = BenchmarkData.sites(siteCount, 4);
+        sectorsBySite = new HashMap<>();
+        Random random = new Random(5);
+        for (Map<String, Object> site : sites) {
+            if ("tower".equals(site.get("type"))) {
+                String id = (String) site.get("_id");
+                sectorsBySite.put(id, BenchmarkData.sectors(id, 4, random));
+            }
+        }
+        file = File.createTempFile("topology", ".bin");
+        scratch = File.createTempFile("topology-write", ".bin");
+        TopologySnapshotWriter.write(file, sites, sectorsBySite);
+        snapshot = TopologySnapshot.open(file);
+        siteIds = new String[siteCount];
+        for (int i = 0; i < siteCount; i++) siteIds[i] = snapshot.siteId(i);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+        scratch.delete();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        TopologySnapshotWriter.write(scratch, sites, sectorsBySite);
+    }
+
+    @Benchmark
+    public int openAndListTowers() throws IOException {
+        return TopologySnapshot.open(file).towers().size();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> sectorsOfSite() {
+        String id = siteIds[next++ % siteCount];
+        return snapshot.sectorMaps(snapshot.indexOf(id));
+    }
+}
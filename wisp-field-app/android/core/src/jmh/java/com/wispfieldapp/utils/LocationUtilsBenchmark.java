@@ -0,0 +1,70 @@
+package com.wispfieldapp.utils;
+
+import com.wispfieldapp.BenchmarkData;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The aiming screen's per-reading math: bearing and distance to a tower, and
+ * picking the sector that faces the CPE
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocationUtilsBenchmark {
+    private static final int POINTS = 1024;
+
+    private final double[] lat = new double[POINTS];
+    private final double[] lon = new double[POINTS];
+    private int next;
+
+    @State(Scope.Thread)
+    public static class Tower {
+        @Param({"3", "6", "12"})
+        public int sectorCount;
+
+        List<Map<String, Object>> sectors;
+
+        @Setup
+        public void setUp() {
+            sectors = BenchmarkData.sectors("tower", sectorCount, new Random(2));
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        for (int i = 0; i < POINTS; i++) {
+            lat[i] = 40 + random.nextDouble();
+            lon[i] = -105 + random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public double calculateAzimuth() {
+        int i = next++ & (POINTS - 1);
+        return LocationUtils.calculateAzimuth(lat[i], lon[i], 40.5, -104.5);
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        int i = next++ & (POINTS - 1);
+        return LocationUtils.calculateDistance(lat[i], lon[i], 40.5, -104.5);
+    }
+
+    @Benchmark
+    public Map<String, Object> findBestMatchingSector(Tower tower) {
+        int i = next++ & (POINTS - 1);
+        return LocationUtils.findBestMatchingSector(tower.sectors, LocationUtils.calculateAzimuth(40.5, -104.5, lat[i], lon[i]));
+    }
+}
@@ -0,0 +1,142 @@
+package com.wispfieldapp.aiming;
+
+/**
+ * Records heading, pitch and the latest GPS fix while a dish is being aimed, into
+ * preallocated parallel arrays used as a ring buffer, so recording at sensor rate
+ * allocates nothing. Once full, the oldest samples are overwritten.
+ *
+ * Not thread-safe; record and encode from the same (main) thread.
+ */
+public class AimingRecorder {
+    /** Ten minutes at the sampling rate below */
+    public static final int DEFAULT_CAPACITY = 12000;
+    /** Sensor events closer together than this are dropped (caps recording at 20 Hz) */
+    public static final int MIN_INTERVAL_MS = 50;
+
+    private final long[] time;
+    private final float[] heading;
+    private final float[] pitch;
+    private final double[] lat;
+    private final double[] lon;
+    private final float[] accuracy;
+    private int next;
+    private int size;
+    private long dropped;
+
+    private double fixLat;
+    private double fixLon;
+    private float fixAccuracy = -1;
+
+    public AimingRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AimingRecorder(int capacity) {
+        time = new long[capacity];
+        heading = new float[capacity];
+        pitch = new float[capacity];
+        lat = new double[capacity];
+        lon = new double[capacity];
+        accuracy = new float[capacity];
+    }
+
+    /**
+     * Sets the fix stamped on subsequent samples
+     *
+     * @param accuracyM Horizontal accuracy; negative if unknown
+     */
+    public void setFix(double latitude, double longitude, float accuracyM) {
+        fixLat = latitude;
+        fixLon = longitude;
+        fixAccuracy = accuracyM >= 0 ? accuracyM : -1;
+    }
+
+    /**
+     * @param headingDeg Compass heading from true north, 0-360
+     * @param pitchDeg Device uptilt; NaN if not known yet
+     * @return False if the sample was dropped to hold the sampling rate
+     */
+    public boolean record(long timeMillis, float headingDeg, float pitchDeg) {
+        if (size > 0 && timeMillis - time[index(size - 1)] < MIN_INTERVAL_MS) return false;
+        add(timeMillis, headingDeg, pitchDeg, fixLat, fixLon, fixAccuracy);
+        return true;
+    }
+
+    void add(long timeMillis, float headingDeg, float pitchDeg, double latitude, double longitude, float accuracyM) {
+        int i = next;
+        time[i] = timeMillis;
+        heading[i] = headingDeg;
+        pitch[i] = pitchDeg;
+        lat[i] = latitude;
+        lon[i] = longitude;
+        accuracy[i] = accuracyM;
+        next = i + 1 == time.length ? 0 : i + 1;
+        if (size < time.length) {
+            size++;
+        } else {
+            dropped++;
+        }
+    }
+
+    /**
+     * Starts a new session; the current fix is kept
+     */
+    public void clear() {
+        next = 0;
+        size = 0;
+        dropped = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return time.length;
+    }
+
+    /**
+     * @return Samples overwritten because the session outgrew the buffer
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    // Accessors take the sample's position in the session, oldest first
+
+    public long time(int sample) {
+        return time[index(sample)];
+    }
+
+    public float heading(int sample) {
+        return heading[index(sample)];
+    }
+
+    public float pitch(int sample) {
+        return pitch[index(sample)];
+    }
+
+    public double latitude(int sample) {
+        return lat[index(sample)];
+    }
+
+    public double longitude(int sample) {
+        return lon[index(sample)];
+    }
+
+    /**
+     * @return Horizontal accuracy in metres; -1 if there was no fix yet or its accuracy is unknown
+     */
+    public float accuracy(int sample) {
+        return accuracy[index(sample)];
+    }
+
+    private int index(int sample) {
+        int i = next - size + sample;
+        return i < 0 ? i + time.length : i;
+    }
+}
@@ -0,0 +1,194 @@
+package com.wispfieldapp.aiming;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Packs a recorded session into a compact blob for upload: the "AIM1" magic followed
+ * by a deflated body holding the sample count, start time, and then one column per
+ * field. Each column is delta-encoded as zigzag varints after quantizing
+ * (milliseconds, 0.01°, 1e-7° of latitude/longitude, 0.1 m of accuracy), so a dish
+ * held still costs a few bits per sample.
+ */
+public class AimingSessionCodec {
+    public static final String FORMAT = "aim1+deflate";
+
+    private static final byte[] MAGIC = {'A', 'I', 'M', '1'};
+    private static final int CENTIDEGREES = 36000;
+    // Pitch is within ±9000 centidegrees, so this can't collide with a real value
+    private static final int NO_PITCH = Short.MAX_VALUE;
+
+    private AimingSessionCodec() {
+    }
+
+    public static byte[] encode(AimingRecorder recorder) {
+        int size = recorder.size();
+        // Worst case per sample: 10 bytes for each of the six columns
+        byte[] raw = new byte[24 + size * 60];
+        int pos = 0;
+        long start = size > 0 ? recorder.time(0) : 0;
+        pos = putVarint(raw, pos, size);
+        pos = putVarint(raw, pos, zigzag(start));
+        pos = putVarint(raw, pos, recorder.dropped());
+
+        long previous = start;
+        for (int i = 0; i < size; i++) {
+            long value = recorder.time(i);
+            pos = putVarint(raw, pos, zigzag(value - previous));
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(recorder.heading(i) * 100.0) % CENTIDEGREES;
+            if (value < 0) value += CENTIDEGREES;
+            long delta = value - previous;
+            // Crossing north is a small turn, not a 359° one
+            if (delta >= CENTIDEGREES / 2) delta -= CENTIDEGREES;
+            else if (delta < -CENTIDEGREES / 2) delta += CENTIDEGREES;
+            pos = putVarint(raw, pos, zigzag(delta));
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            float pitch = recorder.pitch(i);
+            long value = Float.isNaN(pitch) ? NO_PITCH : Math.round(pitch * 100.0);
+            pos = putVarint(raw, pos, zigzag(value - previous));
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(recorder.latitude(i) * 1e7);
+            pos = putVarint(raw, pos, zigzag(value - previous));
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            long value = Math.round(recorder.longitude(i) * 1e7);
+            pos = putVarint(raw, pos, zigzag(value - previous));
+            previous = value;
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            float accuracy = recorder.accuracy(i);
+            // 0 means no fix, so real values are shifted up by one
+            long value = accuracy < 0 ? 0 : Math.round(accuracy * 10.0) + 1;
+            pos = putVarint(raw, pos, zigzag(value - previous));
+            previous = value;
+        }
+
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw, 0, pos);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(pos / 4 + 64);
+            out.write(MAGIC, 0, MAGIC.length);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return A recorder sized to hold exactly the decoded session
+     */
+    public static AimingRecorder decode(byte[] blob) throws IOException {
+        if (blob.length < MAGIC.length) throw new IOException("Not an aiming session");
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (blob[i] != MAGIC[i]) throw new IOException("Not an aiming session");
+        }
+        byte[] raw = inflate(blob);
+        int[] pos = {0};
+        int size = (int) getVarint(raw, pos);
+        long start = unzigzag(getVarint(raw, pos));
+        long dropped = getVarint(raw, pos);
+
+        long[] time = new long[size];
+        long value = start;
+        for (int i = 0; i < size; i++) time[i] = value += unzigzag(getVarint(raw, pos));
+        float[] heading = new float[size];
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            value = Math.floorMod(value + unzigzag(getVarint(raw, pos)), CENTIDEGREES);
+            heading[i] = value / 100f;
+        }
+        float[] pitch = new float[size];
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            value += unzigzag(getVarint(raw, pos));
+            pitch[i] = value == NO_PITCH ? Float.NaN : value / 100f;
+        }
+        double[] lat = new double[size];
+        value = 0;
+        for (int i = 0; i < size; i++) lat[i] = (value += unzigzag(getVarint(raw, pos))) / 1e7;
+        double[] lon = new double[size];
+        value = 0;
+        for (int i = 0; i < size; i++) lon[i] = (value += unzigzag(getVarint(raw, pos))) / 1e7;
+
+        AimingRecorder recorder = new AimingRecorder(Math.max(1, size));
+        value = 0;
+        for (int i = 0; i < size; i++) {
+            value += unzigzag(getVarint(raw, pos));
+            float accuracy = value == 0 ? -1 : (value - 1) / 10f;
+            recorder.add(time[i], heading[i], pitch[i], lat[i], lon[i], accuracy);
+        }
+        recorder.setDropped(dropped);
+        return recorder;
+    }
+
+    private static byte[] inflate(byte[] blob) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(blob, MAGIC.length, blob.length - MAGIC.length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(blob.length * 4);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated aiming session");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt aiming session", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int putVarint(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long getVarint(byte[] in, int[] pos) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= in.length) throw new IOException("Truncated aiming session");
+            byte b = in[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Corrupt aiming session");
+    }
+}
@@ -0,0 +1,75 @@
+package com.wispfieldapp.aiming;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the geomagnetic model (on Android, GeomagneticField) on a coarse grid, so it
+ * is evaluated once per cell instead of on every fix. Within a 0.25° cell declination
+ * varies by about 0.1° at mid latitudes, and it drifts about 0.1° a year, so cells
+ * also span {@link #PERIOD_MS}. Each cell is evaluated at its centre.
+ */
+public class GeomagneticGrid {
+    public static final double CELL_DEG = 0.25;
+    public static final long PERIOD_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final int MAX_CELLS = 64;
+
+    public interface Model {
+        Cell compute(double latitude, double longitude, long timeMillis);
+    }
+
+    public static final class Cell {
+        /** East of true north is positive */
+        public final double declinationDeg;
+        public final double fieldMicroTesla;
+
+        public Cell(double declinationDeg, double fieldMicroTesla) {
+            this.declinationDeg = declinationDeg;
+            this.fieldMicroTesla = fieldMicroTesla;
+        }
+    }
+
+    private final Model model;
+    private final Map<Long, Cell> cells = new LinkedHashMap<Long, Cell>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Cell> eldest) {
+            return size() > MAX_CELLS;
+        }
+    };
+    private int computed;
+
+    public GeomagneticGrid(Model model) {
+        this.model = model;
+    }
+
+    public synchronized Cell lookup(double latitude, double longitude, long timeMillis) {
+        long latCell = (long) Math.floor(latitude / CELL_DEG);
+        long lonCell = (long) Math.floor(longitude / CELL_DEG);
+        long period = Math.floorDiv(timeMillis, PERIOD_MS);
+        // Cells are within ±360 of latitude and ±720 of longitude; periods are small positive numbers
+        long key = ((period << 11 | latCell + 1024) << 12) | lonCell + 2048;
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = model.compute((latCell + 0.5) * CELL_DEG, (lonCell + 0.5) * CELL_DEG, period * PERIOD_MS + PERIOD_MS / 2);
+            cells.put(key, cell);
+            computed++;
+        }
+        return cell;
+    }
+
+    /**
+     * @return How many times the model has been evaluated
+     */
+    public synchronized int getComputed() {
+        return computed;
+    }
+
+    /**
+     * @param declinationDeg East of true north is positive
+     * @return The heading relative to true north, 0-360
+     */
+    public static float toTrueNorth(float magneticDeg, double declinationDeg) {
+        float heading = (float) ((magneticDeg + declinationDeg) % 360);
+        return heading < 0 ? heading + 360 : heading;
+    }
+}
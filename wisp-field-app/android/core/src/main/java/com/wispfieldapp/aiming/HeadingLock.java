@@ -0,0 +1,136 @@
+package com.wispfieldapp.aiming;
+
+/**
+ * Decides when a dish is steadily on target from a sliding window of compass headings,
+ * so indicators don't flicker with magnetometer jitter. The window keeps running sums
+ * of the headings' sines and cosines, giving the circular mean and variance in O(1)
+ * per sample.
+ *
+ * Locks once the mean is within the tolerance and the variance below
+ * {@link #MAX_VARIANCE} continuously for {@link #HOLD_MS}; unlocks when the mean
+ * drifts past the wider release tolerance or the variance doubles.
+ */
+public class HeadingLock {
+    public static final long WINDOW_MS = 1000;
+    public static final long HOLD_MS = 750;
+    /** Circular variance of headings with a spread (circular standard deviation) of 3° */
+    public static final double MAX_VARIANCE = 1 - Math.exp(-0.5 * Math.pow(Math.toRadians(3), 2));
+    /** Released only this far outside the lock tolerance */
+    public static final double RELEASE_MARGIN_DEG = 2;
+
+    private static final int CAPACITY = 256;
+    // Running sums pick up rounding error; rebuild them from the window this often
+    private static final int RESUM_INTERVAL = 1 << 16;
+
+    private final double toleranceDeg;
+    private final long[] time = new long[CAPACITY];
+    private final double[] sin = new double[CAPACITY];
+    private final double[] cos = new double[CAPACITY];
+    private int head;
+    private int size;
+    private double sumSin;
+    private double sumCos;
+    private int sinceResum;
+
+    private double target = Double.NaN;
+    private long steadySince = -1;
+    private boolean locked;
+
+    public HeadingLock(double toleranceDeg) {
+        this.toleranceDeg = toleranceDeg;
+    }
+
+    /**
+     * The lock is re-evaluated against a moved target on the next sample, so small
+     * corrections (a new GPS fix) don't restart the hold
+     */
+    public void setTarget(double azimuthDeg) {
+        target = azimuthDeg;
+        if (Double.isNaN(azimuthDeg)) {
+            steadySince = -1;
+            locked = false;
+        }
+    }
+
+    public void clearTarget() {
+        setTarget(Double.NaN);
+    }
+
+    /**
+     * @return Whether the heading is locked on the target after this sample
+     */
+    public boolean update(long timeMillis, double headingDeg) {
+        while (size > 0 && (size == CAPACITY || timeMillis - time[head] > WINDOW_MS)) {
+            sumSin -= sin[head];
+            sumCos -= cos[head];
+            head = (head + 1) % CAPACITY;
+            size--;
+        }
+        double radians = Math.toRadians(headingDeg);
+        int tail = (head + size) % CAPACITY;
+        time[tail] = timeMillis;
+        sin[tail] = Math.sin(radians);
+        cos[tail] = Math.cos(radians);
+        sumSin += sin[tail];
+        sumCos += cos[tail];
+        size++;
+        if (++sinceResum == RESUM_INTERVAL) resum();
+
+        if (Double.isNaN(target)) return false;
+        double offset = Math.abs(offsetDeg());
+        double variance = circularVariance();
+        if (locked) {
+            locked = offset <= toleranceDeg + RELEASE_MARGIN_DEG && variance <= 2 * MAX_VARIANCE;
+            if (!locked) steadySince = -1;
+        } else if (offset <= toleranceDeg && variance <= MAX_VARIANCE) {
+            if (steadySince < 0) steadySince = timeMillis;
+            locked = timeMillis - steadySince >= HOLD_MS;
+        } else {
+            steadySince = -1;
+        }
+        return locked;
+    }
+
+    public boolean isLocked() {
+        return locked;
+    }
+
+    /**
+     * @return Circular mean of the window, 0-360; NaN when empty
+     */
+    public double meanDeg() {
+        if (size == 0) return Double.NaN;
+        double mean = Math.toDegrees(Math.atan2(sumSin, sumCos));
+        return mean < 0 ? mean + 360 : mean;
+    }
+
+    /**
+     * @return 1 - R, where R is the mean resultant length: 0 for identical headings, 1 for uniform
+     */
+    public double circularVariance() {
+        if (size == 0) return 1;
+        double resultant = Math.sqrt(sumSin * sumSin + sumCos * sumCos) / size;
+        return Math.max(0, 1 - resultant);
+    }
+
+    /**
+     * @return Signed mean heading minus target, -180 to 180; NaN without a target or samples
+     */
+    public double offsetDeg() {
+        double offset = meanDeg() - target;
+        if (offset > 180) offset -= 360;
+        if (offset < -180) offset += 360;
+        return offset;
+    }
+
+    private void resum() {
+        sinceResum = 0;
+        sumSin = 0;
+        sumCos = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % CAPACITY;
+            sumSin += sin[index];
+            sumCos += cos[index];
+        }
+    }
+}
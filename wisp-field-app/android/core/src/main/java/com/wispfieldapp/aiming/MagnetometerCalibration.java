@@ -0,0 +1,311 @@
+package com.wispfieldapp.aiming;
+
+import java.util.Arrays;
+
+/**
+ * Judges whether compass headings can be trusted, and removes any residual hard-iron
+ * offset (a magnet in the phone case, a steel mount) from magnetometer readings.
+ *
+ * The offset is the centre of a sphere fitted by least squares to a bounded ring of
+ * readings taken at different orientations: |m - b|^2 = r^2 is linear in (b, r^2 - |b|^2),
+ * so the fit keeps the 4x4 normal equations as running sums, adding each accepted
+ * reading and subtracting the one it evicts. A fit is only used once the readings
+ * spread along all three axes and fit the sphere closely.
+ *
+ * Interference (steel towers, trucks) shows up as a field magnitude that disagrees
+ * with the expected geomagnetic field at the site. Nothing is allocated per reading.
+ */
+public class MagnetometerCalibration {
+    /** Same values as SensorManager.SENSOR_STATUS_* */
+    public static final int ACCURACY_UNRELIABLE = 0;
+    public static final int ACCURACY_LOW = 1;
+    public static final int ACCURACY_MEDIUM = 2;
+    public static final int ACCURACY_HIGH = 3;
+
+    /** Anywhere on earth the field is between about 22 and 67 µT */
+    public static final double MIN_EARTH_FIELD_UT = 20;
+    public static final double MAX_EARTH_FIELD_UT = 70;
+    /** Magnitude off by more than this fraction of the expected field means interference */
+    public static final double ANOMALY_FRACTION = 0.15;
+    /** ...and it clears once back within this fraction */
+    public static final double CLEAR_FRACTION = 0.10;
+
+    private static final int CAPACITY = 64;
+    private static final int MIN_FIT_SAMPLES = 20;
+    // A reading joins the fit only this far from the last one, so holding still doesn't fill the ring
+    private static final double MIN_SPACING_UT = 6;
+    private static final double MIN_AXIS_SPREAD_UT = 8;
+    private static final double MAX_FIT_RMS_FRACTION = 0.05;
+    private static final double MAGNITUDE_SMOOTHING = 0.1;
+    private static final int REFIT_INTERVAL = 4;
+    private static final int RESUM_INTERVAL = 4096;
+
+    public enum Status {
+        OK("Compass OK", "Compass OK", false),
+        LOW_ACCURACY("⚠ Low accuracy", "⚠ Compass accuracy low: move the phone in a figure 8", false),
+        UNRELIABLE("⛔ Uncalibrated", "⛔ Compass uncalibrated: move the phone in a figure 8", true),
+        INTERFERENCE("⛔ Interference", "⛔ Magnetic interference: move away from steel and vehicles", true);
+
+        public final String shortLabel;
+        public final String label;
+        /** Headings can't be used for aiming while this status holds */
+        public final boolean blocking;
+
+        Status(String shortLabel, String label, boolean blocking) {
+            this.shortLabel = shortLabel;
+            this.label = label;
+            this.blocking = blocking;
+        }
+    }
+
+    private final double[] sampleX = new double[CAPACITY];
+    private final double[] sampleY = new double[CAPACITY];
+    private final double[] sampleZ = new double[CAPACITY];
+    private int head;
+    private int size;
+    private double lastX = Double.NaN;
+    private double lastY;
+    private double lastZ;
+
+    // Normal equations of rows a = (2x, 2y, 2z, 1) against |m|^2, upper triangle row-major
+    private final double[] normal = new double[16];
+    private final double[] rhs = new double[4];
+    private double sumSquaredRhs;
+    private final double[] work = new double[20];
+    private final double[] solution = new double[4];
+    private int sinceFit;
+    private int sinceResum;
+
+    private boolean calibrated;
+    private double offsetX;
+    private double offsetY;
+    private double offsetZ;
+    private double fitRadius = Double.NaN;
+
+    private int accuracy = ACCURACY_HIGH;
+    private double expectedField = Double.NaN;
+    private double magnitude = Double.NaN;
+    private boolean anomaly;
+    private Status status = Status.OK;
+
+    /**
+     * From SensorEventListener.onAccuracyChanged for the magnetometer
+     */
+    public void setAccuracy(int accuracy) {
+        this.accuracy = accuracy;
+        status = evaluate();
+    }
+
+    /**
+     * @param microTesla Total field strength at the site (GeomagneticField); NaN if unknown
+     */
+    public void setExpectedField(double microTesla) {
+        expectedField = microTesla;
+    }
+
+    public double getExpectedField() {
+        return expectedField;
+    }
+
+    /**
+     * Adds a reading and writes it, minus the hard-iron offset once one is known, to {@code corrected}
+     *
+     * @param reading Magnetometer values in µT (x, y, z)
+     * @param corrected Receives the corrected reading; may be the same array
+     */
+    public Status update(float[] reading, float[] corrected) {
+        double x = reading[0];
+        double y = reading[1];
+        double z = reading[2];
+        if (Double.isNaN(lastX) || distance(x - lastX, y - lastY, z - lastZ) >= MIN_SPACING_UT) {
+            addSample(x, y, z);
+            lastX = x;
+            lastY = y;
+            lastZ = z;
+            if (++sinceFit >= REFIT_INTERVAL) {
+                sinceFit = 0;
+                fit();
+            }
+        }
+
+        if (calibrated) {
+            x -= offsetX;
+            y -= offsetY;
+            z -= offsetZ;
+        }
+        corrected[0] = (float) x;
+        corrected[1] = (float) y;
+        corrected[2] = (float) z;
+
+        double field = distance(x, y, z);
+        magnitude = Double.isNaN(magnitude) ? field : magnitude + MAGNITUDE_SMOOTHING * (field - magnitude);
+        status = evaluate();
+        return status;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Smoothed magnitude of the corrected field in µT; NaN before the first reading
+     */
+    public double getFieldMicroTesla() {
+        return magnitude;
+    }
+
+    public boolean isCalibrated() {
+        return calibrated;
+    }
+
+    /**
+     * @return Length of the hard-iron offset in µT; 0 until calibrated
+     */
+    public double getOffsetMicroTesla() {
+        return calibrated ? distance(offsetX, offsetY, offsetZ) : 0;
+    }
+
+    private Status evaluate() {
+        double expected = !Double.isNaN(expectedField) ? expectedField : fitRadius;
+        if (!Double.isNaN(magnitude)) {
+            if (magnitude < MIN_EARTH_FIELD_UT || magnitude > MAX_EARTH_FIELD_UT) {
+                anomaly = true;
+            } else if (!Double.isNaN(expected)) {
+                double deviation = Math.abs(magnitude - expected) / expected;
+                anomaly = anomaly ? deviation > CLEAR_FRACTION : deviation > ANOMALY_FRACTION;
+            } else {
+                anomaly = false;
+            }
+        }
+        if (anomaly) return Status.INTERFERENCE;
+        if (accuracy <= ACCURACY_UNRELIABLE) return Status.UNRELIABLE;
+        if (accuracy == ACCURACY_LOW) return Status.LOW_ACCURACY;
+        return Status.OK;
+    }
+
+    private void addSample(double x, double y, double z) {
+        if (size == CAPACITY) {
+            accumulate(sampleX[head], sampleY[head], sampleZ[head], -1);
+            head = (head + 1) % CAPACITY;
+            size--;
+        }
+        int tail = (head + size) % CAPACITY;
+        sampleX[tail] = x;
+        sampleY[tail] = y;
+        sampleZ[tail] = z;
+        size++;
+        accumulate(x, y, z, 1);
+        if (++sinceResum == RESUM_INTERVAL) {
+            // Adding and subtracting leaves rounding error in the sums; rebuild them from the ring
+            sinceResum = 0;
+            Arrays.fill(normal, 0);
+            Arrays.fill(rhs, 0);
+            sumSquaredRhs = 0;
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % CAPACITY;
+                accumulate(sampleX[index], sampleY[index], sampleZ[index], 1);
+            }
+        }
+    }
+
+    private void accumulate(double x, double y, double z, double sign) {
+        double a0 = 2 * x;
+        double a1 = 2 * y;
+        double a2 = 2 * z;
+        double b = x * x + y * y + z * z;
+        normal[0] += sign * a0 * a0;
+        normal[1] += sign * a0 * a1;
+        normal[2] += sign * a0 * a2;
+        normal[3] += sign * a0;
+        normal[5] += sign * a1 * a1;
+        normal[6] += sign * a1 * a2;
+        normal[7] += sign * a1;
+        normal[10] += sign * a2 * a2;
+        normal[11] += sign * a2;
+        normal[15] += sign;
+        rhs[0] += sign * a0 * b;
+        rhs[1] += sign * a1 * b;
+        rhs[2] += sign * a2 * b;
+        rhs[3] += sign * b;
+        sumSquaredRhs += sign * b * b;
+    }
+
+    private void fit() {
+        if (size < MIN_FIT_SAMPLES) return;
+        double n = normal[15];
+        // Per-axis spread from the sums already in the normal matrix; a phone turned only
+        // about one axis leaves the sphere undetermined along it
+        for (int axis = 0; axis < 3; axis++) {
+            double mean = normal[axis * 4 + 3] / (2 * n);
+            double variance = normal[axis * 5] / (4 * n) - mean * mean;
+            if (variance < MIN_AXIS_SPREAD_UT * MIN_AXIS_SPREAD_UT) return;
+        }
+        if (!solve()) return;
+
+        double bx = solution[0];
+        double by = solution[1];
+        double bz = solution[2];
+        double radiusSquared = solution[3] + bx * bx + by * by + bz * bz;
+        if (radiusSquared <= 0) return;
+        double radius = Math.sqrt(radiusSquared);
+        if (radius < MIN_EARTH_FIELD_UT || radius > MAX_EARTH_FIELD_UT) return;
+
+        // Sum of squared residuals of the linear fit: |b|^2 - 2 θ·Aᵀb + θ·AᵀA·θ
+        double residual = sumSquaredRhs;
+        for (int i = 0; i < 4; i++) {
+            residual -= 2 * solution[i] * rhs[i];
+            for (int j = 0; j < 4; j++) residual += solution[i] * normalAt(i, j) * solution[j];
+        }
+        // Algebraic residuals are about 2r times the distance from the sphere
+        double rms = Math.sqrt(Math.max(0, residual) / n) / (2 * radius);
+        if (rms > MAX_FIT_RMS_FRACTION * radius) return;
+
+        offsetX = bx;
+        offsetY = by;
+        offsetZ = bz;
+        fitRadius = radius;
+        calibrated = true;
+    }
+
+    private double normalAt(int i, int j) {
+        return i <= j ? normal[i * 4 + j] : normal[j * 4 + i];
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting on the 4x5 augmented system in {@link #work}
+     */
+    private boolean solve() {
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) work[i * 5 + j] = normalAt(i, j);
+            work[i * 5 + 4] = rhs[i];
+        }
+        for (int col = 0; col < 4; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < 4; row++) {
+                if (Math.abs(work[row * 5 + col]) > Math.abs(work[pivot * 5 + col])) pivot = row;
+            }
+            if (Math.abs(work[pivot * 5 + col]) < 1e-9 * Math.abs(normalAt(col, col)) + 1e-12) return false;
+            if (pivot != col) {
+                for (int k = 0; k < 5; k++) {
+                    double swap = work[col * 5 + k];
+                    work[col * 5 + k] = work[pivot * 5 + k];
+                    work[pivot * 5 + k] = swap;
+                }
+            }
+            for (int row = col + 1; row < 4; row++) {
+                double factor = work[row * 5 + col] / work[col * 5 + col];
+                for (int k = col; k < 5; k++) work[row * 5 + k] -= factor * work[col * 5 + k];
+            }
+        }
+        for (int row = 3; row >= 0; row--) {
+            double value = work[row * 5 + 4];
+            for (int k = row + 1; k < 4; k++) value -= work[row * 5 + k] * solution[k];
+            solution[row] = value / work[row * 5 + row];
+        }
+        return true;
+    }
+
+    private static double distance(double x, double y, double z) {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+}
@@ -0,0 +1,210 @@
+package com.wispfieldapp.geofence;
+
+import com.wispfieldapp.topology.TopologySnapshot;
+import java.util.Arrays;
+
+/**
+ * Tells when the tech arrives at or leaves a site. Sites are bucketed once into a
+ * grid of {@link #CELL_DEG} cells; a fix only tests the sites in the cells around
+ * it, and that candidate list is rebuilt only when the fix moves into another cell,
+ * so an update costs the same however many sites the tenant has.
+ *
+ * A site is entered within its radius and left only beyond the radius plus
+ * {@link #EXIT_MARGIN_M}, so GPS jitter at the edge doesn't flap. Fixes worse than
+ * {@link #MAX_ACCURACY_M} are ignored. Not thread-safe; feed it from one thread.
+ */
+public class GeofenceEngine {
+    public static final double DEFAULT_RADIUS_M = 150;
+    public static final double EXIT_MARGIN_M = 50;
+    public static final double MAX_ACCURACY_M = 100;
+    static final double CELL_DEG = 0.01;
+    // Same sphere as LocationUtils.calculateDistance
+    private static final double METERS_PER_DEG = 6371000 * Math.PI / 180;
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    public interface Listener {
+        void onEnter(int site, double distanceM);
+
+        void onExit(int site);
+    }
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double radiusM;
+    private final double reachM;
+    // Sites ordered by cell: the sites of cellKeys[k] are sorted[cellStart[k]] until sorted[cellStart[k + 1]]
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] sorted;
+
+    private long currentCell = NO_CELL;
+    private int[] candidates = new int[16];
+    private int candidateCount;
+    private int[] inside = new int[4];
+    private int insideCount;
+    // Anything outside the candidate cells is at least this far from the last fix
+    private double outsideBoundM;
+    private double nearestEdgeM = Double.POSITIVE_INFINITY;
+
+    /**
+     * @param latitudes Parallel to longitudes, indexed by site; NaN for sites without coordinates
+     */
+    public GeofenceEngine(double[] latitudes, double[] longitudes, double radiusM) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.radiusM = radiusM;
+        this.reachM = radiusM + EXIT_MARGIN_M;
+
+        int located = 0;
+        long[] keyed = new long[latitudes.length];
+        int[] order = new int[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            if (Double.isNaN(latitudes[i]) || Double.isNaN(longitudes[i])) continue;
+            keyed[located] = cellKey(latCell(latitudes[i]), lonCell(longitudes[i]));
+            order[located] = i;
+            located++;
+        }
+        Integer[] byCell = new Integer[located];
+        for (int i = 0; i < located; i++) byCell[i] = i;
+        Arrays.sort(byCell, (a, b) -> Long.compare(keyed[a], keyed[b]));
+
+        sorted = new int[located];
+        long[] keys = new long[located];
+        int[] starts = new int[located + 1];
+        int cells = 0;
+        for (int i = 0; i < located; i++) {
+            long key = keyed[byCell[i]];
+            if (cells == 0 || keys[cells - 1] != key) {
+                keys[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+            sorted[i] = order[byCell[i]];
+        }
+        starts[cells] = located;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    /**
+     * Fences every site in the snapshot that has coordinates; site numbers are snapshot indices
+     */
+    public static GeofenceEngine from(TopologySnapshot snapshot, double radiusM) {
+        double[] latitudes = new double[snapshot.siteCount()];
+        double[] longitudes = new double[snapshot.siteCount()];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = snapshot.latitude(i);
+            longitudes[i] = snapshot.longitude(i);
+        }
+        return new GeofenceEngine(latitudes, longitudes, radiusM);
+    }
+
+    /**
+     * Reports exits, then entries, caused by a fix
+     *
+     * @param accuracyM Horizontal accuracy, 0 if unknown
+     * @return False if the fix was too inaccurate to use
+     */
+    public boolean update(double latitude, double longitude, double accuracyM, Listener listener) {
+        if (!(accuracyM <= MAX_ACCURACY_M)) return false;
+        long latCell = latCell(latitude);
+        long lonCell = lonCell(longitude);
+        long cell = cellKey(latCell, lonCell);
+        if (cell != currentCell) {
+            currentCell = cell;
+            collectCandidates(latCell, lonCell);
+        }
+        double cosLat = Math.cos(Math.toRadians(latitude));
+
+        for (int i = insideCount - 1; i >= 0; i--) {
+            int site = inside[i];
+            if (distance(latitude, longitude, cosLat, site) > reachM) {
+                inside[i] = inside[--insideCount];
+                listener.onExit(site);
+            }
+        }
+
+        double nearest = outsideBoundM - radiusM;
+        for (int i = 0; i < candidateCount; i++) {
+            int site = candidates[i];
+            if (isInside(site)) continue;
+            double distance = distance(latitude, longitude, cosLat, site);
+            if (distance <= radiusM) {
+                if (insideCount == inside.length) inside = Arrays.copyOf(inside, insideCount * 2);
+                inside[insideCount++] = site;
+                listener.onEnter(site, distance);
+            } else {
+                nearest = Math.min(nearest, distance - radiusM);
+            }
+        }
+        nearestEdgeM = Math.max(0, nearest);
+        return true;
+    }
+
+    /**
+     * @return Metres from the last fix to the nearest fence it is not inside, a lower
+     *         bound when no site is close; infinite before the first fix
+     */
+    public double nearestEdgeM() {
+        return nearestEdgeM;
+    }
+
+    public boolean isInside(int site) {
+        for (int i = 0; i < insideCount; i++) {
+            if (inside[i] == site) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return How many sites have coordinates and are fenced
+     */
+    public int size() {
+        return sorted.length;
+    }
+
+    private void collectCandidates(long latCell, long lonCell) {
+        double cellM = CELL_DEG * METERS_PER_DEG;
+        long latSpan = (long) Math.ceil(reachM / cellM);
+        // Longitude cells narrow toward the poles; size the span for the poleward row
+        double poleward = Math.max(Math.abs(latCell - latSpan), Math.abs(latCell + latSpan + 1)) * CELL_DEG;
+        double cos = Math.max(Math.cos(Math.toRadians(Math.min(poleward, 90))), 0.01);
+        long lonSpan = (long) Math.ceil(reachM / (cellM * cos));
+
+        candidateCount = 0;
+        for (long row = latCell - latSpan; row <= latCell + latSpan; row++) {
+            for (long col = lonCell - lonSpan; col <= lonCell + lonSpan; col++) {
+                int k = Arrays.binarySearch(cellKeys, cellKey(row, col));
+                if (k < 0) continue;
+                for (int j = cellStart[k]; j < cellStart[k + 1]; j++) {
+                    if (candidateCount == candidates.length) candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    candidates[candidateCount++] = sorted[j];
+                }
+            }
+        }
+        // The candidate block extends latSpan cells beyond the fix's cell, lonSpan cells of
+        // at least cellM * cos wide; sites beyond it are at least that far from any point inside
+        outsideBoundM = Math.min(latSpan * cellM, lonSpan * cellM * cos);
+    }
+
+    /**
+     * Equirectangular distance; accurate to well under a metre over a few kilometres
+     */
+    private double distance(double latitude, double longitude, double cosLat, int site) {
+        double dy = (latitudes[site] - latitude) * METERS_PER_DEG;
+        double dx = (longitudes[site] - longitude) * METERS_PER_DEG * cosLat;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static long latCell(double latitude) {
+        return (long) Math.floor(latitude / CELL_DEG);
+    }
+
+    private static long lonCell(double longitude) {
+        return (long) Math.floor(longitude / CELL_DEG);
+    }
+
+    private static long cellKey(long latCell, long lonCell) {
+        return latCell << 32 | (lonCell & 0xffffffffL);
+    }
+}
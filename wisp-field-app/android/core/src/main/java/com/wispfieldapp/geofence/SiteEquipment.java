@@ -0,0 +1,30 @@
+package com.wispfieldapp.geofence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks out the equipment installed at one site. Servers that ignore the siteId
+ * query parameter return the whole tenant's list, so the site is checked here too;
+ * siteId is either the plain id or the populated site ({_id, name, type}).
+ */
+public final class SiteEquipment {
+    private SiteEquipment() {
+    }
+
+    public static List<Map<String, Object>> at(List<Map<String, Object>> equipment, String siteId) {
+        List<Map<String, Object>> matches = new ArrayList<>();
+        if (equipment == null) return matches;
+        for (Map<String, Object> item : equipment) {
+            if (siteId.equals(siteIdOf(item))) matches.add(item);
+        }
+        return matches;
+    }
+
+    static String siteIdOf(Map<String, Object> item) {
+        Object site = item.get("siteId");
+        if (site instanceof Map) site = ((Map<?, ?>) site).get("_id");
+        return site != null ? site.toString() : null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.wispfieldapp.geofence;
+
+import com.wispfieldapp.models.WorkOrder;
+import com.wispfieldapp.utils.LocationUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks out the open work orders that concern one site: those listing it in
+ * affectedSites, those whose location names it, and those whose location GPS
+ * coordinates fall within the site's fence
+ */
+public final class SiteTickets {
+    private SiteTickets() {
+    }
+
+    public static List<WorkOrder> openAt(List<WorkOrder> orders, String siteId,
+                                         double latitude, double longitude, double radiusM) {
+        List<WorkOrder> matches = new ArrayList<>();
+        if (orders == null) return matches;
+        for (WorkOrder order : orders) {
+            if (order.statusCode().isOpen() && concerns(order, siteId, latitude, longitude, radiusM)) {
+                matches.add(order);
+            }
+        }
+        return matches;
+    }
+
+    static boolean concerns(WorkOrder order, String siteId, double latitude, double longitude, double radiusM) {
+        if (order.affectedSites != null) {
+            for (Map<String, Object> site : order.affectedSites) {
+                if (siteId.equals(String.valueOf(site.get("siteId")))) return true;
+            }
+        }
+        if (order.location == null) return false;
+        if (siteId.equals(String.valueOf(order.location.get("siteId")))) return true;
+        Object gps = order.location.get("gpsCoordinates");
+        if (!(gps instanceof Map) || Double.isNaN(latitude)) return false;
+        Object lat = ((Map<?, ?>) gps).get("latitude");
+        Object lon = ((Map<?, ?>) gps).get("longitude");
+        return lat instanceof Number && lon instanceof Number
+            && LocationUtils.calculateDistance(latitude, longitude, ((Number) lat).doubleValue(),
+                ((Number) lon).doubleValue()) <= radiusM;
+    }
+}
@@ -0,0 +1,88 @@
+package com.wispfieldapp.link;
+
+/**
+ * Smooths GPS altitude fixes with a one-dimensional Kalman filter. Each fix is weighted
+ * by its reported vertical accuracy, and the estimate is allowed to drift by
+ * {@link #DRIFT_M_PER_S} per second between fixes (the installer climbing a roof).
+ *
+ * GPS altitude is typically good to 10-20 m; {@link #fuse} combines the estimate
+ * with an independent one (DEM ground plus mount height) weighted by variance.
+ * An error shared by every fix (the geoid offset when only ellipsoid height is
+ * known) doesn't average out, so the reported variance never drops below it.
+ */
+public class AltitudeFilter {
+    static final double DRIFT_M_PER_S = 0.5;
+    static final double DEFAULT_ACCURACY_M = 15;
+    // GPS altitude errors are correlated from fix to fix; averaging does not remove the bias
+    static final double MIN_SIGMA_M = 5;
+
+    private double estimate = Double.NaN;
+    private double variance = Double.POSITIVE_INFINITY;
+    private double biasVariance;
+    private long lastMillis;
+
+    /**
+     * @param accuracyM One-sigma vertical accuracy of the fix; 0 or NaN if unknown
+     * @param biasSigmaM One-sigma error common to every fix, not included in accuracyM; 0 if none
+     */
+    public synchronized void update(double altitudeM, double accuracyM, double biasSigmaM, long timeMillis) {
+        if (Double.isNaN(altitudeM)) return;
+        // Shared by estimate and fix, so it doesn't change the gain, only what the estimate is worth
+        biasVariance = biasSigmaM > 0 ? square(biasSigmaM) : 0;
+        double measurementVariance = square(accuracyM > 0 ? accuracyM : DEFAULT_ACCURACY_M);
+        if (Double.isNaN(estimate)) {
+            estimate = altitudeM;
+            variance = measurementVariance;
+        } else {
+            double seconds = Math.max(0, (timeMillis - lastMillis) / 1000.0);
+            variance += square(DRIFT_M_PER_S) * seconds;
+            double gain = variance / (variance + measurementVariance);
+            estimate += gain * (altitudeM - estimate);
+            variance = Math.max(variance * (1 - gain), square(MIN_SIGMA_M));
+        }
+        lastMillis = timeMillis;
+    }
+
+    public synchronized void reset() {
+        estimate = Double.NaN;
+        variance = Double.POSITIVE_INFINITY;
+        biasVariance = 0;
+    }
+
+    /**
+     * @return Filtered altitude above mean sea level, or NaN before the first fix
+     */
+    public synchronized double getEstimate() {
+        return estimate;
+    }
+
+    /**
+     * @return One-sigma uncertainty of the estimate
+     */
+    public synchronized double getSigma() {
+        return Math.sqrt(totalVariance());
+    }
+
+    /**
+     * Inverse-variance combination of the filtered altitude with another estimate;
+     * either may be NaN, in which case the other is returned
+     */
+    public synchronized double fuse(double otherM, double otherSigmaM) {
+        if (Double.isNaN(otherM)) return estimate;
+        if (Double.isNaN(estimate)) return otherM;
+        double otherVariance = square(otherSigmaM);
+        double total = totalVariance();
+        return (estimate * otherVariance + otherM * total) / (total + otherVariance);
+    }
+
+    /**
+     * Filter variance floored at the bias: max(MIN_SIGMA², bias²) once fixes have converged
+     */
+    private double totalVariance() {
+        return Math.max(variance, biasVariance);
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.wispfieldapp.link;
+
+import com.wispfieldapp.terrain.LineOfSight;
+
+/**
+ * Vertical aiming angles between two antennas. Over link distances the earth drops
+ * away under a straight ray by d^2 / 2kR, so both ends aim slightly lower than the
+ * height difference alone suggests: the CPE's uptilt and the sector's downtilt are
+ * not simply opposite.
+ */
+public final class ElevationAngle {
+    private ElevationAngle() {
+    }
+
+    /**
+     * Elevation of the ray from one antenna to another, degrees above the local horizontal
+     *
+     * @param fromAmslM Height of the antenna aiming, above mean sea level
+     * @param toAmslM Height of the antenna aimed at
+     * @param k Effective earth radius factor ({@link LineOfSight#STANDARD_K} for radio)
+     */
+    public static double elevationDeg(double distanceM, double fromAmslM, double toAmslM, double k) {
+        if (distanceM <= 0) return 0;
+        double slope = (toAmslM - fromAmslM) / distanceM - distanceM / (2 * k * LineOfSight.EARTH_RADIUS_M);
+        return Math.toDegrees(Math.atan(slope));
+    }
+
+    /**
+     * @return Uptilt for the CPE to point at the sector (negative means downtilt)
+     */
+    public static double cpeUptiltDeg(double distanceM, double cpeAmslM, double sectorAmslM) {
+        return elevationDeg(distanceM, cpeAmslM, sectorAmslM, LineOfSight.STANDARD_K);
+    }
+
+    /**
+     * @return Downtilt for the sector's boresight to hit the CPE (negative means uptilt)
+     */
+    public static double sectorDowntiltDeg(double distanceM, double cpeAmslM, double sectorAmslM) {
+        return -elevationDeg(distanceM, sectorAmslM, cpeAmslM, LineOfSight.STANDARD_K);
+    }
+
+    /**
+     * Tilt of the device's long axis above the horizontal, from the accelerometer
+     * (gravity) alone: positive when the top edge is raised. Matches the pitch of
+     * SensorManager.getOrientation with the sign flipped.
+     */
+    public static double deviceUptiltDeg(float x, float y, float z) {
+        double g = Math.sqrt(x * x + y * y + z * z);
+        if (g == 0) return Double.NaN;
+        return Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, y / g))));
+    }
+}
@@ -0,0 +1,101 @@
+package com.wispfieldapp.link;
+
+import com.wispfieldapp.terrain.LineOfSight;
+import com.wispfieldapp.utils.LocationUtils;
+
+/**
+ * Expected downlink level at a CPE position. Everything that depends on where the
+ * CPE stands is worked out once; only the CPE's own pointing loss changes with its
+ * heading, so {@link #rssiDbm(double)} is cheap enough to call on every compass update.
+ *
+ * Antenna patterns use the parabolic main-lobe approximation of 3GPP TR 36.814:
+ * 12 (off-axis / beamwidth)^2 dB, capped at the front-to-back ratio. SINR has no
+ * interference term, so it is the thermal SNR.
+ */
+public class LinkBudget {
+    public static final double DEFAULT_CPE_GAIN_DBI = 23;
+    public static final double DEFAULT_CPE_BEAMWIDTH_DEG = 12;
+    public static final double DEFAULT_CPE_HEIGHT_M = 6;
+    private static final double FRONT_TO_BACK_DB = 25;
+    private static final double NOISE_FIGURE_DB = 6;
+
+    public final PathLossModel model;
+    public final double distanceM;
+    /** Bearing from the CPE to the tower */
+    public final double bearingDeg;
+    public final double pathLossDb;
+    /** Loss from the CPE sitting off the sector's boresight */
+    public final double sectorPatternLossDb;
+    /** RSSI with the CPE pointed straight at the tower */
+    public final double aimedRssiDbm;
+    public final double noiseFloorDbm;
+    public final double cpeBeamwidthDeg;
+
+    private LinkBudget(PathLossModel model, double distanceM, double bearingDeg, double pathLossDb,
+                       double sectorPatternLossDb, double aimedRssiDbm, double noiseFloorDbm, double cpeBeamwidthDeg) {
+        this.model = model;
+        this.distanceM = distanceM;
+        this.bearingDeg = bearingDeg;
+        this.pathLossDb = pathLossDb;
+        this.sectorPatternLossDb = sectorPatternLossDb;
+        this.aimedRssiDbm = aimedRssiDbm;
+        this.noiseFloorDbm = noiseFloorDbm;
+        this.cpeBeamwidthDeg = cpeBeamwidthDeg;
+    }
+
+    /**
+     * @param terrain Line-of-sight check of this path for {@link PathLossModel#TERRAIN}; may be null
+     */
+    public static LinkBudget estimate(SectorRadio sector, double towerLat, double towerLon,
+                                      double cpeLat, double cpeLon, double cpeGainDbi, double cpeBeamwidthDeg,
+                                      double cpeHeightM, PathLossModel model, LineOfSight.Result terrain) {
+        double distance = LocationUtils.calculateDistance(cpeLat, cpeLon, towerLat, towerLon);
+        double bearing = LocationUtils.calculateAzimuth(cpeLat, cpeLon, towerLat, towerLon);
+        double towerToCpe = LocationUtils.calculateAzimuth(towerLat, towerLon, cpeLat, cpeLon);
+        double sectorLoss = Double.isNaN(sector.azimuth)
+            ? 0
+            : patternLossDb(angleBetween(towerToCpe, sector.azimuth), sector.beamwidthDeg);
+        double pathLoss = model.lossDb(distance, sector.frequencyMHz, sector.heightM, cpeHeightM, terrain);
+        double aimed = sector.txPowerDbm + sector.gainDbi - sectorLoss - pathLoss + cpeGainDbi;
+        return new LinkBudget(model, distance, bearing, pathLoss, sectorLoss, aimed,
+            noiseFloorDbm(sector.channelWidthMHz), cpeBeamwidthDeg);
+    }
+
+    /**
+     * @param headingDeg Where the CPE is pointing
+     */
+    public double rssiDbm(double headingDeg) {
+        return aimedRssiDbm - patternLossDb(angleBetween(headingDeg, bearingDeg), cpeBeamwidthDeg);
+    }
+
+    public double sinrDb(double headingDeg) {
+        return rssiDbm(headingDeg) - noiseFloorDbm;
+    }
+
+    public double aimedSinrDb() {
+        return aimedRssiDbm - noiseFloorDbm;
+    }
+
+    /**
+     * @return Attenuation of a directional antenna at an angle off its boresight
+     */
+    public static double patternLossDb(double offAxisDeg, double beamwidthDeg) {
+        double ratio = offAxisDeg / beamwidthDeg;
+        return Math.min(12 * ratio * ratio, FRONT_TO_BACK_DB);
+    }
+
+    /**
+     * Thermal noise over the channel plus the receiver noise figure
+     */
+    public static double noiseFloorDbm(double channelWidthMHz) {
+        return -174 + 10 * Math.log10(channelWidthMHz * 1e6) + NOISE_FIGURE_DB;
+    }
+
+    /**
+     * @return Absolute difference between two bearings, 0-180
+     */
+    static double angleBetween(double a, double b) {
+        double diff = Math.abs(a - b) % 360;
+        return diff > 180 ? 360 - diff : diff;
+    }
+}
@@ -0,0 +1,105 @@
+package com.wispfieldapp.link;
+
+import com.wispfieldapp.terrain.LineOfSight;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Link budgets per (sector, tower, position cell, model), so GPS jitter and compass updates
+ * reuse the same estimate. Cells are about 30 m; the budget hardly changes inside one.
+ *
+ * A terrain estimate made without a line-of-sight result is returned but not kept,
+ * so the one made when the result arrives replaces it.
+ */
+public class LinkBudgetCache {
+    private static final double CELL_DEGREES = 0.0003;
+
+    private final Map<Key, LinkBudget> budgets;
+    private long hits;
+    private long misses;
+
+    private static final class Key {
+        final String sectorId;
+        final long towerLat;
+        final long towerLon;
+        final long cellLat;
+        final long cellLon;
+        final PathLossModel model;
+
+        Key(String sectorId, long towerLat, long towerLon, long cellLat, long cellLon, PathLossModel model) {
+            this.sectorId = sectorId;
+            this.towerLat = towerLat;
+            this.towerLon = towerLon;
+            this.cellLat = cellLat;
+            this.cellLon = cellLon;
+            this.model = model;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return towerLat == other.towerLat && towerLon == other.towerLon
+                && cellLat == other.cellLat && cellLon == other.cellLon
+                && model == other.model && Objects.equals(sectorId, other.sectorId);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = sectorId != null ? sectorId.hashCode() : 0;
+            hash = 31 * hash + Long.hashCode(towerLat);
+            hash = 31 * hash + Long.hashCode(towerLon);
+            hash = 31 * hash + Long.hashCode(cellLat);
+            hash = 31 * hash + Long.hashCode(cellLon);
+            return 31 * hash + (model != null ? model.ordinal() : -1);
+        }
+    }
+
+    public LinkBudgetCache(int maxEntries) {
+        budgets = new LinkedHashMap<Key, LinkBudget>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LinkBudget> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param terrain Line-of-sight check from this cell to the tower; may be null
+     */
+    public synchronized LinkBudget get(SectorRadio sector, double towerLat, double towerLon,
+                                       double cpeLat, double cpeLon, PathLossModel model, LineOfSight.Result terrain) {
+        Key key = new Key(sector.id, cell(towerLat), cell(towerLon), cell(cpeLat), cell(cpeLon), model);
+        LinkBudget budget = budgets.get(key);
+        if (budget != null) {
+            hits++;
+            return budget;
+        }
+        misses++;
+        budget = LinkBudget.estimate(sector, towerLat, towerLon, cpeLat, cpeLon,
+            LinkBudget.DEFAULT_CPE_GAIN_DBI, LinkBudget.DEFAULT_CPE_BEAMWIDTH_DEG, LinkBudget.DEFAULT_CPE_HEIGHT_M,
+            model, terrain);
+        if (model != PathLossModel.TERRAIN || terrain != null) budgets.put(key, budget);
+        return budget;
+    }
+
+    /**
+     * Position cell a coordinate falls in; budgets are shared by everything in one cell
+     */
+    public static long cell(double degrees) {
+        return Math.round(degrees / CELL_DEGREES);
+    }
+
+    public synchronized void clear() {
+        budgets.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
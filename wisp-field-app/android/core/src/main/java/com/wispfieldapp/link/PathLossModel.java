@@ -0,0 +1,68 @@
+package com.wispfieldapp.link;
+
+import com.wispfieldapp.terrain.LineOfSight;
+
+/**
+ * Median path loss between the sector and the CPE
+ */
+public enum PathLossModel {
+    /** Friis free-space loss; the best case for a clear path */
+    FREE_SPACE("Free space"),
+    /**
+     * COST-231 Hata for suburban terrain. Its fitted range is 1.5-2 GHz, 1-20 km and
+     * 30-200 m base heights, so elsewhere it is an extrapolation; it is never allowed
+     * below free space.
+     */
+    COST231_HATA("COST-231 Hata"),
+    /**
+     * Free space plus single knife-edge diffraction loss at the worst point of the
+     * terrain profile (ITU-R P.526). Falls back to free space without elevation data.
+     */
+    TERRAIN("Terrain");
+
+    public final String label;
+
+    PathLossModel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @param terrain Line-of-sight check of this path, used by {@link #TERRAIN}; may be null
+     */
+    public double lossDb(double distanceM, double frequencyMHz, double sectorHeightM, double cpeHeightM,
+                         LineOfSight.Result terrain) {
+        double freeSpace = freeSpaceDb(distanceM, frequencyMHz);
+        switch (this) {
+            case COST231_HATA:
+                return Math.max(freeSpace, cost231HataDb(distanceM, frequencyMHz, sectorHeightM, cpeHeightM));
+            case TERRAIN:
+                return freeSpace + (terrain != null ? diffractionDb(terrain) : 0);
+            default:
+                return freeSpace;
+        }
+    }
+
+    static double freeSpaceDb(double distanceM, double frequencyMHz) {
+        double km = Math.max(distanceM, 1) / 1000;
+        return 32.44 + 20 * Math.log10(km) + 20 * Math.log10(frequencyMHz);
+    }
+
+    static double cost231HataDb(double distanceM, double frequencyMHz, double sectorHeightM, double cpeHeightM) {
+        double km = Math.max(distanceM, 100) / 1000;
+        double logF = Math.log10(frequencyMHz);
+        double logHb = Math.log10(Math.max(sectorHeightM, 1));
+        double mobileCorrection = (1.1 * logF - 0.7) * cpeHeightM - (1.56 * logF - 0.8);
+        return 46.3 + 33.9 * logF - 13.82 * logHb - mobileCorrection + (44.9 - 6.55 * logHb) * Math.log10(km);
+    }
+
+    /**
+     * Knife-edge loss J(v) for the worst obstruction; v = -sqrt(2) times the clearance
+     * as a fraction of the first Fresnel radius
+     */
+    static double diffractionDb(LineOfSight.Result terrain) {
+        if (terrain.verdict == LineOfSight.Verdict.NO_DATA || Double.isInfinite(terrain.worstFraction)) return 0;
+        double v = -Math.sqrt(2) * terrain.worstFraction;
+        if (v <= -0.78) return 0;
+        return 6.9 + 20 * Math.log10(Math.sqrt((v - 0.1) * (v - 0.1) + 1) + v - 0.1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.wispfieldapp.link;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Radio parameters of a sector, read from the sector record (and its tower for the
+ * mount height). Fields the record does not carry get typical 5 GHz PtMP values.
+ */
+public class SectorRadio {
+    public static final double DEFAULT_TX_POWER_DBM = 25;
+    public static final double DEFAULT_GAIN_DBI = 16;
+    public static final double DEFAULT_BEAMWIDTH_DEG = 90;
+    public static final double DEFAULT_FREQUENCY_MHZ = 5800;
+    public static final double DEFAULT_CHANNEL_WIDTH_MHZ = 20;
+    public static final double DEFAULT_HEIGHT_M = 30;
+
+    public final String id;
+    /** Boresight azimuth in degrees, NaN if unknown (then treated as on-axis) */
+    public final double azimuth;
+    public final double txPowerDbm;
+    public final double gainDbi;
+    public final double beamwidthDeg;
+    public final double frequencyMHz;
+    public final double channelWidthMHz;
+    /** Antenna height above ground */
+    public final double heightM;
+
+    public SectorRadio(String id, double azimuth, double txPowerDbm, double gainDbi, double beamwidthDeg,
+                       double frequencyMHz, double channelWidthMHz, double heightM) {
+        this.id = id;
+        this.azimuth = azimuth;
+        this.txPowerDbm = txPowerDbm;
+        this.gainDbi = gainDbi;
+        this.beamwidthDeg = beamwidthDeg;
+        this.frequencyMHz = frequencyMHz;
+        this.channelWidthMHz = channelWidthMHz;
+        this.heightM = heightM;
+    }
+
+    /**
+     * @param sector Sector record (_id, azimuth, txPower, antennaGain, beamwidth, frequency,
+     *               channelWidth, height); may be null when no sector is known yet
+     * @param tower Site record of the tower, for its height if the sector has none
+     */
+    public static SectorRadio from(Map<String, Object> sector, Map<String, Object> tower) {
+        if (sector == null) sector = Collections.emptyMap();
+        Object id = sector.get("_id");
+        double frequency = positiveOr(sector.get("frequency"), DEFAULT_FREQUENCY_MHZ);
+        if (frequency < 100) frequency *= 1000; // Given in GHz
+        double towerHeight = tower != null ? positiveOr(tower.get("height"), DEFAULT_HEIGHT_M) : DEFAULT_HEIGHT_M;
+        return new SectorRadio(
+            id != null ? id.toString() : null,
+            number(sector.get("azimuth")),
+            orDefault(number(sector.get("txPower")), DEFAULT_TX_POWER_DBM),
+            positiveOr(sector.get("antennaGain"), positiveOr(sector.get("gain"), DEFAULT_GAIN_DBI)),
+            positiveOr(sector.get("beamwidth"), DEFAULT_BEAMWIDTH_DEG),
+            frequency,
+            positiveOr(sector.get("channelWidth"), DEFAULT_CHANNEL_WIDTH_MHZ),
+            positiveOr(sector.get("height"), towerHeight));
+    }
+
+    private static double positiveOr(Object value, double fallback) {
+        double number = number(value);
+        return number > 0 ? number : fallback;
+    }
+
+    private static double orDefault(double value, double fallback) {
+        return Double.isNaN(value) ? fallback : value;
+    }
+
+    private static double number(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value == null) return Double.NaN;
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.wispfieldapp.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Field adapter ({@code @JsonAdapter(CanonicalStringAdapter.class)}) that decodes
+ * strings into their {@link CanonicalStrings} instance. Applied per field, so it
+ * works with every Gson instance, including the one the tenant cache uses.
+ */
+public class CanonicalStringAdapter extends TypeAdapter<String> {
+    @Override
+    public void write(JsonWriter out, String value) throws IOException {
+        out.value(value);
+    }
+
+    @Override
+    public String read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return CanonicalStrings.of(Boolean.toString(in.nextBoolean()));
+        }
+        return CanonicalStrings.of(in.nextString());
+    }
+}
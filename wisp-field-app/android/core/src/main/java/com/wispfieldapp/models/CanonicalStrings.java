@@ -0,0 +1,34 @@
+package com.wispfieldapp.models;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide pool of canonical instances for short strings that repeat across
+ * records (statuses, priorities, categories). Decoding through
+ * {@link CanonicalStringAdapter} makes 50k work orders share a handful of status
+ * strings instead of holding 50k copies.
+ *
+ * The pool stops growing at {@link #MAX_ENTRIES}; after that unseen values are
+ * returned as they are, so a misbehaving field cannot grow it without bound.
+ */
+public final class CanonicalStrings {
+    private static final int MAX_ENTRIES = 4096;
+    private static final int MAX_LENGTH = 64;
+    private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+    private CanonicalStrings() {
+    }
+
+    public static String of(String value) {
+        if (value == null || value.length() > MAX_LENGTH) return value;
+        String canonical = pool.get(value);
+        if (canonical != null) return canonical;
+        if (pool.size() >= MAX_ENTRIES) return value;
+        canonical = pool.putIfAbsent(value, value);
+        return canonical != null ? canonical : value;
+    }
+
+    public static int size() {
+        return pool.size();
+    }
+}
@@ -1,5 +1,6 @@
 package com.wispfieldapp.models;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import java.util.Map;
 
@@ -14,12 +15,15 @@ public class InventoryItem {
     public String assetTag;
     
     @SerializedName("category")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String category;
     
     @SerializedName("equipmentType")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String equipmentType;
     
     @SerializedName("manufacturer")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String manufacturer;
     
     @SerializedName("model")
@@ -35,9 +39,11 @@ public class InventoryItem {
     public String qrCode;
     
     @SerializedName("status")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String status; // available, reserved, in-transit, deployed, maintenance, rma, retired
     
     @SerializedName("condition")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String condition; // new, good, fair, poor, damaged
     
     @SerializedName("currentLocation")
@@ -54,4 +60,12 @@ public class InventoryItem {
     
     @SerializedName("notes")
     public String notes;
+
+    public InventoryStatus statusCode() {
+        return InventoryStatus.fromWire(status);
+    }
+
+    public ItemCondition conditionCode() {
+        return ItemCondition.fromWire(condition);
+    }
 }
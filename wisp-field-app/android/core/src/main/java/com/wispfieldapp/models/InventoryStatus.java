@@ -0,0 +1,40 @@
+package com.wispfieldapp.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inventory item status values; unrecognised ones map to {@link #UNKNOWN}
+ */
+public enum InventoryStatus {
+    AVAILABLE("available"),
+    RESERVED("reserved"),
+    IN_TRANSIT("in-transit"),
+    DEPLOYED("deployed"),
+    MAINTENANCE("maintenance"),
+    RMA("rma"),
+    RETIRED("retired"),
+    UNKNOWN(null);
+
+    private static final Map<String, InventoryStatus> byWire = new HashMap<>();
+
+    static {
+        for (InventoryStatus value : values()) {
+            if (value.wire != null) byWire.put(value.wire, value);
+        }
+    }
+
+    public final String wire;
+
+    InventoryStatus(String wire) {
+        this.wire = wire;
+    }
+
+    public static InventoryStatus fromWire(String wire) {
+        if (wire == null) return UNKNOWN;
+        InventoryStatus value = byWire.get(wire);
+        if (value == null) value = byWire.get(wire.toLowerCase(Locale.US));
+        return value != null ? value : UNKNOWN;
+    }
+}
@@ -0,0 +1,38 @@
+package com.wispfieldapp.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inventory item condition values; unrecognised ones map to {@link #UNKNOWN}
+ */
+public enum ItemCondition {
+    NEW("new"),
+    GOOD("good"),
+    FAIR("fair"),
+    POOR("poor"),
+    DAMAGED("damaged"),
+    UNKNOWN(null);
+
+    private static final Map<String, ItemCondition> byWire = new HashMap<>();
+
+    static {
+        for (ItemCondition value : values()) {
+            if (value.wire != null) byWire.put(value.wire, value);
+        }
+    }
+
+    public final String wire;
+
+    ItemCondition(String wire) {
+        this.wire = wire;
+    }
+
+    public static ItemCondition fromWire(String wire) {
+        if (wire == null) return UNKNOWN;
+        ItemCondition value = byWire.get(wire);
+        if (value == null) value = byWire.get(wire.toLowerCase(Locale.US));
+        return value != null ? value : UNKNOWN;
+    }
+}
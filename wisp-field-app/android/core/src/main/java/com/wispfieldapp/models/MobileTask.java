@@ -0,0 +1,46 @@
+package com.wispfieldapp.models;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.Objects;
+
+public class MobileTask {
+    @SerializedName("id")
+    public String id;
+    
+    @SerializedName("name")
+    public String name;
+    
+    @SerializedName("icon")
+    public String icon;
+    
+    @SerializedName("description")
+    public String description;
+    
+    @SerializedName("module")
+    public String module;
+    
+    @SerializedName("fcapsCategory")
+    public String fcapsCategory;
+    
+    @SerializedName("operation")
+    public String operation;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MobileTask)) return false;
+        MobileTask other = (MobileTask) o;
+        return Objects.equals(id, other.id)
+            && Objects.equals(name, other.name)
+            && Objects.equals(icon, other.icon)
+            && Objects.equals(description, other.description)
+            && Objects.equals(module, other.module)
+            && Objects.equals(fcapsCategory, other.fcapsCategory)
+            && Objects.equals(operation, other.operation);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, icon, description, module, fcapsCategory, operation);
+    }
+}
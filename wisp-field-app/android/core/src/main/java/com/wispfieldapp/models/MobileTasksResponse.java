@@ -0,0 +1,18 @@
+package com.wispfieldapp.models;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.List;
+
+public class MobileTasksResponse {
+    @SerializedName("tasks")
+    public List<MobileTask> tasks;
+
+    @SerializedName("userId")
+    public String userId;
+
+    @SerializedName("tenantId")
+    public String tenantId;
+
+    @SerializedName("role")
+    public String role;
+}
@@ -0,0 +1,35 @@
+package com.wispfieldapp.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Work order ticket category values; unrecognised ones map to {@link #UNKNOWN}
+ */
+public enum TicketCategory {
+    CUSTOMER_FACING("customer-facing"),
+    INFRASTRUCTURE("infrastructure"),
+    UNKNOWN(null);
+
+    private static final Map<String, TicketCategory> byWire = new HashMap<>();
+
+    static {
+        for (TicketCategory value : values()) {
+            if (value.wire != null) byWire.put(value.wire, value);
+        }
+    }
+
+    public final String wire;
+
+    TicketCategory(String wire) {
+        this.wire = wire;
+    }
+
+    public static TicketCategory fromWire(String wire) {
+        if (wire == null) return UNKNOWN;
+        TicketCategory value = byWire.get(wire);
+        if (value == null) value = byWire.get(wire.toLowerCase(Locale.US));
+        return value != null ? value : UNKNOWN;
+    }
+}
@@ -0,0 +1,30 @@
+package com.wispfieldapp.models;
+
+import com.google.gson.annotations.SerializedName;
+import java.util.Map;
+
+/**
+ * Server state of a resumable photo upload
+ */
+public class UploadSession {
+    @SerializedName("uploadId")
+    public String uploadId;
+    
+    @SerializedName("offset")
+    public long offset; // Bytes acknowledged so far
+    
+    @SerializedName("size")
+    public long size;
+    
+    @SerializedName("chunkSize")
+    public Integer chunkSize; // Server preferred chunk size, optional
+    
+    @SerializedName("sha256")
+    public String sha256;
+    
+    @SerializedName("complete")
+    public boolean complete;
+    
+    @SerializedName("photo")
+    public Map<String, Object> photo; // Photo record once complete
+}
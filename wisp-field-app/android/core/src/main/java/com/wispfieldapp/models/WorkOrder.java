@@ -1,5 +1,6 @@
 package com.wispfieldapp.models;
 
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
 import java.util.List;
 import java.util.Map;
@@ -15,18 +16,23 @@ public class WorkOrder {
     public String ticketNumber;
     
     @SerializedName("type")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String type; // installation, repair, maintenance, upgrade, removal, troubleshoot, inspection, other
     
     @SerializedName("ticketCategory")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String ticketCategory; // customer-facing, infrastructure
     
     @SerializedName("issueCategory")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String issueCategory; // cpe-offline, sector-down, backhaul-failure, etc.
     
     @SerializedName("priority")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String priority; // low, medium, high, critical
     
     @SerializedName("status")
+    @JsonAdapter(CanonicalStringAdapter.class)
     public String status; // open, assigned, in-progress, waiting-parts, waiting-approval, resolved, closed, cancelled
     
     @SerializedName("title")
@@ -94,4 +100,20 @@ public class WorkOrder {
     
     @SerializedName("updatedAt")
     public String updatedAt;
+
+    public WorkOrderType typeCode() {
+        return WorkOrderType.fromWire(type);
+    }
+
+    public TicketCategory ticketCategoryCode() {
+        return TicketCategory.fromWire(ticketCategory);
+    }
+
+    public WorkOrderPriority priorityCode() {
+        return WorkOrderPriority.fromWire(priority);
+    }
+
+    public WorkOrderStatus statusCode() {
+        return WorkOrderStatus.fromWire(status);
+    }
 }
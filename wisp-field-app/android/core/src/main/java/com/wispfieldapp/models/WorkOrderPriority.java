@@ -0,0 +1,37 @@
+package com.wispfieldapp.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Work order priority values; unrecognised ones map to {@link #UNKNOWN}
+ */
+public enum WorkOrderPriority {
+    LOW("low"),
+    MEDIUM("medium"),
+    HIGH("high"),
+    CRITICAL("critical"),
+    UNKNOWN(null);
+
+    private static final Map<String, WorkOrderPriority> byWire = new HashMap<>();
+
+    static {
+        for (WorkOrderPriority value : values()) {
+            if (value.wire != null) byWire.put(value.wire, value);
+        }
+    }
+
+    public final String wire;
+
+    WorkOrderPriority(String wire) {
+        this.wire = wire;
+    }
+
+    public static WorkOrderPriority fromWire(String wire) {
+        if (wire == null) return UNKNOWN;
+        WorkOrderPriority value = byWire.get(wire);
+        if (value == null) value = byWire.get(wire.toLowerCase(Locale.US));
+        return value != null ? value : UNKNOWN;
+    }
+}
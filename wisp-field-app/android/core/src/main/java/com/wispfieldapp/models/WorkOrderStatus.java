@@ -0,0 +1,48 @@
+package com.wispfieldapp.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Work order status values; unrecognised ones map to {@link #UNKNOWN}
+ */
+public enum WorkOrderStatus {
+    OPEN("open"),
+    ASSIGNED("assigned"),
+    IN_PROGRESS("in-progress"),
+    WAITING_PARTS("waiting-parts"),
+    WAITING_APPROVAL("waiting-approval"),
+    RESOLVED("resolved"),
+    CLOSED("closed"),
+    CANCELLED("cancelled"),
+    UNKNOWN(null);
+
+    private static final Map<String, WorkOrderStatus> byWire = new HashMap<>();
+
+    static {
+        for (WorkOrderStatus value : values()) {
+            if (value.wire != null) byWire.put(value.wire, value);
+        }
+    }
+
+    public final String wire;
+
+    WorkOrderStatus(String wire) {
+        this.wire = wire;
+    }
+
+    /**
+     * @return False once the work is resolved, closed or cancelled
+     */
+    public boolean isOpen() {
+        return this != RESOLVED && this != CLOSED && this != CANCELLED;
+    }
+
+    public static WorkOrderStatus fromWire(String wire) {
+        if (wire == null) return UNKNOWN;
+        WorkOrderStatus value = byWire.get(wire);
+        if (value == null) value = byWire.get(wire.toLowerCase(Locale.US));
+        return value != null ? value : UNKNOWN;
+    }
+}
@@ -0,0 +1,41 @@
+package com.wispfieldapp.models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Work order type values; unrecognised ones map to {@link #UNKNOWN}
+ */
+public enum WorkOrderType {
+    INSTALLATION("installation"),
+    REPAIR("repair"),
+    MAINTENANCE("maintenance"),
+    UPGRADE("upgrade"),
+    REMOVAL("removal"),
+    TROUBLESHOOT("troubleshoot"),
+    INSPECTION("inspection"),
+    OTHER("other"),
+    UNKNOWN(null);
+
+    private static final Map<String, WorkOrderType> byWire = new HashMap<>();
+
+    static {
+        for (WorkOrderType value : values()) {
+            if (value.wire != null) byWire.put(value.wire, value);
+        }
+    }
+
+    public final String wire;
+
+    WorkOrderType(String wire) {
+        this.wire = wire;
+    }
+
+    public static WorkOrderType fromWire(String wire) {
+        if (wire == null) return UNKNOWN;
+        WorkOrderType value = byWire.get(wire);
+        if (value == null) value = byWire.get(wire.toLowerCase(Locale.US));
+        return value != null ? value : UNKNOWN;
+    }
+}
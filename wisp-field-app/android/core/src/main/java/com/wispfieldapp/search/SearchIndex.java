@@ -0,0 +1,301 @@
+package com.wispfieldapp.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory typeahead index over a handful of text fields per item
+ * (site names, site ids, asset tags, serial numbers...).
+ *
+ * Every word is indexed by its prefixes (edge n-grams) and by its trigrams, so a
+ * query token matches either the start of a word or any substring of 3+ chars.
+ * Items can be added, replaced and removed one at a time; nothing is rebuilt.
+ *
+ * Fields are passed in priority order: a match on field 0 ranks above the same
+ * match on field 1, and so on.
+ */
+public class SearchIndex<T> {
+    private static final int MAX_PREFIX = 12;
+    private static final int GRAM = 3;
+
+    private static final int SCORE_EXACT = 100;
+    private static final int SCORE_FIELD_PREFIX = 60;
+    private static final int SCORE_WORD_PREFIX = 40;
+    private static final int SCORE_SUBSTRING = 15;
+
+    private final Map<String, Entry<T>> entries = new LinkedHashMap<>();
+    private final Map<String, Set<Entry<T>>> prefixPostings = new HashMap<>();
+    private final Map<String, Set<Entry<T>>> gramPostings = new HashMap<>();
+    private long nextSeq = 0;
+    private long lastQueryNanos = 0;
+
+    private static class Entry<T> {
+        final String key;
+        final T item;
+        final String[] fields;
+        final long seq;
+        final Set<String> prefixes = new HashSet<>();
+        final Set<String> grams = new HashSet<>();
+
+        Entry(String key, T item, String[] fields, long seq) {
+            this.key = key;
+            this.item = item;
+            this.fields = fields;
+            this.seq = seq;
+        }
+    }
+
+    private static class Hit<T> {
+        final Entry<T> entry;
+        final int score;
+
+        Hit(Entry<T> entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Add an item, or replace the item already stored under the same key
+     * @param key Stable identifier of the item (e.g. Mongo _id)
+     * @param item The item returned by searches
+     * @param fields Searchable text, highest priority first; nulls are skipped
+     */
+    public synchronized void put(String key, T item, String... fields) {
+        remove(key);
+
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = fields[i] != null ? normalize(fields[i]) : "";
+        }
+        Entry<T> entry = new Entry<>(key, item, normalized, nextSeq++);
+
+        for (String field : normalized) {
+            for (String word : words(field)) {
+                for (int len = 1; len <= Math.min(word.length(), MAX_PREFIX); len++) {
+                    entry.prefixes.add(word.substring(0, len));
+                }
+                for (int i = 0; i + GRAM <= word.length(); i++) {
+                    entry.grams.add(word.substring(i, i + GRAM));
+                }
+            }
+        }
+        for (String prefix : entry.prefixes) {
+            prefixPostings.computeIfAbsent(prefix, k -> new HashSet<>()).add(entry);
+        }
+        for (String gram : entry.grams) {
+            gramPostings.computeIfAbsent(gram, k -> new HashSet<>()).add(entry);
+        }
+        entries.put(key, entry);
+    }
+
+    public synchronized void remove(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) return;
+        unlink(prefixPostings, entry.prefixes, entry);
+        unlink(gramPostings, entry.grams, entry);
+    }
+
+    /**
+     * @return The item stored under the key, or null
+     */
+    public synchronized T get(String key) {
+        Entry<T> entry = entries.get(key);
+        return entry != null ? entry.item : null;
+    }
+
+    /**
+     * @return A copy of the keys of every item, in insertion order
+     */
+    public synchronized Set<String> keys() {
+        return new LinkedHashSet<>(entries.keySet());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        prefixPostings.clear();
+        gramPostings.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return All items in insertion order
+     */
+    public synchronized List<T> all() {
+        List<T> items = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries.values()) {
+            items.add(entry.item);
+        }
+        return items;
+    }
+
+    /**
+     * Find items matching every token of the query, best matches first
+     * @param query Free text as typed by the user
+     * @param limit Maximum number of results
+     * @return Ranked matches; all items (insertion order) when the query is blank
+     */
+    public synchronized List<T> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<String> tokens = words(normalize(query != null ? query : ""));
+            if (tokens.isEmpty()) {
+                List<T> items = all();
+                return items.size() > limit ? new ArrayList<>(items.subList(0, limit)) : items;
+            }
+
+            // Walk the smallest token match set and probe the others; nothing is copied
+            List<Set<Entry<T>>> matchSets = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Set<Entry<T>> matches = candidatesFor(token);
+                if (matches.isEmpty()) return Collections.emptyList();
+                matchSets.add(matches);
+            }
+            matchSets.sort(Comparator.comparingInt(Set::size));
+
+            Comparator<Hit<T>> worstFirst = (a, b) -> {
+                if (a.score != b.score) return Integer.compare(a.score, b.score);
+                return Long.compare(b.entry.seq, a.entry.seq);
+            };
+            PriorityQueue<Hit<T>> top = new PriorityQueue<>(limit + 1, worstFirst);
+            candidates:
+            for (Entry<T> entry : matchSets.get(0)) {
+                for (int i = 1; i < matchSets.size(); i++) {
+                    if (!matchSets.get(i).contains(entry)) continue candidates;
+                }
+                top.add(new Hit<>(entry, score(entry, tokens)));
+                if (top.size() > limit) top.poll();
+            }
+
+            List<Hit<T>> ranked = new ArrayList<>(top);
+            ranked.sort(Collections.reverseOrder(worstFirst));
+            List<T> results = new ArrayList<>(ranked.size());
+            for (Hit<T> hit : ranked) {
+                results.add(hit.entry.item);
+            }
+            return results;
+        } finally {
+            lastQueryNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @return Wall time of the most recent search, in nanoseconds
+     */
+    public synchronized long getLastQueryNanos() {
+        return lastQueryNanos;
+    }
+
+    /**
+     * @return Entries containing the token; may be a live posting set, never modify it
+     */
+    private Set<Entry<T>> candidatesFor(String token) {
+        if (token.length() < GRAM) {
+            Set<Entry<T>> byPrefix = prefixPostings.get(token);
+            return byPrefix != null ? byPrefix : Collections.emptySet();
+        }
+
+        // Substring match: walk the rarest trigram posting, probe the others, then verify
+        List<Set<Entry<T>>> postings = new ArrayList<>();
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            Set<Entry<T>> posting = gramPostings.get(token.substring(i, i + GRAM));
+            if (posting == null) return Collections.emptySet();
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        if (token.length() == GRAM) return postings.get(0);
+
+        Set<Entry<T>> matches = new HashSet<>();
+        candidates:
+        for (Entry<T> entry : postings.get(0)) {
+            for (int i = 1; i < postings.size(); i++) {
+                if (!postings.get(i).contains(entry)) continue candidates;
+            }
+            if (containsToken(entry, token)) matches.add(entry);
+        }
+        return matches;
+    }
+
+    private static boolean containsToken(Entry<?> entry, String token) {
+        for (String field : entry.fields) {
+            if (field.contains(token)) return true;
+        }
+        return false;
+    }
+
+    private static int score(Entry<?> entry, List<String> tokens) {
+        int total = 0;
+        for (String token : tokens) {
+            String wordStart = " " + token;
+            int best = 0;
+            for (int i = 0; i < entry.fields.length; i++) {
+                String field = entry.fields[i];
+                int base;
+                if (field.equals(token)) {
+                    base = SCORE_EXACT;
+                } else if (field.startsWith(token)) {
+                    base = SCORE_FIELD_PREFIX;
+                } else if (field.contains(wordStart)) {
+                    base = SCORE_WORD_PREFIX;
+                } else if (field.contains(token)) {
+                    base = SCORE_SUBSTRING;
+                } else {
+                    continue;
+                }
+                // Earlier fields weigh more; shorter fields are a tighter match
+                int weighted = base * (entry.fields.length - i) * 4 - Math.min(field.length(), 32);
+                best = Math.max(best, weighted);
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private void unlink(Map<String, Set<Entry<T>>> postings, Set<String> keys, Entry<T> entry) {
+        for (String key : keys) {
+            Set<Entry<T>> posting = postings.get(key);
+            if (posting == null) continue;
+            posting.remove(entry);
+            if (posting.isEmpty()) postings.remove(key);
+        }
+    }
+
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') sb.setLength(len - 1);
+        return sb.toString();
+    }
+
+    private static List<String> words(String normalized) {
+        List<String> words = new ArrayList<>();
+        if (normalized.isEmpty()) return words;
+        for (String word : normalized.split(" ")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+}
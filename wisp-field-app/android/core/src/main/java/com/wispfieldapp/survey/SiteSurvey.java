@@ -0,0 +1,172 @@
+package com.wispfieldapp.survey;
+
+import com.wispfieldapp.link.LinkBudget;
+import com.wispfieldapp.link.PathLossModel;
+import com.wispfieldapp.link.SectorRadio;
+import com.wispfieldapp.terrain.LineOfSight;
+import com.wispfieldapp.terrain.TileCache;
+import com.wispfieldapp.utils.LocationUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Batch link analysis of survey points against every tower in range: distance,
+ * bearing, which sectors cover the point, the best sector's expected RSSI with a
+ * default CPE, and terrain line of sight. Points are independent, so they are split
+ * into chunks across an executor; the shared {@link TileCache} is only locked when a
+ * path enters another tile.
+ *
+ * Candidates for a point are ranked by expected RSSI (the terrain model already
+ * charges obstructed paths their diffraction loss), and points by their best one.
+ */
+public class SiteSurvey {
+    public static final double DEFAULT_MAX_RANGE_M = 15000;
+    private static final int CHUNK_SIZE = 8;
+
+    public static final class Candidate {
+        public final SurveyTower tower;
+        /** Best sector for the point; it may not cover it if none does */
+        public final String sectorName;
+        public final SectorRadio sector;
+        public final double distanceM;
+        /** Bearing from the point to the tower, i.e. where the CPE aims */
+        public final double bearingDeg;
+        /** Names of the sectors whose beamwidth contains the point */
+        public final List<String> coveringSectors;
+        public final double rssiDbm;
+        public final LineOfSight.Result lineOfSight;
+
+        Candidate(SurveyTower tower, String sectorName, SectorRadio sector, double distanceM, double bearingDeg,
+                  List<String> coveringSectors, double rssiDbm, LineOfSight.Result lineOfSight) {
+            this.tower = tower;
+            this.sectorName = sectorName;
+            this.sector = sector;
+            this.distanceM = distanceM;
+            this.bearingDeg = bearingDeg;
+            this.coveringSectors = coveringSectors;
+            this.rssiDbm = rssiDbm;
+            this.lineOfSight = lineOfSight;
+        }
+
+        public LineOfSight.Verdict verdict() {
+            return lineOfSight != null ? lineOfSight.verdict : LineOfSight.Verdict.NO_DATA;
+        }
+    }
+
+    public static final class PointResult {
+        public final SurveyPoint point;
+        /** Best first; empty if no tower is in range */
+        public final List<Candidate> candidates;
+
+        PointResult(SurveyPoint point, List<Candidate> candidates) {
+            this.point = point;
+            this.candidates = Collections.unmodifiableList(candidates);
+        }
+
+        /**
+         * @return The best candidate, or null if no tower is in range
+         */
+        public Candidate best() {
+            return candidates.isEmpty() ? null : candidates.get(0);
+        }
+    }
+
+    private static final Comparator<Candidate> BY_RSSI = (a, b) -> Double.compare(b.rssiDbm, a.rssiDbm);
+    private static final Comparator<PointResult> BY_BEST = (a, b) -> {
+        Candidate bestA = a.best();
+        Candidate bestB = b.best();
+        if (bestA == null || bestB == null) return bestA == null ? (bestB == null ? 0 : 1) : -1;
+        return BY_RSSI.compare(bestA, bestB);
+    };
+
+    private SiteSurvey() {
+    }
+
+    /**
+     * @param terrain Elevation data for line of sight; null to skip it (verdicts are NO_DATA)
+     * @param executor Runs the chunks; null to run everything on the calling thread
+     * @return One result per point, ranked best first
+     */
+    public static List<PointResult> run(List<SurveyPoint> points, List<SurveyTower> towers, TileCache terrain,
+                                        double maxRangeM, ExecutorService executor) throws InterruptedException {
+        PointResult[] results = new PointResult[points.size()];
+        if (executor == null) {
+            for (int i = 0; i < results.length; i++) results[i] = evaluate(points.get(i), towers, terrain, maxRangeM);
+        } else {
+            List<Callable<Void>> chunks = new ArrayList<>();
+            for (int start = 0; start < results.length; start += CHUNK_SIZE) {
+                int from = start;
+                int to = Math.min(start + CHUNK_SIZE, results.length);
+                chunks.add(() -> {
+                    for (int i = from; i < to; i++) results[i] = evaluate(points.get(i), towers, terrain, maxRangeM);
+                    return null;
+                });
+            }
+            for (Future<Void> chunk : executor.invokeAll(chunks)) {
+                try {
+                    chunk.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    throw new IllegalStateException(cause);
+                }
+            }
+        }
+        List<PointResult> ranked = new ArrayList<>(Arrays.asList(results));
+        ranked.sort(BY_BEST);
+        return ranked;
+    }
+
+    static PointResult evaluate(SurveyPoint point, List<SurveyTower> towers, TileCache terrain, double maxRangeM) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (SurveyTower tower : towers) {
+            double distance = LocationUtils.calculateDistance(point.latitude, point.longitude, tower.latitude, tower.longitude);
+            if (distance > maxRangeM) continue;
+            double towerToPoint = LocationUtils.calculateAzimuth(tower.latitude, tower.longitude, point.latitude, point.longitude);
+
+            // Pick the sector with the most gain toward the point; free-space loss differs
+            // between sectors only by frequency
+            SectorRadio best = null;
+            String bestName = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            List<String> covering = new ArrayList<>(2);
+            for (int j = 0; j < tower.sectors.size(); j++) {
+                SectorRadio sector = tower.sectors.get(j);
+                double offAxis = Double.isNaN(sector.azimuth) ? 0 : angleBetween(towerToPoint, sector.azimuth);
+                if (offAxis <= sector.beamwidthDeg / 2) covering.add(tower.sectorNames.get(j));
+                double score = sector.txPowerDbm + sector.gainDbi - LinkBudget.patternLossDb(offAxis, sector.beamwidthDeg)
+                    - 20 * Math.log10(sector.frequencyMHz);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = sector;
+                    bestName = tower.sectorNames.get(j);
+                }
+            }
+            if (best == null) continue;
+
+            LineOfSight.Result lineOfSight = terrain != null
+                ? LineOfSight.check(terrain, point.latitude, point.longitude, LinkBudget.DEFAULT_CPE_HEIGHT_M,
+                    tower.latitude, tower.longitude, best.heightM, best.frequencyMHz)
+                : null;
+            LinkBudget budget = LinkBudget.estimate(best, tower.latitude, tower.longitude, point.latitude, point.longitude,
+                LinkBudget.DEFAULT_CPE_GAIN_DBI, LinkBudget.DEFAULT_CPE_BEAMWIDTH_DEG, LinkBudget.DEFAULT_CPE_HEIGHT_M,
+                PathLossModel.TERRAIN, lineOfSight);
+            candidates.add(new Candidate(tower, bestName, best, distance, budget.bearingDeg, covering,
+                budget.aimedRssiDbm, lineOfSight));
+        }
+        candidates.sort(BY_RSSI);
+        return new PointResult(point, candidates);
+    }
+
+    private static double angleBetween(double a, double b) {
+        double diff = Math.abs(a - b) % 360;
+        return diff > 180 ? 360 - diff : diff;
+    }
+}
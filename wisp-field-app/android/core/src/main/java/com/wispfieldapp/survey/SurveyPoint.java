@@ -0,0 +1,60 @@
+package com.wispfieldapp.survey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A candidate customer location in a site survey
+ */
+public final class SurveyPoint {
+    public final String label;
+    public final double latitude;
+    public final double longitude;
+
+    public SurveyPoint(String label, double latitude, double longitude) {
+        this.label = label;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Reads one point per line as "latitude, longitude[, label]", the way rows paste out
+     * of a spreadsheet: commas, semicolons or tabs separate the fields, blank lines and
+     * lines starting with # are skipped, and a first line that isn't numeric is taken
+     * as a header. Points without a label are numbered.
+     *
+     * @param rejected Receives the 1-based numbers of lines that could not be read; may be null
+     */
+    public static List<SurveyPoint> parse(String text, List<Integer> rejected) {
+        List<SurveyPoint> points = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        boolean first = true;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            boolean header = first;
+            first = false;
+            String[] fields = line.split("\\s*[,;\t]\\s*", 3);
+            double lat;
+            double lon;
+            try {
+                if (fields.length < 2) throw new NumberFormatException(line);
+                lat = Double.parseDouble(fields[0]);
+                lon = Double.parseDouble(fields[1]);
+            } catch (NumberFormatException e) {
+                if (!header && rejected != null) rejected.add(i + 1);
+                continue;
+            }
+            if (Math.abs(lat) > 90 || Math.abs(lon) > 180) {
+                if (rejected != null) rejected.add(i + 1);
+                continue;
+            }
+            String label = fields.length > 2 && !fields[2].isEmpty()
+                ? fields[2]
+                : String.format(Locale.US, "Point %d", points.size() + 1);
+            points.add(new SurveyPoint(label, lat, lon));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,60 @@
+package com.wispfieldapp.survey;
+
+import com.wispfieldapp.link.SectorRadio;
+import com.wispfieldapp.topology.TopologySnapshot;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tower and its sectors' radio parameters, as the survey needs them
+ */
+public final class SurveyTower {
+    public final String id;
+    public final String name;
+    public final double latitude;
+    public final double longitude;
+    public final List<SectorRadio> sectors;
+    /** Parallel to {@link #sectors} */
+    public final List<String> sectorNames;
+
+    public SurveyTower(String id, String name, double latitude, double longitude,
+                       List<SectorRadio> sectors, List<String> sectorNames) {
+        this.id = id;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.sectors = Collections.unmodifiableList(sectors);
+        this.sectorNames = Collections.unmodifiableList(sectorNames);
+    }
+
+    /**
+     * Towers with coordinates in the snapshot. A tower with no known sectors gets one
+     * default sector with no azimuth, i.e. it is treated as omnidirectional.
+     */
+    public static List<SurveyTower> from(TopologySnapshot snapshot) {
+        List<SurveyTower> towers = new ArrayList<>();
+        for (int i = 0; i < snapshot.siteCount(); i++) {
+            if (!snapshot.isTower(i)) continue;
+            double lat = snapshot.latitude(i);
+            double lon = snapshot.longitude(i);
+            if (Double.isNaN(lat) || Double.isNaN(lon)) continue;
+
+            Map<String, Object> site = snapshot.siteMap(i);
+            List<SectorRadio> sectors = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (Map<String, Object> sector : snapshot.sectorMaps(i)) {
+                sectors.add(SectorRadio.from(sector, site));
+                Object name = sector.get("name");
+                names.add(name != null ? name.toString() : "Sector " + (names.size() + 1));
+            }
+            if (sectors.isEmpty()) {
+                sectors.add(SectorRadio.from(null, site));
+                names.add("Omni");
+            }
+            towers.add(new SurveyTower(snapshot.siteId(i), snapshot.siteName(i), lat, lon, sectors, names));
+        }
+        return towers;
+    }
+}
@@ -0,0 +1,113 @@
+package com.wispfieldapp.terrain;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+/**
+ * One SRTM elevation tile (.hgt), memory-mapped read-only. A tile covers one degree
+ * square from its south-west corner, as a grid of big-endian 16-bit heights in
+ * metres, north row first; 1201x1201 samples for 3 arc-seconds, 3601x3601 for 1.
+ * Neighbouring tiles share their edge rows and columns.
+ */
+public class HgtTile {
+    static final short VOID = Short.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int south;
+    private final int west;
+    private final int size;
+
+    private HgtTile(ByteBuffer buffer, int south, int west, int size) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        this.south = south;
+        this.west = west;
+        this.size = size;
+    }
+
+    /**
+     * @param south Latitude of the tile's south edge (as in its file name)
+     * @param west Longitude of the tile's west edge
+     */
+    public static HgtTile open(File file, int south, int west) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long bytes = channel.size();
+            int size = (int) Math.round(Math.sqrt(bytes / 2.0));
+            if (size < 2 || (long) size * size * 2 != bytes) {
+                throw new IOException("Not an SRTM tile: " + file + " (" + bytes + " bytes)");
+            }
+            return new HgtTile(channel.map(FileChannel.MapMode.READ_ONLY, 0, bytes), south, west, size);
+        }
+    }
+
+    /**
+     * SRTM file name of the tile with this south-west corner, e.g. N40W105.hgt
+     */
+    public static String nameFor(int south, int west) {
+        return String.format(Locale.US, "%s%02d%s%03d.hgt",
+            south >= 0 ? "N" : "S", Math.abs(south), west >= 0 ? "E" : "W", Math.abs(west));
+    }
+
+    public int getSouth() {
+        return south;
+    }
+
+    public int getWest() {
+        return west;
+    }
+
+    /**
+     * @return Samples per row (1201 or 3601)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Distance between samples, in degrees
+     */
+    public double getResolutionDegrees() {
+        return 1.0 / (size - 1);
+    }
+
+    /**
+     * Whether the point falls in this tile by {@link TileCache}'s floor rule
+     */
+    public boolean contains(double lat, double lon) {
+        return lat >= south && lat < south + 1 && lon >= west && lon < west + 1;
+    }
+
+    /**
+     * Height at a point inside the tile, bilinearly interpolated between the four
+     * surrounding samples
+     *
+     * @return Metres above mean sea level, or NaN if the point is outside the tile or
+     *         next to a void
+     */
+    public double elevation(double lat, double lon) {
+        double row = (south + 1 - lat) * (size - 1);
+        double col = (lon - west) * (size - 1);
+        if (row < 0 || col < 0 || row > size - 1 || col > size - 1) return Double.NaN;
+        int r0 = Math.min((int) row, size - 2);
+        int c0 = Math.min((int) col, size - 2);
+        double fr = row - r0;
+        double fc = col - c0;
+
+        short h00 = sample(r0, c0);
+        short h01 = sample(r0, c0 + 1);
+        short h10 = sample(r0 + 1, c0);
+        short h11 = sample(r0 + 1, c0 + 1);
+        if (h00 == VOID || h01 == VOID || h10 == VOID || h11 == VOID) return Double.NaN;
+        double top = h00 + (h01 - h00) * fc;
+        double bottom = h10 + (h11 - h10) * fc;
+        return top + (bottom - top) * fr;
+    }
+
+    private short sample(int row, int col) {
+        return buffer.getShort(2 * (row * size + col));
+    }
+}
@@ -0,0 +1,141 @@
+package com.wispfieldapp.terrain;
+
+import java.util.Locale;
+
+/**
+ * First Fresnel zone clearance along a {@link PathProfile}. The terrain is raised by
+ * the earth bulge for an effective earth radius of k times the real one (k = 4/3 for
+ * standard refraction), then compared with the straight line between the antennas.
+ *
+ * A link is considered clear when at least 60% of the first Fresnel zone radius is
+ * free everywhere along the path.
+ */
+public class LineOfSight {
+    public static final double EARTH_RADIUS_M = 6371000;
+    public static final double STANDARD_K = 4.0 / 3.0;
+    public static final double CLEAR_FRACTION = 0.6;
+    public static final double DEFAULT_SPACING_M = 30;
+    private static final double SPEED_OF_LIGHT = 299792458;
+    private static final double MAX_MISSING_FRACTION = 0.1;
+
+    public enum Verdict {
+        /** 60% or more of the first Fresnel zone is free along the whole path */
+        CLEAR,
+        /** The line of sight is free but terrain intrudes into the Fresnel zone */
+        PARTIAL,
+        /** Terrain cuts the line of sight */
+        BLOCKED,
+        /** Not enough elevation data along the path */
+        NO_DATA
+    }
+
+    public static class Result {
+        public final Verdict verdict;
+        public final double lengthMeters;
+        /** Smallest clearance as a fraction of the Fresnel radius (negative when blocked) */
+        public final double worstFraction;
+        /** Clearance in metres at the worst point */
+        public final double worstClearanceMeters;
+        /** Distance of the worst point from the start */
+        public final double worstDistanceMeters;
+        public final int samples;
+        public final int missingSamples;
+        /** Ground height at either end above mean sea level, NaN where the DEM has none */
+        public final double startGround;
+        public final double endGround;
+
+        Result(Verdict verdict, double lengthMeters, double worstFraction, double worstClearanceMeters,
+               double worstDistanceMeters, int samples, int missingSamples, double startGround, double endGround) {
+            this.verdict = verdict;
+            this.lengthMeters = lengthMeters;
+            this.worstFraction = worstFraction;
+            this.worstClearanceMeters = worstClearanceMeters;
+            this.worstDistanceMeters = worstDistanceMeters;
+            this.samples = samples;
+            this.missingSamples = missingSamples;
+            this.startGround = startGround;
+            this.endGround = endGround;
+        }
+
+        public String summary() {
+            double km = worstDistanceMeters / 1000;
+            switch (verdict) {
+                case CLEAR:
+                    return String.format(Locale.US, "Clear: %.0f%% of Fresnel zone free over %.1f km",
+                        Math.min(worstFraction, 9.99) * 100, lengthMeters / 1000);
+                case PARTIAL:
+                    return String.format(Locale.US, "Partial: only %.0f%% of Fresnel zone free at %.1f km",
+                        worstFraction * 100, km);
+                case BLOCKED:
+                    return String.format(Locale.US, "Blocked: terrain %.0f m above the path at %.1f km",
+                        -worstClearanceMeters, km);
+                default:
+                    return "No elevation data for this path";
+            }
+        }
+    }
+
+    private LineOfSight() {
+    }
+
+    /**
+     * Samples the path and checks it
+     *
+     * @param startHeight Antenna height above ground at the start, in metres
+     * @param endHeight Antenna height above ground at the end
+     */
+    public static Result check(TileCache terrain, double lat1, double lon1, double startHeight,
+                               double lat2, double lon2, double endHeight, double frequencyMHz) {
+        PathProfile profile = PathProfile.sample(terrain, lat1, lon1, lat2, lon2, DEFAULT_SPACING_M);
+        return analyze(profile, startHeight, endHeight, frequencyMHz, STANDARD_K);
+    }
+
+    public static Result analyze(PathProfile profile, double startHeight, double endHeight,
+                                 double frequencyMHz, double k) {
+        int n = profile.size();
+        double length = profile.getLengthMeters();
+        double startGround = profile.ground(0);
+        double endGround = profile.ground(n - 1);
+        if (Double.isNaN(startGround) || Double.isNaN(endGround)
+                || profile.getMissing() > MAX_MISSING_FRACTION * n || length <= 0) {
+            return new Result(Verdict.NO_DATA, length, Double.NaN, Double.NaN, Double.NaN, n, profile.getMissing(),
+                startGround, endGround);
+        }
+
+        double wavelength = SPEED_OF_LIGHT / (frequencyMHz * 1e6);
+        double startAntenna = startGround + startHeight;
+        double endAntenna = endGround + endHeight;
+        double effectiveRadius = k * EARTH_RADIUS_M;
+
+        double worstFraction = Double.POSITIVE_INFINITY;
+        double worstClearance = Double.POSITIVE_INFINITY;
+        double worstDistance = 0;
+        for (int i = 1; i < n - 1; i++) {
+            double ground = profile.ground(i);
+            if (Double.isNaN(ground)) continue;
+            double d1 = profile.distance(i);
+            double d2 = length - d1;
+            double bulge = d1 * d2 / (2 * effectiveRadius);
+            double line = startAntenna + (endAntenna - startAntenna) * d1 / length;
+            double clearance = line - (ground + bulge);
+            double radius = Math.sqrt(wavelength * d1 * d2 / length);
+            double fraction = clearance / radius;
+            if (fraction < worstFraction) {
+                worstFraction = fraction;
+                worstClearance = clearance;
+                worstDistance = d1;
+            }
+        }
+
+        Verdict verdict;
+        if (worstFraction < 0) {
+            verdict = Verdict.BLOCKED;
+        } else if (worstFraction < CLEAR_FRACTION) {
+            verdict = Verdict.PARTIAL;
+        } else {
+            verdict = Verdict.CLEAR;
+        }
+        return new Result(verdict, length, worstFraction, worstClearance, worstDistance, n, profile.getMissing(),
+            startGround, endGround);
+    }
+}
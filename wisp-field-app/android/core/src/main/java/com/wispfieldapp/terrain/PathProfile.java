@@ -0,0 +1,76 @@
+package com.wispfieldapp.terrain;
+
+import com.wispfieldapp.utils.LocationUtils;
+
+/**
+ * Ground heights sampled at even spacing along the path between two points. Points
+ * are interpolated linearly in latitude/longitude, which is well within DEM
+ * resolution for link-length paths (tens of km).
+ */
+public class PathProfile {
+    private final double lengthMeters;
+    private final double[] distance;
+    private final double[] ground;
+    private final int missing;
+
+    private PathProfile(double lengthMeters, double[] distance, double[] ground, int missing) {
+        this.lengthMeters = lengthMeters;
+        this.distance = distance;
+        this.ground = ground;
+        this.missing = missing;
+    }
+
+    /**
+     * @param spacingMeters Distance between samples; about the DEM resolution (30 m for
+     *                      1 arc-second tiles) is enough
+     */
+    public static PathProfile sample(TileCache terrain, double lat1, double lon1, double lat2, double lon2,
+                                     double spacingMeters) {
+        double length = LocationUtils.calculateDistance(lat1, lon1, lat2, lon2);
+        int count = Math.max(2, (int) Math.ceil(length / spacingMeters) + 1);
+        double[] distance = new double[count];
+        double[] ground = new double[count];
+        int missing = 0;
+        // Only go back to the (synchronized) cache when the path crosses into another tile
+        HgtTile tile = null;
+        for (int i = 0; i < count; i++) {
+            double t = i / (double) (count - 1);
+            double lat = lat1 + (lat2 - lat1) * t;
+            double lon = lon1 + (lon2 - lon1) * t;
+            if (tile == null || !tile.contains(lat, lon)) tile = terrain.tileFor(lat, lon);
+            distance[i] = t * length;
+            ground[i] = tile != null ? tile.elevation(lat, lon) : Double.NaN;
+            if (Double.isNaN(ground[i])) missing++;
+        }
+        return new PathProfile(length, distance, ground, missing);
+    }
+
+    public double getLengthMeters() {
+        return lengthMeters;
+    }
+
+    public int size() {
+        return distance.length;
+    }
+
+    /**
+     * @return Distance of sample i from the start, in metres
+     */
+    public double distance(int i) {
+        return distance[i];
+    }
+
+    /**
+     * @return Ground height of sample i above mean sea level, or NaN if the DEM has none
+     */
+    public double ground(int i) {
+        return ground[i];
+    }
+
+    /**
+     * @return Samples with no ground height
+     */
+    public int getMissing() {
+        return missing;
+    }
+}
@@ -0,0 +1,96 @@
+package com.wispfieldapp.terrain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Elevation lookups over a directory of SRTM tiles, keeping the most recently used
+ * tiles mapped. Each mapped 1 arc-second tile is ~25 MB of address space (not heap),
+ * so the bound is about how many mappings stay open, not memory.
+ *
+ * Tiles that are not on disk are remembered as missing until {@link #invalidate()}.
+ */
+public class TileCache {
+    private final File dir;
+    private final int maxTiles;
+    private final Map<Long, HgtTile> tiles;
+    private final Set<Long> missing = new HashSet<>();
+    private long hits;
+    private long loads;
+
+    public TileCache(File dir, int maxTiles) {
+        this.dir = dir;
+        this.maxTiles = maxTiles;
+        this.tiles = new LinkedHashMap<Long, HgtTile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, HgtTile> eldest) {
+                return size() > TileCache.this.maxTiles;
+            }
+        };
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    /**
+     * @return Metres above mean sea level, or NaN if there is no tile (or only a void) there
+     */
+    public double elevation(double lat, double lon) {
+        HgtTile tile = tileFor(lat, lon);
+        return tile != null ? tile.elevation(lat, lon) : Double.NaN;
+    }
+
+    /**
+     * @return The tile containing the point, or null if it is not on disk
+     */
+    public synchronized HgtTile tileFor(double lat, double lon) {
+        int south = (int) Math.floor(lat);
+        int west = (int) Math.floor(lon);
+        long key = ((long) south << 32) | (west & 0xffffffffL);
+        HgtTile tile = tiles.get(key);
+        if (tile != null) {
+            hits++;
+            return tile;
+        }
+        if (missing.contains(key)) return null;
+
+        File file = new File(dir, HgtTile.nameFor(south, west));
+        try {
+            tile = file.exists() ? HgtTile.open(file, south, west) : null;
+        } catch (IOException e) {
+            tile = null;
+        }
+        if (tile == null) {
+            missing.add(key);
+            return null;
+        }
+        loads++;
+        tiles.put(key, tile);
+        return tile;
+    }
+
+    /**
+     * Forgets mapped and missing tiles, e.g. after tiles were copied into the directory
+     */
+    public synchronized void invalidate() {
+        tiles.clear();
+        missing.clear();
+    }
+
+    public synchronized int size() {
+        return tiles.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getLoads() {
+        return loads;
+    }
+}
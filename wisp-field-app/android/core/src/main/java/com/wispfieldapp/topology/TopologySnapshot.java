@@ -0,0 +1,245 @@
+package com.wispfieldapp.topology;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read-only view of a tenant's site/sector topology, memory-mapped from the
+ * binary file written by {@link TopologySnapshotWriter}. Opening costs one mmap and
+ * a header check; values are read from the mapping on demand, so there is no
+ * parsing step however many sites the tenant has.
+ *
+ * Layout (little-endian, every section 4-byte aligned):
+ * <pre>
+ *   header   int magic "WTOP", short version, short 0, long builtAtMillis,
+ *            int siteCount, int sectorCount, int stringCount, int stringBytes
+ *   sites    int latE7[siteCount], int lonE7[siteCount]   (MISSING_COORDINATE if unknown)
+ *            int id[siteCount], int name[siteCount], int type[siteCount]   (string indices, -1 = none)
+ *            int firstSector[siteCount + 1]   (sectors of site i are firstSector[i] until firstSector[i + 1])
+ *   sectors  int id[sectorCount], int name[sectorCount]
+ *            short azimuthDeci[sectorCount]   (tenths of a degree, MISSING_AZIMUTH if unknown), padded to 4
+ *   strings  int offset[stringCount + 1], then the UTF-8 bytes of every string
+ * </pre>
+ */
+public class TopologySnapshot {
+    static final int MAGIC = 0x504F5457; // "WTOP" read little-endian
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int MISSING_COORDINATE = Integer.MIN_VALUE;
+    static final short MISSING_AZIMUTH = Short.MIN_VALUE;
+    static final double E7 = 1e7;
+
+    private final ByteBuffer buffer;
+    private final long builtAtMillis;
+    private final int siteCount;
+    private final int sectorCount;
+    private final int stringCount;
+    private final int latBase, lonBase, siteIdBase, siteNameBase, siteTypeBase, firstSectorBase;
+    private final int sectorIdBase, sectorNameBase, azimuthBase, stringOffsetBase, stringDataBase;
+    private final String[] strings;
+    private Map<String, Integer> siteIndex;
+    private List<Map<String, Object>> towers;
+
+    private TopologySnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a topology snapshot");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported topology snapshot version " + buffer.getShort(4));
+        }
+        builtAtMillis = buffer.getLong(8);
+        siteCount = buffer.getInt(16);
+        sectorCount = buffer.getInt(20);
+        stringCount = buffer.getInt(24);
+        int stringBytes = buffer.getInt(28);
+
+        latBase = HEADER_BYTES;
+        lonBase = latBase + 4 * siteCount;
+        siteIdBase = lonBase + 4 * siteCount;
+        siteNameBase = siteIdBase + 4 * siteCount;
+        siteTypeBase = siteNameBase + 4 * siteCount;
+        firstSectorBase = siteTypeBase + 4 * siteCount;
+        sectorIdBase = firstSectorBase + 4 * (siteCount + 1);
+        sectorNameBase = sectorIdBase + 4 * sectorCount;
+        azimuthBase = sectorNameBase + 4 * sectorCount;
+        stringOffsetBase = align4(azimuthBase + 2 * sectorCount);
+        stringDataBase = stringOffsetBase + 4 * (stringCount + 1);
+        if (siteCount < 0 || sectorCount < 0 || stringCount < 0 || stringBytes < 0
+                || (long) stringDataBase + stringBytes != buffer.capacity()) {
+            throw new IOException("Truncated topology snapshot");
+        }
+        strings = new String[stringCount];
+    }
+
+    /**
+     * Maps the file read-only. The mapping stays valid after the file is replaced.
+     */
+    public static TopologySnapshot open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return new TopologySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static int align4(int offset) {
+        return (offset + 3) & ~3;
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    public int siteCount() {
+        return siteCount;
+    }
+
+    public int sectorCount() {
+        return sectorCount;
+    }
+
+    /**
+     * @return Latitude in degrees, or NaN if the site has no coordinates
+     */
+    public double latitude(int site) {
+        int e7 = buffer.getInt(latBase + 4 * site);
+        return e7 == MISSING_COORDINATE ? Double.NaN : e7 / E7;
+    }
+
+    public double longitude(int site) {
+        int e7 = buffer.getInt(lonBase + 4 * site);
+        return e7 == MISSING_COORDINATE ? Double.NaN : e7 / E7;
+    }
+
+    public String siteId(int site) {
+        return string(buffer.getInt(siteIdBase + 4 * site));
+    }
+
+    public String siteName(int site) {
+        return string(buffer.getInt(siteNameBase + 4 * site));
+    }
+
+    public String siteType(int site) {
+        return string(buffer.getInt(siteTypeBase + 4 * site));
+    }
+
+    public boolean isTower(int site) {
+        String type = siteType(site);
+        return type != null && type.toLowerCase(Locale.US).contains("tower");
+    }
+
+    public int firstSector(int site) {
+        return buffer.getInt(firstSectorBase + 4 * site);
+    }
+
+    /**
+     * @return One past the last sector of the site
+     */
+    public int endSector(int site) {
+        return buffer.getInt(firstSectorBase + 4 * (site + 1));
+    }
+
+    public String sectorId(int sector) {
+        return string(buffer.getInt(sectorIdBase + 4 * sector));
+    }
+
+    public String sectorName(int sector) {
+        return string(buffer.getInt(sectorNameBase + 4 * sector));
+    }
+
+    /**
+     * @return Azimuth in degrees, or NaN if unknown
+     */
+    public double sectorAzimuth(int sector) {
+        short deci = buffer.getShort(azimuthBase + 2 * sector);
+        return deci == MISSING_AZIMUTH ? Double.NaN : deci / 10.0;
+    }
+
+    /**
+     * @return Index of the site with this id, or -1
+     */
+    public synchronized int indexOf(String siteId) {
+        if (siteIndex == null) {
+            siteIndex = new HashMap<>(siteCount * 2);
+            for (int i = 0; i < siteCount; i++) {
+                String id = siteId(i);
+                if (id != null) siteIndex.put(id, i);
+            }
+        }
+        Integer index = siteIndex.get(siteId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Towers in the shape the sites endpoint returns them (_id, name, type, location).
+     * Built once per snapshot; treat as read-only.
+     */
+    public synchronized List<Map<String, Object>> towers() {
+        if (towers == null) {
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (int i = 0; i < siteCount; i++) {
+                if (isTower(i)) list.add(siteMap(i));
+            }
+            towers = Collections.unmodifiableList(list);
+        }
+        return towers;
+    }
+
+    public Map<String, Object> siteMap(int site) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("_id", siteId(site));
+        map.put("name", siteName(site));
+        map.put("type", siteType(site));
+        double lat = latitude(site);
+        double lon = longitude(site);
+        if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
+            Map<String, Object> location = new HashMap<>();
+            location.put("latitude", lat);
+            location.put("longitude", lon);
+            map.put("location", location);
+        }
+        return map;
+    }
+
+    /**
+     * Sectors of a site in the shape the sectors endpoint returns them (_id, name, azimuth)
+     */
+    public List<Map<String, Object>> sectorMaps(int site) {
+        List<Map<String, Object>> sectors = new ArrayList<>();
+        for (int j = firstSector(site), end = endSector(site); j < end; j++) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("_id", sectorId(j));
+            map.put("name", sectorName(j));
+            double azimuth = sectorAzimuth(j);
+            if (!Double.isNaN(azimuth)) map.put("azimuth", azimuth);
+            sectors.add(map);
+        }
+        return sectors;
+    }
+
+    private String string(int index) {
+        if (index < 0 || index >= stringCount) return null;
+        String value = strings[index];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetBase + 4 * index);
+            int end = buffer.getInt(stringOffsetBase + 4 * (index + 1));
+            byte[] bytes = new byte[end - start];
+            ByteBuffer view = buffer.duplicate();
+            view.position(stringDataBase + start);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = value;
+        }
+        return value;
+    }
+}
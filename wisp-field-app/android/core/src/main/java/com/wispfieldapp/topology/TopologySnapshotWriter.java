@@ -0,0 +1,179 @@
+package com.wispfieldapp.topology;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link TopologySnapshot} file from the JSON maps returned by the sites
+ * and sectors endpoints. Repeated strings (site types, sector names like "Alpha")
+ * are stored once.
+ */
+public class TopologySnapshotWriter {
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private int stringBytes;
+
+    private TopologySnapshotWriter() {
+    }
+
+    /**
+     * Writes to a temporary file next to the target, then renames it into place
+     *
+     * @param sectorsBySite Sectors per site id; sites without an entry get none
+     */
+    public static void write(File target, List<Map<String, Object>> sites, Map<String, List<Map<String, Object>>> sectorsBySite)
+            throws IOException {
+        ByteBuffer buffer = new TopologySnapshotWriter().encode(sites, sectorsBySite);
+        File temp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.getChannel().write(buffer);
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Failed to replace " + target);
+        }
+    }
+
+    private ByteBuffer encode(List<Map<String, Object>> sites, Map<String, List<Map<String, Object>>> sectorsBySite) {
+        int siteCount = sites.size();
+        int[] lat = new int[siteCount];
+        int[] lon = new int[siteCount];
+        int[] siteId = new int[siteCount];
+        int[] siteName = new int[siteCount];
+        int[] siteType = new int[siteCount];
+        int[] firstSector = new int[siteCount + 1];
+        List<Map<String, Object>> sectors = new ArrayList<>();
+
+        for (int i = 0; i < siteCount; i++) {
+            Map<String, Object> site = sites.get(i);
+            double[] coordinates = coordinatesOf(site);
+            lat[i] = coordinates != null ? (int) Math.round(coordinates[0] * TopologySnapshot.E7) : TopologySnapshot.MISSING_COORDINATE;
+            lon[i] = coordinates != null ? (int) Math.round(coordinates[1] * TopologySnapshot.E7) : TopologySnapshot.MISSING_COORDINATE;
+            String id = asString(site.get("_id"));
+            siteId[i] = intern(id);
+            siteName[i] = intern(asString(site.get("name")));
+            siteType[i] = intern(asString(site.get("type")));
+            firstSector[i] = sectors.size();
+            List<Map<String, Object>> siteSectors = id != null ? sectorsBySite.get(id) : null;
+            sectors.addAll(siteSectors != null ? siteSectors : Collections.emptyList());
+        }
+        firstSector[siteCount] = sectors.size();
+
+        int sectorCount = sectors.size();
+        int[] sectorId = new int[sectorCount];
+        int[] sectorName = new int[sectorCount];
+        short[] azimuth = new short[sectorCount];
+        for (int j = 0; j < sectorCount; j++) {
+            Map<String, Object> sector = sectors.get(j);
+            sectorId[j] = intern(asString(sector.get("_id")));
+            sectorName[j] = intern(asString(sector.get("name")));
+            double degrees = asDouble(sector.get("azimuth"));
+            azimuth[j] = Double.isNaN(degrees)
+                ? TopologySnapshot.MISSING_AZIMUTH
+                : (short) Math.round((((degrees % 360) + 360) % 360) * 10);
+        }
+
+        int sitesBytes = 4 * (5 * siteCount + siteCount + 1);
+        int sectorsBytes = TopologySnapshot.align4(4 * 2 * sectorCount + 2 * sectorCount);
+        int stringsBytes = 4 * (strings.size() + 1) + stringBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(TopologySnapshot.HEADER_BYTES + sitesBytes + sectorsBytes + stringsBytes)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(TopologySnapshot.MAGIC)
+            .putShort(TopologySnapshot.VERSION)
+            .putShort((short) 0)
+            .putLong(System.currentTimeMillis())
+            .putInt(siteCount)
+            .putInt(sectorCount)
+            .putInt(strings.size())
+            .putInt(stringBytes);
+        putAll(buffer, lat);
+        putAll(buffer, lon);
+        putAll(buffer, siteId);
+        putAll(buffer, siteName);
+        putAll(buffer, siteType);
+        putAll(buffer, firstSector);
+        putAll(buffer, sectorId);
+        putAll(buffer, sectorName);
+        for (short value : azimuth) buffer.putShort(value);
+        buffer.position(TopologySnapshot.align4(buffer.position()));
+
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int offset = 0;
+        for (String value : strings) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : encoded) buffer.put(bytes);
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private int intern(String value) {
+        if (value == null) return -1;
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+            stringBytes += value.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return index;
+    }
+
+    private static void putAll(ByteBuffer buffer, int[] values) {
+        for (int value : values) buffer.putInt(value);
+    }
+
+    /**
+     * @return {latitude, longitude} from location.latitude/longitude or location.coordinates, or null
+     */
+    @SuppressWarnings("unchecked")
+    static double[] coordinatesOf(Map<String, Object> site) {
+        Object locationObj = site.get("location");
+        if (!(locationObj instanceof Map)) return null;
+        Map<String, Object> location = (Map<String, Object>) locationObj;
+        Object latObj = location.get("latitude");
+        Object lonObj = location.get("longitude");
+        if ((latObj == null || lonObj == null) && location.get("coordinates") instanceof Map) {
+            Map<String, Object> coordinates = (Map<String, Object>) location.get("coordinates");
+            latObj = coordinates.get("latitude");
+            lonObj = coordinates.get("longitude");
+        }
+        double lat = asDouble(latObj);
+        double lon = asDouble(lonObj);
+        if (Double.isNaN(lat) || Double.isNaN(lon)) return null;
+        return new double[] {lat, lon};
+    }
+
+    private static double asDouble(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value == null) return Double.NaN;
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
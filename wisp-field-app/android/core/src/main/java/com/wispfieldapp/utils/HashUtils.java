@@ -0,0 +1,61 @@
+package com.wispfieldapp.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public class HashUtils {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * SHA-256 of a whole file, streamed from disk
+     * @return Lowercase hex digest
+     */
+    public static String sha256(File file) throws IOException {
+        return sha256(file, 0, file.length());
+    }
+
+    /**
+     * SHA-256 of a byte range of a file, streamed from disk
+     * @param offset First byte of the range
+     * @param length Number of bytes in the range
+     * @return Lowercase hex digest
+     */
+    public static String sha256(File file, long offset, long length) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(offset);
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IOException("Unexpected end of " + file + " at " + (offset + length - remaining));
+                }
+                digest.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Guaranteed on every Android/JVM platform
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+            hex.append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package com.wispfieldapp.aiming;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+
+public class AimingSessionCodecTest {
+    // Half a centidegree, plus float rounding
+    private static final double ANGLE_DELTA = 0.0051;
+
+    @Test
+    public void roundTripsWithinQuantization() throws IOException {
+        AimingRecorder recorder = new AimingRecorder(2000);
+        Random random = new Random(7);
+        long t = 1_700_000_000_000L;
+        float heading = 350;
+        for (int i = 0; i < 1500; i++) {
+            t += 50 + random.nextInt(30);
+            // Sweeps back and forth across north
+            heading = (float) ((heading + random.nextGaussian() * 2 + 360) % 360);
+            float pitch = i < 10 ? Float.NaN : (float) (random.nextGaussian() * 5);
+            float accuracy = i < 20 ? -1 : 3 + random.nextFloat() * 10;
+            recorder.add(t, heading, pitch, 39.7392 + i * 1e-6, -104.9903 - i * 1e-6, accuracy);
+        }
+
+        AimingRecorder decoded = AimingSessionCodec.decode(AimingSessionCodec.encode(recorder));
+
+        assertEquals(recorder.size(), decoded.size());
+        assertEquals(recorder.size(), decoded.capacity());
+        for (int i = 0; i < recorder.size(); i++) {
+            assertEquals(recorder.time(i), decoded.time(i));
+            assertEquals(0, angleDiff(recorder.heading(i), decoded.heading(i)), ANGLE_DELTA);
+            if (Float.isNaN(recorder.pitch(i))) {
+                assertTrue(Float.isNaN(decoded.pitch(i)));
+            } else {
+                assertEquals(recorder.pitch(i), decoded.pitch(i), ANGLE_DELTA);
+            }
+            assertEquals(recorder.latitude(i), decoded.latitude(i), 1e-7);
+            assertEquals(recorder.longitude(i), decoded.longitude(i), 1e-7);
+            if (recorder.accuracy(i) < 0) {
+                assertEquals(-1, decoded.accuracy(i), 0);
+            } else {
+                assertEquals(recorder.accuracy(i), decoded.accuracy(i), 0.05);
+            }
+        }
+    }
+
+    @Test
+    public void keepsOnlyTheRetainedWindowAndDropCount() throws IOException {
+        AimingRecorder recorder = new AimingRecorder(100);
+        for (int i = 0; i < 250; i++) recorder.record(i * 100L, i % 360, 1.5f);
+
+        AimingRecorder decoded = AimingSessionCodec.decode(AimingSessionCodec.encode(recorder));
+
+        assertEquals(100, decoded.size());
+        assertEquals(150, decoded.dropped());
+        assertEquals(15_000, decoded.time(0));
+        assertEquals(150, decoded.heading(0), 0);
+    }
+
+    @Test
+    public void compressesASteadySession() {
+        AimingRecorder recorder = new AimingRecorder(AimingRecorder.DEFAULT_CAPACITY);
+        for (int i = 0; i < AimingRecorder.DEFAULT_CAPACITY; i++) {
+            recorder.add(i * 50L, 127.5f + (i % 7) * 0.1f, 2.25f, 39.7392, -104.9903, 4.5f);
+        }
+
+        byte[] blob = AimingSessionCodec.encode(recorder);
+
+        // Ten minutes at 20 Hz; the raw arrays are about 400 KB
+        assertTrue(blob.length + " bytes", blob.length < 4 * 1024);
+    }
+
+    @Test
+    public void jitteryTenMinuteSessionStaysSmall() {
+        Random random = new Random(42);
+        AimingRecorder recorder = new AimingRecorder();
+        long t = 1_700_000_000_000L;
+        for (int i = 0; i < AimingRecorder.DEFAULT_CAPACITY; i++) {
+            if (i % 20 == 0) {
+                recorder.setFix(40.5 + random.nextGaussian() * 2e-5, -104.5 + random.nextGaussian() * 2e-5,
+                    3 + random.nextInt(50) / 10f);
+            }
+            float heading = (float) (350 + 20 * Math.sin(i / 400.0) + random.nextGaussian() * 0.8 + 360) % 360;
+            t += AimingRecorder.MIN_INTERVAL_MS + random.nextInt(15);
+            recorder.record(t, heading, (float) (2 + random.nextGaussian() * 0.3));
+        }
+
+        byte[] blob = AimingSessionCodec.encode(recorder);
+
+        assertEquals(AimingRecorder.DEFAULT_CAPACITY, recorder.size());
+        // About 430 KB as raw arrays; about 40 KB encoded
+        assertTrue(blob.length + " bytes", blob.length < 48 * 1024);
+    }
+
+    @Test
+    public void unknownFixAccuracyStaysUnknown() throws IOException {
+        AimingRecorder recorder = new AimingRecorder(10);
+        recorder.setFix(40.5, -104.5, -1);
+        recorder.record(0, 90, 0);
+        recorder.setFix(40.5, -104.5, 0);
+        recorder.record(100, 90, 0);
+
+        AimingRecorder decoded = AimingSessionCodec.decode(AimingSessionCodec.encode(recorder));
+
+        assertEquals(-1, decoded.accuracy(0), 0);
+        assertEquals(0, decoded.accuracy(1), 0);
+    }
+
+    @Test
+    public void emptySessionRoundTrips() throws IOException {
+        AimingRecorder decoded = AimingSessionCodec.decode(AimingSessionCodec.encode(new AimingRecorder(10)));
+
+        assertEquals(0, decoded.size());
+    }
+
+    @Test
+    public void startsWithMagic() {
+        byte[] blob = AimingSessionCodec.encode(new AimingRecorder(10));
+        byte[] magic = new byte[4];
+        System.arraycopy(blob, 0, magic, 0, 4);
+
+        assertArrayEquals("AIM1".getBytes(StandardCharsets.US_ASCII), magic);
+    }
+
+    @Test
+    public void rejectsOtherBlobs() {
+        try {
+            AimingSessionCodec.decode("{\"samples\":[]}".getBytes(StandardCharsets.UTF_8));
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            assertEquals("Not an aiming session", expected.getMessage());
+        }
+    }
+
+    private static double angleDiff(double a, double b) {
+        double diff = (a - b) % 360;
+        if (diff > 180) diff -= 360;
+        if (diff < -180) diff += 360;
+        return diff;
+    }
+}
@@ -0,0 +1,88 @@
+package com.wispfieldapp.aiming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class HeadingLockTest {
+    private static final long STEP_MS = 50;
+
+    private HeadingLock lock;
+    private long time;
+
+    @Before
+    public void setUp() {
+        lock = new HeadingLock(5);
+        lock.setTarget(90);
+    }
+
+    @Test
+    public void locksOnlyAfterTheHoldTime() {
+        assertFalse(feed(92, HeadingLock.HOLD_MS - STEP_MS));
+
+        assertTrue(feed(92, 2 * STEP_MS));
+        assertEquals(2, lock.offsetDeg(), 0.01);
+    }
+
+    @Test
+    public void staysLockedInsideTheReleaseMargin() {
+        feed(90, 1000);
+        assertTrue(lock.isLocked());
+
+        // Past the 5° tolerance but within the 2° release margin
+        assertTrue(feed(96.5, 1500));
+    }
+
+    @Test
+    public void unlocksPastTheReleaseMargin() {
+        feed(90, 1000);
+
+        assertFalse(feed(98, 1500));
+
+        // Back within tolerance the hold starts over
+        assertFalse(feed(91, HeadingLock.HOLD_MS - STEP_MS));
+        assertTrue(feed(91, 1000));
+    }
+
+    @Test
+    public void jitterPreventsTheLock() {
+        for (long end = time + 2000; time < end; time += STEP_MS) {
+            // ±10° swings average to the target but are far from steady
+            assertFalse(lock.update(time, (time / STEP_MS) % 2 == 0 ? 80 : 100));
+        }
+        assertTrue(lock.circularVariance() > HeadingLock.MAX_VARIANCE);
+    }
+
+    @Test
+    public void meanWrapsAroundNorth() {
+        lock.setTarget(0);
+        for (long end = time + 1000; time < end; time += STEP_MS) {
+            lock.update(time, (time / STEP_MS) % 2 == 0 ? 359 : 1);
+        }
+
+        assertEquals(0, lock.offsetDeg(), 0.01);
+        assertTrue(lock.isLocked());
+    }
+
+    @Test
+    public void clearingTheTargetUnlocks() {
+        feed(90, 1000);
+
+        lock.clearTarget();
+
+        assertFalse(lock.isLocked());
+        assertFalse(feed(90, 1000));
+    }
+
+    /**
+     * @return Whether the lock holds after feeding the heading for the given time
+     */
+    private boolean feed(double heading, long durationMs) {
+        boolean locked = false;
+        for (long end = time + durationMs; time < end; time += STEP_MS) locked = lock.update(time, heading);
+        return locked;
+    }
+}
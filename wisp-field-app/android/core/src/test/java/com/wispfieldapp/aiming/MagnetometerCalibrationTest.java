@@ -0,0 +1,110 @@
+package com.wispfieldapp.aiming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MagnetometerCalibrationTest {
+    private static final double FIELD_UT = 50;
+    // Hard-iron offset of a magnet in the phone case
+    private static final double[] OFFSET = {12, -7, 9};
+
+    private final float[] corrected = new float[3];
+    private MagnetometerCalibration calibration;
+
+    @Before
+    public void setUp() {
+        calibration = new MagnetometerCalibration();
+        calibration.setExpectedField(FIELD_UT);
+    }
+
+    @Test
+    public void recoversAKnownOffset() {
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            double[] direction = randomDirection(random);
+            calibration.update(reading(direction, 0.3, random), corrected);
+        }
+
+        assertTrue(calibration.isCalibrated());
+        double expected = Math.sqrt(OFFSET[0] * OFFSET[0] + OFFSET[1] * OFFSET[1] + OFFSET[2] * OFFSET[2]);
+        assertEquals(expected, calibration.getOffsetMicroTesla(), 0.5);
+
+        double[] north = {0, 1, 0};
+        calibration.update(reading(north, 0, random), corrected);
+        assertEquals(0, corrected[0], 0.5);
+        assertEquals(FIELD_UT, corrected[1], 0.5);
+        assertEquals(0, corrected[2], 0.5);
+        assertEquals(MagnetometerCalibration.Status.OK, calibration.getStatus());
+    }
+
+    @Test
+    public void turningAboutOneAxisIsNotEnough() {
+        // Flat on a table: readings only move in the x-y plane
+        for (int i = 0; i < 200; i++) {
+            double angle = Math.toRadians(i * 23);
+            calibration.update(reading(new double[] {Math.cos(angle), Math.sin(angle), 0}, 0, null), corrected);
+        }
+
+        assertFalse(calibration.isCalibrated());
+        assertEquals(0, calibration.getOffsetMicroTesla(), 0);
+    }
+
+    @Test
+    public void holdingStillDoesNotFillTheFit() {
+        Random random = new Random(5);
+        double[] direction = randomDirection(random);
+        for (int i = 0; i < 500; i++) calibration.update(reading(direction, 0.3, random), corrected);
+
+        assertFalse(calibration.isCalibrated());
+    }
+
+    @Test
+    public void flagsAndClearsInterference() {
+        Random random = new Random(9);
+        for (int i = 0; i < 200; i++) calibration.update(reading(randomDirection(random), 0.3, random), corrected);
+
+        float[] nearSteel = {(float) (OFFSET[0] + 80), (float) OFFSET[1], (float) OFFSET[2]};
+        for (int i = 0; i < 50; i++) calibration.update(nearSteel, corrected);
+        assertEquals(MagnetometerCalibration.Status.INTERFERENCE, calibration.getStatus());
+        assertTrue(calibration.getStatus().blocking);
+
+        double[] east = {1, 0, 0};
+        for (int i = 0; i < 50; i++) calibration.update(reading(east, 0, null), corrected);
+        assertEquals(MagnetometerCalibration.Status.OK, calibration.getStatus());
+    }
+
+    @Test
+    public void reportsSensorAccuracy() {
+        calibration.setAccuracy(MagnetometerCalibration.ACCURACY_UNRELIABLE);
+        assertEquals(MagnetometerCalibration.Status.UNRELIABLE, calibration.getStatus());
+
+        calibration.setAccuracy(MagnetometerCalibration.ACCURACY_LOW);
+        assertEquals(MagnetometerCalibration.Status.LOW_ACCURACY, calibration.getStatus());
+        assertFalse(calibration.getStatus().blocking);
+    }
+
+    private static double[] randomDirection(Random random) {
+        double x = random.nextGaussian();
+        double y = random.nextGaussian();
+        double z = random.nextGaussian();
+        double norm = Math.sqrt(x * x + y * y + z * z);
+        return new double[] {x / norm, y / norm, z / norm};
+    }
+
+    /**
+     * The earth's field along a direction, plus the offset and optional sensor noise
+     */
+    private static float[] reading(double[] direction, double noiseUt, Random random) {
+        float[] reading = new float[3];
+        for (int axis = 0; axis < 3; axis++) {
+            double noise = random != null ? random.nextGaussian() * noiseUt : 0;
+            reading[axis] = (float) (FIELD_UT * direction[axis] + OFFSET[axis] + noise);
+        }
+        return reading;
+    }
+}
@@ -0,0 +1,97 @@
+package com.wispfieldapp.geofence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeofenceEngineTest {
+    private static final double METERS_PER_DEG = 6371000 * Math.PI / 180;
+    private static final double SITE_LAT = 39.7392;
+    private static final double SITE_LON = -104.9903;
+
+    private final List<String> events = new ArrayList<>();
+    private final GeofenceEngine.Listener listener = new GeofenceEngine.Listener() {
+        @Override
+        public void onEnter(int site, double distanceM) {
+            events.add("enter " + site);
+        }
+
+        @Override
+        public void onExit(int site) {
+            events.add("exit " + site);
+        }
+    };
+    private GeofenceEngine engine;
+
+    @Before
+    public void setUp() {
+        // Site 1 has no coordinates and is never fenced
+        engine = new GeofenceEngine(new double[] {SITE_LAT, Double.NaN, SITE_LAT + 0.5},
+            new double[] {SITE_LON, Double.NaN, SITE_LON}, GeofenceEngine.DEFAULT_RADIUS_M);
+    }
+
+    @Test
+    public void entersWithinTheRadius() {
+        engine.update(SITE_LAT + north(160), SITE_LON, 5, listener);
+        assertTrue(events.isEmpty());
+        assertEquals(10, engine.nearestEdgeM(), 0.5);
+
+        engine.update(SITE_LAT + north(149), SITE_LON, 5, listener);
+
+        assertEquals(List.of("enter 0"), events);
+        assertTrue(engine.isInside(0));
+        assertEquals(2, engine.size());
+    }
+
+    @Test
+    public void exitsOnlyPastTheMargin() {
+        engine.update(SITE_LAT, SITE_LON, 5, listener);
+
+        // Jitter between 150 and 200 m keeps the tech on site
+        engine.update(SITE_LAT + north(180), SITE_LON, 5, listener);
+        engine.update(SITE_LAT + north(199), SITE_LON, 5, listener);
+        assertEquals(List.of("enter 0"), events);
+
+        engine.update(SITE_LAT + north(201), SITE_LON, 5, listener);
+
+        assertEquals(List.of("enter 0", "exit 0"), events);
+        assertFalse(engine.isInside(0));
+    }
+
+    @Test
+    public void measuresEastWestDistanceAtTheSitesLatitude() {
+        double eastDeg = 149 / (METERS_PER_DEG * Math.cos(Math.toRadians(SITE_LAT)));
+
+        engine.update(SITE_LAT, SITE_LON + eastDeg, 5, listener);
+
+        assertEquals(List.of("enter 0"), events);
+    }
+
+    @Test
+    public void ignoresInaccurateFixes() {
+        assertFalse(engine.update(SITE_LAT, SITE_LON, GeofenceEngine.MAX_ACCURACY_M + 1, listener));
+        assertFalse(engine.update(SITE_LAT, SITE_LON, Double.NaN, listener));
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void findsSitesAcrossCellBoundaries() {
+        // The fix and the site sit in neighbouring grid cells
+        double siteLat = 40.0 - north(20);
+        GeofenceEngine edge = new GeofenceEngine(new double[] {siteLat}, new double[] {SITE_LON}, 150);
+
+        edge.update(40.0 + north(100), SITE_LON, 5, listener);
+
+        assertEquals(List.of("enter 0"), events);
+    }
+
+    private static double north(double meters) {
+        return meters / METERS_PER_DEG;
+    }
+}
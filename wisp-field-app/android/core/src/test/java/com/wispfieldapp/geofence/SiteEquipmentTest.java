@@ -0,0 +1,43 @@
+package com.wispfieldapp.geofence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class SiteEquipmentTest {
+
+    @Test
+    public void keepsOnlyTheSitesItemsFromAMixedResponse() {
+        List<Map<String, Object>> response = new ArrayList<>();
+        response.add(item("radio-1", "site-a"));
+        response.add(item("radio-2", "site-b"));
+        response.add(item("router-1", null));
+        Map<String, Object> populated = new HashMap<>();
+        populated.put("_id", "site-a");
+        populated.put("name", "Mesa Tower");
+        response.add(item("switch-1", populated));
+
+        List<Map<String, Object>> cached = SiteEquipment.at(response, "site-a");
+
+        assertEquals(2, cached.size());
+        assertEquals("radio-1", cached.get(0).get("_id"));
+        assertEquals("switch-1", cached.get(1).get("_id"));
+    }
+
+    @Test
+    public void toleratesAMissingList() {
+        assertTrue(SiteEquipment.at(null, "site-a").isEmpty());
+    }
+
+    private static Map<String, Object> item(String id, Object siteId) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("_id", id);
+        if (siteId != null) item.put("siteId", siteId);
+        return item;
+    }
+}
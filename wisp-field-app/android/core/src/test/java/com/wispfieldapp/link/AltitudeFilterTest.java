@@ -0,0 +1,72 @@
+package com.wispfieldapp.link;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AltitudeFilterTest {
+    private static final double GROUND_M = 1650;
+    private static final double DEM_SIGMA_M = 8;
+
+    private AltitudeFilter filter;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        filter = new AltitudeFilter();
+        random = new Random(1);
+    }
+
+    @Test
+    public void unbiasedFixesConvergeToTheMinimumSigma() {
+        feed(120, 0, 0);
+
+        assertEquals(GROUND_M, filter.getEstimate(), 5);
+        assertEquals(AltitudeFilter.MIN_SIGMA_M, filter.getSigma(), 1e-9);
+    }
+
+    @Test
+    public void sharedBiasKeepsTheSigmaAtTheBias() {
+        // Ellipsoid height 17 m below sea level on every fix, as without MSL altitude
+        feed(120, -17, 30);
+
+        // The bias doesn't make the estimate noisier, only less trusted
+        assertEquals(GROUND_M - 17, filter.getEstimate(), 5);
+        assertEquals(30, filter.getSigma(), 1e-9);
+    }
+
+    @Test
+    public void demOutweighsABiasedEstimate() {
+        feed(120, -17, 30);
+
+        double fused = filter.fuse(GROUND_M, DEM_SIGMA_M);
+
+        // At the 5 m floor this came out about 12 m low
+        assertTrue("fused " + fused, Math.abs(fused - GROUND_M) < 3);
+    }
+
+    @Test
+    public void firstFixIsNoBetterThanTheBias() {
+        filter.update(GROUND_M, 4, 30, 0);
+
+        assertEquals(30, filter.getSigma(), 1e-9);
+    }
+
+    @Test
+    public void unknownAccuracyUsesTheDefault() {
+        filter.update(GROUND_M, Double.NaN, 0, 0);
+
+        assertEquals(AltitudeFilter.DEFAULT_ACCURACY_M, filter.getSigma(), 1e-9);
+        assertEquals(GROUND_M, filter.fuse(Double.NaN, DEM_SIGMA_M), 0);
+    }
+
+    private void feed(int fixes, double offsetM, double biasSigmaM) {
+        for (int i = 0; i < fixes; i++) {
+            double altitude = GROUND_M + offsetM + random.nextGaussian() * 10;
+            filter.update(altitude, 10, biasSigmaM, i * 1000L);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.wispfieldapp.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.util.List;
+import org.junit.Test;
+
+public class WorkOrderDecodingTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    public void codeFieldsShareOneInstancePerValue() {
+        List<WorkOrder> orders = decode("[{\"status\":\"open\",\"priority\":\"high\",\"type\":\"repair\"},"
+            + "{\"status\":\"open\",\"priority\":\"high\",\"type\":\"repair\"}]");
+
+        assertSame(orders.get(0).status, orders.get(1).status);
+        assertSame(orders.get(0).priority, orders.get(1).priority);
+        assertSame(orders.get(0).type, orders.get(1).type);
+        assertSame(CanonicalStrings.of(new String("open")), orders.get(0).status);
+    }
+
+    @Test
+    public void unknownStatusIsKeptRaw() {
+        WorkOrder order = gson.fromJson("{\"status\":\"escalated\"}", WorkOrder.class);
+
+        assertEquals("escalated", order.status);
+        assertEquals(WorkOrderStatus.UNKNOWN, order.statusCode());
+        // Written back as received
+        assertEquals("{\"status\":\"escalated\"}", gson.toJson(order));
+    }
+
+    @Test
+    public void knownStatusesMapIgnoringCase() {
+        assertEquals(WorkOrderStatus.IN_PROGRESS, gson.fromJson("{\"status\":\"In-Progress\"}", WorkOrder.class).statusCode());
+        assertEquals(WorkOrderStatus.UNKNOWN, gson.fromJson("{}", WorkOrder.class).statusCode());
+    }
+
+    @Test
+    public void nullAndBooleanCodesDecode() {
+        WorkOrder order = gson.fromJson("{\"status\":null,\"priority\":true}", WorkOrder.class);
+
+        assertNull(order.status);
+        assertEquals("true", order.priority);
+    }
+
+    private List<WorkOrder> decode(String json) {
+        return gson.fromJson(json, new TypeToken<List<WorkOrder>>() {}.getType());
+    }
+}
@@ -0,0 +1,87 @@
+package com.wispfieldapp.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SearchIndexTest {
+    private SearchIndex<String> index;
+
+    @Before
+    public void setUp() {
+        index = new SearchIndex<>();
+        // Fields are name, then site id
+        index.put("1", "Partridge Hill", "Partridge Hill", "site-101");
+        index.put("2", "North Ridge", "North Ridge", "site-102");
+        index.put("3", "Ridge Tower", "Ridge Tower", "site-103");
+        index.put("4", "Ridge", "Ridge", "site-104");
+        index.put("5", "Mesa", "Mesa", "ridge-7");
+    }
+
+    @Test
+    public void ranksExactThenPrefixThenWordThenSubstring() {
+        assertEquals(List.of("Ridge", "Ridge Tower", "North Ridge", "Mesa", "Partridge Hill"),
+            index.search("ridge", 10));
+    }
+
+    @Test
+    public void earlierFieldsOutrankLaterOnes() {
+        index.put("6", "Ridgeline", "Ridgeline", "site-106");
+
+        List<String> results = index.search("ridge", 10);
+
+        // A prefix of the name beats the same prefix of the id
+        assertTrue(results.indexOf("Ridgeline") < results.indexOf("Mesa"));
+    }
+
+    @Test
+    public void tiesKeepInsertionOrder() {
+        index.put("7", "Ridge", "Ridge", "site-107");
+
+        List<String> results = index.search("ridge", 2);
+
+        assertEquals(List.of("Ridge", "Ridge"), results);
+        assertEquals("Ridge", index.get("4"));
+    }
+
+    @Test
+    public void everyTokenMustMatch() {
+        assertEquals(List.of("North Ridge"), index.search("rid nor", 10));
+        assertTrue(index.search("ridge valley", 10).isEmpty());
+    }
+
+    @Test
+    public void shortTokensOnlyMatchWordStarts() {
+        assertEquals(List.of("Ridge", "Ridge Tower", "North Ridge", "Mesa"), index.search("ri", 10));
+    }
+
+    @Test
+    public void ignoresCaseAndPunctuation() {
+        assertEquals(List.of("Mesa"), index.search("RIDGE-7", 10));
+    }
+
+    @Test
+    public void blankQueryListsEverythingInInsertionOrder() {
+        assertEquals(List.of("Partridge Hill", "North Ridge", "Ridge Tower"), index.search("  ", 3));
+    }
+
+    @Test
+    public void replacingAndRemovingUpdateTheIndex() {
+        index.put("4", "Ridge Relay", "Ridge Relay", "site-104");
+        index.remove("3");
+
+        assertEquals(List.of("Ridge Relay"), index.search("relay", 10));
+        assertTrue(index.search("tower", 10).isEmpty());
+        assertNull(index.get("3"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void limitKeepsTheBestMatches() {
+        assertEquals(List.of("Ridge", "Ridge Tower"), index.search("ridge", 2));
+    }
+}
@@ -0,0 +1,83 @@
+package com.wispfieldapp.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HgtTileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void namesTilesBySouthWestCorner() {
+        assertEquals("N40W105.hgt", HgtTile.nameFor(40, -105));
+        assertEquals("S09E007.hgt", HgtTile.nameFor(-9, 7));
+    }
+
+    @Test
+    public void interpolatesBetweenSamples() throws IOException {
+        // A plane, so bilinear interpolation is exact
+        File file = SyntheticTiles.write(folder.getRoot(), 40, -105, (row, col) -> 1000 + row + 2 * col);
+        HgtTile tile = HgtTile.open(file, 40, -105);
+        double step = tile.getResolutionDegrees();
+
+        assertEquals(SyntheticTiles.SIZE, tile.getSize());
+        // North-west corner is the first sample
+        assertEquals(1000, tile.elevation(41, -105), 1e-9);
+        assertEquals(1000 + 10 + 2 * 20, tile.elevation(41 - 10 * step, -105 + 20 * step), 1e-6);
+        assertEquals(1000 + 10.5 + 2 * 20.25, tile.elevation(41 - 10.5 * step, -105 + 20.25 * step), 1e-6);
+        // South-east corner
+        assertEquals(1000 + 1200 + 2 * 1200, tile.elevation(40, -104), 1e-6);
+        assertTrue(Double.isNaN(tile.elevation(41.01, -104.5)));
+        assertTrue(tile.contains(40.5, -104.5));
+        assertFalse(tile.contains(41, -104.5));
+    }
+
+    @Test
+    public void voidsReadAsNoData() throws IOException {
+        File file = SyntheticTiles.write(folder.getRoot(), 40, -105,
+            (row, col) -> row == 600 && col == 600 ? HgtTile.VOID : 1500);
+        HgtTile tile = HgtTile.open(file, 40, -105);
+        double step = tile.getResolutionDegrees();
+
+        assertTrue(Double.isNaN(tile.elevation(41 - 600.5 * step, -105 + 599.5 * step)));
+        assertEquals(1500, tile.elevation(41 - 602.5 * step, -105 + 599.5 * step), 1e-9);
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotSquareGrids() throws IOException {
+        File file = folder.newFile(HgtTile.nameFor(40, -105));
+        Files.write(file.toPath(), new byte[1000]);
+
+        try {
+            HgtTile.open(file, 40, -105);
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().startsWith("Not an SRTM tile"));
+        }
+    }
+
+    @Test
+    public void cacheKeepsTilesMappedAndRemembersMissingOnes() throws IOException {
+        SyntheticTiles.write(folder.getRoot(), 40, -105, (row, col) -> 1500);
+        TileCache cache = new TileCache(folder.getRoot(), 2);
+
+        HgtTile tile = cache.tileFor(40.5, -104.5);
+
+        assertSame(tile, cache.tileFor(40.9, -104.1));
+        assertEquals(1, cache.getLoads());
+        assertEquals(1, cache.getHits());
+        assertNull(cache.tileFor(41.5, -104.5));
+        assertEquals(1500, cache.elevation(40.25, -104.75), 1e-9);
+    }
+}
@@ -0,0 +1,74 @@
+package com.wispfieldapp.terrain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LineOfSightTest {
+    private static final int GROUND_M = 1000;
+    // A 5 km east-west path at 5.8 GHz; the midpoint Fresnel radius is about 8 m
+    private static final double LAT = 40.5;
+    private static final double WEST_END = -104.53;
+    private static final double EAST_END = -104.47;
+    private static final double FREQUENCY_MHZ = 5800;
+    private static final double MAST_M = 30;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void flatGroundIsClear() throws IOException {
+        LineOfSight.Result result = check(ridge(0));
+
+        assertEquals(LineOfSight.Verdict.CLEAR, result.verdict);
+        assertEquals(5070, result.lengthMeters, 30);
+        assertEquals(GROUND_M, result.startGround, 1e-9);
+        assertEquals(0, result.missingSamples);
+    }
+
+    @Test
+    public void ridgeIntoTheFresnelZoneIsPartial() throws IOException {
+        // The line is 30 m up; 27 m of ridge plus the earth bulge leaves ~2.6 m of ~8 m
+        LineOfSight.Result result = check(ridge(27));
+
+        assertEquals(LineOfSight.Verdict.PARTIAL, result.verdict);
+        assertTrue(result.worstFraction > 0 && result.worstFraction < LineOfSight.CLEAR_FRACTION);
+        assertEquals(2535, result.worstDistanceMeters, 100);
+    }
+
+    @Test
+    public void ridgeAboveTheLineIsBlocked() throws IOException {
+        LineOfSight.Result result = check(ridge(40));
+
+        assertEquals(LineOfSight.Verdict.BLOCKED, result.verdict);
+        assertEquals(-10.4, result.worstClearanceMeters, 0.5);
+        assertTrue(result.summary(), result.summary().startsWith("Blocked: terrain 10 m"));
+    }
+
+    @Test
+    public void pathOffTheTilesHasNoData() throws IOException {
+        SyntheticTiles.write(folder.getRoot(), 40, -105, ridge(0));
+
+        LineOfSight.Result result = LineOfSight.check(new TileCache(folder.getRoot(), 2),
+            41.5, WEST_END, MAST_M, 41.5, EAST_END, MAST_M, FREQUENCY_MHZ);
+
+        assertEquals(LineOfSight.Verdict.NO_DATA, result.verdict);
+    }
+
+    private LineOfSight.Result check(SyntheticTiles.Terrain terrain) throws IOException {
+        SyntheticTiles.write(folder.getRoot(), 40, -105, terrain);
+        return LineOfSight.check(new TileCache(folder.getRoot(), 2),
+            LAT, WEST_END, MAST_M, LAT, EAST_END, MAST_M, FREQUENCY_MHZ);
+    }
+
+    /**
+     * Flat ground with a flat-topped north-south ridge a few samples wide at -104.5
+     */
+    private static SyntheticTiles.Terrain ridge(int heightM) {
+        return (row, col) -> Math.abs(col - 600) <= 2 ? GROUND_M + heightM : GROUND_M;
+    }
+}
@@ -0,0 +1,31 @@
+package com.wispfieldapp.terrain;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes 3 arc-second tiles in SRTM layout (big-endian, north row first) for tests
+ */
+final class SyntheticTiles {
+    static final int SIZE = 1201;
+
+    interface Terrain {
+        int height(int row, int col);
+    }
+
+    private SyntheticTiles() {
+    }
+
+    static File write(File dir, int south, int west, Terrain terrain) throws IOException {
+        File file = new File(dir, HgtTile.nameFor(south, west));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int row = 0; row < SIZE; row++) {
+                for (int col = 0; col < SIZE; col++) out.writeShort(terrain.height(row, col));
+            }
+        }
+        return file;
+    }
+}
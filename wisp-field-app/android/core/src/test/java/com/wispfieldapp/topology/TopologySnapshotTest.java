@@ -0,0 +1,131 @@
+package com.wispfieldapp.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TopologySnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsSitesAndSectors() throws IOException {
+        File file = folder.newFile("topology.bin");
+        List<Map<String, Object>> sites = new ArrayList<>();
+        sites.add(site("t1", "Água Fria Tower", "tower", 39.7392, -104.9903));
+        sites.add(site("c1", "Customer 1", "customer", Double.NaN, Double.NaN));
+        sites.add(site("t2", "Mesa Tower", "Tower", 40.0150, -105.2705));
+        Map<String, List<Map<String, Object>>> sectors = new HashMap<>();
+        sectors.put("t1", List.of(sector("s1", "North", 0), sector("s2", "South", 180.25)));
+        sectors.put("t2", List.of(sector("s3", "East", -90)));
+
+        TopologySnapshotWriter.write(file, sites, sectors);
+        TopologySnapshot snapshot = TopologySnapshot.open(file);
+
+        assertEquals(3, snapshot.siteCount());
+        assertEquals(3, snapshot.sectorCount());
+        assertEquals("Água Fria Tower", snapshot.siteName(0));
+        assertEquals(39.7392, snapshot.latitude(0), 1e-7);
+        assertEquals(-104.9903, snapshot.longitude(0), 1e-7);
+        assertTrue(Double.isNaN(snapshot.latitude(1)));
+        assertFalse(snapshot.isTower(1));
+        assertTrue(snapshot.isTower(2));
+
+        assertEquals(0, snapshot.firstSector(0));
+        assertEquals(2, snapshot.endSector(0));
+        assertEquals(snapshot.firstSector(1), snapshot.endSector(1));
+        assertEquals("South", snapshot.sectorName(1));
+        assertEquals(180.3, snapshot.sectorAzimuth(1), 1e-9);
+        // Azimuths are stored normalized to 0-360
+        assertEquals(270, snapshot.sectorAzimuth(2), 1e-9);
+
+        assertEquals(2, snapshot.indexOf("t2"));
+        assertEquals(-1, snapshot.indexOf("missing"));
+        assertEquals(2, snapshot.towers().size());
+    }
+
+    @Test
+    public void keepsMissingValuesMissing() throws IOException {
+        File file = folder.newFile("topology.bin");
+        Map<String, Object> site = new HashMap<>();
+        site.put("_id", "t1");
+        Map<String, Object> sector = new HashMap<>();
+        sector.put("_id", "s1");
+
+        TopologySnapshotWriter.write(file, List.of(site), Map.of("t1", List.of(sector)));
+        TopologySnapshot snapshot = TopologySnapshot.open(file);
+
+        assertNull(snapshot.siteName(0));
+        assertNull(snapshot.siteType(0));
+        assertTrue(Double.isNaN(snapshot.sectorAzimuth(0)));
+        assertFalse(snapshot.sectorMaps(0).get(0).containsKey("azimuth"));
+        assertFalse(snapshot.siteMap(0).containsKey("location"));
+    }
+
+    @Test
+    public void rejectsATruncatedFile() throws IOException {
+        File file = folder.newFile("topology.bin");
+        TopologySnapshotWriter.write(file, List.of(site("t1", "Tower", "tower", 39.7, -104.9)), Map.of());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // As if the download or the disk gave out partway
+            raf.setLength(raf.length() - 3);
+        }
+
+        try {
+            TopologySnapshot.open(file);
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            assertEquals("Truncated topology snapshot", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        File file = folder.newFile("topology.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write("{\"sites\":[],\"sectors\":[],\"padding\":0}".getBytes("UTF-8"));
+        }
+
+        try {
+            TopologySnapshot.open(file);
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            assertEquals("Not a topology snapshot", expected.getMessage());
+        }
+    }
+
+    private static Map<String, Object> site(String id, String name, String type, double lat, double lon) {
+        Map<String, Object> site = new HashMap<>();
+        site.put("_id", id);
+        site.put("name", name);
+        site.put("type", type);
+        if (!Double.isNaN(lat)) {
+            Map<String, Object> location = new HashMap<>();
+            location.put("latitude", lat);
+            location.put("longitude", lon);
+            site.put("location", location);
+        }
+        return site;
+    }
+
+    private static Map<String, Object> sector(String id, String name, double azimuth) {
+        Map<String, Object> sector = new HashMap<>();
+        sector.put("_id", id);
+        sector.put("name", name);
+        sector.put("azimuth", azimuth);
+        return sector;
+    }
+}